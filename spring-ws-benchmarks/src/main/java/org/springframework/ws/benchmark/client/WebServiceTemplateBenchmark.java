@@ -0,0 +1,234 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark.client;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.benchmark.server.BenchmarkEndpoint;
+import org.springframework.ws.benchmark.support.BenchmarkUtils;
+import org.springframework.ws.benchmark.support.LoopbackMessageSender;
+import org.springframework.ws.benchmark.support.NullOutputStream;
+import org.springframework.ws.client.WebServiceClientException;
+import org.springframework.ws.client.core.WebServiceMessageCallback;
+import org.springframework.ws.client.core.WebServiceMessageExtractor;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.client.support.interceptor.ClientInterceptor;
+import org.springframework.ws.client.support.interceptor.PayloadValidatingInterceptor;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.adapter.DefaultMethodEndpointAdapter;
+import org.springframework.ws.server.endpoint.mapping.PayloadRootAnnotationMethodEndpointMapping;
+import org.springframework.ws.soap.SoapMessageFactory;
+import org.springframework.ws.soap.client.SoapFaultClientException;
+import org.springframework.ws.soap.server.SoapMessageDispatcher;
+import org.springframework.xml.transform.StringSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the client-side {@link WebServiceTemplate} operations against a {@link LoopbackMessageSender}, so that
+ * only framework overhead is measured.
+ * <p/>
+ * Besides message factory and payload size, the benchmark is parameterized with the {@link ClientInterceptor} chain in
+ * use ({@code none}, a chain of {@code no-op} interceptors, or a request and response {@code validating}
+ * interceptor), and whether {@linkplain WebServiceTemplate#MESSAGE_TRACING_LOG_CATEGORY message tracing} is enabled.
+ * The {@link #fault()} benchmark measures fault detection and resolution.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.apache.commons.logging.Log=org.apache.commons.logging.impl.Jdk14Logger")
+public class WebServiceTemplateBenchmark {
+
+    private static final String URI = LoopbackMessageSender.LOOPBACK_SCHEME + ":/benchmark";
+
+    private static final int NO_OP_INTERCEPTOR_COUNT = 5;
+
+    @Param({BenchmarkUtils.SAAJ, BenchmarkUtils.AXIOM, BenchmarkUtils.AXIOM_CACHING, BenchmarkUtils.STROAP})
+    public String messageFactory;
+
+    /** Payload size in bytes: 1 KB, 64 KB, and 1 MB. */
+    @Param({"1024", "65536", "1048576"})
+    public int payloadSize;
+
+    @Param({"none", "no-op", "validating"})
+    public String interceptors;
+
+    @Param({"false", "true"})
+    public boolean tracing;
+
+    private StaticApplicationContext applicationContext;
+
+    private WebServiceTemplate webServiceTemplate;
+
+    private TransformerFactory transformerFactory;
+
+    private Logger tracingLogger;
+
+    private BenchmarkEndpoint.JaxbRequest jaxbRequest;
+
+    private String domPayload;
+
+    private String sourcePayload;
+
+    private String faultPayload;
+
+    @Setup
+    public void setUp() throws Exception {
+        SoapMessageFactory soapMessageFactory = BenchmarkUtils.createMessageFactory(messageFactory);
+
+        applicationContext = new StaticApplicationContext();
+        applicationContext.registerSingleton("endpoint", BenchmarkEndpoint.class);
+        applicationContext.registerSingleton("endpointMapping", PayloadRootAnnotationMethodEndpointMapping.class);
+        applicationContext.registerSingleton("endpointAdapter", DefaultMethodEndpointAdapter.class);
+        applicationContext.refresh();
+        SoapMessageDispatcher messageDispatcher = new SoapMessageDispatcher();
+        messageDispatcher.setApplicationContext(applicationContext);
+
+        Jaxb2Marshaller marshaller = new Jaxb2Marshaller();
+        marshaller.setClassesToBeBound(
+                new Class[]{BenchmarkEndpoint.JaxbRequest.class, BenchmarkEndpoint.JaxbResponse.class});
+        marshaller.afterPropertiesSet();
+
+        webServiceTemplate = new WebServiceTemplate(soapMessageFactory);
+        webServiceTemplate.setMessageSender(new LoopbackMessageSender(messageDispatcher, soapMessageFactory));
+        webServiceTemplate.setMarshaller(marshaller);
+        webServiceTemplate.setUnmarshaller(marshaller);
+        webServiceTemplate.setDefaultUri(URI);
+        webServiceTemplate.setInterceptors(createInterceptors());
+
+        transformerFactory = TransformerFactory.newInstance();
+
+        // keep a reference, as java.util.logging only holds on to loggers weakly
+        tracingLogger = Logger.getLogger(WebServiceTemplate.MESSAGE_TRACING_LOG_CATEGORY);
+        tracingLogger.setLevel(tracing ? Level.FINEST : Level.INFO);
+
+        jaxbRequest = new BenchmarkEndpoint.JaxbRequest();
+        for (int i = BenchmarkUtils.getItemCount(BenchmarkEndpoint.JAXB_REQUEST, payloadSize); i > 0; i--) {
+            jaxbRequest.getItems().add(BenchmarkUtils.ITEM_TEXT);
+        }
+        domPayload = BenchmarkUtils.createPayload(BenchmarkEndpoint.DOM_REQUEST, payloadSize);
+        sourcePayload = BenchmarkUtils.createPayload(BenchmarkEndpoint.SOURCE_REQUEST, payloadSize);
+        faultPayload = BenchmarkUtils.createPayload(BenchmarkEndpoint.FAULT_REQUEST, payloadSize);
+    }
+
+    private ClientInterceptor[] createInterceptors() throws Exception {
+        if ("no-op".equals(interceptors)) {
+            ClientInterceptor[] result = new ClientInterceptor[NO_OP_INTERCEPTOR_COUNT];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = new NoOpClientInterceptor();
+            }
+            return result;
+        }
+        else if ("validating".equals(interceptors)) {
+            PayloadValidatingInterceptor interceptor = new PayloadValidatingInterceptor();
+            interceptor.setSchema(new ClassPathResource("benchmark.xsd", BenchmarkUtils.class));
+            interceptor.setValidateRequest(true);
+            interceptor.setValidateResponse(true);
+            interceptor.afterPropertiesSet();
+            return new ClientInterceptor[]{interceptor};
+        }
+        else {
+            return null;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        tracingLogger.setLevel(null);
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public Object marshalSendAndReceive() {
+        return webServiceTemplate.marshalSendAndReceive(jaxbRequest);
+    }
+
+    @Benchmark
+    public boolean sendSourceAndReceiveToResult() {
+        return webServiceTemplate.sendSourceAndReceiveToResult(new StringSource(sourcePayload),
+                new StreamResult(new NullOutputStream()));
+    }
+
+    @Benchmark
+    public Boolean sendAndReceive() {
+        return webServiceTemplate.sendAndReceive(new WebServiceMessageCallback() {
+            public void doWithMessage(WebServiceMessage message) throws IOException, TransformerException {
+                transformerFactory.newTransformer().transform(new StringSource(domPayload), message.getPayloadResult());
+            }
+        }, new WebServiceMessageExtractor<Boolean>() {
+            public Boolean extractData(WebServiceMessage message) throws IOException, TransformerException {
+                Source payload = message.getPayloadSource();
+                transformerFactory.newTransformer().transform(payload, new StreamResult(new NullOutputStream()));
+                return Boolean.TRUE;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object fault() {
+        try {
+            return webServiceTemplate.sendSourceAndReceiveToResult(new StringSource(faultPayload),
+                    new StreamResult(new NullOutputStream()));
+        }
+        catch (SoapFaultClientException ex) {
+            return ex;
+        }
+    }
+
+    /** Client interceptor that does nothing, used to measure the cost of the interceptor chain itself. */
+    private static class NoOpClientInterceptor implements ClientInterceptor {
+
+        public boolean handleRequest(MessageContext messageContext) throws WebServiceClientException {
+            return true;
+        }
+
+        public boolean handleResponse(MessageContext messageContext) throws WebServiceClientException {
+            return true;
+        }
+
+        public boolean handleFault(MessageContext messageContext) throws WebServiceClientException {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark.security;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.springframework.ws.soap.security.wss4j.Wss4jSecurityInterceptor;
+
+import org.apache.ws.security.WSConstants;
+import org.apache.ws.security.WSSConfig;
+import org.apache.ws.security.WSSecurityEngineResult;
+import org.apache.ws.security.WSSecurityException;
+import org.apache.ws.security.handler.RequestData;
+import org.apache.ws.security.message.token.Timestamp;
+import org.apache.ws.security.validate.Credential;
+import org.apache.ws.security.validate.TimestampValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+/**
+ * Benchmarks the timestamp verification of the {@link Wss4jSecurityInterceptor}, which reuses the validation
+ * configuration created at startup. Compares it against creating a new {@code WSSConfig}, {@code RequestData} and
+ * validator for every message, which is what the interceptor used to do.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Wss4jTimestampBenchmark {
+
+    private static final int TIME_TO_LIVE = 300;
+
+    private TimestampVerifyingInterceptor interceptor;
+
+    private List<WSSecurityEngineResult> results;
+
+    @Setup
+    public void setUp() throws Exception {
+        interceptor = new TimestampVerifyingInterceptor();
+        interceptor.setValidationActions("Timestamp");
+        interceptor.setValidationTimeToLive(TIME_TO_LIVE);
+        interceptor.afterPropertiesSet();
+
+        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        Document document = documentBuilderFactory.newDocumentBuilder().newDocument();
+        Timestamp timestamp = new Timestamp(false, document, TIME_TO_LIVE);
+        results = Collections.singletonList(new WSSecurityEngineResult(WSConstants.TS, timestamp));
+    }
+
+    @Benchmark
+    public void shared() throws WSSecurityException {
+        interceptor.verifyTimestamp(results);
+    }
+
+    @Benchmark
+    public void perMessage() throws WSSecurityException {
+        Timestamp timestamp = (Timestamp) results.get(0).get(WSSecurityEngineResult.TAG_TIMESTAMP);
+        Credential credential = new Credential();
+        credential.setTimestamp(timestamp);
+
+        RequestData requestData = new RequestData();
+        WSSConfig config = new WSSConfig();
+        config.setTimeStampTTL(TIME_TO_LIVE);
+        config.setTimeStampStrict(true);
+        config.setTimeStampFutureTTL(60);
+        requestData.setWssConfig(config);
+
+        TimestampValidator validator = new TimestampValidator();
+        validator.validate(credential, requestData);
+    }
+
+    /** Exposes the timestamp verification of the interceptor. */
+    private static class TimestampVerifyingInterceptor extends Wss4jSecurityInterceptor {
+
+        @Override
+        public void verifyTimestamp(List<WSSecurityEngineResult> results) throws WSSecurityException {
+            super.verifyTimestamp(results);
+        }
+    }
+}
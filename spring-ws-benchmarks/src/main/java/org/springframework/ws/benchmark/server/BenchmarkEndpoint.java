@@ -0,0 +1,143 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+
+import org.springframework.ws.benchmark.support.BenchmarkUtils;
+import org.springframework.ws.benchmark.support.NullOutputStream;
+import org.springframework.ws.server.endpoint.annotation.Endpoint;
+import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
+import org.springframework.ws.server.endpoint.annotation.RequestPayload;
+import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+import org.springframework.ws.soap.server.endpoint.annotation.FaultCode;
+import org.springframework.ws.soap.server.endpoint.annotation.SoapFault;
+import org.springframework.xml.transform.StringSource;
+import org.springframework.xml.transform.TransformerObjectSupport;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Endpoint used by the benchmarks. Offers the same operation in three styles: JAXB, DOM, and {@link Source}. Each
+ * operation reads the entire request payload, and responds with the number of items it contained. A fourth operation
+ * always responds with a SOAP fault.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+@Endpoint
+public class BenchmarkEndpoint extends TransformerObjectSupport {
+
+    /** Local name of the payload handled by {@link #jaxb(JaxbRequest)}. */
+    public static final String JAXB_REQUEST = "JaxbRequest";
+
+    /** Local name of the payload handled by {@link #dom(Element)}. */
+    public static final String DOM_REQUEST = "DomRequest";
+
+    /** Local name of the payload handled by {@link #source(Source)}. */
+    public static final String SOURCE_REQUEST = "SourceRequest";
+
+    /** Local name of the payload handled by {@link #fault(Source)}. */
+    public static final String FAULT_REQUEST = "FaultRequest";
+
+    private static final String NS = BenchmarkUtils.NAMESPACE_URI;
+
+    @PayloadRoot(namespace = NS, localPart = JAXB_REQUEST)
+    @ResponsePayload
+    public JaxbResponse jaxb(@RequestPayload JaxbRequest request) {
+        return new JaxbResponse(request.getItems().size());
+    }
+
+    @PayloadRoot(namespace = NS, localPart = DOM_REQUEST)
+    @ResponsePayload
+    public Element dom(@RequestPayload Element request) {
+        int count = 0;
+        for (Node child = request.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                count++;
+            }
+        }
+        Document document = request.getOwnerDocument();
+        Element response = document.createElementNS(NS, "DomResponse");
+        response.setAttribute("count", String.valueOf(count));
+        return response;
+    }
+
+    @PayloadRoot(namespace = NS, localPart = SOURCE_REQUEST)
+    @ResponsePayload
+    public Source source(@RequestPayload Source request) throws TransformerException {
+        transform(request, new StreamResult(new NullOutputStream()));
+        return new StringSource("<SourceResponse xmlns=\"" + NS + "\"/>");
+    }
+
+    @PayloadRoot(namespace = NS, localPart = FAULT_REQUEST)
+    public void fault(@RequestPayload Source request) throws BenchmarkFaultException {
+        throw new BenchmarkFaultException();
+    }
+
+    @SoapFault(faultCode = FaultCode.CLIENT)
+    public static class BenchmarkFaultException extends Exception {
+
+        public BenchmarkFaultException() {
+            super("Benchmark fault");
+        }
+    }
+
+    @XmlRootElement(name = JAXB_REQUEST, namespace = BenchmarkUtils.NAMESPACE_URI)
+    public static class JaxbRequest {
+
+        private List<String> items;
+
+        @XmlElement(name = "item", namespace = BenchmarkUtils.NAMESPACE_URI)
+        public List<String> getItems() {
+            if (items == null) {
+                items = new ArrayList<String>();
+            }
+            return items;
+        }
+    }
+
+    @XmlRootElement(name = "JaxbResponse", namespace = BenchmarkUtils.NAMESPACE_URI)
+    public static class JaxbResponse {
+
+        private int count;
+
+        public JaxbResponse() {
+        }
+
+        public JaxbResponse(int count) {
+            this.count = count;
+        }
+
+        @XmlElement(name = "count", namespace = BenchmarkUtils.NAMESPACE_URI)
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+}
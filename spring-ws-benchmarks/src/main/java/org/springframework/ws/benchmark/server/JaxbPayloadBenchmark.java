@@ -0,0 +1,112 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark.server;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBContext;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.benchmark.support.BenchmarkUtils;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.pox.dom.DomPoxMessageFactory;
+import org.springframework.ws.server.endpoint.adapter.method.jaxb.XmlRootElementPayloadMethodProcessor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@code @RequestPayload}/{@code @ResponsePayload} JAXB path of the {@link
+ * XmlRootElementPayloadMethodProcessor}, which reuses its marshallers and unmarshallers, against creating a new
+ * marshaller and unmarshaller for every message. Run with {@code -prof gc} to compare the allocation per operation.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JaxbPayloadBenchmark {
+
+    @Param({"1024", "65536"})
+    private int payloadSize;
+
+    private DomPoxMessageFactory messageFactory;
+
+    private byte[] request;
+
+    private XmlRootElementPayloadMethodProcessor processor;
+
+    private MethodParameter requestParameter;
+
+    private MethodParameter responseType;
+
+    private JAXBContext requestContext;
+
+    private JAXBContext responseContext;
+
+    @Setup
+    public void setUp() throws Exception {
+        messageFactory = new DomPoxMessageFactory();
+        request = BenchmarkUtils.createPayload(BenchmarkEndpoint.JAXB_REQUEST, payloadSize).getBytes("UTF-8");
+        processor = new XmlRootElementPayloadMethodProcessor();
+        requestParameter = new MethodParameter(
+                BenchmarkEndpoint.class.getMethod("jaxb", BenchmarkEndpoint.JaxbRequest.class), 0);
+        responseType = new MethodParameter(requestParameter.getMethod(), -1);
+        requestContext = JAXBContext.newInstance(BenchmarkEndpoint.JaxbRequest.class);
+        responseContext = JAXBContext.newInstance(BenchmarkEndpoint.JaxbResponse.class);
+    }
+
+    @Benchmark
+    public WebServiceMessage processor() throws Exception {
+        MessageContext messageContext = createMessageContext();
+        BenchmarkEndpoint.JaxbRequest jaxbRequest =
+                (BenchmarkEndpoint.JaxbRequest) processor.resolveArgument(messageContext, requestParameter);
+        BenchmarkEndpoint.JaxbResponse jaxbResponse = new BenchmarkEndpoint.JaxbResponse(jaxbRequest.getItems().size());
+        processor.handleReturnValue(messageContext, responseType, jaxbResponse);
+        return messageContext.getResponse();
+    }
+
+    @Benchmark
+    public WebServiceMessage perMessage() throws Exception {
+        MessageContext messageContext = createMessageContext();
+        BenchmarkEndpoint.JaxbRequest jaxbRequest = (BenchmarkEndpoint.JaxbRequest) requestContext.createUnmarshaller()
+                .unmarshal(messageContext.getRequest().getPayloadSource());
+        BenchmarkEndpoint.JaxbResponse jaxbResponse = new BenchmarkEndpoint.JaxbResponse(jaxbRequest.getItems().size());
+        responseContext.createMarshaller().marshal(jaxbResponse, messageContext.getResponse().getPayloadResult());
+        return messageContext.getResponse();
+    }
+
+    private MessageContext createMessageContext() throws Exception {
+        WebServiceMessage message = messageFactory.createWebServiceMessage(new ByteArrayInputStream(request));
+        return new DefaultMessageContext(message, messageFactory);
+    }
+}
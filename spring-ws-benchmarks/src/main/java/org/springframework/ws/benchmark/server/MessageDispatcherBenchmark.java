@@ -0,0 +1,121 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark.server;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.benchmark.support.BenchmarkUtils;
+import org.springframework.ws.benchmark.support.ByteArrayTransportInputStream;
+import org.springframework.ws.benchmark.support.NullOutputStream;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.MessageDispatcher;
+import org.springframework.ws.server.endpoint.adapter.DefaultMethodEndpointAdapter;
+import org.springframework.ws.server.endpoint.mapping.PayloadRootAnnotationMethodEndpointMapping;
+import org.springframework.ws.soap.SoapMessageFactory;
+import org.springframework.ws.soap.server.SoapMessageDispatcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the full server-side dispatch path: creating a request message from a transport stream, {@link
+ * MessageDispatcher#receive(MessageContext) dispatching} it to a {@code @PayloadRoot} endpoint method, and writing the
+ * response.
+ * <p/>
+ * Throughput and sampled latency (including the 99th percentile) are reported for every combination of message
+ * factory, endpoint style and payload size. Run with {@code -prof gc} (the default of the {@code jmh} Gradle task) to
+ * include allocation per operation.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageDispatcherBenchmark {
+
+    @Param({BenchmarkUtils.SAAJ, BenchmarkUtils.AXIOM, BenchmarkUtils.AXIOM_CACHING, BenchmarkUtils.STROAP})
+    public String messageFactory;
+
+    @Param({BenchmarkEndpoint.JAXB_REQUEST, BenchmarkEndpoint.DOM_REQUEST, BenchmarkEndpoint.SOURCE_REQUEST})
+    public String endpoint;
+
+    /** Payload size in bytes: 1 KB, 64 KB, 1 MB, and 10 MB. */
+    @Param({"1024", "65536", "1048576", "10485760"})
+    public int payloadSize;
+
+    private SoapMessageFactory soapMessageFactory;
+
+    private StaticApplicationContext applicationContext;
+
+    private MessageDispatcher messageDispatcher;
+
+    private byte[] request;
+
+    private Map<String, String> headers;
+
+    @Setup
+    public void setUp() throws Exception {
+        soapMessageFactory = BenchmarkUtils.createMessageFactory(messageFactory);
+
+        applicationContext = new StaticApplicationContext();
+        applicationContext.registerSingleton("endpoint", BenchmarkEndpoint.class);
+        applicationContext.registerSingleton("endpointMapping", PayloadRootAnnotationMethodEndpointMapping.class);
+        applicationContext.registerSingleton("endpointAdapter", DefaultMethodEndpointAdapter.class);
+        applicationContext.refresh();
+
+        messageDispatcher = new SoapMessageDispatcher();
+        messageDispatcher.setApplicationContext(applicationContext);
+
+        request = BenchmarkUtils.createSoapRequest(BenchmarkUtils.createPayload(endpoint, payloadSize));
+        headers = BenchmarkUtils.createSoapHeaders();
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public WebServiceMessage receive() throws Exception {
+        WebServiceMessage requestMessage =
+                soapMessageFactory.createWebServiceMessage(new ByteArrayTransportInputStream(request, headers));
+        MessageContext messageContext = new DefaultMessageContext(requestMessage, soapMessageFactory);
+        messageDispatcher.receive(messageContext);
+        WebServiceMessage response = messageContext.getResponse();
+        response.writeTo(new NullOutputStream());
+        return response;
+    }
+
+}
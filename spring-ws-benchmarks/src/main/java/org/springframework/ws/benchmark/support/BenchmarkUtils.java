@@ -0,0 +1,146 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark.support;
+
+import java.io.UnsupportedEncodingException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.soap.SoapMessageFactory;
+import org.springframework.ws.soap.axiom.AxiomSoapMessageFactory;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.soap.stroap.StroapMessageFactory;
+import org.springframework.ws.transport.TransportConstants;
+
+/**
+ * Utility methods shared by the benchmarks: creation of message factories by name, and of request messages of a given
+ * size.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public abstract class BenchmarkUtils {
+
+    /** The namespace of all benchmark payloads. */
+    public static final String NAMESPACE_URI = "http://springframework.org/spring-ws/benchmark";
+
+    /** Name of the SAAJ message factory, as used in the {@code messageFactory} benchmark parameters. */
+    public static final String SAAJ = "saaj";
+
+    /** Name of the Axiom message factory, without payload caching. */
+    public static final String AXIOM = "axiom";
+
+    /** Name of the Axiom message factory, with payload caching. */
+    public static final String AXIOM_CACHING = "axiom-caching";
+
+    /** Name of the Stroap message factory. */
+    public static final String STROAP = "stroap";
+
+    private static final String ENVELOPE_START =
+            "<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"http://schemas.xmlsoap.org/soap/envelope/\"><SOAP-ENV:Body>";
+
+    private static final String ENVELOPE_END = "</SOAP-ENV:Body></SOAP-ENV:Envelope>";
+
+    /** The text of each {@code item} element in the benchmark payloads. */
+    public static final String ITEM_TEXT = "Lorem ipsum dolor sit amet, consectetur adipisicing elit";
+
+    private static final String ITEM = "<item>" + ITEM_TEXT + "</item>";
+
+    /**
+     * Creates and initializes the message factory with the given name.
+     *
+     * @param name one of {@link #SAAJ}, {@link #AXIOM}, {@link #AXIOM_CACHING}, or {@link #STROAP}
+     * @return the initialized message factory
+     */
+    public static SoapMessageFactory createMessageFactory(String name) throws Exception {
+        if (SAAJ.equals(name)) {
+            SaajSoapMessageFactory messageFactory = new SaajSoapMessageFactory();
+            messageFactory.afterPropertiesSet();
+            return messageFactory;
+        }
+        else if (AXIOM.equals(name) || AXIOM_CACHING.equals(name)) {
+            AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+            messageFactory.setPayloadCaching(AXIOM_CACHING.equals(name));
+            messageFactory.afterPropertiesSet();
+            return messageFactory;
+        }
+        else if (STROAP.equals(name)) {
+            return new StroapMessageFactory();
+        }
+        else {
+            throw new IllegalArgumentException("Unknown message factory [" + name + "]");
+        }
+    }
+
+    /**
+     * Creates the payload of a request. The payload has the given root element local name in the {@link
+     * #NAMESPACE_URI benchmark namespace}, and contains as many {@code item} elements as required to reach the given
+     * size.
+     *
+     * @param localName the local name of the payload root element
+     * @param size      the approximate size of the payload, in bytes
+     * @return the payload
+     */
+    public static String createPayload(String localName, int size) {
+        Assert.hasLength(localName, "'localName' must not be empty");
+        StringBuilder builder = new StringBuilder(size + ITEM.length());
+        builder.append('<').append(localName).append(" xmlns=\"").append(NAMESPACE_URI).append("\">");
+        for (int i = getItemCount(localName, size); i > 0; i--) {
+            builder.append(ITEM);
+        }
+        builder.append("</").append(localName).append('>');
+        return builder.toString();
+    }
+
+    /**
+     * Returns the number of {@code item} elements in a payload created by {@link #createPayload(String, int)}.
+     *
+     * @param localName the local name of the payload root element
+     * @param size      the approximate size of the payload, in bytes
+     * @return the number of items
+     */
+    public static int getItemCount(String localName, int size) {
+        int overhead = 2 * localName.length() + NAMESPACE_URI.length() + 14;
+        return Math.max((size - overhead + ITEM.length() - 1) / ITEM.length(), 0);
+    }
+
+    /**
+     * Creates a serialized SOAP 1.1 request with the given payload.
+     *
+     * @param payload the payload
+     * @return the UTF-8 encoded request
+     * @see #createPayload(String, int)
+     */
+    public static byte[] createSoapRequest(String payload) {
+        try {
+            return (ENVELOPE_START + payload + ENVELOPE_END).getBytes("UTF-8");
+        }
+        catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Returns the transport headers that accompany a SOAP 1.1 request. */
+    public static Map<String, String> createSoapHeaders() {
+        Map<String, String> headers = new LinkedHashMap<String, String>();
+        headers.put(TransportConstants.HEADER_CONTENT_TYPE, "text/xml; charset=UTF-8");
+        headers.put(TransportConstants.HEADER_SOAP_ACTION, "\"\"");
+        return headers;
+    }
+
+}
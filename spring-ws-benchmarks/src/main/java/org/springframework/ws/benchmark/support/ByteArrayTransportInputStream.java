@@ -0,0 +1,70 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.transport.TransportInputStream;
+
+/**
+ * {@link TransportInputStream} that reads from a byte array, and exposes a fixed set of headers. Used to feed
+ * pre-serialized messages to a {@link org.springframework.ws.WebServiceMessageFactory} without any transport.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public class ByteArrayTransportInputStream extends TransportInputStream {
+
+    private final byte[] content;
+
+    private final Map<String, String> headers;
+
+    public ByteArrayTransportInputStream(byte[] content, Map<String, String> headers) {
+        Assert.notNull(content, "'content' must not be null");
+        Assert.notNull(headers, "'headers' must not be null");
+        this.content = content;
+        this.headers = new LinkedHashMap<String, String>(headers);
+    }
+
+    @Override
+    protected InputStream createInputStream() throws IOException {
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public Iterator<String> getHeaderNames() throws IOException {
+        return headers.keySet().iterator();
+    }
+
+    @Override
+    public Iterator<String> getHeaders(String name) throws IOException {
+        String value = headers.get(name);
+        if (value != null) {
+            return Collections.singletonList(value).iterator();
+        }
+        else {
+            return Collections.<String>emptyList().iterator();
+        }
+    }
+}
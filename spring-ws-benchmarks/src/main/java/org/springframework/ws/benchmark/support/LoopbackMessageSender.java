@@ -0,0 +1,203 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.FaultAwareWebServiceMessage;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.transport.AbstractSenderConnection;
+import org.springframework.ws.transport.FaultAwareWebServiceConnection;
+import org.springframework.ws.transport.TransportOutputStream;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.WebServiceMessageReceiver;
+import org.springframework.ws.transport.WebServiceMessageSender;
+
+/**
+ * {@link WebServiceMessageSender} that hands requests to a {@link WebServiceMessageReceiver} (typically a {@link
+ * org.springframework.ws.server.MessageDispatcher MessageDispatcher}) in the same JVM. Requests and responses are
+ * serialized and parsed just like they would be over a real transport, but no network is involved, so that client-side
+ * benchmarks measure framework overhead only.
+ * <p/>
+ * Only supports URIs with the {@code loopback} scheme, e.g. {@code loopback:/service}.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public class LoopbackMessageSender implements WebServiceMessageSender {
+
+    /** The URI scheme supported by this sender. */
+    public static final String LOOPBACK_SCHEME = "loopback";
+
+    private final WebServiceMessageReceiver messageReceiver;
+
+    private final WebServiceMessageFactory messageFactory;
+
+    /**
+     * Creates a new instance of the {@code LoopbackMessageSender}.
+     *
+     * @param messageReceiver the receiver to hand requests to
+     * @param messageFactory  the factory used to create request messages on the receiving side
+     */
+    public LoopbackMessageSender(WebServiceMessageReceiver messageReceiver, WebServiceMessageFactory messageFactory) {
+        Assert.notNull(messageReceiver, "'messageReceiver' must not be null");
+        Assert.notNull(messageFactory, "'messageFactory' must not be null");
+        this.messageReceiver = messageReceiver;
+        this.messageFactory = messageFactory;
+    }
+
+    public WebServiceConnection createConnection(URI uri) throws IOException {
+        return new LoopbackConnection(uri);
+    }
+
+    public boolean supports(URI uri) {
+        return LOOPBACK_SCHEME.equals(uri.getScheme());
+    }
+
+    /**
+     * Connection used by the {@link LoopbackMessageSender}. Like a HTTP connection, it indicates an error when the
+     * response is a fault, so that the fault detection of the {@link
+     * org.springframework.ws.client.core.WebServiceTemplate WebServiceTemplate} is exercised as well.
+     */
+    private class LoopbackConnection extends AbstractSenderConnection implements FaultAwareWebServiceConnection {
+
+        private final URI uri;
+
+        private final Map<String, String> requestHeaders = new LinkedHashMap<String, String>();
+
+        private final ByteArrayOutputStream requestBuffer = new ByteArrayOutputStream();
+
+        private final Map<String, String> responseHeaders = new LinkedHashMap<String, String>();
+
+        private ByteArrayOutputStream responseBuffer;
+
+        private boolean fault;
+
+        private LoopbackConnection(URI uri) {
+            this.uri = uri;
+        }
+
+        public URI getUri() throws URISyntaxException {
+            return uri;
+        }
+
+        @Override
+        protected void addRequestHeader(String name, String value) throws IOException {
+            requestHeaders.put(name, value);
+        }
+
+        @Override
+        protected OutputStream getRequestOutputStream() throws IOException {
+            return requestBuffer;
+        }
+
+        @Override
+        protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
+            byte[] content = requestBuffer.toByteArray();
+            WebServiceMessage request =
+                    messageFactory.createWebServiceMessage(new ByteArrayTransportInputStream(content, requestHeaders));
+            MessageContext messageContext = new DefaultMessageContext(request, messageFactory);
+            try {
+                messageReceiver.receive(messageContext);
+            }
+            catch (IOException ex) {
+                throw ex;
+            }
+            catch (Exception ex) {
+                throw new IOException("Could not receive request: " + ex.getMessage(), ex);
+            }
+            if (messageContext.hasResponse()) {
+                WebServiceMessage response = messageContext.getResponse();
+                if (response instanceof FaultAwareWebServiceMessage) {
+                    fault = ((FaultAwareWebServiceMessage) response).hasFault();
+                }
+                responseBuffer = new ByteArrayOutputStream();
+                response.writeTo(new ResponseTransportOutputStream());
+            }
+        }
+
+        @Override
+        protected boolean hasResponse() throws IOException {
+            return responseBuffer != null;
+        }
+
+        @Override
+        protected Iterator<String> getResponseHeaderNames() throws IOException {
+            return responseHeaders.keySet().iterator();
+        }
+
+        @Override
+        protected Iterator<String> getResponseHeaders(String name) throws IOException {
+            String value = responseHeaders.get(name);
+            if (value != null) {
+                return Collections.singletonList(value).iterator();
+            }
+            else {
+                return Collections.<String>emptyList().iterator();
+            }
+        }
+
+        @Override
+        protected InputStream getResponseInputStream() throws IOException {
+            return new ByteArrayInputStream(responseBuffer.toByteArray());
+        }
+
+        public boolean hasError() throws IOException {
+            return fault;
+        }
+
+        public String getErrorMessage() throws IOException {
+            return fault ? "Internal Server Error" : null;
+        }
+
+        public boolean hasFault() throws IOException {
+            return fault;
+        }
+
+        public void setFault(boolean fault) throws IOException {
+            this.fault = fault;
+        }
+
+        /** Collects the headers and contents of the response written by the receiver. */
+        private class ResponseTransportOutputStream extends TransportOutputStream {
+
+            @Override
+            public void addHeader(String name, String value) throws IOException {
+                responseHeaders.put(name, value);
+            }
+
+            @Override
+            protected OutputStream createOutputStream() throws IOException {
+                return responseBuffer;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark.support;
+
+import java.io.OutputStream;
+
+/**
+ * {@link OutputStream} that discards everything written to it. Used to include message serialization in a benchmark,
+ * without measuring the cost of buffering the result.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public class NullOutputStream extends OutputStream {
+
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(byte[] b) {
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+    }
+}
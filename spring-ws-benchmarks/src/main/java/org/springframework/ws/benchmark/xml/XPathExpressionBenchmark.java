@@ -0,0 +1,109 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark.xml;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.springframework.ws.benchmark.server.BenchmarkEndpoint;
+import org.springframework.ws.benchmark.support.BenchmarkUtils;
+import org.springframework.xml.namespace.SimpleNamespaceContext;
+import org.springframework.xml.xpath.XPathExpression;
+import org.springframework.xml.xpath.XPathExpressionFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+/**
+ * Benchmarks concurrent evaluation of a single, shared XPath expression, as done by the {@code
+ * XPathPayloadEndpointMapping}. Compares the Spring {@link XPathExpression} against a JAXP expression that is guarded
+ * by a lock, which is how JAXP expressions used to be shared.
+ * <p/>
+ * Runs with as many threads as there are processors; use {@code -t} to vary the thread count.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class XPathExpressionBenchmark {
+
+    private static final String EXPRESSION = "/tns:DomRequest/tns:item[1]/text()";
+
+    private XPathExpression expression;
+
+    private javax.xml.xpath.XPathExpression lockedExpression;
+
+    @Setup
+    public void setUp() throws Exception {
+        expression = XPathExpressionFactory
+                .createXPathExpression(EXPRESSION, Collections.singletonMap("tns", BenchmarkUtils.NAMESPACE_URI));
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        SimpleNamespaceContext namespaceContext = new SimpleNamespaceContext();
+        namespaceContext.bindNamespaceUri("tns", BenchmarkUtils.NAMESPACE_URI);
+        xpath.setNamespaceContext(namespaceContext);
+        lockedExpression = xpath.compile(EXPRESSION);
+    }
+
+    @Benchmark
+    public String shared(Payload payload) {
+        return expression.evaluateAsString(payload.document);
+    }
+
+    @Benchmark
+    public Object locked(Payload payload) throws Exception {
+        synchronized (lockedExpression) {
+            return lockedExpression.evaluate(payload.document, XPathConstants.STRING);
+        }
+    }
+
+    /** Per-thread payload, as DOM documents may not be read concurrently. */
+    @State(Scope.Thread)
+    public static class Payload {
+
+        private Document document;
+
+        @Setup
+        public void setUp() throws Exception {
+            DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+            documentBuilderFactory.setNamespaceAware(true);
+            String payload = BenchmarkUtils.createPayload(BenchmarkEndpoint.DOM_REQUEST, 1024);
+            document = documentBuilderFactory.newDocumentBuilder().parse(new InputSource(new StringReader(payload)));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import java.util.concurrent.Future;
+
+import org.springframework.oxm.XmlMappingException;
+import org.springframework.ws.client.WebServiceClientException;
+
+/**
+ * Specifies a basic set of asynchronous Web service operations. Implemented by {@link AsyncWebServiceTemplate}.
+ * <p/>
+ * Each operation sends the request message in the calling thread, and returns a {@link Future} for the result once the
+ * request has been sent. Errors that occur while sending are thrown immediately; errors that occur while receiving or
+ * handling the response are thrown by {@link Future#get()}, wrapped in an {@link
+ * java.util.concurrent.ExecutionException}, and passed to the {@link WebServiceResultCallback}, if any.
+ *
+ * @author Arjen Poutsma
+ * @see AsyncWebServiceTemplate
+ * @since 2.2
+ */
+public interface AsyncWebServiceOperations {
+
+    /**
+     * Asynchronously sends a web service message that can be manipulated with the given callback, reading the result
+     * with a <code>WebServiceMessageExtractor</code>.
+     * <p/>
+     * This will only work with a default uri specified!
+     *
+     * @param requestCallback   the requestCallback to be used for manipulating the request message
+     * @param responseExtractor object that will extract results
+     * @return a future for the result object, as returned by the <code>WebServiceMessageExtractor</code>
+     * @throws WebServiceClientException if there is a problem sending the message
+     */
+    <T> Future<T> sendAndReceiveAsync(WebServiceMessageCallback requestCallback,
+                                      WebServiceMessageExtractor<T> responseExtractor)
+            throws WebServiceClientException;
+
+    /**
+     * Asynchronously sends a web service message that can be manipulated with the given callback, reading the result
+     * with a <code>WebServiceMessageExtractor</code>, and passing it to the given result callback.
+     *
+     * @param uri               the URI to send the message to
+     * @param requestCallback   the requestCallback to be used for manipulating the request message
+     * @param responseExtractor object that will extract results
+     * @param resultCallback    the callback to notify of the result; may be <code>null</code>
+     * @return a future for the result object, as returned by the <code>WebServiceMessageExtractor</code>
+     * @throws WebServiceClientException if there is a problem sending the message
+     */
+    <T> Future<T> sendAndReceiveAsync(String uri,
+                                      WebServiceMessageCallback requestCallback,
+                                      WebServiceMessageExtractor<T> responseExtractor,
+                                      WebServiceResultCallback<T> resultCallback) throws WebServiceClientException;
+
+    /**
+     * Asynchronously sends a web service message that contains the given payload, marshalled by the configured
+     * <code>Marshaller</code>. The future returns the unmarshalled payload of the response message, if any.
+     * <p/>
+     * This will only work with a default uri specified!
+     *
+     * @param requestPayload the object to marshal into the request message payload
+     * @return a future for the unmarshalled payload of the response message
+     * @throws XmlMappingException       if there is a problem marshalling
+     * @throws WebServiceClientException if there is a problem sending the message
+     * @see WebServiceTemplate#setMarshaller(org.springframework.oxm.Marshaller)
+     * @see WebServiceTemplate#setUnmarshaller(org.springframework.oxm.Unmarshaller)
+     */
+    Future<Object> marshalSendAndReceiveAsync(Object requestPayload)
+            throws XmlMappingException, WebServiceClientException;
+
+    /**
+     * Asynchronously sends a web service message that contains the given payload, marshalled by the configured
+     * <code>Marshaller</code>, and passes the unmarshalled payload of the response message to the given result
+     * callback.
+     *
+     * @param uri             the URI to send the message to
+     * @param requestPayload  the object to marshal into the request message payload
+     * @param requestCallback callback to change message, can be <code>null</code>
+     * @param resultCallback  the callback to notify of the result; may be <code>null</code>
+     * @return a future for the unmarshalled payload of the response message
+     * @throws XmlMappingException       if there is a problem marshalling
+     * @throws WebServiceClientException if there is a problem sending the message
+     * @see WebServiceTemplate#setMarshaller(org.springframework.oxm.Marshaller)
+     * @see WebServiceTemplate#setUnmarshaller(org.springframework.oxm.Unmarshaller)
+     */
+    Future<Object> marshalSendAndReceiveAsync(String uri,
+                                              Object requestPayload,
+                                              WebServiceMessageCallback requestCallback,
+                                              WebServiceResultCallback<Object> resultCallback)
+            throws XmlMappingException, WebServiceClientException;
+
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.oxm.Marshaller;
+import org.springframework.oxm.Unmarshaller;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.client.WebServiceIOException;
+import org.springframework.ws.client.WebServiceTransportException;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.transport.AsyncWebServiceConnection;
+import org.springframework.ws.transport.TransportException;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.support.TransportUtils;
+
+/**
+ * Extension of {@link WebServiceTemplate} that implements the {@link AsyncWebServiceOperations}, next to the
+ * synchronous {@link WebServiceOperations}.
+ * <p/>
+ * The request message is created, passed through the interceptors, and sent in the calling thread. When used with a
+ * message sender that creates {@link AsyncWebServiceConnection}s, such as the {@link
+ * org.springframework.ws.transport.http.HttpComponentsAsyncMessageSender}, the calling thread does not wait for the
+ * response: the response is handled once it has been received, by a task submitted to the {@linkplain
+ * #setTaskExecutor(TaskExecutor) task executor}. With other message senders, the response is received by this task
+ * as well, so that it can be offloaded to a separate thread pool.
+ * <p/>
+ * Unless another task executor is set, responses are handled by a bounded default thread pool, which is shut down
+ * when this template is {@linkplain #destroy() destroyed}.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public class AsyncWebServiceTemplate extends WebServiceTemplate
+        implements AsyncWebServiceOperations, DisposableBean {
+
+    /** The default maximum number of threads that handle responses. */
+    public static final int DEFAULT_MAX_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    /** The default maximum number of responses that wait for a thread to handle them. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private TaskExecutor taskExecutor;
+
+    private ThreadPoolTaskExecutor defaultTaskExecutor;
+
+    /** Creates a new <code>AsyncWebServiceTemplate</code> using default settings. */
+    public AsyncWebServiceTemplate() {
+    }
+
+    /**
+     * Creates a new <code>AsyncWebServiceTemplate</code> based on the given message factory.
+     *
+     * @param messageFactory the message factory to use
+     */
+    public AsyncWebServiceTemplate(WebServiceMessageFactory messageFactory) {
+        super(messageFactory);
+    }
+
+    /**
+     * Creates a new <code>AsyncWebServiceTemplate</code> with the given marshaller, which must also implement the
+     * {@link Unmarshaller} interface.
+     *
+     * @param marshaller object used as marshaller and unmarshaller
+     * @see WebServiceTemplate#WebServiceTemplate(Marshaller)
+     */
+    public AsyncWebServiceTemplate(Marshaller marshaller) {
+        super(marshaller);
+    }
+
+    /**
+     * Creates a new <code>AsyncWebServiceTemplate</code> with the given marshaller and unmarshaller.
+     *
+     * @param marshaller   the marshaller to use
+     * @param unmarshaller the unmarshaller to use
+     */
+    public AsyncWebServiceTemplate(Marshaller marshaller, Unmarshaller unmarshaller) {
+        super(marshaller, unmarshaller);
+    }
+
+    /** Returns the task executor used for handling responses. */
+    public synchronized TaskExecutor getTaskExecutor() {
+        if (taskExecutor == null) {
+            defaultTaskExecutor = createDefaultTaskExecutor();
+            taskExecutor = defaultTaskExecutor;
+        }
+        return taskExecutor;
+    }
+
+    /**
+     * Sets the Spring {@link TaskExecutor} used for handling responses. Handling a response includes invoking the
+     * interceptors, resolving faults, extracting the result, and notifying the {@link WebServiceResultCallback}.
+     * <p/>
+     * Default is a thread pool of at most {@link #DEFAULT_MAX_POOL_SIZE} daemon threads, which queues at most {@link
+     * #DEFAULT_QUEUE_CAPACITY} responses; further responses fail with a {@link
+     * org.springframework.core.task.TaskRejectedException}. Note that the executor should not run tasks in the calling
+     * thread, like a {@link org.springframework.core.task.SyncTaskExecutor} does: for an {@link
+     * AsyncWebServiceConnection}, that thread is the I/O thread which serves all other exchanges as well.
+     */
+    public synchronized void setTaskExecutor(TaskExecutor taskExecutor) {
+        Assert.notNull(taskExecutor, "'taskExecutor' must not be null");
+        shutdownDefaultTaskExecutor();
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Creates the default task executor, used when no {@linkplain #setTaskExecutor(TaskExecutor) task executor} has
+     * been set. Can be overridden in subclasses to change the pool settings.
+     *
+     * @return the initialized default task executor
+     */
+    protected ThreadPoolTaskExecutor createDefaultTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(DEFAULT_MAX_POOL_SIZE);
+        executor.setMaxPoolSize(DEFAULT_MAX_POOL_SIZE);
+        executor.setQueueCapacity(DEFAULT_QUEUE_CAPACITY);
+        executor.setDaemon(true);
+        executor.setThreadNamePrefix(getClass().getSimpleName() + "-");
+        executor.initialize();
+        return executor;
+    }
+
+    /** Shuts down the default task executor, if it has been created. */
+    public synchronized void destroy() {
+        shutdownDefaultTaskExecutor();
+    }
+
+    private void shutdownDefaultTaskExecutor() {
+        if (defaultTaskExecutor != null) {
+            defaultTaskExecutor.shutdown();
+            if (taskExecutor == defaultTaskExecutor) {
+                taskExecutor = null;
+            }
+            defaultTaskExecutor = null;
+        }
+    }
+
+    public <T> Future<T> sendAndReceiveAsync(WebServiceMessageCallback requestCallback,
+                                             WebServiceMessageExtractor<T> responseExtractor) {
+        return sendAndReceiveAsync(getDefaultUri(), requestCallback, responseExtractor, null);
+    }
+
+    public <T> Future<T> sendAndReceiveAsync(String uriString,
+                                             WebServiceMessageCallback requestCallback,
+                                             WebServiceMessageExtractor<T> responseExtractor,
+                                             WebServiceResultCallback<T> resultCallback) {
+        Assert.notNull(responseExtractor, "'responseExtractor' must not be null");
+        Assert.hasLength(uriString, "'uri' must not be empty");
+        TransportContext previousTransportContext = TransportContextHolder.getTransportContext();
+        WebServiceConnection connection = null;
+        boolean scheduled = false;
+        try {
+            connection = createConnection(URI.create(uriString));
+            TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+            MessageContext messageContext = new DefaultMessageContext(getMessageFactory());
+
+            int interceptorIndex = doSend(messageContext, connection, requestCallback);
+            ResponseFuture<T> future = new ResponseFuture<T>(
+                    new ResponseHandler<T>(messageContext, connection, interceptorIndex, responseExtractor),
+                    connection, resultCallback);
+            schedule(future, messageContext, connection);
+            scheduled = true;
+            return future;
+        }
+        catch (TransportException ex) {
+            throw new WebServiceTransportException("Could not use transport: " + ex.getMessage(), ex);
+        }
+        catch (IOException ex) {
+            throw new WebServiceIOException("I/O error: " + ex.getMessage(), ex);
+        }
+        finally {
+            if (!scheduled) {
+                TransportUtils.closeConnection(connection);
+            }
+            TransportContextHolder.setTransportContext(previousTransportContext);
+        }
+    }
+
+    public Future<Object> marshalSendAndReceiveAsync(Object requestPayload) {
+        return marshalSendAndReceiveAsync(getDefaultUri(), requestPayload, null, null);
+    }
+
+    public Future<Object> marshalSendAndReceiveAsync(String uri,
+                                                     Object requestPayload,
+                                                     WebServiceMessageCallback requestCallback,
+                                                     WebServiceResultCallback<Object> resultCallback) {
+        return sendAndReceiveAsync(uri, createMarshallingCallback(requestPayload, requestCallback),
+                createUnmarshallingExtractor(), resultCallback);
+    }
+
+    /**
+     * Schedules the given response future on the task executor: immediately if the response is already available, or
+     * as soon as an {@link AsyncWebServiceConnection} has completed the exchange.
+     */
+    private void schedule(final ResponseFuture<?> future,
+                          MessageContext messageContext,
+                          WebServiceConnection connection) {
+        if (connection instanceof AsyncWebServiceConnection && !messageContext.hasResponse()) {
+            ((AsyncWebServiceConnection) connection).addCompletionCallback(new Runnable() {
+
+                public void run() {
+                    try {
+                        getTaskExecutor().execute(future);
+                    }
+                    catch (RuntimeException ex) {
+                        future.fail(ex);
+                    }
+                }
+            });
+        }
+        else {
+            getTaskExecutor().execute(future);
+        }
+    }
+
+    /** Receives and handles the response of a sent request, in the thread of the task executor. */
+    private class ResponseHandler<T> implements Callable<T> {
+
+        private final MessageContext messageContext;
+
+        private final WebServiceConnection connection;
+
+        private final int interceptorIndex;
+
+        private final WebServiceMessageExtractor<T> responseExtractor;
+
+        private ResponseHandler(MessageContext messageContext,
+                                WebServiceConnection connection,
+                                int interceptorIndex,
+                                WebServiceMessageExtractor<T> responseExtractor) {
+            this.messageContext = messageContext;
+            this.connection = connection;
+            this.interceptorIndex = interceptorIndex;
+            this.responseExtractor = responseExtractor;
+        }
+
+        public T call() {
+            TransportContext previousTransportContext = TransportContextHolder.getTransportContext();
+            try {
+                TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+                return doReceive(messageContext, connection, interceptorIndex, responseExtractor);
+            }
+            catch (TransportException ex) {
+                throw new WebServiceTransportException("Could not use transport: " + ex.getMessage(), ex);
+            }
+            catch (IOException ex) {
+                throw new WebServiceIOException("I/O error: " + ex.getMessage(), ex);
+            }
+            finally {
+                TransportUtils.closeConnection(connection);
+                TransportContextHolder.setTransportContext(previousTransportContext);
+            }
+        }
+    }
+
+    /**
+     * Future returned by the asynchronous operations. Notifies the result callback when done, and closes the connection
+     * when cancelled before the response is handled.
+     */
+    private static class ResponseFuture<T> extends FutureTask<T> {
+
+        private final WebServiceConnection connection;
+
+        private final WebServiceResultCallback<T> resultCallback;
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private ResponseFuture(Callable<T> callable,
+                               WebServiceConnection connection,
+                               WebServiceResultCallback<T> resultCallback) {
+            super(callable);
+            this.connection = connection;
+            this.resultCallback = resultCallback;
+        }
+
+        @Override
+        public void run() {
+            if (claimed.compareAndSet(false, true)) {
+                super.run();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && claimed.compareAndSet(false, true)) {
+                TransportUtils.closeConnection(connection);
+            }
+            return cancelled;
+        }
+
+        /** Completes this future with the given exception, if the response has not been handled yet. */
+        void fail(Throwable ex) {
+            if (claimed.compareAndSet(false, true)) {
+                TransportUtils.closeConnection(connection);
+                setException(ex);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (resultCallback == null) {
+                return;
+            }
+            T result;
+            try {
+                result = get();
+            }
+            catch (ExecutionException ex) {
+                resultCallback.onFailure(ex.getCause());
+                return;
+            }
+            catch (CancellationException ex) {
+                resultCallback.onFailure(ex);
+                return;
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                resultCallback.onFailure(ex);
+                return;
+            }
+            resultCallback.onSuccess(result);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+/**
+ * Callback interface for receiving the result of an asynchronous Web service invocation, made through the {@link
+ * AsyncWebServiceOperations}.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public interface WebServiceResultCallback<T> {
+
+    /**
+     * Called when the invocation has completed successfully.
+     *
+     * @param result the result of the invocation, as returned by the response extractor; possibly <code>null</code>
+     */
+    void onSuccess(T result);
+
+    /**
+     * Called when the invocation has failed.
+     *
+     * @param ex the exception, typically a {@link org.springframework.ws.client.WebServiceClientException}
+     */
+    void onFailure(Throwable ex);
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2011 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -383,7 +383,14 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
     public Object marshalSendAndReceive(String uri,
                                         final Object requestPayload,
                                         final WebServiceMessageCallback requestCallback) {
-        return sendAndReceive(uri, new WebServiceMessageCallback() {
+        return sendAndReceive(uri, createMarshallingCallback(requestPayload, requestCallback),
+                createUnmarshallingExtractor());
+    }
+
+    /** Returns a request callback that marshals the given payload, and then invokes the given callback, if any. */
+    WebServiceMessageCallback createMarshallingCallback(final Object requestPayload,
+                                                        final WebServiceMessageCallback requestCallback) {
+        return new WebServiceMessageCallback() {
 
             public void doWithMessage(WebServiceMessage request) throws IOException, TransformerException {
                 if (requestPayload != null) {
@@ -398,7 +405,12 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
                     }
                 }
             }
-        }, new WebServiceMessageExtractor<Object>() {
+        };
+    }
+
+    /** Returns a response extractor that unmarshals the response payload. */
+    WebServiceMessageExtractor<Object> createUnmarshallingExtractor() {
+        return new WebServiceMessageExtractor<Object>() {
 
             public Object extractData(WebServiceMessage response) throws IOException {
                 Unmarshaller unmarshaller = getUnmarshaller();
@@ -408,7 +420,7 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
                 }
                 return MarshallingUtils.unmarshal(unmarshaller, response);
             }
-        });
+        };
     }
 
     //
@@ -563,11 +575,24 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
      * @throws WebServiceClientException if there is a problem sending or receiving the message
      * @throws IOException               in case of I/O errors
      */
-    @SuppressWarnings("unchecked")
     protected <T> T doSendAndReceive(MessageContext messageContext,
                                      WebServiceConnection connection,
                                      WebServiceMessageCallback requestCallback,
                                      WebServiceMessageExtractor<T> responseExtractor) throws IOException {
+        int interceptorIndex = doSend(messageContext, connection, requestCallback);
+        return doReceive(messageContext, connection, interceptorIndex, responseExtractor);
+    }
+
+    /**
+     * Sending half of {@link #doSendAndReceive(MessageContext, WebServiceConnection, WebServiceMessageCallback,
+     * WebServiceMessageExtractor) doSendAndReceive}: invokes the request callback and the <code>handleRequest</code>
+     * method of the interceptors, and sends the request, unless an interceptor has set a response.
+     *
+     * @return the index of the last interceptor that was called
+     */
+    int doSend(MessageContext messageContext,
+               WebServiceConnection connection,
+               WebServiceMessageCallback requestCallback) throws IOException {
         try {
             if (requestCallback != null) {
                 requestCallback.doWithMessage(messageContext.getRequest());
@@ -585,6 +610,29 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
             // if an interceptor has set a response, we don't send/receive
             if (!messageContext.hasResponse()) {
                 sendRequest(connection, messageContext.getRequest());
+            }
+            return interceptorIndex;
+        }
+        catch (TransformerException ex) {
+            throw new WebServiceTransformerException("Transformation error: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Receiving half of {@link #doSendAndReceive(MessageContext, WebServiceConnection, WebServiceMessageCallback,
+     * WebServiceMessageExtractor) doSendAndReceive}: receives the response, unless an interceptor has set one, and
+     * handles it with the interceptors, the fault resolver, and the response extractor.
+     *
+     * @param interceptorIndex the index of the last interceptor that was called, as returned by {@link
+     *                         #doSend(MessageContext, WebServiceConnection, WebServiceMessageCallback) doSend}
+     */
+    @SuppressWarnings("unchecked")
+    <T> T doReceive(MessageContext messageContext,
+                    WebServiceConnection connection,
+                    int interceptorIndex,
+                    WebServiceMessageExtractor<T> responseExtractor) throws IOException {
+        try {
+            if (!messageContext.hasResponse()) {
                 if (hasError(connection, messageContext.getRequest())) {
                     return (T)handleError(connection, messageContext.getRequest());
                 }
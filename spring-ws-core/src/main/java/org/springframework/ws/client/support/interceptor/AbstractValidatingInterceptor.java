@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.ws.client.support.interceptor;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.transform.Source;
 
 import org.springframework.beans.factory.InitializingBean;
@@ -28,7 +29,9 @@ import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.client.WebServiceClientException;
 import org.springframework.ws.client.WebServiceIOException;
 import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.validation.ValidationPolicy;
 import org.springframework.xml.transform.TransformerObjectSupport;
+import org.springframework.xml.validation.SchemaRegistry;
 import org.springframework.xml.validation.XmlValidator;
 import org.springframework.xml.validation.XmlValidatorFactory;
 import org.springframework.xml.xsd.XsdSchema;
@@ -43,6 +46,10 @@ import org.xml.sax.SAXParseException;
  * <p/>
  * By default, only the request message is validated, but this behaviour can be changed using the
  * <code>validateRequest</code> and <code>validateResponse</code> properties.
+ * <p/>
+ * A {@link #setValidationPolicy(ValidationPolicy) validation policy} can be set to validate only part of the messages.
+ * The number of validated and skipped messages is available through {@link #getValidatedMessageCount()} and {@link
+ * #getSkippedMessageCount()}.
  *
  * @author Arjen Poutsma
  * @see #getValidationRequestSource(WebServiceMessage)
@@ -62,6 +69,14 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 
     private XmlValidator validator;
 
+    private SchemaRegistry schemaRegistry;
+
+    private ValidationPolicy validationPolicy;
+
+    private final AtomicLong validatedMessageCount = new AtomicLong();
+
+    private final AtomicLong skippedMessageCount = new AtomicLong();
+
     public String getSchemaLanguage() {
         return schemaLanguage;
     }
@@ -138,6 +153,38 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
         this.validateResponse = validateResponse;
     }
 
+    /**
+     * Sets the registry through which the compiled schemas are shared with other validators. By default, the schema
+     * resources are compiled for this interceptor only. This registry only applies to the {@link
+     * #setSchemas(Resource[]) schemas} property; an {@link XsdSchema} or {@link XsdSchemaCollection} uses the registry
+     * it was configured with.
+     *
+     * @param schemaRegistry the schema registry
+     * @since 2.2
+     */
+    public void setSchemaRegistry(SchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
+    /**
+     * Sets the policy that decides which messages are validated. By default, all messages are validated.
+     *
+     * @param validationPolicy the validation policy
+     */
+    public void setValidationPolicy(ValidationPolicy validationPolicy) {
+        this.validationPolicy = validationPolicy;
+    }
+
+    /** Returns the number of messages that have been validated. */
+    public long getValidatedMessageCount() {
+        return validatedMessageCount.get();
+    }
+
+    /** Returns the number of messages for which validation was skipped by the validation policy. */
+    public long getSkippedMessageCount() {
+        return skippedMessageCount.get();
+    }
+
     public void afterPropertiesSet() throws Exception {
         if (validator == null && !ObjectUtils.isEmpty(schemas)) {
             Assert.hasLength(schemaLanguage, "schemaLanguage is required");
@@ -147,7 +194,7 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
             if (logger.isInfoEnabled()) {
                 logger.info("Validating using " + StringUtils.arrayToCommaDelimitedString(schemas));
             }
-            validator = XmlValidatorFactory.createValidator(schemas, schemaLanguage);
+            validator = XmlValidatorFactory.createValidator(schemas, schemaLanguage, schemaRegistry);
         }
         Assert.notNull(validator, "Setting 'schema', 'schemas', 'xsdSchema', or 'xsdSchemaCollection' is required");
     }
@@ -164,6 +211,12 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
      */
     public boolean handleRequest(MessageContext messageContext) throws WebServiceClientException {
         if (validateRequest) {
+            if (!shouldValidate(messageContext, messageContext.getRequest())) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Request message not validated due to validation policy");
+                }
+                return true;
+            }
             Source requestSource = getValidationRequestSource(messageContext.getRequest());
             if (requestSource != null) {
                 SAXParseException[] errors;
@@ -184,6 +237,17 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
         return true;
     }
 
+    private boolean shouldValidate(MessageContext messageContext, WebServiceMessage message) {
+        if (validationPolicy == null || validationPolicy.shouldValidate(messageContext, message)) {
+            validatedMessageCount.incrementAndGet();
+            return true;
+        }
+        else {
+            skippedMessageCount.incrementAndGet();
+            return false;
+        }
+    }
+
     /**
      * Template method that is called when the request message contains validation errors.
      * <p/>
@@ -214,6 +278,12 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
      */
     public boolean handleResponse(MessageContext messageContext) throws WebServiceClientException {
         if (validateResponse) {
+            if (!shouldValidate(messageContext, messageContext.getResponse())) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Response message not validated due to validation policy");
+                }
+                return true;
+            }
             Source responseSource = getValidationResponseSource(messageContext.getResponse());
             if (responseSource != null) {
                 SAXParseException[] errors;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactoryUtils;
@@ -40,9 +42,11 @@ import org.springframework.ws.server.endpoint.MessageEndpoint;
 import org.springframework.ws.server.endpoint.PayloadEndpoint;
 import org.springframework.ws.server.endpoint.adapter.MessageEndpointAdapter;
 import org.springframework.ws.server.endpoint.adapter.PayloadEndpointAdapter;
+import org.springframework.ws.server.endpoint.support.PayloadRootUtils;
 import org.springframework.ws.soap.server.SoapMessageDispatcher;
 import org.springframework.ws.support.DefaultStrategiesHelper;
 import org.springframework.ws.transport.WebServiceMessageReceiver;
+import org.springframework.xml.transform.TransformerHelper;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -68,6 +72,10 @@ import org.apache.commons.logging.LogFactory;
  * exception resolvers can be added through the {@link #setEndpointExceptionResolvers(List) endpointExceptionResolvers}
  * property.</li>
  * </ul>
+ * <p/>
+ * By setting the {@link #setDispatchCaching(boolean) dispatchCaching} property, the resolved endpoint invocation chain
+ * and endpoint adapter are cached per {@linkplain #getDispatchCacheKey(MessageContext) dispatch key}, so that
+ * subsequent requests with the same key skip the endpoint mappings and adapters altogether.
  *
  * @author Arjen Poutsma
  * @see EndpointMapping
@@ -99,8 +107,20 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
     protected static final Log receivedMessageTracingLogger =
             LogFactory.getLog(MessageDispatcher.MESSAGE_TRACING_LOG_CATEGORY + ".received");
 
+    /** Default maximum number of entries in the dispatch cache. */
+    public static final int DEFAULT_DISPATCH_CACHE_LIMIT = 256;
+
     private final DefaultStrategiesHelper defaultStrategiesHelper;
 
+    private final TransformerHelper transformerHelper = new TransformerHelper();
+
+    private final ConcurrentMap<Object, DispatchCacheEntry> dispatchCache =
+            new ConcurrentHashMap<Object, DispatchCacheEntry>();
+
+    private boolean dispatchCaching = false;
+
+    private int dispatchCacheLimit = DEFAULT_DISPATCH_CACHE_LIMIT;
+
     /** The registered bean name for this dispatcher. */
     private String beanName;
 
@@ -126,6 +146,7 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
     /** Sets the <code>EndpointAdapter</code>s to use by this <code>MessageDispatcher</code>. */
     public void setEndpointAdapters(List<EndpointAdapter> endpointAdapters) {
         this.endpointAdapters = endpointAdapters;
+        clearDispatchCache();
     }
 
     /** Returns the <code>EndpointExceptionResolver</code>s to use by this <code>MessageDispatcher</code>. */
@@ -146,6 +167,42 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
     /** Sets the <code>EndpointMapping</code>s to use by this <code>MessageDispatcher</code>. */
     public void setEndpointMappings(List<EndpointMapping> endpointMappings) {
         this.endpointMappings = endpointMappings;
+        clearDispatchCache();
+    }
+
+    /**
+     * Indicates whether resolved endpoints should be cached per {@linkplain #getDispatchCacheKey(MessageContext)
+     * dispatch key}. Default is {@code false}.
+     * <p/>
+     * Only enable this when the endpoint mappings, including their smart interceptors, select the endpoint based on
+     * the information in the dispatch key alone, and when the mapped endpoints are singletons. By default, the key is
+     * the payload root element; the {@link SoapMessageDispatcher} adds the SOAP action, and the WS-Addressing action
+     * and destination.
+     *
+     * @see #clearDispatchCache()
+     */
+    public void setDispatchCaching(boolean dispatchCaching) {
+        this.dispatchCaching = dispatchCaching;
+        clearDispatchCache();
+    }
+
+    /**
+     * Sets the maximum number of entries in the dispatch cache. Once the limit is reached, the cache is cleared before
+     * a new key is added, so that keys built from arbitrary client-supplied actions cannot grow it without bound.
+     * Defaults to {@link #DEFAULT_DISPATCH_CACHE_LIMIT}.
+     */
+    public void setDispatchCacheLimit(int dispatchCacheLimit) {
+        this.dispatchCacheLimit = dispatchCacheLimit;
+    }
+
+    /**
+     * Removes all entries from the dispatch cache. Should be called when endpoint mappings are changed after this
+     * dispatcher has been initialized.
+     *
+     * @see #setDispatchCaching(boolean)
+     */
+    public void clearDispatchCache() {
+        dispatchCache.clear();
     }
 
     public final void setBeanName(String beanName) {
@@ -156,6 +213,7 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
         initEndpointAdapters(applicationContext);
         initEndpointExceptionResolvers(applicationContext);
         initEndpointMappings(applicationContext);
+        clearDispatchCache();
     }
 
     public void receive(MessageContext messageContext) throws Exception {
@@ -209,7 +267,9 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
         try {
             try {
                 // Determine endpoint for the current context
-                mappedEndpoint = getEndpoint(messageContext);
+                Object dispatchCacheKey = dispatchCaching ? getDispatchCacheKey(messageContext) : null;
+                DispatchCacheEntry cacheEntry = dispatchCacheKey != null ? dispatchCache.get(dispatchCacheKey) : null;
+                mappedEndpoint = cacheEntry != null ? cacheEntry.mappedEndpoint : getEndpoint(messageContext);
                 if (mappedEndpoint == null || mappedEndpoint.getEndpoint() == null) {
                     throw new NoEndpointFoundException(messageContext.getRequest());
                 }
@@ -229,7 +289,16 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
                     }
                 }
                 // Actually invoke the endpoint
-                EndpointAdapter endpointAdapter = getEndpointAdapter(mappedEndpoint.getEndpoint());
+                EndpointAdapter endpointAdapter;
+                if (cacheEntry != null) {
+                    endpointAdapter = cacheEntry.endpointAdapter;
+                }
+                else {
+                    endpointAdapter = getEndpointAdapter(mappedEndpoint.getEndpoint());
+                    if (dispatchCacheKey != null) {
+                        cacheDispatch(dispatchCacheKey, new DispatchCacheEntry(mappedEndpoint, endpointAdapter));
+                    }
+                }
                 endpointAdapter.invoke(messageContext, mappedEndpoint.getEndpoint());
 
 	            // Apply handleResponse methods of registered interceptors
@@ -259,6 +328,13 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
         }
     }
 
+    private void cacheDispatch(Object dispatchCacheKey, DispatchCacheEntry cacheEntry) {
+        if (dispatchCache.size() >= dispatchCacheLimit) {
+            dispatchCache.clear();
+        }
+        dispatchCache.put(dispatchCacheKey, cacheEntry);
+    }
+
     /**
      * Returns the endpoint for this request. All endpoint mappings are tried, in order.
      *
@@ -281,6 +357,20 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
         return null;
     }
 
+    /**
+     * Returns the key used to cache the endpoint for the given request, when {@linkplain #setDispatchCaching(boolean)
+     * dispatch caching} is enabled. Returning {@code null} disables caching for the request.
+     * <p/>
+     * The default implementation returns the qualified name of the payload root element.
+     *
+     * @param messageContext the message context
+     * @return the cache key, or {@code null}
+     * @throws Exception in case of errors
+     */
+    protected Object getDispatchCacheKey(MessageContext messageContext) throws Exception {
+        return PayloadRootUtils.getPayloadRootQName(messageContext.getRequest().getPayloadSource(), transformerHelper);
+    }
+
     /**
      * Returns the <code>EndpointAdapter</code> for the given endpoint.
      *
@@ -479,4 +569,17 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
             }
         }
     }
+
+    /** A cached endpoint invocation chain, together with its adapter. */
+    private static class DispatchCacheEntry {
+
+        private final EndpointInvocationChain mappedEndpoint;
+
+        private final EndpointAdapter endpointAdapter;
+
+        private DispatchCacheEntry(EndpointInvocationChain mappedEndpoint, EndpointAdapter endpointAdapter) {
+            this.mappedEndpoint = mappedEndpoint;
+            this.endpointAdapter = endpointAdapter;
+        }
+    }
 }
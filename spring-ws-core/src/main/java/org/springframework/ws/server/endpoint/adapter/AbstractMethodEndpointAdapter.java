@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.ws.server.endpoint.adapter;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.EndpointAdapter;
 import org.springframework.ws.server.endpoint.MethodEndpoint;
+import org.springframework.ws.server.endpoint.support.PayloadValidationCallback;
 import org.springframework.xml.transform.TransformerObjectSupport;
 
 /**
@@ -42,6 +43,10 @@ public abstract class AbstractMethodEndpointAdapter extends TransformerObjectSup
 
     /**
      * Delegates to {@link #invokeInternal(org.springframework.ws.context.MessageContext,MethodEndpoint)}.
+     * <p/>
+     * If a {@link PayloadValidationCallback} is registered in the message context, and this adapter does not {@link
+     * #supportsPayloadValidationCallback() support} it, the request payload is validated in a separate pass first. The
+     * method endpoint is not invoked if the callback rejects the payload.
      *
      * @param messageContext the current message context
      * @param endpoint       the endpoint to use. This object must have previously been passed to the
@@ -50,9 +55,34 @@ public abstract class AbstractMethodEndpointAdapter extends TransformerObjectSup
      * @throws Exception in case of errors
      */
     public final void invoke(MessageContext messageContext, Object endpoint) throws Exception {
+        if (!supportsPayloadValidationCallback()) {
+            PayloadValidationCallback validationCallback =
+                    (PayloadValidationCallback) messageContext.getProperty(PayloadValidationCallback.PROPERTY_NAME);
+            if (validationCallback != null) {
+                messageContext.removeProperty(PayloadValidationCallback.PROPERTY_NAME);
+                if (!validationCallback.validate(messageContext)) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Not invoking [" + endpoint + "]: request payload is not valid");
+                    }
+                    return;
+                }
+            }
+        }
         invokeInternal(messageContext, (MethodEndpoint) endpoint);
     }
 
+    /**
+     * Indicates whether this adapter consumes a {@link PayloadValidationCallback} registered in the message context
+     * itself. Adapters that return <code>true</code> are responsible for removing the callback from the message context
+     * once it has been used. Default implementation returns <code>false</code>.
+     *
+     * @return <code>true</code> if this adapter consumes the validation callback; <code>false</code> otherwise
+     * @since 2.2
+     */
+    protected boolean supportsPayloadValidationCallback() {
+        return false;
+    }
+
     /**
      * Given a method endpoint, return whether or not this adapter can support it.
      *
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,12 @@
 
 package org.springframework.ws.server.endpoint.adapter;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.BeanClassLoaderAware;
@@ -40,10 +43,17 @@ import org.springframework.ws.server.endpoint.adapter.method.dom.JDomPayloadMeth
 import org.springframework.ws.server.endpoint.adapter.method.dom.XomPayloadMethodProcessor;
 import org.springframework.ws.server.endpoint.adapter.method.jaxb.JaxbElementPayloadMethodProcessor;
 import org.springframework.ws.server.endpoint.adapter.method.jaxb.XmlRootElementPayloadMethodProcessor;
+import org.springframework.ws.server.endpoint.support.PayloadValidationAbortedException;
+import org.springframework.ws.server.endpoint.support.PayloadValidationCallback;
 
 /**
  * Default extension of {@link AbstractMethodEndpointAdapter} with support for pluggable {@linkplain
  * MethodArgumentResolver argument resolvers} and {@linkplain MethodReturnValueHandler return value handlers}.
+ * <p/>
+ * The resolver for each parameter and the handler for the return type are determined once per endpoint method, and
+ * cached for subsequent invocations. The cache is cleared when new resolvers or handlers are set, and a cached method
+ * is looked up again when resolvers or handlers have been added to or removed from the current lists. Replacing an
+ * element of a list in place is not detected; set a new list instead.
  *
  * @author Arjen Poutsma
  * @since 2.0
@@ -73,6 +83,9 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 
     private ClassLoader classLoader;
 
+    private final ConcurrentMap<Method, InvocationPlan> invocationPlans =
+            new ConcurrentHashMap<Method, InvocationPlan>();
+
     /** Returns the list of {@code MethodArgumentResolver}s to use. */
     public List<MethodArgumentResolver> getMethodArgumentResolvers() {
         return methodArgumentResolvers;
@@ -81,6 +94,7 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
     /** Sets the list of {@code MethodArgumentResolver}s to use. */
     public void setMethodArgumentResolvers(List<MethodArgumentResolver> methodArgumentResolvers) {
         this.methodArgumentResolvers = methodArgumentResolvers;
+        invocationPlans.clear();
     }
 
     /** Returns the list of {@code MethodReturnValueHandler}s to use. */
@@ -91,6 +105,7 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
     /** Sets the list of {@code MethodReturnValueHandler}s to use. */
     public void setMethodReturnValueHandlers(List<MethodReturnValueHandler> methodReturnValueHandlers) {
         this.methodReturnValueHandlers = methodReturnValueHandlers;
+        invocationPlans.clear();
     }
 
     private ClassLoader getClassLoader() {
@@ -103,6 +118,7 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 
     public void afterPropertiesSet() throws Exception {
         initDefaultStrategies();
+        invocationPlans.clear();
     }
 
     /** Initialize the default implementations for the adapter's strategies. */
@@ -190,45 +206,108 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 
     @Override
     protected boolean supportsInternal(MethodEndpoint methodEndpoint) {
-        return supportsParameters(methodEndpoint.getMethodParameters()) &&
-                supportsReturnType(methodEndpoint.getReturnType());
+        return getInvocationPlan(methodEndpoint).isSupported();
     }
 
-    private boolean supportsParameters(MethodParameter[] methodParameters) {
-        for (MethodParameter methodParameter : methodParameters) {
-            boolean supported = false;
-            for (MethodArgumentResolver methodArgumentResolver : methodArgumentResolvers) {
-                if (logger.isTraceEnabled()) {
-                    logger.trace("Testing if argument resolver [" + methodArgumentResolver + "] supports [" +
-                            methodParameter.getGenericParameterType() + "]");
-                }
-                if (methodArgumentResolver.supportsParameter(methodParameter)) {
-                    supported = true;
-                    break;
-                }
+    /**
+     * Returns the invocation plan for the given method endpoint, creating it if necessary. A cached plan is created
+     * again if resolvers or handlers have been added or removed since it was created.
+     */
+    private InvocationPlan getInvocationPlan(MethodEndpoint methodEndpoint) {
+        Method method = methodEndpoint.getMethod();
+        int argumentResolverCount = size(methodArgumentResolvers);
+        int returnValueHandlerCount = size(methodReturnValueHandlers);
+        InvocationPlan invocationPlan = invocationPlans.get(method);
+        if (invocationPlan == null || invocationPlan.argumentResolverCount != argumentResolverCount ||
+                invocationPlan.returnValueHandlerCount != returnValueHandlerCount) {
+            invocationPlan = createInvocationPlan(methodEndpoint, argumentResolverCount, returnValueHandlerCount);
+            invocationPlans.put(method, invocationPlan);
+        }
+        return invocationPlan;
+    }
+
+    private static int size(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+
+    private InvocationPlan createInvocationPlan(MethodEndpoint methodEndpoint,
+                                                int argumentResolverCount,
+                                                int returnValueHandlerCount) {
+        MethodParameter[] parameters = methodEndpoint.getMethodParameters();
+        MethodArgumentResolver[] argumentResolvers = new MethodArgumentResolver[parameters.length];
+        MethodParameter returnType = methodEndpoint.getReturnType();
+        MethodReturnValueHandler returnValueHandler = null;
+        boolean parametersSupported = true;
+        for (int i = 0; i < parameters.length; i++) {
+            argumentResolvers[i] = getArgumentResolver(parameters[i]);
+            if (argumentResolvers[i] == null) {
+                // unsupported parameter, so the method is not supported at all
+                parametersSupported = false;
+                break;
             }
-            if (!supported) {
-                return false;
+        }
+        if (parametersSupported) {
+            returnValueHandler = getReturnValueHandler(returnType);
+        }
+        return new InvocationPlan(parameters, argumentResolvers, returnType, returnValueHandler,
+                argumentResolverCount, returnValueHandlerCount);
+    }
+
+    private MethodArgumentResolver getArgumentResolver(MethodParameter methodParameter) {
+        for (MethodArgumentResolver methodArgumentResolver : methodArgumentResolvers) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Testing if argument resolver [" + methodArgumentResolver + "] supports [" +
+                        methodParameter.getGenericParameterType() + "]");
+            }
+            if (methodArgumentResolver.supportsParameter(methodParameter)) {
+                return methodArgumentResolver;
             }
         }
-        return true;
+        return null;
     }
 
-    private boolean supportsReturnType(MethodParameter methodReturnType) {
+    private MethodReturnValueHandler getReturnValueHandler(MethodParameter methodReturnType) {
         if (Void.TYPE.equals(methodReturnType.getParameterType())) {
-            return true;
+            return null;
         }
         for (MethodReturnValueHandler methodReturnValueHandler : methodReturnValueHandlers) {
             if (methodReturnValueHandler.supportsReturnType(methodReturnType)) {
-                return true;
+                return methodReturnValueHandler;
             }
         }
-        return false;
+        return null;
+    }
+
+    /** Returns <code>true</code>, as the callback is consumed by the payload method processors or this adapter. */
+    @Override
+    protected boolean supportsPayloadValidationCallback() {
+        return true;
     }
 
     @Override
     protected final void invokeInternal(MessageContext messageContext, MethodEndpoint methodEndpoint) throws Exception {
-        Object[] args = getMethodArguments(messageContext, methodEndpoint);
+        Object[] args;
+        try {
+            args = getMethodArguments(messageContext, methodEndpoint);
+        }
+        catch (PayloadValidationAbortedException ex) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Not invoking [" + methodEndpoint + "]: " + ex.getMessage());
+            }
+            return;
+        }
+        PayloadValidationCallback validationCallback =
+                (PayloadValidationCallback) messageContext.getProperty(PayloadValidationCallback.PROPERTY_NAME);
+        if (validationCallback != null) {
+            // none of the arguments was read by a validating processor, so validate in a separate pass
+            messageContext.removeProperty(PayloadValidationCallback.PROPERTY_NAME);
+            if (!validationCallback.validate(messageContext)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Not invoking [" + methodEndpoint + "]: request payload is not valid");
+                }
+                return;
+            }
+        }
 
         if (logger.isTraceEnabled()) {
             StringBuilder builder = new StringBuilder("Invoking [");
@@ -252,8 +331,8 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
     /**
      * Returns the argument array for the given method endpoint.
      * <p/>
-     * This implementation iterates over the set {@linkplain #setMethodArgumentResolvers(List) argument resolvers} to
-     * resolve each argument.
+     * This implementation uses the {@linkplain #setMethodArgumentResolvers(List) argument resolver} that supports each
+     * parameter to resolve the argument.
      *
      * @param messageContext the current message context
      * @param methodEndpoint the method endpoint to get arguments for
@@ -262,14 +341,13 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
      */
     protected Object[] getMethodArguments(MessageContext messageContext, MethodEndpoint methodEndpoint)
             throws Exception {
-        MethodParameter[] parameters = methodEndpoint.getMethodParameters();
+        InvocationPlan invocationPlan = getInvocationPlan(methodEndpoint);
+        MethodParameter[] parameters = invocationPlan.parameters;
         Object[] args = new Object[parameters.length];
         for (int i = 0; i < parameters.length; i++) {
-            for (MethodArgumentResolver methodArgumentResolver : methodArgumentResolvers) {
-                if (methodArgumentResolver.supportsParameter(parameters[i])) {
-                    args[i] = methodArgumentResolver.resolveArgument(messageContext, parameters[i]);
-                    break;
-                }
+            MethodArgumentResolver methodArgumentResolver = invocationPlan.argumentResolvers[i];
+            if (methodArgumentResolver != null) {
+                args[i] = methodArgumentResolver.resolveArgument(messageContext, parameters[i]);
             }
         }
         return args;
@@ -278,8 +356,8 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
     /**
      * Handle the return value for the given method endpoint.
      * <p/>
-     * This implementation iterates over the set {@linkplain #setMethodReturnValueHandlers(java.util.List)}  return value
-     * handlers} to resolve the return value.
+     * This implementation uses the {@linkplain #setMethodReturnValueHandlers(java.util.List) return value handler} that
+     * supports the return type to handle the return value.
      *
      * @param messageContext the current message context
      * @param returnValue    the return value
@@ -289,14 +367,55 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
     protected void handleMethodReturnValue(MessageContext messageContext,
                                            Object returnValue,
                                            MethodEndpoint methodEndpoint) throws Exception {
-        MethodParameter returnType = methodEndpoint.getReturnType();
-        for (MethodReturnValueHandler methodReturnValueHandler : methodReturnValueHandlers) {
-            if (methodReturnValueHandler.supportsReturnType(returnType)) {
-                methodReturnValueHandler.handleReturnValue(messageContext, returnType, returnValue);
-                return;
+        InvocationPlan invocationPlan = getInvocationPlan(methodEndpoint);
+        MethodReturnValueHandler methodReturnValueHandler = invocationPlan.returnValueHandler;
+        if (methodReturnValueHandler == null) {
+            throw new IllegalStateException(
+                    "Return value [" + returnValue + "] not resolved by any MethodReturnValueHandler");
+        }
+        methodReturnValueHandler.handleReturnValue(messageContext, invocationPlan.returnType, returnValue);
+    }
+
+    /**
+     * The argument resolvers and return value handler of a single endpoint method. Unsupported parameters, and
+     * unsupported or {@code void} return types, have a {@code null} resolver or handler. The plan also records the
+     * number of resolvers and handlers it was created from.
+     */
+    private static class InvocationPlan {
+
+        private final MethodParameter[] parameters;
+
+        private final MethodArgumentResolver[] argumentResolvers;
+
+        private final MethodParameter returnType;
+
+        private final MethodReturnValueHandler returnValueHandler;
+
+        private final int argumentResolverCount;
+
+        private final int returnValueHandlerCount;
+
+        private InvocationPlan(MethodParameter[] parameters,
+                               MethodArgumentResolver[] argumentResolvers,
+                               MethodParameter returnType,
+                               MethodReturnValueHandler returnValueHandler,
+                               int argumentResolverCount,
+                               int returnValueHandlerCount) {
+            this.parameters = parameters;
+            this.argumentResolvers = argumentResolvers;
+            this.returnType = returnType;
+            this.returnValueHandler = returnValueHandler;
+            this.argumentResolverCount = argumentResolverCount;
+            this.returnValueHandlerCount = returnValueHandlerCount;
+        }
+
+        public boolean isSupported() {
+            for (MethodArgumentResolver argumentResolver : argumentResolvers) {
+                if (argumentResolver == null) {
+                    return false;
+                }
             }
+            return returnValueHandler != null || Void.TYPE.equals(returnType.getParameterType());
         }
-        throw new IllegalStateException(
-                "Return value [" + returnValue + "] not resolved by any MethodReturnValueHandler");
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,18 @@
 
 package org.springframework.ws.server.endpoint.adapter.method;
 
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.xml.namespace.NamespaceContext;
 import javax.xml.namespace.QName;
 import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
@@ -45,14 +51,25 @@ import org.w3c.dom.NodeList;
  * that should be bound to that parameter. The parameter can either a "natively supported" XPath type ({@link Boolean
  * boolean}, {@link Double double}, {@link String}, {@link Node}, or {@link NodeList}), or a type that is {@linkplain
  * ConversionService#canConvert(Class, Class) supported} by the {@link ConversionService}.
+ * <p/>
+ * The expressions of a method are compiled the first time one of its parameters is resolved, using an {@link XPath}
+ * created by the {@linkplain #createXPathFactory() XPath factory}, and reused for subsequent invocations. The request
+ * payload is transformed into a DOM only once per message context, and shared between all {@code @XPathParam}
+ * parameters of that invocation. As a consequence, {@link Node} and {@link NodeList} parameters of one invocation
+ * belong to the same document: changes made to a node through one parameter are visible through the others.
  *
  * @author Arjen Poutsma
  * @since 2.0
  */
 public class XPathParamMethodArgumentResolver implements MethodArgumentResolver {
 
+    private static final String PAYLOAD_ELEMENT_PROPERTY_NAME = "XPathParamMethodArgumentResolver.payloadElement";
+
     private final XPathFactory xpathFactory = createXPathFactory();
 
+    private final ConcurrentMap<Method, CompiledXPathParam[]> compiledParams =
+            new ConcurrentHashMap<Method, CompiledXPathParam[]>();
+
     private TransformerHelper transformerHelper = new TransformerHelper();
 
     private ConversionService conversionService = ConversionServiceFactory.createDefaultConversionService();
@@ -97,15 +114,39 @@ public class XPathParamMethodArgumentResolver implements MethodArgumentResolver
             useConversionService = true;
         }
 
-        XPath xpath = createXPath();
-        xpath.setNamespaceContext(NamespaceUtils.getNamespaceContext(parameter.getMethod()));
-
-        Element rootElement = getRootElement(messageContext.getRequest().getPayloadSource());
-        String expression = parameter.getParameterAnnotation(XPathParam.class).value();
-        Object result = xpath.evaluate(expression, rootElement, evaluationReturnType);
+        CompiledXPathParam compiledParam = getCompiledParam(parameter);
+        Element rootElement = getRootElement(messageContext);
+        Object result = compiledParam.evaluate(rootElement, evaluationReturnType);
         return useConversionService ? conversionService.convert(result, parameterType) : result;
     }
 
+    private CompiledXPathParam getCompiledParam(MethodParameter parameter) throws XPathExpressionException {
+        Method method = parameter.getMethod();
+        CompiledXPathParam[] methodParams = compiledParams.get(method);
+        if (methodParams == null) {
+            methodParams = compileParams(method);
+            compiledParams.putIfAbsent(method, methodParams);
+        }
+        return methodParams[parameter.getParameterIndex()];
+    }
+
+    private CompiledXPathParam[] compileParams(Method method) throws XPathExpressionException {
+        NamespaceContext namespaceContext = NamespaceUtils.getNamespaceContext(method);
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        CompiledXPathParam[] result = new CompiledXPathParam[parameterAnnotations.length];
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof XPathParam) {
+                    XPath xpath = createXPath();
+                    xpath.setNamespaceContext(namespaceContext);
+                    String expression = ((XPathParam) annotation).value();
+                    result[i] = new CompiledXPathParam(xpath.compile(expression));
+                }
+            }
+        }
+        return result;
+    }
+
     private QName getReturnType(Class<?> parameterType) {
         if (Boolean.class.equals(parameterType) || Boolean.TYPE.equals(parameterType)) {
             return XPathConstants.BOOLEAN;
@@ -133,6 +174,15 @@ public class XPathParamMethodArgumentResolver implements MethodArgumentResolver
         }
     }
 
+    private Element getRootElement(MessageContext messageContext) throws TransformerException {
+        Element rootElement = (Element) messageContext.getProperty(PAYLOAD_ELEMENT_PROPERTY_NAME);
+        if (rootElement == null) {
+            rootElement = getRootElement(messageContext.getRequest().getPayloadSource());
+            messageContext.setProperty(PAYLOAD_ELEMENT_PROPERTY_NAME, rootElement);
+        }
+        return rootElement;
+    }
+
     private Element getRootElement(Source source) throws TransformerException {
         DOMResult domResult = new DOMResult();
         transformerHelper.transform(source, domResult);
@@ -152,5 +202,23 @@ public class XPathParamMethodArgumentResolver implements MethodArgumentResolver
         return XPathFactory.newInstance();
     }
 
+    /**
+     * A compiled {@code @XPathParam} expression. JAXP expressions are not thread-safe, so evaluation is synchronized on
+     * the expression.
+     */
+    private static class CompiledXPathParam {
+
+        private final XPathExpression expression;
+
+        private CompiledXPathParam(XPathExpression expression) {
+            this.expression = expression;
+        }
+
+        public Object evaluate(Node node, QName returnType) throws XPathExpressionException {
+            synchronized (expression) {
+                return expression.evaluate(node, returnType);
+            }
+        }
+    }
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2011 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,10 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import javax.xml.bind.JAXBContext;
@@ -30,6 +34,9 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.JAXBIntrospector;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.bind.ValidationEventLocator;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLEventWriter;
@@ -41,11 +48,14 @@ import javax.xml.transform.Source;
 import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
 
 import org.springframework.util.Assert;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.adapter.method.AbstractPayloadMethodProcessor;
+import org.springframework.ws.server.endpoint.support.PayloadValidationAbortedException;
+import org.springframework.ws.server.endpoint.support.PayloadValidationCallback;
 import org.springframework.ws.stream.StreamingPayload;
 import org.springframework.ws.stream.StreamingWebServiceMessage;
 import org.springframework.xml.transform.TraxUtils;
@@ -53,6 +63,7 @@ import org.springframework.xml.transform.TraxUtils;
 import org.w3c.dom.Node;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXParseException;
 import org.xml.sax.XMLReader;
 import org.xml.sax.ext.LexicalHandler;
 
@@ -63,6 +74,13 @@ import org.xml.sax.ext.LexicalHandler;
  * {@linkplain #marshalToResponsePayload(org.springframework.ws.context.MessageContext, Class, Object) marshalling} and
  * {@linkplain #unmarshalFromRequestPayload(org.springframework.ws.context.MessageContext, Class) unmarshalling}
  * methods.
+ * <p/>
+ * Marshallers and unmarshallers are cached per class and per thread, since they are not thread-safe. A cached instance
+ * is removed from the cache while it is in use, and only returned to it when marshalling or unmarshalling completed
+ * successfully.
+ * <p/>
+ * When a {@link PayloadValidationCallback} is registered in the message context, the request payload is validated
+ * against its schema while it is being unmarshalled, and any validation errors are reported to the callback.
  *
  * @author Arjen Poutsma
  * @since 2.0
@@ -71,6 +89,20 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
     private final ConcurrentMap<Class, JAXBContext> jaxbContexts = new ConcurrentHashMap<Class, JAXBContext>();
 
+    private final ThreadLocal<Map<Class, Marshaller>> marshallers = new ThreadLocal<Map<Class, Marshaller>>() {
+        @Override
+        protected Map<Class, Marshaller> initialValue() {
+            return new HashMap<Class, Marshaller>();
+        }
+    };
+
+    private final ThreadLocal<Map<Class, Unmarshaller>> unmarshallers = new ThreadLocal<Map<Class, Unmarshaller>>() {
+        @Override
+        protected Map<Class, Unmarshaller> initialValue() {
+            return new HashMap<Class, Unmarshaller>();
+        }
+    };
+
     /**
      * Marshals the given {@code jaxbElement} to the response payload of the given message context.
      *
@@ -96,13 +128,15 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         }
         else {
             Result responsePayload = response.getPayloadResult();
+            Marshaller marshaller = borrowMarshaller(clazz);
             try {
-                Jaxb2ResultCallback callback = new Jaxb2ResultCallback(clazz, jaxbElement);
+                Jaxb2ResultCallback callback = new Jaxb2ResultCallback(marshaller, jaxbElement);
                 TraxUtils.doWithResult(responsePayload, callback);
             }
             catch (Exception ex) {
                 throw convertToJaxbException(ex);
             }
+            returnMarshaller(clazz, marshaller);
         }
     }
 
@@ -120,17 +154,14 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         if (requestPayload == null) {
             return null;
         }
-        try {
-            Jaxb2SourceCallback callback = new Jaxb2SourceCallback(clazz);
-            TraxUtils.doWithSource(requestPayload, callback);
-            if (logger.isDebugEnabled()) {
-                logger.debug("Unmarshalled payload request to [" + callback.result + "]");
-            }
-            return callback.result;
-        }
-        catch (Exception ex) {
-            throw convertToJaxbException(ex);
+        Unmarshaller unmarshaller = borrowUnmarshaller(clazz);
+        Jaxb2SourceCallback callback = new Jaxb2SourceCallback(unmarshaller);
+        unmarshal(messageContext, requestPayload, unmarshaller, callback);
+        returnUnmarshaller(clazz, unmarshaller);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Unmarshalled payload request to [" + callback.result + "]");
         }
+        return callback.result;
     }
 
     /**
@@ -147,16 +178,67 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         if (requestPayload == null) {
             return null;
         }
+        Unmarshaller unmarshaller = borrowUnmarshaller(clazz);
+        JaxbElementSourceCallback<T> callback = new JaxbElementSourceCallback<T>(unmarshaller, clazz);
+        unmarshal(messageContext, requestPayload, unmarshaller, callback);
+        returnUnmarshaller(clazz, unmarshaller);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Unmarshalled payload request to [" + callback.result + "]");
+        }
+        return callback.result;
+    }
+
+    private void unmarshal(MessageContext messageContext,
+                           Source requestPayload,
+                           Unmarshaller unmarshaller,
+                           TraxUtils.SourceCallback callback) throws JAXBException {
+        PayloadValidationCallback validationCallback =
+                (PayloadValidationCallback) messageContext.getProperty(PayloadValidationCallback.PROPERTY_NAME);
+        if (validationCallback == null) {
+            try {
+                TraxUtils.doWithSource(requestPayload, callback);
+            }
+            catch (Exception ex) {
+                throw convertToJaxbException(ex);
+            }
+            return;
+        }
+        messageContext.removeProperty(PayloadValidationCallback.PROPERTY_NAME);
+        ValidationErrorCollector errorCollector = new ValidationErrorCollector();
+        Exception unmarshalException = null;
+        Schema previousSchema = unmarshaller.getSchema();
+        ValidationEventHandler previousEventHandler = unmarshaller.getEventHandler();
+        unmarshaller.setSchema(validationCallback.getSchema());
+        unmarshaller.setEventHandler(errorCollector);
         try {
-            JaxbElementSourceCallback<T> callback = new JaxbElementSourceCallback<T>(clazz);
             TraxUtils.doWithSource(requestPayload, callback);
-            if (logger.isDebugEnabled()) {
-                logger.debug("Unmarshalled payload request to [" + callback.result + "]");
-            }
-            return callback.result;
         }
         catch (Exception ex) {
-            throw convertToJaxbException(ex);
+            unmarshalException = ex;
+        }
+        finally {
+            unmarshaller.setSchema(previousSchema);
+            unmarshaller.setEventHandler(previousEventHandler);
+        }
+        if (!errorCollector.errors.isEmpty()) {
+            List<SAXParseException> errorList = errorCollector.errors;
+            SAXParseException[] errors = errorList.toArray(new SAXParseException[errorList.size()]);
+            boolean proceed;
+            try {
+                proceed = validationCallback.handleValidationErrors(messageContext, errors);
+            }
+            catch (Exception ex) {
+                throw convertToJaxbException(ex);
+            }
+            if (!proceed) {
+                throw new PayloadValidationAbortedException("Request payload is not valid");
+            }
+        }
+        else if (unmarshalException == null && logger.isDebugEnabled()) {
+            logger.debug("Request payload validated while unmarshalling");
+        }
+        if (unmarshalException != null) {
+            throw convertToJaxbException(unmarshalException);
         }
     }
 
@@ -178,6 +260,9 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
      * Creates a new {@link Marshaller} to be used for marshalling objects to XML. Defaults to
      * {@link javax.xml.bind.JAXBContext#createMarshaller()}, but can be overridden in subclasses for further
      * customization.
+     * <p/>
+     * The returned marshaller is cached and reused for subsequent messages on the same thread, so it should not be
+     * customized for a particular message.
      *
      * @param jaxbContext the JAXB context to create a marshaller for
      * @return the marshaller
@@ -187,14 +272,22 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         return jaxbContext.createMarshaller();
     }
 
-    private Marshaller createMarshaller(Class<?> clazz) throws JAXBException {
-        return createMarshaller(getJaxbContext(clazz));
+    private Marshaller borrowMarshaller(Class<?> clazz) throws JAXBException {
+        Marshaller marshaller = marshallers.get().remove(clazz);
+        return marshaller != null ? marshaller : createMarshaller(getJaxbContext(clazz));
+    }
+
+    private void returnMarshaller(Class<?> clazz, Marshaller marshaller) {
+        marshallers.get().put(clazz, marshaller);
     }
 
     /**
      * Creates a new {@link Unmarshaller} to be used for unmarshalling XML to objects. Defaults to
      * {@link javax.xml.bind.JAXBContext#createUnmarshaller()}, but can be overridden in subclasses for further
      * customization.
+     * <p/>
+     * The returned unmarshaller is cached and reused for subsequent messages on the same thread, so it should not be
+     * customized for a particular message.
      *
      * @param jaxbContext the JAXB context to create a unmarshaller for
      * @return the unmarshaller
@@ -204,10 +297,14 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         return jaxbContext.createUnmarshaller();
     }
 
-    private Unmarshaller createUnmarshaller(Class<?> clazz) throws JAXBException {
-        return createUnmarshaller(getJaxbContext(clazz));
+    private Unmarshaller borrowUnmarshaller(Class<?> clazz) throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallers.get().remove(clazz);
+        return unmarshaller != null ? unmarshaller : createUnmarshaller(getJaxbContext(clazz));
     }
 
+    private void returnUnmarshaller(Class<?> clazz, Unmarshaller unmarshaller) {
+        unmarshallers.get().put(clazz, unmarshaller);
+    }
 
     private JAXBContext getJaxbContext(Class<?> clazz) throws JAXBException {
         Assert.notNull(clazz, "'clazz' must not be null");
@@ -219,6 +316,25 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         return jaxbContext;
     }
 
+    /**
+     * Collects the validation errors reported by the unmarshaller, so that they can be handled after unmarshalling,
+     * just as they would be after a separate validation pass.
+     */
+    private static class ValidationErrorCollector implements ValidationEventHandler {
+
+        private final List<SAXParseException> errors = new ArrayList<SAXParseException>();
+
+        public boolean handleEvent(ValidationEvent event) {
+            if (event.getSeverity() != ValidationEvent.WARNING) {
+                ValidationEventLocator locator = event.getLocator();
+                int lineNumber = locator != null ? locator.getLineNumber() : -1;
+                int columnNumber = locator != null ? locator.getColumnNumber() : -1;
+                errors.add(new SAXParseException(event.getMessage(), null, null, lineNumber, columnNumber));
+            }
+            return true;
+        }
+    }
+
     // Callbacks
 
     private class Jaxb2SourceCallback implements TraxUtils.SourceCallback {
@@ -227,8 +343,8 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
         private Object result;
 
-        public Jaxb2SourceCallback(Class<?> clazz) throws JAXBException {
-            this.unmarshaller = createUnmarshaller(clazz);
+        public Jaxb2SourceCallback(Unmarshaller unmarshaller) {
+            this.unmarshaller = unmarshaller;
         }
 
         public void domSource(Node node) throws JAXBException {
@@ -268,8 +384,8 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
         private JAXBElement<T> result;
 
-        public JaxbElementSourceCallback(Class<T> declaredType) throws JAXBException {
-            this.unmarshaller = createUnmarshaller(declaredType);
+        public JaxbElementSourceCallback(Unmarshaller unmarshaller, Class<T> declaredType) {
+            this.unmarshaller = unmarshaller;
             this.declaredType = declaredType;
         }
 
@@ -308,8 +424,8 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
         private final Object jaxbElement;
 
-        private Jaxb2ResultCallback(Class<?> clazz, Object jaxbElement) throws JAXBException {
-            this.marshaller = createMarshaller(clazz);
+        private Jaxb2ResultCallback(Marshaller marshaller, Object jaxbElement) {
+            this.marshaller = marshaller;
             this.jaxbElement = jaxbElement;
         }
 
@@ -344,16 +460,15 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
     private class JaxbStreamingPayload implements StreamingPayload {
 
-        private final Object jaxbElement;
+        private final Class<?> clazz;
 
-        private final Marshaller marshaller;
+        private final Object jaxbElement;
 
         private final QName name;
 
         private JaxbStreamingPayload(Class<?> clazz, Object jaxbElement) throws JAXBException {
             JAXBContext jaxbContext = getJaxbContext(clazz);
-            this.marshaller = jaxbContext.createMarshaller();
-            this.marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            this.clazz = clazz;
             this.jaxbElement = jaxbElement;
             JAXBIntrospector introspector = jaxbContext.createJAXBIntrospector();
             this.name = introspector.getElementName(jaxbElement);
@@ -365,7 +480,12 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
         public void writeTo(XMLStreamWriter streamWriter) throws XMLStreamException {
             try {
+                Marshaller marshaller = borrowMarshaller(clazz);
+                Object fragment = marshaller.getProperty(Marshaller.JAXB_FRAGMENT);
+                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
                 marshaller.marshal(jaxbElement, streamWriter);
+                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
+                returnMarshaller(clazz, marshaller);
             }
             catch (JAXBException ex) {
                 throw new XMLStreamException("Could not marshal [" + jaxbElement + "]: " + ex.getMessage(), ex);
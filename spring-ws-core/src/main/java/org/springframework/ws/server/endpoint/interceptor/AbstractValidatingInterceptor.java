@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2011 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,20 +17,29 @@
 package org.springframework.ws.server.endpoint.interceptor;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
+import javax.xml.validation.Schema;
 
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.MethodParameter;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.endpoint.MethodEndpoint;
+import org.springframework.ws.server.endpoint.annotation.RequestPayload;
+import org.springframework.ws.server.endpoint.support.PayloadValidationCallback;
 import org.springframework.ws.soap.SoapFault;
 import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.validation.ValidationPolicy;
 import org.springframework.xml.transform.TransformerObjectSupport;
+import org.springframework.xml.validation.SchemaRegistry;
 import org.springframework.xml.validation.ValidationErrorHandler;
 import org.springframework.xml.validation.XmlValidator;
 import org.springframework.xml.validation.XmlValidatorFactory;
@@ -47,6 +56,14 @@ import org.xml.sax.SAXParseException;
  * <p/>
  * By default, only the request message is validated, but this behaviour can be changed using the
  * <code>validateRequest</code> and <code>validateResponse</code> properties.
+ * <p/>
+ * When the {@link #setValidateRequestWhileUnmarshalling(boolean) validateRequestWhileUnmarshalling} property is set,
+ * requests for JAXB2 {@link MethodEndpoint method endpoints} are not validated in a separate pass. Instead, the schema
+ * is handed to the unmarshaller, so that the payload is validated and unmarshalled in a single parse.
+ * <p/>
+ * A {@link #setValidationPolicy(ValidationPolicy) validation policy} can be set to validate only part of the messages.
+ * The number of validated and skipped messages is available through {@link #getValidatedMessageCount()} and {@link
+ * #getSkippedMessageCount()}.
  *
  * @author Arjen Poutsma
  * @see #getValidationRequestSource(org.springframework.ws.WebServiceMessage)
@@ -56,6 +73,9 @@ import org.xml.sax.SAXParseException;
 public abstract class AbstractValidatingInterceptor extends TransformerObjectSupport
         implements EndpointInterceptor, InitializingBean {
 
+    private static final boolean jaxb2Present =
+            ClassUtils.isPresent("javax.xml.bind.Binder", AbstractValidatingInterceptor.class.getClassLoader());
+
     private String schemaLanguage = XmlValidatorFactory.SCHEMA_W3C_XML;
 
     private Resource[] schemas;
@@ -64,10 +84,22 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 
     private boolean validateResponse = false;
 
+    private boolean validateRequestWhileUnmarshalling = false;
+
     private XmlValidator validator;
 
     private ValidationErrorHandler errorHandler;
 
+    private Schema unmarshallingSchema;
+
+    private SchemaRegistry schemaRegistry;
+
+    private ValidationPolicy validationPolicy;
+
+    private final AtomicLong validatedMessageCount = new AtomicLong();
+
+    private final AtomicLong skippedMessageCount = new AtomicLong();
+
     public String getSchemaLanguage() {
         return schemaLanguage;
     }
@@ -153,6 +185,56 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
         this.validateResponse = validateResponse;
     }
 
+    /**
+     * Indicates whether the request should be validated while it is unmarshalled, rather than in a separate pass.
+     * Default is <code>false</code>.
+     * <p/>
+     * When set to <code>true</code>, requests for {@link MethodEndpoint method endpoints} with a {@link RequestPayload
+     * &#64;RequestPayload} parameter of a JAXB2 type ({@code @XmlRootElement}, {@code @XmlType}, or {@code
+     * JAXBElement}) are validated by the unmarshaller of the JAXB2 payload method processors. Validation errors are
+     * passed on to {@link #handleRequestValidationErrors(MessageContext, SAXParseException[])}, just as they would be
+     * in a separate validation pass. Other requests are validated as before.
+     * <p/>
+     * Note that this mode validates the request payload only. If the parameter is not read by a JAXB2 payload method
+     * processor after all, the payload is validated in a separate pass just before the endpoint is invoked. This
+     * property has no effect when JAXB2 is not available on the classpath.
+     */
+    public void setValidateRequestWhileUnmarshalling(boolean validateRequestWhileUnmarshalling) {
+        this.validateRequestWhileUnmarshalling = validateRequestWhileUnmarshalling;
+    }
+
+    /**
+     * Sets the registry through which the compiled schemas are shared with other validators. By default, the schema
+     * resources are compiled for this interceptor only. This registry only applies to the {@link
+     * #setSchemas(Resource[]) schemas} property; an {@link XsdSchema} or {@link XsdSchemaCollection} uses the registry
+     * it was configured with.
+     *
+     * @param schemaRegistry the schema registry
+     * @since 2.2
+     */
+    public void setSchemaRegistry(SchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
+    /**
+     * Sets the policy that decides which messages are validated. By default, all messages are validated.
+     *
+     * @param validationPolicy the validation policy
+     */
+    public void setValidationPolicy(ValidationPolicy validationPolicy) {
+        this.validationPolicy = validationPolicy;
+    }
+
+    /** Returns the number of messages that have been validated. */
+    public long getValidatedMessageCount() {
+        return validatedMessageCount.get();
+    }
+
+    /** Returns the number of messages for which validation was skipped by the validation policy. */
+    public long getSkippedMessageCount() {
+        return skippedMessageCount.get();
+    }
+
     public void afterPropertiesSet() throws Exception {
         if (validator == null && !ObjectUtils.isEmpty(schemas)) {
             Assert.hasLength(schemaLanguage, "schemaLanguage is required");
@@ -162,9 +244,31 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
             if (logger.isInfoEnabled()) {
                 logger.info("Validating using " + StringUtils.arrayToCommaDelimitedString(schemas));
             }
-            validator = XmlValidatorFactory.createValidator(schemas, schemaLanguage);
+            validator = XmlValidatorFactory.createValidator(schemas, schemaLanguage, schemaRegistry);
         }
         Assert.notNull(validator, "Setting 'schema', 'schemas', 'xsdSchema', or 'xsdSchemaCollection' is required");
+        if (validateRequest && validateRequestWhileUnmarshalling) {
+            unmarshallingSchema = createUnmarshallingSchema();
+        }
+    }
+
+    /**
+     * Creates the {@link Schema} that is used when validating while unmarshalling. Default implementation returns the
+     * schema compiled for the validator of this interceptor, so that both use the same grammar, loaded from the same
+     * resources through the same {@link #setSchemaRegistry(SchemaRegistry) registry}. Validators that do not expose
+     * their schema, such as custom validators of an {@link XsdSchema}, are not supported.
+     *
+     * @return the schema
+     * @throws IOException  in case of I/O errors
+     * @throws SAXException in case of schema parsing errors
+     */
+    protected Schema createUnmarshallingSchema() throws IOException, SAXException {
+        Schema schema = XmlValidatorFactory.getSchema(validator);
+        if (schema == null) {
+            throw new IllegalStateException("Validating while unmarshalling requires a validator created by " +
+                    "XmlValidatorFactory, but got [" + validator + "]");
+        }
+        return schema;
     }
 
     /**
@@ -181,20 +285,64 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
     public boolean handleRequest(MessageContext messageContext, Object endpoint)
             throws IOException, SAXException, TransformerException {
         if (validateRequest) {
-            Source requestSource = getValidationRequestSource(messageContext.getRequest());
-            if (requestSource != null) {
-                SAXParseException[] errors = validator.validate(requestSource, errorHandler);
-                if (!ObjectUtils.isEmpty(errors)) {
-                    return handleRequestValidationErrors(messageContext, errors);
+            if (!shouldValidate(messageContext, messageContext.getRequest())) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Request message not validated due to validation policy");
                 }
-                else if (logger.isDebugEnabled()) {
-                    logger.debug("Request message validated");
+                return true;
+            }
+            if (unmarshallingSchema != null && isUnmarshallingEndpoint(endpoint)) {
+                messageContext
+                        .setProperty(PayloadValidationCallback.PROPERTY_NAME, new UnmarshallingValidationCallback());
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Request message will be validated while unmarshalling");
                 }
+                return true;
+            }
+            return validateRequestSource(messageContext);
+        }
+        return true;
+    }
+
+    private boolean validateRequestSource(MessageContext messageContext)
+            throws IOException, SAXException, TransformerException {
+        Source requestSource = getValidationRequestSource(messageContext.getRequest());
+        if (requestSource != null) {
+            SAXParseException[] errors = validator.validate(requestSource, errorHandler);
+            if (!ObjectUtils.isEmpty(errors)) {
+                return handleRequestValidationErrors(messageContext, errors);
+            }
+            else if (logger.isDebugEnabled()) {
+                logger.debug("Request message validated");
             }
         }
         return true;
     }
 
+    private boolean shouldValidate(MessageContext messageContext, WebServiceMessage message) {
+        if (validationPolicy == null || validationPolicy.shouldValidate(messageContext, message)) {
+            validatedMessageCount.incrementAndGet();
+            return true;
+        }
+        else {
+            skippedMessageCount.incrementAndGet();
+            return false;
+        }
+    }
+
+    private boolean isUnmarshallingEndpoint(Object endpoint) {
+        if (!jaxb2Present || !(endpoint instanceof MethodEndpoint)) {
+            return false;
+        }
+        for (MethodParameter parameter : ((MethodEndpoint) endpoint).getMethodParameters()) {
+            if (parameter.getParameterAnnotation(RequestPayload.class) != null &&
+                    Jaxb2Types.isJaxb2Type(parameter.getParameterType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Template method that is called when the request message contains validation errors. Default implementation logs
      * all errors, and returns <code>false</code>, i.e. do not process the request.
@@ -223,6 +371,12 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
      */
     public boolean handleResponse(MessageContext messageContext, Object endpoint) throws IOException, SAXException {
         if (validateResponse) {
+            if (!shouldValidate(messageContext, messageContext.getResponse())) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Response message not validated due to validation policy");
+                }
+                return true;
+            }
             Source responseSource = getValidationResponseSource(messageContext.getResponse());
             if (responseSource != null) {
                 SAXParseException[] errors = validator.validate(responseSource, errorHandler);
@@ -276,4 +430,31 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
      * @return the part of the message that is to validated, or <code>null</code> not to validate anything
      */
     protected abstract Source getValidationResponseSource(WebServiceMessage response);
+
+    /** Callback that hands the schema to the unmarshaller, and handles its validation errors. */
+    private class UnmarshallingValidationCallback implements PayloadValidationCallback {
+
+        public Schema getSchema() {
+            return unmarshallingSchema;
+        }
+
+        public boolean handleValidationErrors(MessageContext messageContext, SAXParseException[] errors)
+                throws TransformerException {
+            return handleRequestValidationErrors(messageContext, errors);
+        }
+
+        public boolean validate(MessageContext messageContext) throws Exception {
+            return validateRequestSource(messageContext);
+        }
+    }
+
+    /** Inner class to avoid a hard dependency on JAXB2. */
+    private static class Jaxb2Types {
+
+        static boolean isJaxb2Type(Class<?> type) {
+            return type.isAnnotationPresent(javax.xml.bind.annotation.XmlRootElement.class) ||
+                    type.isAnnotationPresent(javax.xml.bind.annotation.XmlType.class) ||
+                    javax.xml.bind.JAXBElement.class.equals(type);
+        }
+    }
 }
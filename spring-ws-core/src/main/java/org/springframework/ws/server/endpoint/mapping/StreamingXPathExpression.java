@@ -0,0 +1,552 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.server.endpoint.mapping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.server.endpoint.support.PayloadRootUtils;
+import org.springframework.xml.namespace.QNameUtils;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * XPath expression that is evaluated against a streaming view of a payload, rather than against a DOM copy of it. Only
+ * a subset of XPath is supported: absolute paths of child steps, with optional attribute predicates
+ * (<code>[@attr]</code>, <code>[@attr='value']</code>) on each step, an optional text predicate
+ * (<code>[text()='value']</code>) on the last step, and ending in an element, <code>text()</code>, or
+ * <code>@attr</code>. Evaluation stops as soon as the first matching node has been read.
+ * <p/>
+ * Payloads that are exposed as DOM are walked in place. Other payloads are read through a {@link XMLStreamReader}.
+ *
+ * @author Arjen Poutsma
+ * @see XPathPayloadEndpointMapping#setStreaming(boolean)
+ * @since 2.2
+ */
+final class StreamingXPathExpression {
+
+    private static final int TARGET_ELEMENT = 0;
+
+    private static final int TARGET_TEXT = 1;
+
+    private static final int TARGET_ATTRIBUTE = 2;
+
+    private final XMLInputFactory inputFactory = PayloadRootUtils.createXmlInputFactory();
+
+    private final Step[] steps;
+
+    private final int target;
+
+    private final QName targetAttribute;
+
+    private StreamingXPathExpression(Step[] steps, int target, QName targetAttribute) {
+        this.steps = steps;
+        this.target = target;
+        this.targetAttribute = targetAttribute;
+    }
+
+    /**
+     * Compiles the given expression.
+     *
+     * @param expression the XPath expression
+     * @param namespaces the namespaces bindings used in the expression, may be <code>null</code>
+     * @return the compiled expression, or <code>null</code> if the expression falls outside the supported subset
+     */
+    static StreamingXPathExpression compile(String expression, Map<String, String> namespaces) {
+        return new Parser(expression, namespaces).parse();
+    }
+
+    /**
+     * Evaluates this expression against the given source, and returns the string-value of the first matching node.
+     *
+     * @param source the source to evaluate against
+     * @return the string-value of the first matching node; the empty string if no node matches; or <code>null</code> if
+     *         the given source cannot be read in a streaming fashion
+     * @throws XMLStreamException in case of errors reading the source
+     */
+    String evaluate(Source source) throws XMLStreamException {
+        if (source instanceof DOMSource) {
+            Node node = ((DOMSource) source).getNode();
+            if (node instanceof Document) {
+                node = ((Document) node).getDocumentElement();
+            }
+            if (node instanceof Element) {
+                String result = evaluate((Element) node, 0);
+                return result != null ? result : "";
+            }
+            return null;
+        }
+        if (StaxUtils.isStaxSource(source)) {
+            // the reader belongs to the source, so we leave it open
+            XMLStreamReader streamReader = getStaxSourceReader(source);
+            return streamReader != null ? evaluate(streamReader) : null;
+        }
+        XMLStreamReader streamReader = createStreamReader(source);
+        if (streamReader == null) {
+            return null;
+        }
+        try {
+            return evaluate(streamReader);
+        }
+        finally {
+            streamReader.close();
+        }
+    }
+
+    private XMLStreamReader getStaxSourceReader(Source source) {
+        try {
+            XMLStreamReader streamReader = StaxUtils.getXMLStreamReader(source);
+            if (streamReader == null) {
+                XMLEventReader eventReader = StaxUtils.getXMLEventReader(source);
+                if (eventReader != null) {
+                    streamReader = StaxUtils.createEventStreamReader(eventReader);
+                }
+            }
+            return streamReader;
+        }
+        catch (XMLStreamException ex) {
+            return null;
+        }
+    }
+
+    private XMLStreamReader createStreamReader(Source source) {
+        try {
+            return inputFactory.createXMLStreamReader(source);
+        }
+        catch (XMLStreamException ex) {
+            return null;
+        }
+        catch (UnsupportedOperationException ex) {
+            return null;
+        }
+    }
+
+    private String evaluate(Element element, int stepIndex) {
+        Step step = steps[stepIndex];
+        if (!step.matches(element)) {
+            return null;
+        }
+        if (stepIndex < steps.length - 1) {
+            for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    String result = evaluate((Element) child, stepIndex + 1);
+                    if (result != null) {
+                        return result;
+                    }
+                }
+            }
+            return null;
+        }
+        else if (target == TARGET_ATTRIBUTE) {
+            Attr attribute = getAttribute(element, targetAttribute);
+            return attribute != null ? attribute.getValue() : null;
+        }
+        else if (target == TARGET_TEXT) {
+            List<String> texts = getTexts(element);
+            return !texts.isEmpty() ? texts.get(0) : null;
+        }
+        else if (step.textValue == null || getTexts(element).contains(step.textValue)) {
+            return element.getTextContent();
+        }
+        else {
+            return null;
+        }
+    }
+
+    private static Attr getAttribute(Element element, QName name) {
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            if (name.equals(QNameUtils.getQNameForNode(attribute))) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    /** Returns the values of the text nodes that are direct children of the given element. */
+    private static List<String> getTexts(Element element) {
+        List<String> result = new ArrayList<String>();
+        StringBuilder builder = null;
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                if (builder == null) {
+                    builder = new StringBuilder();
+                }
+                builder.append(child.getNodeValue());
+            }
+            else if (builder != null) {
+                result.add(builder.toString());
+                builder = null;
+            }
+        }
+        if (builder != null) {
+            result.add(builder.toString());
+        }
+        return result;
+    }
+
+    private String evaluate(XMLStreamReader streamReader) throws XMLStreamException {
+        // depth of the current element, where the payload root element has depth 1
+        int depth = 0;
+        // the number of steps matched by the current element and its ancestors
+        int matched = 0;
+        int event = streamReader.getEventType();
+        while (true) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    if (matched == depth - 1 && depth <= steps.length && steps[depth - 1].matches(streamReader)) {
+                        matched = depth;
+                        if (matched == steps.length) {
+                            String result = evaluateTarget(streamReader);
+                            if (result != null) {
+                                return result;
+                            }
+                            // evaluateTarget has read up to and including the end of the current element
+                            depth--;
+                            matched--;
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (matched == depth) {
+                        matched--;
+                    }
+                    depth--;
+                    if (depth == 0) {
+                        return "";
+                    }
+                    break;
+                case XMLStreamConstants.END_DOCUMENT:
+                    return "";
+            }
+            if (!streamReader.hasNext()) {
+                return "";
+            }
+            event = streamReader.next();
+        }
+    }
+
+    /**
+     * Evaluates the target of this expression on the element at the current position of the given reader. Returns the
+     * result, or <code>null</code> if the element does not yield a result, in which case the reader is positioned at
+     * the end of the element.
+     */
+    private String evaluateTarget(XMLStreamReader streamReader) throws XMLStreamException {
+        if (target == TARGET_ATTRIBUTE) {
+            String value = getAttributeValue(streamReader, targetAttribute);
+            if (value != null) {
+                return value;
+            }
+        }
+        Step step = steps[steps.length - 1];
+        StringBuilder content = new StringBuilder();
+        List<String> texts = new ArrayList<String>();
+        StringBuilder text = null;
+        int level = 0;
+        while (true) {
+            int event = streamReader.next();
+            if (isText(event)) {
+                if (level == 0) {
+                    if (text == null) {
+                        text = new StringBuilder();
+                    }
+                    text.append(streamReader.getText());
+                }
+                content.append(streamReader.getText());
+                continue;
+            }
+            if (text != null) {
+                if (target == TARGET_TEXT) {
+                    return text.toString();
+                }
+                texts.add(text.toString());
+                text = null;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                level++;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (level == 0) {
+                    break;
+                }
+                level--;
+            }
+        }
+        if (target == TARGET_ELEMENT && (step.textValue == null || texts.contains(step.textValue))) {
+            return content.toString();
+        }
+        return null;
+    }
+
+    private static boolean isText(int event) {
+        return event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA ||
+                event == XMLStreamConstants.SPACE;
+    }
+
+    private static String getAttributeValue(XMLStreamReader streamReader, QName name) {
+        for (int i = 0; i < streamReader.getAttributeCount(); i++) {
+            String namespaceUri = streamReader.getAttributeNamespace(i);
+            if (namespaceUri == null) {
+                namespaceUri = XMLConstants.NULL_NS_URI;
+            }
+            if (name.getNamespaceURI().equals(namespaceUri) &&
+                    name.getLocalPart().equals(streamReader.getAttributeLocalName(i))) {
+                return streamReader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    /** A single location step: a name test, and zero or more predicates. */
+    private static class Step {
+
+        /** The element name to match, or <code>null</code> for a wildcard. */
+        private QName name;
+
+        private final List<QName> attributeNames = new ArrayList<QName>();
+
+        /** The attribute values to match, <code>null</code> values indicate attribute existence tests. */
+        private final List<String> attributeValues = new ArrayList<String>();
+
+        /** The value of the <code>text()</code> predicate, if any. */
+        private String textValue;
+
+        boolean matches(Element element) {
+            if (name != null && !name.equals(QNameUtils.getQNameForNode(element))) {
+                return false;
+            }
+            for (int i = 0; i < attributeNames.size(); i++) {
+                Attr attribute = getAttribute(element, attributeNames.get(i));
+                if (attribute == null) {
+                    return false;
+                }
+                String value = attributeValues.get(i);
+                if (value != null && !value.equals(attribute.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean matches(XMLStreamReader streamReader) {
+            if (name != null) {
+                String namespaceUri = streamReader.getNamespaceURI();
+                if (namespaceUri == null) {
+                    namespaceUri = XMLConstants.NULL_NS_URI;
+                }
+                if (!name.getNamespaceURI().equals(namespaceUri) ||
+                        !name.getLocalPart().equals(streamReader.getLocalName())) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < attributeNames.size(); i++) {
+                String attributeValue = getAttributeValue(streamReader, attributeNames.get(i));
+                if (attributeValue == null) {
+                    return false;
+                }
+                String value = attributeValues.get(i);
+                if (value != null && !value.equals(attributeValue)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** Parses the supported subset of XPath. All parse methods return <code>null</code> for unsupported input. */
+    private static class Parser {
+
+        private static final String TEXT = "text()";
+
+        private final String expression;
+
+        private final Map<String, String> namespaces;
+
+        private int pos = 0;
+
+        private Parser(String expression, Map<String, String> namespaces) {
+            this.expression = expression.trim();
+            this.namespaces = namespaces;
+        }
+
+        StreamingXPathExpression parse() {
+            List<Step> steps = new ArrayList<Step>();
+            while (pos < expression.length()) {
+                if (expression.charAt(pos) != '/') {
+                    return null;
+                }
+                pos++;
+                if (!steps.isEmpty() && expression.startsWith(TEXT, pos)) {
+                    pos += TEXT.length();
+                    return pos == expression.length() ? create(steps, TARGET_TEXT, null) : null;
+                }
+                else if (!steps.isEmpty() && expression.startsWith("@", pos)) {
+                    pos++;
+                    QName attributeName = parseName();
+                    return pos == expression.length() ? create(steps, TARGET_ATTRIBUTE, attributeName) : null;
+                }
+                Step step = parseStep();
+                if (step == null) {
+                    return null;
+                }
+                steps.add(step);
+            }
+            return create(steps, TARGET_ELEMENT, null);
+        }
+
+        private StreamingXPathExpression create(List<Step> steps, int target, QName targetAttribute) {
+            if (steps.isEmpty() || (target == TARGET_ATTRIBUTE && targetAttribute == null)) {
+                return null;
+            }
+            // text predicates can only be evaluated at the end of an element, and are therefore only supported on the
+            // last step, when it selects the element itself
+            for (int i = 0; i < steps.size(); i++) {
+                if (steps.get(i).textValue != null && (i < steps.size() - 1 || target != TARGET_ELEMENT)) {
+                    return null;
+                }
+            }
+            return new StreamingXPathExpression(steps.toArray(new Step[steps.size()]), target, targetAttribute);
+        }
+
+        private Step parseStep() {
+            Step step = new Step();
+            if (expression.startsWith("*", pos)) {
+                pos++;
+            }
+            else {
+                step.name = parseName();
+                if (step.name == null) {
+                    return null;
+                }
+            }
+            while (pos < expression.length() && expression.charAt(pos) == '[') {
+                pos++;
+                skipWhitespace();
+                if (expression.startsWith("@", pos)) {
+                    pos++;
+                    QName attributeName = parseName();
+                    if (attributeName == null) {
+                        return null;
+                    }
+                    skipWhitespace();
+                    String value = null;
+                    if (expression.startsWith("=", pos)) {
+                        pos++;
+                        value = parseLiteral();
+                        if (value == null) {
+                            return null;
+                        }
+                    }
+                    step.attributeNames.add(attributeName);
+                    step.attributeValues.add(value);
+                }
+                else if (expression.startsWith(TEXT, pos) && step.textValue == null) {
+                    pos += TEXT.length();
+                    skipWhitespace();
+                    if (!expression.startsWith("=", pos)) {
+                        return null;
+                    }
+                    pos++;
+                    step.textValue = parseLiteral();
+                    if (step.textValue == null) {
+                        return null;
+                    }
+                }
+                else {
+                    return null;
+                }
+                skipWhitespace();
+                if (!expression.startsWith("]", pos)) {
+                    return null;
+                }
+                pos++;
+            }
+            return step;
+        }
+
+        private QName parseName() {
+            int start = pos;
+            if (pos >= expression.length() || !isNameStartChar(expression.charAt(pos))) {
+                return null;
+            }
+            while (pos < expression.length() && isNameChar(expression.charAt(pos))) {
+                pos++;
+            }
+            String name = expression.substring(start, pos);
+            int idx = name.indexOf(':');
+            if (idx == -1) {
+                return new QName(name);
+            }
+            String prefix = name.substring(0, idx);
+            String namespaceUri = namespaces != null ? namespaces.get(prefix) : null;
+            if (namespaceUri == null) {
+                return null;
+            }
+            return new QName(namespaceUri, name.substring(idx + 1), prefix);
+        }
+
+        private String parseLiteral() {
+            skipWhitespace();
+            if (pos >= expression.length()) {
+                return null;
+            }
+            char quote = expression.charAt(pos);
+            if (quote != '\'' && quote != '"') {
+                return null;
+            }
+            int end = expression.indexOf(quote, pos + 1);
+            if (end == -1) {
+                return null;
+            }
+            String literal = expression.substring(pos + 1, end);
+            pos = end + 1;
+            return literal;
+        }
+
+        private void skipWhitespace() {
+            while (pos < expression.length() && Character.isWhitespace(expression.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private static boolean isNameStartChar(char ch) {
+            return Character.isLetter(ch) || ch == '_';
+        }
+
+        private static boolean isNameChar(char ch) {
+            return Character.isLetterOrDigit(ch) || ch == '_' || ch == '-' || ch == '.' || ch == ':';
+        }
+    }
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.ws.server.endpoint.mapping;
 
 import java.util.Map;
+import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -51,10 +52,15 @@ import org.w3c.dom.Element;
  * </pre>
  * The syntax is XPATH_EVALUATION=ENDPOINT_BEAN_NAME. The key is the evaluation of the XPath expression for the incoming
  * message, the value is the name of the endpoint.
+ * <p/>
+ * By default, the expression is evaluated against a DOM copy of the payload. Setting the <code>streaming</code>
+ * property evaluates common expressions against a streaming view of the payload instead, reading no further than
+ * necessary.
  *
  * @author Arjen Poutsma
  * @see #setExpression(String)
  * @see #setNamespaces(java.util.Map) 
+ * @see #setStreaming(boolean)
  * @since 1.0.0
  */
 public class XPathPayloadEndpointMapping extends AbstractMapBasedEndpointMapping implements InitializingBean {
@@ -67,6 +73,10 @@ public class XPathPayloadEndpointMapping extends AbstractMapBasedEndpointMapping
 
     private TransformerFactory transformerFactory;
 
+    private boolean streaming = false;
+
+    private StreamingXPathExpression streamingExpression;
+
     /** Sets the XPath expression to be used. */
     public void setExpression(String expression) {
         expressionString = expression;
@@ -77,6 +87,20 @@ public class XPathPayloadEndpointMapping extends AbstractMapBasedEndpointMapping
         this.namespaces = namespaces;
     }
 
+    /**
+     * Sets whether the expression should be evaluated against a streaming view of the payload, rather than against a
+     * DOM copy of it. Default is <code>false</code>.
+     * <p/>
+     * Streaming evaluation supports absolute paths of child steps, with attribute predicates on each step and a
+     * <code>text()</code> predicate on the last step, that end in an element, <code>text()</code>, or an attribute;
+     * for example <code>/ns:Order/ns:Customer[@type='gold']/@id</code>. Evaluation stops as soon as the lookup key
+     * has been found. Other expressions, and payloads that cannot be read as a stream, are evaluated against a DOM
+     * copy.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     public void afterPropertiesSet() throws Exception {
         Assert.notNull(expressionString, "expression is required");
         if (namespaces == null) {
@@ -86,10 +110,27 @@ public class XPathPayloadEndpointMapping extends AbstractMapBasedEndpointMapping
             expression = XPathExpressionFactory.createXPathExpression(expressionString, namespaces);
         }
         transformerFactory = TransformerFactory.newInstance();
+        if (streaming) {
+            streamingExpression = StreamingXPathExpression.compile(expressionString, namespaces);
+            if (streamingExpression == null && logger.isInfoEnabled()) {
+                logger.info("Expression [" + expressionString + "] cannot be evaluated in a streaming fashion; " +
+                        "evaluating against DOM instead");
+            }
+        }
     }
 
     @Override
     protected String getLookupKeyForMessage(MessageContext messageContext) throws Exception {
+        if (streamingExpression != null) {
+            Source payloadSource = messageContext.getRequest().getPayloadSource();
+            if (payloadSource == null) {
+                return null;
+            }
+            String result = streamingExpression.evaluate(payloadSource);
+            if (result != null) {
+                return result;
+            }
+        }
         Element payloadElement = getMessagePayloadElement(messageContext.getRequest());
         return expression.evaluateAsString(payloadElement);
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,14 @@
 
 package org.springframework.ws.server.endpoint.support;
 
+import java.io.ByteArrayInputStream;
+import java.io.CharArrayReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
@@ -35,17 +39,29 @@ import org.springframework.xml.transform.TraxUtils;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Helper class for determining the root qualified name of a Web Service payload.
+ * <p/>
+ * For stream sources that support {@linkplain InputStream#markSupported() mark and reset}, only the first few
+ * kilobytes of the payload are read to find the root element, after which the stream is reset. Payloads that can not be
+ * peeked at are transformed into a DOM.
  *
  * @author Arjen Poutsma
  * @since 1.0.0
  */
 public abstract class PayloadRootUtils {
 
+    /** The maximum number of bytes or characters read when peeking at a stream. */
+    private static final int PEEK_SIZE = 4096;
+
+    private static final XMLInputFactory inputFactory = createXmlInputFactory();
+
     private PayloadRootUtils() {
     }
 
@@ -88,6 +104,20 @@ public abstract class PayloadRootUtils {
         }
     }
 
+    /**
+     * Creates a {@link XMLInputFactory} that is safe for reading untrusted payloads: it supports neither DTDs nor
+     * external entities.
+     *
+     * @return the hardened input factory
+     * @since 2.2
+     */
+    public static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return inputFactory;
+    }
+
     private static class PayloadRootSourceCallback implements TraxUtils.SourceCallback {
 
         private QName result;
@@ -133,15 +163,86 @@ public abstract class PayloadRootUtils {
         }
 
         public void saxSource(XMLReader reader, InputSource inputSource) throws Exception {
-            // Do nothing
+            if (inputSource != null && inputSource.getByteStream() != null) {
+                streamSource(inputSource.getByteStream());
+            }
+            else if (inputSource != null && inputSource.getCharacterStream() != null) {
+                streamSource(inputSource.getCharacterStream());
+            }
+            else if (reader != null && (inputSource == null || inputSource.getSystemId() == null)) {
+                // not backed by a stream, so stop parsing at the first element
+                RootElementHandler handler = new RootElementHandler();
+                reader.setContentHandler(handler);
+                try {
+                    reader.parse(inputSource != null ? inputSource : new InputSource());
+                }
+                catch (RootElementFoundException ex) {
+                    result = handler.rootName;
+                }
+            }
         }
 
         public void streamSource(InputStream inputStream) throws Exception {
-            // Do nothing
+            if (inputStream.markSupported()) {
+                byte[] buffer = new byte[PEEK_SIZE];
+                int length = 0;
+                inputStream.mark(PEEK_SIZE);
+                try {
+                    int count;
+                    while (length < PEEK_SIZE && (count = inputStream.read(buffer, length, PEEK_SIZE - length)) != -1) {
+                        length += count;
+                    }
+                }
+                finally {
+                    inputStream.reset();
+                }
+                result = peekRootName(inputFactory.createXMLStreamReader(new ByteArrayInputStream(buffer, 0, length)));
+            }
         }
 
         public void streamSource(Reader reader) throws Exception {
-            // Do nothing
+            if (reader.markSupported()) {
+                char[] buffer = new char[PEEK_SIZE];
+                int length = 0;
+                reader.mark(PEEK_SIZE);
+                try {
+                    int count;
+                    while (length < PEEK_SIZE && (count = reader.read(buffer, length, PEEK_SIZE - length)) != -1) {
+                        length += count;
+                    }
+                }
+                finally {
+                    reader.reset();
+                }
+                result = peekRootName(inputFactory.createXMLStreamReader(new CharArrayReader(buffer, 0, length)));
+            }
+        }
+
+        /**
+         * Reads up to the first start element of the given (possibly truncated) stream reader. Returns {@code null} if
+         * the start element could not be found.
+         */
+        private QName peekRootName(XMLStreamReader streamReader) throws IOException {
+            try {
+                while (streamReader.hasNext()) {
+                    if (streamReader.next() == XMLStreamConstants.START_ELEMENT) {
+                        return streamReader.getName();
+                    }
+                }
+                return null;
+            }
+            catch (XMLStreamException ex) {
+                // root element is not within the peeked part of the stream
+                return null;
+            }
+            finally {
+                try {
+                    streamReader.close();
+                }
+                catch (XMLStreamException ex) {
+                    // ignore
+                }
+            }
         }
 
         public void source(String systemId) throws Exception {
@@ -149,5 +250,34 @@ public abstract class PayloadRootUtils {
         }
     }
 
+    /** SAX handler that stops parsing at the first start element. */
+    private static class RootElementHandler extends DefaultHandler {
+
+        private QName rootName;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            String prefix = "";
+            int idx = qName.indexOf(':');
+            if (idx != -1) {
+                prefix = qName.substring(0, idx);
+            }
+            if (localName == null || localName.length() == 0) {
+                localName = idx != -1 ? qName.substring(idx + 1) : qName;
+            }
+            rootName = new QName(uri != null ? uri : "", localName, prefix);
+            throw new RootElementFoundException();
+        }
+    }
+
+    /** Thrown by the {@link RootElementHandler} to stop parsing. */
+    private static class RootElementFoundException extends SAXException {
+
+        private RootElementFoundException() {
+            super("Root element found");
+        }
+    }
+
 
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.server.endpoint.support;
+
+import org.springframework.ws.WebServiceException;
+
+/**
+ * Exception thrown when a {@link PayloadValidationCallback} aborts the endpoint invocation, because the request payload
+ * is not valid. The response has already been created by the callback at that point.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public class PayloadValidationAbortedException extends WebServiceException {
+
+    public PayloadValidationAbortedException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.server.endpoint.support;
+
+import javax.xml.validation.Schema;
+
+import org.springframework.ws.context.MessageContext;
+
+import org.xml.sax.SAXParseException;
+
+/**
+ * Callback for validating the request payload while it is being read by an endpoint, rather than in a separate pass.
+ * <p/>
+ * A validating interceptor registers an implementation of this interface as {@link MessageContext} property, under
+ * the {@link #PROPERTY_NAME} key. Payload method processors that support it, such as the JAXB2 processors, validate
+ * the payload against the {@linkplain #getSchema() schema} while reading it, and report any errors back to the
+ * callback.
+ * <p/>
+ * Endpoint adapters signal that they have consumed the callback by removing it from the message context. If the
+ * payload is not read by such a processor, the callback is still registered when the endpoint is about to be invoked.
+ * In that case, the endpoint adapter {@linkplain #validate(MessageContext) validates} the payload in a separate pass,
+ * so that the request is never processed unvalidated.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public interface PayloadValidationCallback {
+
+    /** The name of the message context property that holds the callback. */
+    String PROPERTY_NAME = "PayloadValidationCallback";
+
+    /** Returns the schema to validate the request payload against. */
+    Schema getSchema();
+
+    /**
+     * Handles the validation errors that occurred while reading the request payload.
+     *
+     * @param messageContext the message context
+     * @param errors         the validation errors
+     * @return {@code true} to continue processing the request; {@code false} to abort the endpoint invocation, in
+     *         which case the response created by this callback is returned
+     * @throws Exception in case of errors
+     */
+    boolean handleValidationErrors(MessageContext messageContext, SAXParseException[] errors) throws Exception;
+
+    /**
+     * Validates the request payload in a separate pass. Called when the payload has not been validated while it was
+     * read.
+     *
+     * @param messageContext the message context
+     * @return {@code true} to continue processing the request; {@code false} to abort the endpoint invocation, in
+     *         which case the response created by this callback is returned
+     * @throws Exception in case of errors
+     */
+    boolean validate(MessageContext messageContext) throws Exception;
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,6 +38,7 @@ import org.apache.axiom.soap.SOAPFactory;
 import org.apache.axiom.soap.SOAPMessage;
 import org.apache.axiom.soap.SOAPProcessingException;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -200,10 +201,24 @@ public class AxiomSoapMessage extends AbstractSoapMessage implements StreamingWe
     }
 
     public Document getDocument() {
-        return AxiomUtils.toDocument(axiomMessage.getSOAPEnvelope());
+        SOAPEnvelope envelope = axiomMessage.getSOAPEnvelope();
+        if (envelope instanceof Element) {
+            // a DOM-compatible message: DOM-based libraries walk the live tree, so it has to be complete, and they add
+            // header blocks through plain DOM calls, which the envelope only accepts once it has an Axiom header
+            envelope.build();
+            if (envelope.getHeader() == null) {
+                ((SOAPFactory) envelope.getOMFactory()).createSOAPHeader(envelope);
+            }
+        }
+        return AxiomUtils.toDocument(envelope);
     }
 
     public void setDocument(Document document) {
+        SOAPEnvelope currentEnvelope = axiomMessage.getSOAPEnvelope();
+        if (currentEnvelope instanceof Element && ((Element) currentEnvelope).getOwnerDocument() == document) {
+            // a DOM-compatible message: the document is the message itself, and has been changed in place
+            return;
+        }
         // save the Soap Action
         String soapAction = getSoapAction();
         SOAPEnvelope envelope = AxiomUtils.toEnvelope(document);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.ws.soap.axiom;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -27,6 +28,7 @@ import javax.xml.stream.XMLStreamReader;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.server.endpoint.interceptor.PayloadLoggingInterceptor;
 import org.springframework.ws.server.endpoint.mapping.PayloadRootQNameEndpointMapping;
@@ -40,12 +42,17 @@ import org.springframework.ws.transport.TransportInputStream;
 
 import org.apache.axiom.attachments.Attachments;
 import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMException;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMNamespace;
 import org.apache.axiom.om.impl.MTOMConstants;
 import org.apache.axiom.soap.SOAP11Constants;
 import org.apache.axiom.soap.SOAP11Version;
 import org.apache.axiom.soap.SOAP12Constants;
 import org.apache.axiom.soap.SOAP12Version;
+import org.apache.axiom.soap.SOAPBody;
+import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axiom.soap.SOAPFactory;
 import org.apache.axiom.soap.SOAPMessage;
 import org.apache.axiom.soap.impl.builder.MTOMStAXSOAPModelBuilder;
@@ -70,6 +77,15 @@ import org.apache.commons.logging.LogFactory;
  * Optionally, the location where attachments are stored can be defined via the {@link #setAttachmentCacheDir(File)
  * attachmentCacheDir} property (defaults to the system temp file path).
  * <p/>
+ * Finally, endpoint mappings and interceptors that only look at the SOAP headers (such as the {@link
+ * SoapActionEndpointMapping} or the WS-Addressing endpoint mappings) benefit from setting the {@link
+ * #setLazyBodyParsing(boolean) lazyBodyParsing} property to <code>true</code>. The body of incoming messages is then
+ * only parsed when its payload is first accessed.
+ * <p/>
+ * When messages are secured with WSS4J, setting the {@link #setDomCompatible(boolean) domCompatible} property to
+ * <code>true</code> makes this factory use Axiom's DOM-compatible implementation. WSS4J can then work on the message
+ * tree directly, rather than on a converted copy.
+ * <p/>
  * Mostly derived from <code>org.apache.axis2.transport.http.HTTPTransportUtils</code> and
  * <code>org.apache.axis2.transport.TransportUtils</code>, which we cannot use since they are not part of the Axiom
  * distribution.
@@ -104,6 +120,10 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
 
     private boolean langAttributeOnSoap11FaultString = true;
 
+    private boolean lazyBodyParsing = false;
+
+    private boolean domCompatible = false;
+
 
     /**
      * Indicates whether the SOAP Body payload should be cached or not. Default is <code>true</code>.
@@ -152,11 +172,12 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
     }
 
     public void setSoapVersion(SoapVersion version) {
+        OMMetaFactory metaFactory = getMetaFactory();
         if (SoapVersion.SOAP_11 == version) {
-            soapFactory = OMAbstractFactory.getSOAP11Factory();
+            soapFactory = metaFactory.getSOAP11Factory();
         }
         else if (SoapVersion.SOAP_12 == version) {
-            soapFactory = OMAbstractFactory.getSOAP12Factory();
+            soapFactory = metaFactory.getSOAP12Factory();
         }
         else {
             throw new IllegalArgumentException(
@@ -176,9 +197,65 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
         this.langAttributeOnSoap11FaultString = langAttributeOnSoap11FaultString;
     }
 
+    /**
+     * Indicates whether the SOAP Body of incoming messages should only be parsed when its payload is first accessed.
+     * Default is <code>false</code>.
+     * <p/>
+     * When enabled, incoming messages without attachments are read into memory, and only the envelope and header are
+     * parsed. The location of the body payload is recorded, and the payload is only parsed when the {@linkplain
+     * AxiomSoapMessage#getPayloadSource() payload source} is first requested. If the payload is never accessed, for
+     * instance because a fault is returned or because the message is forwarded, it is written as is.
+     * <p/>
+     * Messages that are not encoded in an ASCII-compatible character set (such as UTF-8 or ISO-8859-1), whose body does
+     * not start with a payload element, or whose body contains a fault are parsed as usual.
+     */
+    public void setLazyBodyParsing(boolean lazyBodyParsing) {
+        this.lazyBodyParsing = lazyBodyParsing;
+    }
+
+    /**
+     * Indicates whether messages should be created with Axiom's DOM-compatible implementation (DOOM). Default is
+     * <code>false</code>.
+     * <p/>
+     * The elements of DOM-compatible messages also implement the {@link org.w3c.dom.Element} interface, so that {@link
+     * AxiomSoapMessage#getDocument()} returns the live document of the message, and {@link
+     * AxiomSoapMessage#setDocument(org.w3c.dom.Document) setDocument} does not have to convert it back. This avoids
+     * two conversions per message when using DOM-based libraries such as WSS4J.
+     * <p/>
+     * Requires the <code>axiom-dom</code> module on the class path. Since the DOM-compatible implementation does not
+     * support unexpanded elements, {@linkplain #setPayloadCaching(boolean) payload caching} must remain enabled, and
+     * {@linkplain #setLazyBodyParsing(boolean) lazy body parsing} is not applied.
+     */
+    public void setDomCompatible(boolean domCompatible) {
+        SoapVersion version = SoapVersion.SOAP_11;
+        if (soapFactory.getSOAPVersion() == SOAP12Version.getSingleton()) {
+            version = SoapVersion.SOAP_12;
+        }
+        this.domCompatible = domCompatible;
+        setSoapVersion(version);
+    }
+
+    private OMMetaFactory getMetaFactory() {
+        if (domCompatible) {
+            OMMetaFactory metaFactory = OMAbstractFactory.getMetaFactory(OMAbstractFactory.FEATURE_DOM);
+            Assert.state(metaFactory != null, "Axiom DOM implementation (axiom-dom) not found on the class path");
+            return metaFactory;
+        }
+        else {
+            return OMAbstractFactory.getMetaFactory();
+        }
+    }
+
     public void afterPropertiesSet() throws Exception {
+        Assert.isTrue(payloadCaching || !domCompatible, "'payloadCaching' is required when 'domCompatible' is set");
         if (logger.isInfoEnabled()) {
             logger.info(payloadCaching ? "Enabled payload caching" : "Disabled payload caching");
+            if (lazyBodyParsing) {
+                logger.info("Enabled lazy body parsing");
+            }
+            if (domCompatible) {
+                logger.info("Enabled DOM-compatible messages");
+            }
         }
         if (attachmentCacheDir == null) {
             String tempDir = System.getProperty("java.io.tmpdir");
@@ -238,7 +315,19 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
 
     /** Creates an AxiomSoapMessage without attachments. */
     private AxiomSoapMessage createAxiomSoapMessage(InputStream inputStream, String contentType, String soapAction)
-            throws XMLStreamException {
+            throws XMLStreamException, IOException {
+        if (lazyBodyParsing && !domCompatible) {
+            byte[] content = StreamUtils.copyToByteArray(inputStream);
+            RawEnvelope rawEnvelope = RawEnvelope.parse(content, getCharSetEncoding(contentType));
+            if (rawEnvelope != null) {
+                SOAPMessage soapMessage = createLazySoapMessage(rawEnvelope, contentType);
+                if (soapMessage != null) {
+                    return new AxiomSoapMessage(soapMessage, soapAction, payloadCaching,
+                            langAttributeOnSoap11FaultString);
+                }
+            }
+            inputStream = new ByteArrayInputStream(content);
+        }
         XMLStreamReader reader = inputFactory.createXMLStreamReader(inputStream, getCharSetEncoding(contentType));
         String envelopeNamespace = getSoapEnvelopeNamespace(contentType);
         StAXSOAPModelBuilder builder = new StAXSOAPModelBuilder(reader, soapFactory, envelopeNamespace);
@@ -246,6 +335,49 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
         return new AxiomSoapMessage(soapMessage, soapAction, payloadCaching, langAttributeOnSoap11FaultString);
     }
 
+    /**
+     * Creates a SOAPMessage from the envelope and header of the given raw envelope. The body payload is added as an
+     * unexpanded element, backed by the raw payload bytes. Returns <code>null</code> if the payload cannot be deferred,
+     * i.e. if it is a SOAP fault or if its namespace cannot be resolved.
+     */
+    private SOAPMessage createLazySoapMessage(RawEnvelope rawEnvelope, String contentType) throws XMLStreamException {
+        XMLStreamReader reader =
+                inputFactory.createXMLStreamReader(rawEnvelope.getEnvelopeInputStream(), rawEnvelope.getEncoding());
+        String envelopeNamespace = getSoapEnvelopeNamespace(contentType);
+        StAXSOAPModelBuilder builder = new StAXSOAPModelBuilder(reader, soapFactory, envelopeNamespace);
+        SOAPMessage soapMessage = builder.getSoapMessage();
+        SOAPEnvelope envelope = soapMessage.getSOAPEnvelope();
+        envelope.build();
+        SOAPBody body = envelope.getBody();
+        if (body == null) {
+            return null;
+        }
+        String prefix = rawEnvelope.getPayloadPrefix();
+        String namespaceUri = rawEnvelope.getPayloadNamespaceUri();
+        if (namespaceUri == null) {
+            OMNamespace inheritedNamespace = body.findNamespaceURI(prefix);
+            if (inheritedNamespace != null) {
+                namespaceUri = inheritedNamespace.getNamespaceURI();
+            }
+            else if (prefix.length() == 0) {
+                namespaceUri = "";
+            }
+            else {
+                return null;
+            }
+        }
+        String localName = rawEnvelope.getPayloadLocalName();
+        if (envelopeNamespace.equals(namespaceUri) && "Fault".equals(localName)) {
+            return null;
+        }
+        SOAPFactory axiomFactory = (SOAPFactory) envelope.getOMFactory();
+        OMNamespace namespace = axiomFactory.createOMNamespace(namespaceUri, prefix);
+        OMElement payloadElement =
+                axiomFactory.createOMElement(new RawPayloadDataSource(rawEnvelope), localName, namespace);
+        body.addChild(payloadElement);
+        return soapMessage;
+    }
+
     /** Creates an AxiomSoapMessage with attachments. */
     private AxiomSoapMessage createMultiPartAxiomSoapMessage(InputStream inputStream,
                                                              String contentType,
@@ -262,7 +394,12 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
             builder = new StAXSOAPModelBuilder(reader, soapFactory, envelopeNamespace);
         }
         else if (MTOMConstants.MTOM_TYPE.equals(attachments.getAttachmentSpecType())) {
-            builder = new MTOMStAXSOAPModelBuilder(reader, attachments, envelopeNamespace);
+            if (domCompatible) {
+                builder = new MTOMStAXSOAPModelBuilder(reader, soapFactory, attachments, envelopeNamespace);
+            }
+            else {
+                builder = new MTOMStAXSOAPModelBuilder(reader, attachments, envelopeNamespace);
+            }
         }
         else {
             throw new AxiomSoapMessageCreationException(
@@ -348,6 +485,12 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
         else {
             builder.append("PayloadCaching disabled");
         }
+        if (lazyBodyParsing) {
+            builder.append(",LazyBodyParsing enabled");
+        }
+        if (domCompatible) {
+            builder.append(",DOM-compatible");
+        }
         builder.append(']');
         return builder.toString();
     }
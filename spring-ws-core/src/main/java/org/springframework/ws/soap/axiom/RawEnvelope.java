@@ -0,0 +1,517 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.ws.soap.axiom;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The raw bytes of a SOAP envelope, together with the byte offsets of its SOAP Body payload. Used by the {@link
+ * AxiomSoapMessageFactory} to parse the envelope and header of a message, while keeping the payload unparsed.
+ * <p/>
+ * Offsets are determined by a lightweight scan of the markup up to the matching end tag of the payload element. This
+ * only works for ASCII-compatible encodings, and for bodies that contain a single payload element, optionally
+ * surrounded by whitespace; {@link #parse(byte[], String)} returns {@code null} for all other messages.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class RawEnvelope {
+
+    private final byte[] content;
+
+    private final Charset charset;
+
+    private final Tag envelopeTag;
+
+    private final Tag bodyTag;
+
+    private final Tag payloadTag;
+
+    private final int payloadEnd;
+
+    private final int bodyEnd;
+
+    private final byte[] inheritedNamespaces;
+
+    private RawEnvelope(byte[] content,
+                        Charset charset,
+                        Tag envelopeTag,
+                        Tag bodyTag,
+                        Tag payloadTag,
+                        int payloadEnd,
+                        int bodyEnd) {
+        this.content = content;
+        this.charset = charset;
+        this.envelopeTag = envelopeTag;
+        this.bodyTag = bodyTag;
+        this.payloadTag = payloadTag;
+        this.payloadEnd = payloadEnd;
+        this.bodyEnd = bodyEnd;
+        this.inheritedNamespaces = getInheritedNamespaces();
+    }
+
+    /**
+     * Scans the given message for its payload.
+     *
+     * @param content  the bytes of the message
+     * @param encoding the character encoding of the message
+     * @return the scanned envelope, or {@code null} if the payload could not be determined
+     */
+    static RawEnvelope parse(byte[] content, String encoding) {
+        Charset charset = getAsciiCompatibleCharset(encoding);
+        if (charset == null) {
+            return null;
+        }
+        Tag envelopeTag = null;
+        Tag bodyTag = null;
+        int depth = 0;
+        int pos = 0;
+        while (bodyTag == null) {
+            int start = indexOf(content, "<", pos);
+            if (start == -1) {
+                return null;
+            }
+            if (startsWith(content, start, "<?")) {
+                pos = skipPast(content, "?>", start);
+            }
+            else if (startsWith(content, start, "<!--")) {
+                pos = skipPast(content, "-->", start);
+            }
+            else if (startsWith(content, start, "<![CDATA[")) {
+                pos = skipPast(content, "]]>", start);
+            }
+            else if (startsWith(content, start, "<!")) {
+                // DTDs are not allowed in SOAP messages
+                return null;
+            }
+            else if (startsWith(content, start, "</")) {
+                depth--;
+                if (depth < 1) {
+                    return null;
+                }
+                pos = skipPast(content, ">", start);
+            }
+            else {
+                Tag tag = Tag.parse(content, start, charset);
+                if (tag == null) {
+                    return null;
+                }
+                if (depth == 0) {
+                    envelopeTag = tag;
+                }
+                else if (depth == 1 && "Body".equals(tag.getLocalName())) {
+                    String envelopeNamespace = envelopeTag.getNamespaceUri(null);
+                    if (envelopeNamespace == null || !envelopeNamespace.equals(tag.getNamespaceUri(envelopeTag))) {
+                        return null;
+                    }
+                    bodyTag = tag;
+                }
+                if (!tag.empty) {
+                    depth++;
+                }
+                pos = tag.end;
+            }
+            if (pos == -1) {
+                return null;
+            }
+        }
+        if (bodyTag.empty) {
+            return null;
+        }
+        int payloadStart = skipWhitespace(content, bodyTag.end);
+        if (payloadStart + 1 >= content.length || content[payloadStart] != '<' ||
+                !isNameStartByte(content[payloadStart + 1])) {
+            return null;
+        }
+        Tag payloadTag = Tag.parse(content, payloadStart, charset);
+        if (payloadTag == null) {
+            return null;
+        }
+        int payloadEnd = payloadTag.empty ? payloadTag.end : skipElementContent(content, payloadTag, charset);
+        if (payloadEnd == -1) {
+            return null;
+        }
+        int bodyEnd = skipWhitespace(content, payloadEnd);
+        if (!isEndTag(content, bodyEnd, bodyTag.name)) {
+            return null;
+        }
+        return new RawEnvelope(content, charset, envelopeTag, bodyTag, payloadTag, payloadEnd, bodyEnd);
+    }
+
+    /** Returns the character encoding of the message. */
+    String getEncoding() {
+        return charset.name();
+    }
+
+    /** Returns the prefix of the payload element, or an empty string if it has no prefix. */
+    String getPayloadPrefix() {
+        return payloadTag.getPrefix();
+    }
+
+    /** Returns the local name of the payload element. */
+    String getPayloadLocalName() {
+        return payloadTag.getLocalName();
+    }
+
+    /**
+     * Returns the namespace of the payload element, if it is declared on the payload element itself. Returns {@code
+     * null} if the namespace is inherited from the envelope or body, or if it could not be determined.
+     */
+    String getPayloadNamespaceUri() {
+        String prefix = getPayloadPrefix();
+        String attributeName = prefix.length() != 0 ? "xmlns:" + prefix : "xmlns";
+        String namespaceUri = payloadTag.getAttributeValue(attributeName);
+        if (namespaceUri != null && namespaceUri.indexOf('&') != -1) {
+            return null;
+        }
+        return namespaceUri;
+    }
+
+    /** Returns the message, without its payload. Parsing this stream yields the envelope, header, and an empty body. */
+    InputStream getEnvelopeInputStream() {
+        return new SequenceInputStream(new ByteArrayInputStream(content, 0, payloadTag.start),
+                new ByteArrayInputStream(content, bodyEnd, content.length - bodyEnd));
+    }
+
+    /**
+     * Returns a minimal document that contains the payload, wrapped in the envelope and body start tags of the message,
+     * so that all namespaces used by the payload are declared.
+     */
+    InputStream getPayloadDocumentInputStream() {
+        int size = (envelopeTag.end - envelopeTag.start) + (bodyTag.end - bodyTag.start) +
+                (payloadEnd - payloadTag.start) + (bodyTag.nameEnd - bodyTag.start) +
+                (envelopeTag.nameEnd - envelopeTag.start) + 4;
+        ByteArrayOutputStream os = new ByteArrayOutputStream(size);
+        os.write(content, envelopeTag.start, envelopeTag.end - envelopeTag.start);
+        os.write(content, bodyTag.start, bodyTag.end - bodyTag.start);
+        os.write(content, payloadTag.start, payloadEnd - payloadTag.start);
+        writeEndTag(os, bodyTag);
+        writeEndTag(os, envelopeTag);
+        return new ByteArrayInputStream(os.toByteArray());
+    }
+
+    private void writeEndTag(ByteArrayOutputStream os, Tag tag) {
+        os.write('<');
+        os.write('/');
+        os.write(content, tag.start + 1, tag.nameEnd - tag.start - 1);
+        os.write('>');
+    }
+
+    /**
+     * Writes the payload to the given stream, as is. The namespace declarations of the envelope and body are added to
+     * the payload start tag, so that the payload can be written outside of its original envelope.
+     */
+    void writePayloadTo(OutputStream outputStream) throws IOException {
+        outputStream.write(content, payloadTag.start, payloadTag.nameEnd - payloadTag.start);
+        outputStream.write(inheritedNamespaces);
+        outputStream.write(content, payloadTag.nameEnd, payloadEnd - payloadTag.nameEnd);
+    }
+
+    /** Returns the payload as a string, including inherited namespace declarations. */
+    String getPayloadString() {
+        int size = payloadEnd - payloadTag.start + inheritedNamespaces.length;
+        ByteArrayOutputStream os = new ByteArrayOutputStream(size);
+        try {
+            writePayloadTo(os);
+        }
+        catch (IOException ex) {
+            // cannot happen with a ByteArrayOutputStream
+            throw new IllegalStateException(ex);
+        }
+        return charset.decode(ByteBuffer.wrap(os.toByteArray())).toString();
+    }
+
+    private byte[] getInheritedNamespaces() {
+        Map<String, Tag.Attribute> namespaces = new LinkedHashMap<String, Tag.Attribute>();
+        addNamespaceAttributes(envelopeTag, namespaces);
+        addNamespaceAttributes(bodyTag, namespaces);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        for (Map.Entry<String, Tag.Attribute> entry : namespaces.entrySet()) {
+            if (payloadTag.getAttributeValue(entry.getKey()) == null) {
+                Tag.Attribute attribute = entry.getValue();
+                os.write(' ');
+                os.write(content, attribute.start, attribute.end - attribute.start);
+            }
+        }
+        return os.toByteArray();
+    }
+
+    private static void addNamespaceAttributes(Tag tag, Map<String, Tag.Attribute> namespaces) {
+        for (Tag.Attribute attribute : tag.attributes) {
+            if (attribute.name.equals("xmlns") || attribute.name.startsWith("xmlns:")) {
+                namespaces.put(attribute.name, attribute);
+            }
+        }
+    }
+
+    private static Charset getAsciiCompatibleCharset(String encoding) {
+        try {
+            Charset charset = Charset.forName(encoding);
+            String name = charset.name().toUpperCase(Locale.ENGLISH);
+            if (name.equals("UTF-8") || name.equals("US-ASCII") || name.startsWith("ISO-8859-") ||
+                    name.startsWith("WINDOWS-125")) {
+                return charset;
+            }
+        }
+        catch (IllegalArgumentException ex) {
+            // fall through
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] content, int offset, String s) {
+        if (offset + s.length() > content.length) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (content[offset + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] content, String s, int from) {
+        for (int i = from; i <= content.length - s.length(); i++) {
+            if (startsWith(content, i, s)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Scans the content of the given element, and returns the offset directly after its matching end tag. Returns
+     * {@code -1} if the end tag could not be found.
+     */
+    private static int skipElementContent(byte[] content, Tag tag, Charset charset) {
+        int depth = 1;
+        int pos = tag.end;
+        while (pos != -1) {
+            int start = indexOf(content, "<", pos);
+            if (start == -1) {
+                return -1;
+            }
+            if (startsWith(content, start, "<?")) {
+                pos = skipPast(content, "?>", start);
+            }
+            else if (startsWith(content, start, "<!--")) {
+                pos = skipPast(content, "-->", start);
+            }
+            else if (startsWith(content, start, "<![CDATA[")) {
+                pos = skipPast(content, "]]>", start);
+            }
+            else if (startsWith(content, start, "<!")) {
+                return -1;
+            }
+            else if (startsWith(content, start, "</")) {
+                depth--;
+                if (depth == 0) {
+                    return isEndTag(content, start, tag.name) ? skipPast(content, ">", start) : -1;
+                }
+                pos = skipPast(content, ">", start);
+            }
+            else {
+                Tag child = Tag.parse(content, start, charset);
+                if (child == null) {
+                    return -1;
+                }
+                if (!child.empty) {
+                    depth++;
+                }
+                pos = child.end;
+            }
+        }
+        return -1;
+    }
+
+    /** Indicates whether the end tag of an element with the given name starts at the given offset. */
+    private static boolean isEndTag(byte[] content, int offset, String name) {
+        if (!startsWith(content, offset, "</" + name)) {
+            return false;
+        }
+        int next = offset + name.length() + 2;
+        return next < content.length && (content[next] == '>' || isWhitespace(content[next]));
+    }
+
+    private static int skipPast(byte[] content, String s, int from) {
+        int index = indexOf(content, s, from);
+        return index != -1 ? index + s.length() : -1;
+    }
+
+    private static int skipWhitespace(byte[] content, int from) {
+        int i = from;
+        while (i < content.length && isWhitespace(content[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    private static boolean isNameStartByte(byte b) {
+        return b != '/' && b != '!' && b != '?' && !isWhitespace(b) && b != '>';
+    }
+
+    /** The location and contents of a start tag. */
+    private static class Tag {
+
+        private final int start;
+
+        private final int nameEnd;
+
+        private final int end;
+
+        private final String name;
+
+        private final boolean empty;
+
+        private final List<Attribute> attributes;
+
+        private Tag(int start, int nameEnd, int end, String name, boolean empty, List<Attribute> attributes) {
+            this.start = start;
+            this.nameEnd = nameEnd;
+            this.end = end;
+            this.name = name;
+            this.empty = empty;
+            this.attributes = attributes;
+        }
+
+        /** Parses the start tag at the given offset. Returns {@code null} if the tag is not well-formed. */
+        static Tag parse(byte[] content, int start, Charset charset) {
+            int nameEnd = start + 1;
+            while (nameEnd < content.length && !isWhitespace(content[nameEnd]) && content[nameEnd] != '>' &&
+                    content[nameEnd] != '/') {
+                nameEnd++;
+            }
+            if (nameEnd == start + 1 || nameEnd >= content.length) {
+                return null;
+            }
+            String name = decode(content, start + 1, nameEnd, charset);
+            List<Attribute> attributes = new ArrayList<Attribute>();
+            int pos = nameEnd;
+            while (true) {
+                pos = skipWhitespace(content, pos);
+                if (pos >= content.length) {
+                    return null;
+                }
+                if (content[pos] == '>') {
+                    return new Tag(start, nameEnd, pos + 1, name, false, attributes);
+                }
+                if (startsWith(content, pos, "/>")) {
+                    return new Tag(start, nameEnd, pos + 2, name, true, attributes);
+                }
+                int attributeStart = pos;
+                while (pos < content.length && content[pos] != '=' && !isWhitespace(content[pos])) {
+                    pos++;
+                }
+                String attributeName = decode(content, attributeStart, pos, charset);
+                pos = skipWhitespace(content, pos);
+                if (pos >= content.length || content[pos] != '=') {
+                    return null;
+                }
+                pos = skipWhitespace(content, pos + 1);
+                if (pos >= content.length || (content[pos] != '"' && content[pos] != '\'')) {
+                    return null;
+                }
+                byte quote = content[pos];
+                int valueStart = pos + 1;
+                int valueEnd = valueStart;
+                while (valueEnd < content.length && content[valueEnd] != quote) {
+                    valueEnd++;
+                }
+                if (valueEnd >= content.length) {
+                    return null;
+                }
+                pos = valueEnd + 1;
+                attributes.add(new Attribute(attributeName, decode(content, valueStart, valueEnd, charset),
+                        attributeStart, pos));
+            }
+        }
+
+        String getAttributeValue(String attributeName) {
+            for (Attribute attribute : attributes) {
+                if (attribute.name.equals(attributeName)) {
+                    return attribute.value;
+                }
+            }
+            return null;
+        }
+
+        private static String decode(byte[] content, int start, int end, Charset charset) {
+            return charset.decode(ByteBuffer.wrap(content, start, end - start)).toString();
+        }
+
+        /**
+         * Returns the namespace of this tag, as declared on the tag itself or on the given parent tag. Returns {@code
+         * null} if the namespace is not declared on either.
+         */
+        String getNamespaceUri(Tag parent) {
+            String prefix = getPrefix();
+            String attributeName = prefix.length() != 0 ? "xmlns:" + prefix : "xmlns";
+            String namespaceUri = getAttributeValue(attributeName);
+            if (namespaceUri == null && parent != null) {
+                namespaceUri = parent.getAttributeValue(attributeName);
+            }
+            return namespaceUri;
+        }
+
+        String getPrefix() {
+            int idx = name.indexOf(':');
+            return idx != -1 ? name.substring(0, idx) : "";
+        }
+
+        String getLocalName() {
+            int idx = name.indexOf(':');
+            return idx != -1 ? name.substring(idx + 1) : name;
+        }
+
+        private static class Attribute {
+
+            private final String name;
+
+            private final String value;
+
+            private final int start;
+
+            private final int end;
+
+            private Attribute(String name, String value, int start, int end) {
+                this.name = name;
+                this.value = value;
+                this.start = start;
+                this.end = end;
+            }
+        }
+    }
+
+}
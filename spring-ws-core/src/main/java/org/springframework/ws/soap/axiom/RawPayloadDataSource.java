@@ -0,0 +1,219 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.ws.soap.axiom;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import org.apache.axiom.om.OMDataSourceExt;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.ds.OMDataSourceExtBase;
+import org.apache.axiom.om.impl.MTOMXMLStreamWriter;
+import org.apache.axiom.om.util.StAXUtils;
+
+/**
+ * Implementation of {@link org.apache.axiom.om.OMDataSource} that wraps the unparsed payload of a {@link RawEnvelope}.
+ * The payload is only parsed when the element that uses this data source is expanded; when it is serialized, the raw
+ * bytes are written as is.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class RawPayloadDataSource extends OMDataSourceExtBase {
+
+    private final RawEnvelope envelope;
+
+    RawPayloadDataSource(RawEnvelope envelope) {
+        Assert.notNull(envelope, "'envelope' must not be null");
+        this.envelope = envelope;
+    }
+
+    @Override
+    public void serialize(OutputStream output, OMOutputFormat format) throws XMLStreamException {
+        try {
+            String encoding = format != null ? format.getCharSetEncoding() : null;
+            if (!StringUtils.hasLength(encoding) || envelope.getEncoding().equalsIgnoreCase(encoding)) {
+                envelope.writePayloadTo(output);
+            }
+            else {
+                output.write(getXMLBytes(encoding));
+            }
+        }
+        catch (IOException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    @Override
+    public void serialize(Writer writer, OMOutputFormat format) throws XMLStreamException {
+        try {
+            writer.write(envelope.getPayloadString());
+        }
+        catch (IOException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    @Override
+    public void serialize(XMLStreamWriter xmlWriter) throws XMLStreamException {
+        if (xmlWriter instanceof MTOMXMLStreamWriter) {
+            MTOMXMLStreamWriter mtomWriter = (MTOMXMLStreamWriter) xmlWriter;
+            OutputStream outputStream = mtomWriter.getOutputStream();
+            if (outputStream != null) {
+                serialize(outputStream, mtomWriter.getOutputFormat());
+                return;
+            }
+        }
+        super.serialize(xmlWriter);
+    }
+
+    public XMLStreamReader getReader() throws XMLStreamException {
+        XMLStreamReader streamReader = StAXUtils
+                .createXMLStreamReader(envelope.getPayloadDocumentInputStream(), envelope.getEncoding());
+        // skip the envelope and body start elements
+        int depth = 0;
+        while (depth < 3) {
+            if (streamReader.next() == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+        }
+        return new PayloadStreamReader(streamReader, envelope.getEncoding());
+    }
+
+    public Object getObject() {
+        return envelope;
+    }
+
+    public boolean isDestructiveRead() {
+        return false;
+    }
+
+    public boolean isDestructiveWrite() {
+        return false;
+    }
+
+    public byte[] getXMLBytes(String encoding) throws UnsupportedEncodingException {
+        return envelope.getPayloadString().getBytes(encoding);
+    }
+
+    public void close() {
+    }
+
+    public OMDataSourceExt copy() {
+        return new RawPayloadDataSource(envelope);
+    }
+
+    /**
+     * Stream reader that presents the payload element as a document of its own. It starts with a synthetic start of
+     * document, positioned before the payload element, and ends the document after the end of the payload element.
+     */
+    private static class PayloadStreamReader extends StreamReaderDelegate {
+
+        private final String encoding;
+
+        private int depth = 1;
+
+        private boolean startOfDocument = true;
+
+        private boolean endOfDocument = false;
+
+        private PayloadStreamReader(XMLStreamReader streamReader, String encoding) {
+            super(streamReader);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            if (startOfDocument) {
+                startOfDocument = false;
+                return super.getEventType();
+            }
+            if (depth == 0) {
+                endOfDocument = true;
+                return XMLStreamConstants.END_DOCUMENT;
+            }
+            int eventType = super.next();
+            if (eventType == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+            else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+            return eventType;
+        }
+
+        @Override
+        public boolean hasNext() throws XMLStreamException {
+            return !endOfDocument;
+        }
+
+        @Override
+        public int getEventType() {
+            if (startOfDocument) {
+                return XMLStreamConstants.START_DOCUMENT;
+            }
+            return endOfDocument ? XMLStreamConstants.END_DOCUMENT : super.getEventType();
+        }
+
+        @Override
+        public boolean isStartElement() {
+            return getEventType() == XMLStreamConstants.START_ELEMENT;
+        }
+
+        @Override
+        public boolean isEndElement() {
+            return getEventType() == XMLStreamConstants.END_ELEMENT;
+        }
+
+        @Override
+        public String getVersion() {
+            return "1.0";
+        }
+
+        @Override
+        public String getEncoding() {
+            return encoding;
+        }
+
+        @Override
+        public String getCharacterEncodingScheme() {
+            return null;
+        }
+
+        @Override
+        public boolean isStandalone() {
+            return false;
+        }
+
+        @Override
+        public boolean standaloneSet() {
+            return false;
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,10 +31,15 @@ import org.springframework.util.StringUtils;
 import org.springframework.xml.namespace.QNameUtils;
 
 import org.apache.axiom.om.OMContainer;
+import org.apache.axiom.om.OMDataSource;
+import org.apache.axiom.om.OMDataSourceExt;
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMException;
+import org.apache.axiom.om.OMFactory;
 import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.om.OMSourcedElement;
 import org.apache.axiom.om.util.StAXUtils;
+import org.apache.axiom.soap.SOAPBody;
 import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axiom.soap.impl.builder.StAXSOAPModelBuilder;
 import org.w3c.dom.DOMImplementation;
@@ -110,6 +115,40 @@ public abstract class AxiomUtils {
         }
     }
 
+    /**
+     * Copies the payload of the given source body to the given target body, provided that the payload has not been
+     * expanded yet. The target gets an element backed by a copy of the payload's {@link OMDataSourceExt}, so the
+     * payload is not parsed. This applies to payloads read with lazy body parsing enabled.
+     *
+     * @param source the body to copy the payload from
+     * @param target the body to copy the payload to; its current contents are removed
+     * @return <code>true</code> if the payload was copied; <code>false</code> if it has been expanded or is not backed
+     *         by a copyable data source
+     * @see org.springframework.ws.soap.axiom.AxiomSoapMessageFactory#setLazyBodyParsing(boolean)
+     */
+    public static boolean copyUnexpandedPayload(SOAPBody source, SOAPBody target) {
+        OMElement payload = source.getFirstElement();
+        if (!(payload instanceof OMSourcedElement) || ((OMSourcedElement) payload).isExpanded()) {
+            return false;
+        }
+        OMDataSource dataSource = ((OMSourcedElement) payload).getDataSource();
+        if (!(dataSource instanceof OMDataSourceExt) || ((OMDataSourceExt) dataSource).isDestructiveRead()) {
+            return false;
+        }
+        OMDataSourceExt dataSourceCopy = ((OMDataSourceExt) dataSource).copy();
+        if (dataSourceCopy == null) {
+            return false;
+        }
+        OMFactory factory = target.getOMFactory();
+        OMNamespace namespace = payload.getNamespace();
+        if (namespace != null) {
+            namespace = factory.createOMNamespace(namespace.getNamespaceURI(), namespace.getPrefix());
+        }
+        removeContents(target);
+        target.addChild(factory.createOMElement(dataSourceCopy, payload.getLocalName(), namespace));
+        return true;
+    }
+
     /**
      * Converts a given AXIOM {@link org.apache.axiom.soap.SOAPEnvelope} to a {@link Document}.
      *
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.ws.soap.client.core;
+
+import java.io.IOException;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.client.core.WebServiceMessageCallback;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.axiom.AxiomSoapMessage;
+import org.springframework.ws.soap.axiom.support.AxiomUtils;
+import org.springframework.xml.transform.TransformerObjectSupport;
+
+/**
+ * {@link WebServiceMessageCallback} implementation that copies the payload and SOAP Action of a given message into the
+ * message it is invoked with. Typically used by gateways that forward a received message to another service.
+ * <p/>
+ * When both messages are {@link AxiomSoapMessage}s, and the payload of the given message has not been parsed (see
+ * {@link org.springframework.ws.soap.axiom.AxiomSoapMessageFactory#setLazyBodyParsing(boolean)}), the raw payload is
+ * copied without being parsed, and written to the outgoing stream as is. Otherwise, the payload is copied by means of a
+ * transformation.
+ * <p/>
+ * A usage example with {@link org.springframework.ws.client.core.WebServiceTemplate}:
+ * <pre>
+ * template.sendAndReceive(new PassThroughCallback(request), new PassThroughCallback(response));
+ * </pre>
+ *
+ * @author Arjen Poutsma
+ * @see org.springframework.ws.soap.server.endpoint.PassThroughEndpoint
+ * @since 2.2
+ */
+public class PassThroughCallback extends TransformerObjectSupport implements WebServiceMessageCallback {
+
+    private static final boolean axiomPresent =
+            ClassUtils.isPresent("org.apache.axiom.om.OMElement", PassThroughCallback.class.getClassLoader());
+
+    private final WebServiceMessage source;
+
+    /**
+     * Create a new <code>PassThroughCallback</code> that copies the given message.
+     *
+     * @param source the message whose payload and SOAP Action are to be copied
+     */
+    public PassThroughCallback(WebServiceMessage source) {
+        Assert.notNull(source, "'source' must not be null");
+        this.source = source;
+    }
+
+    public void doWithMessage(WebServiceMessage message) throws IOException, TransformerException {
+        if (source instanceof SoapMessage && message instanceof SoapMessage) {
+            ((SoapMessage) message).setSoapAction(((SoapMessage) source).getSoapAction());
+        }
+        if (axiomPresent && AxiomPayloadCopier.copyPayload(source, message)) {
+            return;
+        }
+        Source payloadSource = source.getPayloadSource();
+        if (payloadSource != null) {
+            transform(payloadSource, message.getPayloadResult());
+        }
+    }
+
+    /** Inner class to avoid a hard dependency on Axiom. */
+    private static class AxiomPayloadCopier {
+
+        private static boolean copyPayload(WebServiceMessage source, WebServiceMessage target) {
+            if (source instanceof AxiomSoapMessage && target instanceof AxiomSoapMessage) {
+                AxiomSoapMessage axiomSource = (AxiomSoapMessage) source;
+                AxiomSoapMessage axiomTarget = (AxiomSoapMessage) target;
+                return AxiomUtils.copyUnexpandedPayload(axiomSource.getAxiomMessage().getSOAPEnvelope().getBody(),
+                        axiomTarget.getAxiomMessage().getSOAPEnvelope().getBody());
+            }
+            return false;
+        }
+    }
+
+}
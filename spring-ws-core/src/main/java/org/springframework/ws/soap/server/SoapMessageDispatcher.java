@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.ws.soap.server;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -51,6 +52,15 @@ public class SoapMessageDispatcher extends MessageDispatcher {
     public static final String DEFAULT_MUST_UNDERSTAND_FAULT_STRING =
             "One or more mandatory SOAP header blocks not understood";
 
+    private static final QName WSA_200408_ACTION_NAME =
+            new QName("http://schemas.xmlsoap.org/ws/2004/08/addressing", "Action");
+
+    private static final QName WSA_10_ACTION_NAME = new QName("http://www.w3.org/2005/08/addressing", "Action");
+
+    private static final QName WSA_200408_TO_NAME = new QName("http://schemas.xmlsoap.org/ws/2004/08/addressing", "To");
+
+    private static final QName WSA_10_TO_NAME = new QName("http://www.w3.org/2005/08/addressing", "To");
+
     private String mustUnderstandFaultString = DEFAULT_MUST_UNDERSTAND_FAULT_STRING;
 
     private Locale mustUnderstandFaultStringLocale = Locale.ENGLISH;
@@ -68,6 +78,37 @@ public class SoapMessageDispatcher extends MessageDispatcher {
         this.mustUnderstandFaultStringLocale = mustUnderstandFaultStringLocale;
     }
 
+    /**
+     * Returns the key used to cache the endpoint for the given request. This implementation adds the SOAP action, and
+     * the WS-Addressing action and destination (if any) to the payload root element name, as WS-Addressing endpoint
+     * mappings select endpoints based on both.
+     */
+    @Override
+    protected Object getDispatchCacheKey(MessageContext messageContext) throws Exception {
+        Object payloadKey = super.getDispatchCacheKey(messageContext);
+        if (!(messageContext.getRequest() instanceof SoapMessage)) {
+            return payloadKey;
+        }
+        SoapMessage soapRequest = (SoapMessage) messageContext.getRequest();
+        String addressingAction = null;
+        String addressingTo = null;
+        SoapHeader soapHeader = soapRequest.getSoapHeader();
+        if (soapHeader != null) {
+            Iterator<SoapHeaderElement> headerIterator = soapHeader.examineAllHeaderElements();
+            while (headerIterator.hasNext()) {
+                SoapHeaderElement headerElement = headerIterator.next();
+                QName headerName = headerElement.getName();
+                if (WSA_10_ACTION_NAME.equals(headerName) || WSA_200408_ACTION_NAME.equals(headerName)) {
+                    addressingAction = headerElement.getText();
+                }
+                else if (WSA_10_TO_NAME.equals(headerName) || WSA_200408_TO_NAME.equals(headerName)) {
+                    addressingTo = headerElement.getText();
+                }
+            }
+        }
+        return Arrays.asList(payloadKey, soapRequest.getSoapAction(), addressingAction, addressingTo);
+    }
+
     /**
      * Process the headers targeted at the actor or role fullfilled by the endpoint. Also processed the
      * <code>MustUnderstand</code> headers in the incoming SOAP request message. Iterates over all SOAP headers which
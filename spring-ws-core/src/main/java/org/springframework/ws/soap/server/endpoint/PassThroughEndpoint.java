@@ -0,0 +1,110 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.ws.soap.server.endpoint;
+
+import java.io.IOException;
+import javax.xml.transform.TransformerException;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.ws.FaultAwareWebServiceMessage;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.client.WebServiceFaultException;
+import org.springframework.ws.client.core.WebServiceMessageCallback;
+import org.springframework.ws.client.core.WebServiceOperations;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.MessageEndpoint;
+import org.springframework.ws.soap.client.core.PassThroughCallback;
+
+/**
+ * {@link MessageEndpoint} that forwards the payload of each request to another service, and returns the payload of
+ * its response. Suited for gateways that route messages based on their SOAP headers.
+ * <p/>
+ * Messages are copied with a {@link PassThroughCallback}. When both the message dispatcher of this endpoint and the
+ * {@linkplain #setWebServiceOperations(WebServiceOperations) template} use an Axiom message factory with {@linkplain
+ * org.springframework.ws.soap.axiom.AxiomSoapMessageFactory#setLazyBodyParsing(boolean) lazy body parsing} enabled,
+ * payloads are copied from the incoming stream to the outgoing stream without ever being parsed.
+ * <p/>
+ * Faults returned by the service are returned unchanged, as the response of this endpoint. This requires the
+ * {@linkplain org.springframework.ws.client.core.WebServiceTemplate#setFaultMessageResolver fault message resolver}
+ * of the template to throw a {@link WebServiceFaultException} that holds the fault message, as the default {@link
+ * org.springframework.ws.soap.client.core.SoapFaultMessageResolver} does.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public class PassThroughEndpoint implements MessageEndpoint, InitializingBean {
+
+    private WebServiceOperations webServiceOperations;
+
+    private String uri;
+
+    /** Sets the template used to forward requests. Required. */
+    public void setWebServiceOperations(WebServiceOperations webServiceOperations) {
+        this.webServiceOperations = webServiceOperations;
+    }
+
+    /**
+     * Sets the URI requests are forwarded to. If not set, the default URI of the {@link
+     * #setWebServiceOperations(WebServiceOperations) template} is used.
+     */
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(webServiceOperations, "'webServiceOperations' is required");
+    }
+
+    public void invoke(MessageContext messageContext) throws Exception {
+        PassThroughCallback requestCallback = new PassThroughCallback(messageContext.getRequest());
+        ResponseCallback responseCallback = new ResponseCallback(messageContext);
+        try {
+            if (uri != null) {
+                webServiceOperations.sendAndReceive(uri, requestCallback, responseCallback);
+            }
+            else {
+                webServiceOperations.sendAndReceive(requestCallback, responseCallback);
+            }
+        }
+        catch (WebServiceFaultException ex) {
+            FaultAwareWebServiceMessage faultMessage = ex.getWebServiceMessage();
+            if (faultMessage == null) {
+                throw ex;
+            }
+            // return the fault message itself, so that it is recognized as a fault by the transport
+            messageContext.clearResponse();
+            messageContext.setResponse(faultMessage);
+        }
+    }
+
+    /** Copies the response of the service into the response of the message context. */
+    private static class ResponseCallback implements WebServiceMessageCallback {
+
+        private final MessageContext messageContext;
+
+        private ResponseCallback(MessageContext messageContext) {
+            this.messageContext = messageContext;
+        }
+
+        public void doWithMessage(WebServiceMessage message) throws IOException, TransformerException {
+            new PassThroughCallback(message).doWithMessage(messageContext.getResponse());
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,7 +14,7 @@
  * limitations under the License.
  */
 
-package org.springframework.xml.stream;
+package org.springframework.ws.soap.stroap;
 
 import java.util.NoSuchElementException;
 import javax.xml.stream.XMLEventReader;
@@ -29,8 +29,9 @@ import org.springframework.util.ClassUtils;
  * Abstract base class for <code>XMLEventReader</code>s.
  *
  * @author Arjen Poutsma
+ * @since 2.2
  */
-public abstract class AbstractXMLEventReader implements XMLEventReader {
+abstract class AbstractXMLEventReader implements XMLEventReader {
 
     private boolean closed;
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,7 @@
 
 package org.springframework.ws.soap.stroap;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
@@ -25,22 +25,40 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
 
 import org.springframework.util.Assert;
-import org.springframework.xml.stream.ListBasedXMLEventReader;
 
 /**
+ * Payload that keeps its events in memory, so that it can be read multiple times.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 class CachingStroapPayload extends StroapPayload {
 
-    private final List<XMLEvent> events = new LinkedList<XMLEvent>();
+    private final List<XMLEvent> events = new ArrayList<XMLEvent>();
 
     CachingStroapPayload() {
     }
 
+    /**
+     * Creates a new payload that caches the events of the given reader, up to and including the end element of the
+     * enclosing body.
+     */
     CachingStroapPayload(XMLEventReader eventReader) throws XMLStreamException {
         Assert.notNull(eventReader, "'eventReader' must not be null");
-        XMLEventWriter eventWriter = getEventWriter();
-        eventWriter.add(eventReader);
+        int elementDepth = 0;
+        while (eventReader.hasNext()) {
+            XMLEvent event = eventReader.nextEvent();
+            if (event.isStartElement()) {
+                elementDepth++;
+            }
+            else if (event.isEndElement()) {
+                elementDepth--;
+                if (elementDepth < 0) {
+                    break;
+                }
+            }
+            events.add(event);
+        }
     }
 
     @Override
@@ -59,6 +77,7 @@ class CachingStroapPayload extends StroapPayload {
         return new ListBasedXMLEventReader(events);
     }
 
+    /** Returns a writer that replaces the contents of this payload. */
     public XMLEventWriter getEventWriter() {
         events.clear();
         return new CachingXMLEventWriter(events);
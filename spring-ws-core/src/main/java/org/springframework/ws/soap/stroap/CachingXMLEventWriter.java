@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,16 +21,19 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
 
 import org.springframework.util.Assert;
-import org.springframework.xml.stream.AbstractXMLEventWriter;
 
 /**
+ * {@code XMLEventWriter} that adds the events written to it to a list, ignoring document events and everything
+ * before the first start element.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 class CachingXMLEventWriter extends AbstractXMLEventWriter {
 
     private int elementDepth = 0;
 
-    boolean startElementSeen = false;
+    private boolean startElementSeen = false;
 
     private final List<XMLEvent> events;
 
@@ -40,6 +43,7 @@ class CachingXMLEventWriter extends AbstractXMLEventWriter {
     }
 
     public void add(XMLEvent event) throws XMLStreamException {
+        checkIfClosed();
         if (event.isStartElement()) {
             startElementSeen = true;
             elementDepth++;
@@ -54,4 +58,5 @@ class CachingXMLEventWriter extends AbstractXMLEventWriter {
             events.add(event);
         }
     }
+
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * {@code XMLEventWriter} that splits the events written to it into top-level elements, and passes each of these
+ * elements to {@link #addChildElement(List)}. Used for results that add children to an element, such as the SOAP
+ * header and the fault detail.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+abstract class ChildElementXMLEventWriter extends AbstractXMLEventWriter {
+
+    private int elementDepth = 0;
+
+    private List<XMLEvent> events = new ArrayList<XMLEvent>();
+
+    public void add(XMLEvent event) throws XMLStreamException {
+        checkIfClosed();
+        if (event.isStartElement()) {
+            elementDepth++;
+        }
+        else if (event.isEndElement()) {
+            elementDepth--;
+        }
+        else if (elementDepth == 0) {
+            // ignore document events, and whitespace between child elements
+            return;
+        }
+        events.add(event);
+        if (elementDepth == 0) {
+            addChildElement(events);
+            events = new ArrayList<XMLEvent>();
+        }
+    }
+
+    /**
+     * Invoked for each top-level element written to this writer.
+     *
+     * @param events the events of the element, starting with its start element, and ending with its end element
+     */
+    protected abstract void addChildElement(List<XMLEvent> events) throws XMLStreamException;
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,9 +14,10 @@
  * limitations under the License.
  */
 
-package org.springframework.xml.stream;
+package org.springframework.ws.soap.stroap;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
@@ -24,11 +25,13 @@ import javax.xml.stream.events.XMLEvent;
 import org.springframework.util.Assert;
 
 /**
- * Implementation of {@link XMLEventReader} that combines multiple other {@code XMLEventReader}s.
+ * Implementation of {@link XMLEventReader} that combines multiple other {@code XMLEventReader}s, reading them one
+ * after the other. The combined readers are not expected to produce document events.
  *
  * @author Arjen Poutsma
+ * @since 2.2
  */
-public class CompositeXMLEventReader extends AbstractXMLEventReader {
+class CompositeXMLEventReader extends AbstractXMLEventReader {
 
     private final XMLEventReader[] eventReaders;
 
@@ -51,51 +54,27 @@ public class CompositeXMLEventReader extends AbstractXMLEventReader {
 
     public boolean hasNext() {
         while (cursor < eventReaders.length) {
-            if (!atLastEventReader()) {
-                if (!currentEventReader().hasNext()) {
-                    cursor++;
-                    continue;
-                }
+            if (currentEventReader().hasNext()) {
+                return true;
             }
-            return currentEventReader().hasNext();
+            cursor++;
         }
         return false;
     }
 
     public XMLEvent nextEvent() throws XMLStreamException {
-        XMLEvent event = null;
-        while (cursor < eventReaders.length) {
-            event = currentEventReader().nextEvent();
-            if (!atLastEventReader() && event.isEndDocument()) {
-                cursor++;
-            }
-            else {
-                break;
-            }
+        if (!hasNext()) {
+            throw new NoSuchElementException();
         }
-        return event;
+        return currentEventReader().nextEvent();
     }
 
     public XMLEvent peek() throws XMLStreamException {
-        XMLEvent event = null;
-        while (cursor < eventReaders.length) {
-            event = currentEventReader().peek();
-            if (!atLastEventReader() && (event == null || event.isEndDocument())) {
-                cursor++;
-            }
-            else {
-                break;
-            }
-        }
-        return event;
+        return hasNext() ? currentEventReader().peek() : null;
     }
 
     private XMLEventReader currentEventReader() {
         return eventReaders[cursor];
     }
 
-    private boolean atLastEventReader() {
-        return cursor == eventReaders.length - 1;
-    }
-
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,7 +23,10 @@ import org.springframework.util.Assert;
 import org.springframework.ws.soap.SoapFault;
 
 /**
+ * Payload that contains a {@link StroapFault}.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 class FaultStroapPayload extends StroapPayload {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,7 +14,7 @@
  * limitations under the License.
  */
 
-package org.springframework.xml.stream;
+package org.springframework.ws.soap.stroap;
 
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -23,9 +23,12 @@ import javax.xml.stream.events.XMLEvent;
 import org.springframework.util.Assert;
 
 /**
+ * Implementation of {@link javax.xml.stream.XMLEventReader} that reads from a fixed list of events.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
-public class ListBasedXMLEventReader extends AbstractXMLEventReader {
+class ListBasedXMLEventReader extends AbstractXMLEventReader {
 
     private final XMLEvent[] events;
 
@@ -55,7 +58,6 @@ public class ListBasedXMLEventReader extends AbstractXMLEventReader {
     }
 
     public boolean hasNext() {
-        Assert.notNull(events, "'events' must not be null");
         return cursor != events.length;
     }
 
@@ -76,4 +78,5 @@ public class ListBasedXMLEventReader extends AbstractXMLEventReader {
             return null;
         }
     }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,10 +23,13 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
 
 import org.springframework.util.Assert;
-import org.springframework.xml.stream.AbstractXMLEventReader;
 
 /**
+ * Payload that reads its events lazily from the underlying reader of the message. As a consequence, the payload can
+ * only be read once.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 class NonCachingStroapPayload extends StroapPayload {
 
@@ -34,7 +37,7 @@ class NonCachingStroapPayload extends StroapPayload {
 
     private int elementDepth = 0;
 
-    NonCachingStroapPayload(XMLEventReader eventReader) throws XMLStreamException {
+    NonCachingStroapPayload(XMLEventReader eventReader) {
         Assert.notNull(eventReader, "'eventReader' must not be null");
         this.eventReader = eventReader;
     }
@@ -46,7 +49,6 @@ class NonCachingStroapPayload extends StroapPayload {
             if (event != null && event.isStartElement()) {
                 return event.asStartElement().getName();
             }
-
         }
         catch (XMLStreamException ex) {
             // ignore
@@ -62,11 +64,25 @@ class NonCachingStroapPayload extends StroapPayload {
     private class NonCachingXMLEventReader extends AbstractXMLEventReader {
 
         public boolean hasNext() {
-            return elementDepth >= 0 && eventReader.hasNext();
+            if (elementDepth < 0) {
+                return false;
+            }
+            try {
+                XMLEvent event = eventReader.peek();
+                if (event == null || (event.isEndElement() && elementDepth == 0)) {
+                    // the end element of the enclosing body
+                    elementDepth = -1;
+                    return false;
+                }
+                return true;
+            }
+            catch (XMLStreamException ex) {
+                throw new StroapBodyException(ex);
+            }
         }
 
         public XMLEvent nextEvent() throws XMLStreamException {
-            if (elementDepth < 0) {
+            if (!hasNext()) {
                 throw new NoSuchElementException();
             }
             XMLEvent event = eventReader.nextEvent();
@@ -80,12 +96,8 @@ class NonCachingStroapPayload extends StroapPayload {
         }
 
         public XMLEvent peek() throws XMLStreamException {
-            if (elementDepth < 0) {
-                return null;
-            }
-            else {
-                return eventReader.peek();
-            }
+            return hasNext() ? eventReader.peek() : null;
         }
     }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,7 +29,11 @@ import org.springframework.util.xml.StaxUtils;
 import org.springframework.ws.stream.StreamingPayload;
 
 /**
+ * Payload that wraps a {@link StreamingPayload}, which is written directly to the output when the message is
+ * written.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 class StreamingStroapPayload extends StroapPayload {
 
@@ -40,7 +44,6 @@ class StreamingStroapPayload extends StroapPayload {
     StreamingStroapPayload(StreamingPayload payload, StroapMessageFactory messageFactory) {
         Assert.notNull(payload, "'payload' must not be null");
         Assert.notNull(messageFactory, "'messageFactory' must not be null");
-
         this.payload = payload;
         this.messageFactory = messageFactory;
     }
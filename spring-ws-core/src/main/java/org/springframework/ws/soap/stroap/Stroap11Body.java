@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,30 +22,28 @@ import javax.xml.stream.events.StartElement;
 
 import org.springframework.util.Assert;
 import org.springframework.ws.soap.SoapFaultException;
+import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.soap.soap11.Soap11Body;
 import org.springframework.ws.soap.soap11.Soap11Fault;
 
 /**
+ * Stroap implementation of the {@link Soap11Body} interface.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 class Stroap11Body extends StroapBody implements Soap11Body {
 
-    private static final String ENVELOPE_NAMESPACE_URI = "http://schemas.xmlsoap.org/soap/envelope/";
-
-    private QName CLIENT_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "Client", DEFAULT_PREFIX);
-
-    private QName SERVER_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "Server", DEFAULT_PREFIX);
-
-    private QName MUST_UNDERSTAND_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "MustUnderstand", DEFAULT_PREFIX);
-
-    private QName VERSION_MISMATCH_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "VersionMismatch", DEFAULT_PREFIX);
-
     Stroap11Body(StroapMessageFactory messageFactory) {
-        super(messageFactory);
+        this(SoapVersion.SOAP_11.getBodyName(), messageFactory);
+    }
+
+    Stroap11Body(QName name, StroapMessageFactory messageFactory) {
+        super(name, SoapVersion.SOAP_11, messageFactory);
     }
 
     Stroap11Body(StartElement startElement, StroapPayload payload, StroapMessageFactory messageFactory) {
-        super(startElement, payload, messageFactory);
+        super(startElement, payload, SoapVersion.SOAP_11, messageFactory);
     }
 
     @Override
@@ -53,33 +51,20 @@ class Stroap11Body extends StroapBody implements Soap11Body {
         return (Soap11Fault) super.getFault();
     }
 
-    public Soap11Fault addMustUnderstandFault(String faultStringOrReason, Locale locale) throws SoapFaultException {
-        Stroap11Fault fault =
-                new Stroap11Fault(MUST_UNDERSTAND_FAULT_NAME, "SOAP Must Understand Error", null, getMessageFactory());
-        setFault(fault);
-        return fault;
+    public Soap11Fault addMustUnderstandFault(String faultString, Locale locale) throws SoapFaultException {
+        return addFault(getFaultCode(SoapVersion.SOAP_11.getMustUnderstandFaultName()), faultString, locale);
     }
 
-    public Soap11Fault addClientOrSenderFault(String faultStringOrReason, Locale locale) throws SoapFaultException {
-        Assert.hasLength(faultStringOrReason, "'faultStringOrReason' must not be empty");
-        Stroap11Fault fault = new Stroap11Fault(CLIENT_FAULT_NAME, faultStringOrReason, null, getMessageFactory());
-        setFault(fault);
-        return fault;
+    public Soap11Fault addClientOrSenderFault(String faultString, Locale locale) throws SoapFaultException {
+        return addFault(getFaultCode(SoapVersion.SOAP_11.getClientOrSenderFaultName()), faultString, locale);
     }
 
-    public Soap11Fault addServerOrReceiverFault(String faultStringOrReason, Locale locale) throws SoapFaultException {
-        Assert.hasLength(faultStringOrReason, "'faultStringOrReason' must not be empty");
-        Stroap11Fault fault = new Stroap11Fault(SERVER_FAULT_NAME, faultStringOrReason, null, getMessageFactory());
-        setFault(fault);
-        return fault;
+    public Soap11Fault addServerOrReceiverFault(String faultString, Locale locale) throws SoapFaultException {
+        return addFault(getFaultCode(SoapVersion.SOAP_11.getServerOrReceiverFaultName()), faultString, locale);
     }
 
-    public Soap11Fault addVersionMismatchFault(String faultStringOrReason, Locale locale) throws SoapFaultException {
-        Assert.hasLength(faultStringOrReason, "'faultStringOrReason' must not be empty");
-        Stroap11Fault fault =
-                new Stroap11Fault(VERSION_MISMATCH_FAULT_NAME, faultStringOrReason, null, getMessageFactory());
-        setFault(fault);
-        return fault;
+    public Soap11Fault addVersionMismatchFault(String faultString, Locale locale) throws SoapFaultException {
+        return addFault(getFaultCode(SoapVersion.SOAP_11.getVersionMismatchFaultName()), faultString, locale);
     }
 
     public Soap11Fault addFault(QName faultCode, String faultString, Locale faultStringLocale)
@@ -88,8 +73,8 @@ class Stroap11Body extends StroapBody implements Soap11Body {
         Assert.hasLength(faultCode.getLocalPart(), "faultCode's localPart cannot be empty");
         Assert.hasLength(faultCode.getNamespaceURI(), "faultCode's namespaceUri cannot be empty");
         Assert.hasLength(faultString, "'faultString' must not be empty");
-
-        Stroap11Fault fault = new Stroap11Fault(faultCode, faultString, faultStringLocale, getMessageFactory());
+        Stroap11Fault fault = new Stroap11Fault(getName().getPrefix(), faultCode, faultString, faultStringLocale,
+                getMessageFactory());
         setFault(fault);
         return fault;
     }
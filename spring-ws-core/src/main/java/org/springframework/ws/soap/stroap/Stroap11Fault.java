@@ -0,0 +1,151 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.soap.soap11.Soap11Fault;
+
+/**
+ * Stroap implementation of the {@link Soap11Fault} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class Stroap11Fault extends StroapFault implements Soap11Fault {
+
+    private static final QName FAULT_CODE_NAME = new QName("faultcode");
+
+    private static final QName FAULT_STRING_NAME = new QName("faultstring");
+
+    private static final QName FAULT_ACTOR_NAME = new QName("faultactor");
+
+    private static final QName DETAIL_NAME = new QName("detail");
+
+    private QName faultCode;
+
+    private String faultString;
+
+    private Locale faultStringLocale;
+
+    private String faultActor;
+
+    Stroap11Fault(String prefix,
+                  QName faultCode,
+                  String faultString,
+                  Locale faultStringLocale,
+                  StroapMessageFactory messageFactory) {
+        super(prefix, SoapVersion.SOAP_11, messageFactory);
+        Assert.notNull(faultCode, "'faultCode' must not be null");
+        Assert.hasLength(faultCode.getLocalPart(), "faultCode's localPart cannot be empty");
+        Assert.hasLength(faultCode.getNamespaceURI(), "faultCode's namespaceUri cannot be empty");
+        Assert.hasLength(faultString, "'faultString' must not be empty");
+        this.faultCode = getPrefixedName(faultCode);
+        this.faultString = faultString;
+        this.faultStringLocale = faultStringLocale;
+    }
+
+    private Stroap11Fault(StartElement startElement, StroapMessageFactory messageFactory) {
+        super(startElement, SoapVersion.SOAP_11, messageFactory);
+    }
+
+    /**
+     * Builds a fault from the given event reader, whose next element is the SOAP 1.1 fault. The fault element is
+     * consumed completely; unknown children are ignored.
+     */
+    static Stroap11Fault build(XMLEventReader eventReader, StroapMessageFactory messageFactory)
+            throws XMLStreamException {
+        StartElement startElement = eventReader.nextTag().asStartElement();
+        Stroap11Fault fault = new Stroap11Fault(startElement, messageFactory);
+        StartElement childElement;
+        while ((childElement = nextChildElement(eventReader)) != null) {
+            QName childName = childElement.getName();
+            if (FAULT_CODE_NAME.equals(childName)) {
+                eventReader.nextEvent();
+                fault.faultCode = resolveQName(readText(eventReader), childElement);
+            }
+            else if (FAULT_STRING_NAME.equals(childName)) {
+                eventReader.nextEvent();
+                fault.faultStringLocale = getLocale(childElement);
+                fault.faultString = readText(eventReader);
+            }
+            else if (FAULT_ACTOR_NAME.equals(childName)) {
+                eventReader.nextEvent();
+                fault.faultActor = readText(eventReader);
+            }
+            else if (DETAIL_NAME.equals(childName)) {
+                fault.setFaultDetail(readElement(eventReader));
+            }
+            else {
+                eventReader.nextEvent();
+                skipElement(eventReader);
+            }
+        }
+        if (fault.faultCode == null) {
+            throw new StroapMessageCreationException("SOAP 1.1 Fault has no faultcode");
+        }
+        return fault;
+    }
+
+    public QName getFaultCode() {
+        return faultCode;
+    }
+
+    public String getFaultStringOrReason() {
+        return faultString;
+    }
+
+    public Locale getFaultStringLocale() {
+        return faultStringLocale;
+    }
+
+    public String getFaultActorOrRole() {
+        return faultActor;
+    }
+
+    public void setFaultActorOrRole(String faultActor) {
+        this.faultActor = faultActor;
+    }
+
+    @Override
+    protected QName getDetailName() {
+        return DETAIL_NAME;
+    }
+
+    @Override
+    protected List<XMLEvent> getChildEvents() {
+        List<XMLEvent> events = new ArrayList<XMLEvent>();
+        addTextElement(events, FAULT_CODE_NAME, toText(faultCode), null, faultCode);
+        if (faultString != null) {
+            addTextElement(events, FAULT_STRING_NAME, faultString, faultStringLocale, null);
+        }
+        if (faultActor != null) {
+            addTextElement(events, FAULT_ACTOR_NAME, faultActor, null, null);
+        }
+        return events;
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,25 +19,33 @@ package org.springframework.ws.soap.stroap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import javax.xml.soap.SOAPConstants;
+import javax.xml.namespace.QName;
 import javax.xml.stream.events.StartElement;
 
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.soap.soap11.Soap11Header;
 
 /**
+ * Stroap implementation of the {@link Soap11Header} interface.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 class Stroap11Header extends StroapHeader implements Soap11Header {
 
     Stroap11Header(StroapMessageFactory messageFactory) {
-        super(messageFactory);
+        this(SoapVersion.SOAP_11.getHeaderName(), messageFactory);
+    }
+
+    Stroap11Header(QName name, StroapMessageFactory messageFactory) {
+        super(name, SoapVersion.SOAP_11, messageFactory);
     }
 
     Stroap11Header(StartElement startElement, StroapMessageFactory messageFactory) {
-        super(startElement, messageFactory);
+        super(startElement, SoapVersion.SOAP_11, messageFactory);
     }
 
     public Iterator<SoapHeaderElement> examineHeaderElementsToProcess(String[] actors) {
@@ -57,7 +65,7 @@ class Stroap11Header extends StroapHeader implements Soap11Header {
         if (!StringUtils.hasLength(headerActor)) {
             return true;
         }
-        if (SOAPConstants.URI_SOAP_ACTOR_NEXT.equals(headerActor)) {
+        if (SoapVersion.SOAP_11.getNextActorOrRoleUri().equals(headerActor)) {
             return true;
         }
         if (!ObjectUtils.isEmpty(actors)) {
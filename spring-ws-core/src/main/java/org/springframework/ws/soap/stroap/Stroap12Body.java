@@ -0,0 +1,92 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.Locale;
+import javax.xml.namespace.QName;
+import javax.xml.stream.events.StartElement;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.soap.SoapFaultException;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.soap.soap12.Soap12Body;
+import org.springframework.ws.soap.soap12.Soap12Fault;
+
+/**
+ * Stroap implementation of the {@link Soap12Body} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class Stroap12Body extends StroapBody implements Soap12Body {
+
+    private static final String DATA_ENCODING_UNKNOWN_LOCAL_NAME = "DataEncodingUnknown";
+
+    Stroap12Body(StroapMessageFactory messageFactory) {
+        this(SoapVersion.SOAP_12.getBodyName(), messageFactory);
+    }
+
+    Stroap12Body(QName name, StroapMessageFactory messageFactory) {
+        super(name, SoapVersion.SOAP_12, messageFactory);
+    }
+
+    Stroap12Body(StartElement startElement, StroapPayload payload, StroapMessageFactory messageFactory) {
+        super(startElement, payload, SoapVersion.SOAP_12, messageFactory);
+    }
+
+    @Override
+    public Soap12Fault getFault() {
+        return (Soap12Fault) super.getFault();
+    }
+
+    public Soap12Fault addMustUnderstandFault(String reason, Locale locale) throws SoapFaultException {
+        return addFault(SoapVersion.SOAP_12.getMustUnderstandFaultName(), reason, locale);
+    }
+
+    public Soap12Fault addClientOrSenderFault(String reason, Locale locale) throws SoapFaultException {
+        return addFault(SoapVersion.SOAP_12.getClientOrSenderFaultName(), reason, locale);
+    }
+
+    public Soap12Fault addServerOrReceiverFault(String reason, Locale locale) throws SoapFaultException {
+        return addFault(SoapVersion.SOAP_12.getServerOrReceiverFaultName(), reason, locale);
+    }
+
+    public Soap12Fault addVersionMismatchFault(String reason, Locale locale) throws SoapFaultException {
+        return addFault(SoapVersion.SOAP_12.getVersionMismatchFaultName(), reason, locale);
+    }
+
+    public Soap12Fault addDataEncodingUnknownFault(QName[] subcodes, String reason, Locale locale)
+            throws SoapFaultException {
+        QName faultCode = new QName(SoapVersion.SOAP_12.getEnvelopeNamespaceUri(), DATA_ENCODING_UNKNOWN_LOCAL_NAME);
+        Soap12Fault fault = addFault(faultCode, reason, locale);
+        if (subcodes != null) {
+            for (QName subcode : subcodes) {
+                fault.addFaultSubcode(subcode);
+            }
+        }
+        return fault;
+    }
+
+    private Soap12Fault addFault(QName faultCode, String reason, Locale locale) {
+        Assert.hasLength(reason, "'reason' must not be empty");
+        Assert.notNull(locale, "No locale given");
+        Stroap12Fault fault =
+                new Stroap12Fault(getName().getPrefix(), getFaultCode(faultCode), reason, locale, getMessageFactory());
+        setFault(fault);
+        return fault;
+    }
+}
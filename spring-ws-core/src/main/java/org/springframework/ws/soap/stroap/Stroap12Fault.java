@@ -0,0 +1,233 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.soap.soap12.Soap12Fault;
+
+/**
+ * Stroap implementation of the {@link Soap12Fault} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class Stroap12Fault extends StroapFault implements Soap12Fault {
+
+    private QName faultCode;
+
+    private final List<QName> faultSubcodes = new ArrayList<QName>();
+
+    private final Map<Locale, String> faultReasons = new LinkedHashMap<Locale, String>();
+
+    private String faultNode;
+
+    private String faultRole;
+
+    Stroap12Fault(String prefix, QName faultCode, String reason, Locale locale, StroapMessageFactory messageFactory) {
+        super(prefix, SoapVersion.SOAP_12, messageFactory);
+        Assert.notNull(faultCode, "'faultCode' must not be null");
+        Assert.hasLength(reason, "'reason' must not be empty");
+        Assert.notNull(locale, "'locale' must not be null");
+        this.faultCode = getPrefixedName(faultCode);
+        this.faultReasons.put(locale, reason);
+    }
+
+    private Stroap12Fault(StartElement startElement, StroapMessageFactory messageFactory) {
+        super(startElement, SoapVersion.SOAP_12, messageFactory);
+    }
+
+    /**
+     * Builds a fault from the given event reader, whose next element is the SOAP 1.2 fault. The fault element is
+     * consumed completely; unknown children are ignored.
+     */
+    static Stroap12Fault build(XMLEventReader eventReader, StroapMessageFactory messageFactory)
+            throws XMLStreamException {
+        StartElement startElement = eventReader.nextTag().asStartElement();
+        Stroap12Fault fault = new Stroap12Fault(startElement, messageFactory);
+        StartElement childElement;
+        while ((childElement = nextChildElement(eventReader)) != null) {
+            String localName = childElement.getName().getLocalPart();
+            if (!fault.isSoapChild(childElement)) {
+                eventReader.nextEvent();
+                skipElement(eventReader);
+            }
+            else if ("Detail".equals(localName)) {
+                fault.setFaultDetail(readElement(eventReader));
+            }
+            else {
+                eventReader.nextEvent();
+                if ("Code".equals(localName)) {
+                    fault.readCode(eventReader, true);
+                }
+                else if ("Reason".equals(localName)) {
+                    fault.readReason(eventReader);
+                }
+                else if ("Node".equals(localName)) {
+                    fault.faultNode = readText(eventReader);
+                }
+                else if ("Role".equals(localName)) {
+                    fault.faultRole = readText(eventReader);
+                }
+                else {
+                    skipElement(eventReader);
+                }
+            }
+        }
+        if (fault.faultCode == null) {
+            throw new StroapMessageCreationException("SOAP 1.2 Fault has no Code");
+        }
+        return fault;
+    }
+
+    private boolean isSoapChild(StartElement element) {
+        return getSoapVersion().getEnvelopeNamespaceUri().equals(element.getName().getNamespaceURI());
+    }
+
+    /** Reads the contents of a {@code Code} or {@code Subcode} element, including nested subcodes. */
+    private void readCode(XMLEventReader eventReader, boolean topLevel) throws XMLStreamException {
+        StartElement childElement;
+        while ((childElement = nextChildElement(eventReader)) != null) {
+            String localName = childElement.getName().getLocalPart();
+            eventReader.nextEvent();
+            if (isSoapChild(childElement) && "Value".equals(localName)) {
+                QName value = resolveQName(readText(eventReader), childElement);
+                if (topLevel) {
+                    faultCode = value;
+                }
+                else {
+                    faultSubcodes.add(value);
+                }
+            }
+            else if (isSoapChild(childElement) && "Subcode".equals(localName)) {
+                readCode(eventReader, false);
+            }
+            else {
+                skipElement(eventReader);
+            }
+        }
+    }
+
+    /** Reads the {@code Text} children of a {@code Reason} element. */
+    private void readReason(XMLEventReader eventReader) throws XMLStreamException {
+        StartElement childElement;
+        while ((childElement = nextChildElement(eventReader)) != null) {
+            eventReader.nextEvent();
+            if (isSoapChild(childElement) && "Text".equals(childElement.getName().getLocalPart())) {
+                Locale locale = getLocale(childElement);
+                faultReasons.put(locale != null ? locale : Locale.ENGLISH, readText(eventReader));
+            }
+            else {
+                skipElement(eventReader);
+            }
+        }
+    }
+
+    public QName getFaultCode() {
+        return faultCode;
+    }
+
+    public Iterator<QName> getFaultSubcodes() {
+        return new ArrayList<QName>(faultSubcodes).iterator();
+    }
+
+    public void addFaultSubcode(QName subcode) {
+        Assert.notNull(subcode, "'subcode' must not be null");
+        Assert.hasLength(subcode.getNamespaceURI(), "A fault subcode requires a namespace");
+        faultSubcodes.add(getPrefixedName(subcode));
+    }
+
+    public String getFaultNode() {
+        return faultNode;
+    }
+
+    public void setFaultNode(String uri) {
+        this.faultNode = uri;
+    }
+
+    public String getFaultActorOrRole() {
+        return faultRole;
+    }
+
+    public void setFaultActorOrRole(String faultRole) {
+        this.faultRole = faultRole;
+    }
+
+    public String getFaultStringOrReason() {
+        return faultReasons.isEmpty() ? null : faultReasons.values().iterator().next();
+    }
+
+    public void setFaultReasonText(Locale locale, String text) {
+        Assert.notNull(locale, "'locale' must not be null");
+        faultReasons.put(locale, text);
+    }
+
+    public String getFaultReasonText(Locale locale) {
+        Assert.notNull(locale, "'locale' must not be null");
+        return faultReasons.get(locale);
+    }
+
+    @Override
+    protected QName getDetailName() {
+        return getSoapChildName("Detail");
+    }
+
+    @Override
+    protected List<XMLEvent> getChildEvents() {
+        List<XMLEvent> events = new ArrayList<XMLEvent>();
+        QName codeName = getSoapChildName("Code");
+        QName valueName = getSoapChildName("Value");
+        QName subcodeName = getSoapChildName("Subcode");
+        events.add(getEventFactory().createStartElement(codeName, null, null));
+        addTextElement(events, valueName, toText(faultCode), null, faultCode);
+        for (QName subcode : faultSubcodes) {
+            events.add(getEventFactory().createStartElement(subcodeName, null, null));
+            addTextElement(events, valueName, toText(subcode), null, subcode);
+        }
+        for (int i = 0; i < faultSubcodes.size(); i++) {
+            events.add(getEventFactory().createEndElement(subcodeName, null));
+        }
+        events.add(getEventFactory().createEndElement(codeName, null));
+        QName reasonName = getSoapChildName("Reason");
+        QName textName = getSoapChildName("Text");
+        events.add(getEventFactory().createStartElement(reasonName, null, null));
+        for (Map.Entry<Locale, String> entry : faultReasons.entrySet()) {
+            addTextElement(events, textName, entry.getValue(), entry.getKey(), null);
+        }
+        events.add(getEventFactory().createEndElement(reasonName, null));
+        if (faultNode != null) {
+            addTextElement(events, getSoapChildName("Node"), faultNode, null, null);
+        }
+        if (faultRole != null) {
+            addTextElement(events, getSoapChildName("Role"), faultRole, null, null);
+        }
+        return events;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.soap.soap12.Soap12Header;
+
+/**
+ * Stroap implementation of the {@link Soap12Header} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class Stroap12Header extends StroapHeader implements Soap12Header {
+
+    private static final String NOT_UNDERSTOOD_LOCAL_NAME = "NotUnderstood";
+
+    private static final String UPGRADE_LOCAL_NAME = "Upgrade";
+
+    private static final String SUPPORTED_ENVELOPE_LOCAL_NAME = "SupportedEnvelope";
+
+    private static final QName QNAME_ATTRIBUTE_NAME = new QName("qname");
+
+    Stroap12Header(StroapMessageFactory messageFactory) {
+        this(SoapVersion.SOAP_12.getHeaderName(), messageFactory);
+    }
+
+    Stroap12Header(QName name, StroapMessageFactory messageFactory) {
+        super(name, SoapVersion.SOAP_12, messageFactory);
+    }
+
+    Stroap12Header(StartElement startElement, StroapMessageFactory messageFactory) {
+        super(startElement, SoapVersion.SOAP_12, messageFactory);
+    }
+
+    public SoapHeaderElement addNotUnderstoodHeaderElement(QName headerName) {
+        Assert.notNull(headerName, "'headerName' must not be null");
+        Assert.hasLength(headerName.getNamespaceURI(), "'headerName' must have a namespace");
+        String prefix = StringUtils.hasLength(headerName.getPrefix()) ? headerName.getPrefix() : "ns0";
+        List<XMLEvent> events = new ArrayList<XMLEvent>(2);
+        events.add(createSoapStartElement(NOT_UNDERSTOOD_LOCAL_NAME, prefix, headerName.getNamespaceURI(),
+                prefix + ":" + headerName.getLocalPart()));
+        events.add(createSoapEndElement(NOT_UNDERSTOOD_LOCAL_NAME));
+        StroapHeaderElement headerElement = StroapHeaderElement.build(events, getSoapVersion(), getMessageFactory());
+        addHeaderElement(headerElement);
+        return headerElement;
+    }
+
+    public SoapHeaderElement addUpgradeHeaderElement(String[] supportedSoapUris) {
+        Assert.notEmpty(supportedSoapUris, "'supportedSoapUris' must not be empty");
+        List<XMLEvent> events = new ArrayList<XMLEvent>();
+        events.add(createSoapStartElement(UPGRADE_LOCAL_NAME, null, null, null));
+        for (int i = 0; i < supportedSoapUris.length; i++) {
+            String prefix = "ns" + i;
+            events.add(createSoapStartElement(SUPPORTED_ENVELOPE_LOCAL_NAME, prefix, supportedSoapUris[i],
+                    prefix + ":" + SoapVersion.SOAP_12.getEnvelopeName().getLocalPart()));
+            events.add(createSoapEndElement(SUPPORTED_ENVELOPE_LOCAL_NAME));
+        }
+        events.add(createSoapEndElement(UPGRADE_LOCAL_NAME));
+        StroapHeaderElement headerElement = StroapHeaderElement.build(events, getSoapVersion(), getMessageFactory());
+        addHeaderElement(headerElement);
+        return headerElement;
+    }
+
+    private StartElement createSoapStartElement(String localName,
+                                                String qnamePrefix,
+                                                String qnameNamespaceUri,
+                                                String qnameValue) {
+        XMLEventFactory eventFactory = getEventFactory();
+        String prefix = getName().getPrefix();
+        String namespaceUri = getSoapVersion().getEnvelopeNamespaceUri();
+        List<Namespace> namespaces = new LinkedList<Namespace>();
+        namespaces.add(eventFactory.createNamespace(prefix, namespaceUri));
+        List<Attribute> attributes = new LinkedList<Attribute>();
+        if (qnameValue != null) {
+            namespaces.add(eventFactory.createNamespace(qnamePrefix, qnameNamespaceUri));
+            attributes.add(eventFactory.createAttribute(QNAME_ATTRIBUTE_NAME, qnameValue));
+        }
+        return eventFactory.createStartElement(new QName(namespaceUri, localName, prefix), attributes.iterator(),
+                namespaces.iterator());
+    }
+
+    private XMLEvent createSoapEndElement(String localName) {
+        QName name = new QName(getSoapVersion().getEnvelopeNamespaceUri(), localName, getName().getPrefix());
+        return getEventFactory().createEndElement(name, null);
+    }
+
+    public Iterator<SoapHeaderElement> examineHeaderElementsToProcess(String[] roles, boolean isUltimateReceiver) {
+        List<SoapHeaderElement> result = new LinkedList<SoapHeaderElement>();
+        Iterator<SoapHeaderElement> iterator = examineAllHeaderElements();
+        while (iterator.hasNext()) {
+            SoapHeaderElement headerElement = iterator.next();
+            String role = headerElement.getActorOrRole();
+            if (shouldProcess(role, roles, isUltimateReceiver)) {
+                result.add(headerElement);
+            }
+        }
+        return result.iterator();
+    }
+
+    private boolean shouldProcess(String headerRole, String[] roles, boolean isUltimateReceiver) {
+        if (!StringUtils.hasLength(headerRole)) {
+            return true;
+        }
+        if (SoapVersion.SOAP_12.getNextActorOrRoleUri().equals(headerRole)) {
+            return true;
+        }
+        if (SoapVersion.SOAP_12.getUltimateReceiverRoleUri().equals(headerRole)) {
+            return isUltimateReceiver;
+        }
+        if (SoapVersion.SOAP_12.getNoneActorOrRoleUri().equals(headerRole)) {
+            return false;
+        }
+        if (!ObjectUtils.isEmpty(roles)) {
+            for (String role : roles) {
+                if (role.equals(headerRole)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.mime.Attachment;
+
+/**
+ * Stroap implementation of the {@link Attachment} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class StroapAttachment implements Attachment {
+
+    private final String contentId;
+
+    private final DataHandler dataHandler;
+
+    StroapAttachment(String contentId, DataHandler dataHandler) {
+        Assert.notNull(contentId, "contentId must not be null");
+        Assert.notNull(dataHandler, "dataHandler must not be null");
+        this.contentId = contentId;
+        this.dataHandler = dataHandler;
+    }
+
+    /** Creates a new attachment for a MIME part that was read into memory. */
+    StroapAttachment(String contentId, String contentType, byte[] content) {
+        this(contentId, new DataHandler(new ByteArrayDataSource(contentType, content)));
+    }
+
+    public String getContentId() {
+        return contentId;
+    }
+
+    public String getContentType() {
+        return dataHandler.getContentType();
+    }
+
+    public InputStream getInputStream() throws IOException {
+        return dataHandler.getInputStream();
+    }
+
+    public long getSize() {
+        if (dataHandler.getDataSource() instanceof ByteArrayDataSource) {
+            return ((ByteArrayDataSource) dataHandler.getDataSource()).content.length;
+        }
+        return -1;
+    }
+
+    public DataHandler getDataHandler() {
+        return dataHandler;
+    }
+
+    private static class ByteArrayDataSource implements DataSource {
+
+        private final String contentType;
+
+        private final byte[] content;
+
+        private ByteArrayDataSource(String contentType, byte[] content) {
+            this.contentType = contentType;
+            this.content = content;
+        }
+
+        public InputStream getInputStream() throws IOException {
+            return new ByteArrayInputStream(content);
+        }
+
+        public OutputStream getOutputStream() throws IOException {
+            throw new UnsupportedOperationException("Read-only javax.activation.DataSource");
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getName() {
+            return "ByteArrayDataSource";
+        }
+    }
+
+}
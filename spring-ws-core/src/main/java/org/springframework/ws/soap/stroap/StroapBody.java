@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import javax.xml.stream.events.XMLEvent;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 
+import org.springframework.util.StringUtils;
 import org.springframework.util.xml.StaxUtils;
 import org.springframework.ws.soap.SoapBody;
 import org.springframework.ws.soap.SoapFault;
@@ -32,47 +33,93 @@ import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.stream.StreamingPayload;
 
 /**
+ * Abstract base class for the Stroap implementations of the {@link SoapBody} interface. The contents of the body are
+ * represented by a {@link StroapPayload}.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 abstract class StroapBody extends StroapElement implements SoapBody {
 
     private StroapPayload payload;
 
-    protected StroapBody(StroapMessageFactory messageFactory) {
-        super(messageFactory.getSoapVersion().getBodyName(), messageFactory);
+    protected StroapBody(QName name, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        super(name, soapVersion, messageFactory);
         this.payload = new CachingStroapPayload();
     }
 
-    protected StroapBody(StartElement startElement, StroapPayload payload, StroapMessageFactory messageFactory) {
-        super(startElement, messageFactory);
+    protected StroapBody(StartElement startElement,
+                         StroapPayload payload,
+                         SoapVersion soapVersion,
+                         StroapMessageFactory messageFactory) {
+        super(startElement, soapVersion, messageFactory);
         this.payload = payload;
     }
 
-    static StroapBody build(XMLEventReader eventReader, StroapMessageFactory messageFactory) throws XMLStreamException {
+    /** Creates a new, empty body with the given prefix. */
+    static StroapBody create(String prefix, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        QName bodyName = soapVersion.getBodyName();
+        QName name = new QName(bodyName.getNamespaceURI(), bodyName.getLocalPart(), prefix);
+        if (SoapVersion.SOAP_11 == soapVersion) {
+            return new Stroap11Body(name, messageFactory);
+        }
+        else {
+            return new Stroap12Body(name, messageFactory);
+        }
+    }
+
+    /**
+     * Builds a body from the given event reader. A fault is parsed completely; other payloads are either cached or
+     * read lazily from the event reader, depending on the {@linkplain StroapMessageFactory#isPayloadCaching() payload
+     * caching} setting of the message factory.
+     */
+    static StroapBody build(XMLEventReader eventReader, SoapVersion soapVersion, StroapMessageFactory messageFactory)
+            throws XMLStreamException {
         XMLEvent event = eventReader.nextTag();
-        if (!event.isStartElement()) {
+        if (event == null || !event.isStartElement()) {
             throw new StroapMessageCreationException("Unexpected event: " + event + ", expected StartElement");
         }
         StartElement startElement = event.asStartElement();
-        SoapVersion soapVersion = messageFactory.getSoapVersion();
         if (!soapVersion.getBodyName().equals(startElement.getName())) {
             throw new StroapMessageCreationException(
                     "Unexpected name: " + startElement.getName() + ", expected " + soapVersion.getBodyName());
         }
         StroapPayload payload;
-        if (messageFactory.isPayloadCaching()) {
+        if (isFault(eventReader, soapVersion)) {
+            StroapFault fault;
+            if (SoapVersion.SOAP_11 == soapVersion) {
+                fault = Stroap11Fault.build(eventReader, messageFactory);
+            }
+            else {
+                fault = Stroap12Fault.build(eventReader, messageFactory);
+            }
+            skipElement(eventReader);
+            payload = new FaultStroapPayload(fault);
+        }
+        else if (messageFactory.isPayloadCaching()) {
             payload = new CachingStroapPayload(eventReader);
         }
         else {
             payload = new NonCachingStroapPayload(eventReader);
         }
 
-        if (SoapVersion.SOAP_11.equals(soapVersion)) {
+        if (SoapVersion.SOAP_11 == soapVersion) {
             return new Stroap11Body(startElement, payload, messageFactory);
         }
         else {
-            return null;
+            return new Stroap12Body(startElement, payload, messageFactory);
+        }
+    }
+
+    /** Skips whitespace in the given reader, and indicates whether the next element is a SOAP fault. */
+    private static boolean isFault(XMLEventReader eventReader, SoapVersion soapVersion) throws XMLStreamException {
+        XMLEvent event = eventReader.peek();
+        while (event != null && event.isCharacters() && event.asCharacters().isWhiteSpace()) {
+            eventReader.nextEvent();
+            event = eventReader.peek();
         }
+        return event != null && event.isStartElement() &&
+                soapVersion.getFaultName().equals(event.asStartElement().getName());
     }
 
     public Source getPayloadSource() {
@@ -81,14 +128,8 @@ abstract class StroapBody extends StroapElement implements SoapBody {
     }
 
     public Result getPayloadResult() {
-        CachingStroapPayload cachingPayload;
-        if (payload instanceof CachingStroapPayload) {
-            cachingPayload = (CachingStroapPayload) payload;
-        }
-        else {
-            cachingPayload = new CachingStroapPayload();
-            this.payload = cachingPayload;
-        }
+        CachingStroapPayload cachingPayload = new CachingStroapPayload();
+        this.payload = cachingPayload;
         XMLEventWriter eventWriter = cachingPayload.getEventWriter();
         return StaxUtils.createCustomStaxResult(eventWriter);
     }
@@ -124,4 +165,11 @@ abstract class StroapBody extends StroapElement implements SoapBody {
     public QName getPayloadName() {
         return payload.getName();
     }
+
+    /** Returns the fault code with the given local name, in the namespace and with the prefix of this body. */
+    protected QName getFaultCode(QName faultCode) {
+        String prefix = StringUtils.hasLength(getName().getPrefix()) ? getName().getPrefix() : DEFAULT_PREFIX;
+        return new QName(faultCode.getNamespaceURI(), faultCode.getLocalPart(), prefix);
+    }
+
 }
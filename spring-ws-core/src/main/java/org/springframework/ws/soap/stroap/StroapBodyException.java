@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,7 +19,10 @@ package org.springframework.ws.soap.stroap;
 import org.springframework.ws.soap.SoapBodyException;
 
 /**
+ * Exception thrown when the Stroap SOAP body cannot be accessed.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 public class StroapBodyException extends SoapBodyException {
 
@@ -34,4 +37,5 @@ public class StroapBodyException extends SoapBodyException {
     public StroapBodyException(Throwable ex) {
         super(ex);
     }
+
 }
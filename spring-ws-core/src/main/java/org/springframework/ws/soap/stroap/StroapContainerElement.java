@@ -0,0 +1,110 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Result;
+
+import org.springframework.util.Assert;
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.soap.SoapVersion;
+
+/**
+ * Stroap element whose contents are kept as a list of StAX events. Base class for header elements and fault detail
+ * elements, and used as is for the simple, text-only elements of a fault.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class StroapContainerElement extends StroapElement {
+
+    private final List<XMLEvent> childEvents = new ArrayList<XMLEvent>();
+
+    StroapContainerElement(QName name, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        super(name, soapVersion, messageFactory);
+    }
+
+    StroapContainerElement(StartElement startElement,
+                           List<XMLEvent> childEvents,
+                           SoapVersion soapVersion,
+                           StroapMessageFactory messageFactory) {
+        super(startElement, soapVersion, messageFactory);
+        Assert.notNull(childEvents, "'childEvents' must not be null");
+        this.childEvents.addAll(childEvents);
+    }
+
+    /**
+     * Returns the start element of the given element events, after checking that the events form a complete
+     * element.
+     */
+    static StartElement getStartElement(List<XMLEvent> events) {
+        Assert.notNull(events, "'events' must not be null");
+        Assert.isTrue(events.size() >= 2, "Not enough events to form an element");
+        XMLEvent first = events.get(0);
+        XMLEvent last = events.get(events.size() - 1);
+        if (!first.isStartElement()) {
+            throw new StroapMessageException("Unexpected event: " + first + ", expected StartElement");
+        }
+        if (!last.isEndElement()) {
+            throw new StroapMessageException("Unexpected event: " + last + ", expected EndElement");
+        }
+        return first.asStartElement();
+    }
+
+    /** Returns the events between the start and end element of the given element events. */
+    static List<XMLEvent> getChildEvents(List<XMLEvent> events) {
+        return events.subList(1, events.size() - 1);
+    }
+
+    /** Returns a result that appends its contents to the children of this element. */
+    protected Result getContentsResult() {
+        return StaxUtils.createCustomStaxResult(new CachingXMLEventWriter(childEvents));
+    }
+
+    /** Returns the character data of this element, ignoring child elements. */
+    protected String getCharacterData() {
+        StringBuilder builder = new StringBuilder();
+        for (XMLEvent event : childEvents) {
+            if (event.isCharacters()) {
+                builder.append(event.asCharacters().getData());
+            }
+        }
+        return builder.toString();
+    }
+
+    /** Replaces the contents of this element with the given text. */
+    protected void setCharacterData(String text) {
+        childEvents.clear();
+        addCharacterData(text);
+    }
+
+    /** Appends the given text to the contents of this element. */
+    protected void addCharacterData(String text) {
+        childEvents.add(getEventFactory().createCharacters(text));
+    }
+
+    @Override
+    protected XMLEventReader getChildEventReader() {
+        return new ListBasedXMLEventReader(childEvents);
+    }
+
+}
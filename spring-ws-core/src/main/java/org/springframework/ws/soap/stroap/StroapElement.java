@@ -0,0 +1,377 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Source;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.soap.SoapElement;
+import org.springframework.ws.soap.SoapVersion;
+
+/**
+ * Abstract base class for all Stroap {@link SoapElement} implementations. Keeps the start element of the element as
+ * a StAX {@link StartElement} event, and leaves the contents to subclasses.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+abstract class StroapElement implements SoapElement {
+
+    protected static final String DEFAULT_PREFIX = "SOAP-ENV";
+
+    private final SoapVersion soapVersion;
+
+    private final StroapMessageFactory messageFactory;
+
+    private StartElement startElement;
+
+    protected StroapElement(QName name, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        this(createStartElement(name, soapVersion, messageFactory), soapVersion, messageFactory);
+    }
+
+    protected StroapElement(StartElement startElement, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        Assert.notNull(startElement, "'startElement' must not be null");
+        Assert.notNull(soapVersion, "'soapVersion' must not be null");
+        Assert.notNull(messageFactory, "'messageFactory' must not be null");
+        this.soapVersion = soapVersion;
+        this.messageFactory = messageFactory;
+        this.startElement = startElement;
+    }
+
+    /**
+     * Creates a new start element with the given name. SOAP elements without a prefix get the {@linkplain
+     * #DEFAULT_PREFIX default prefix}, and the namespace of the name is declared on the element itself, so that the
+     * element can be serialized on its own.
+     */
+    private static StartElement createStartElement(QName name,
+                                                   SoapVersion soapVersion,
+                                                   StroapMessageFactory messageFactory) {
+        Assert.notNull(name, "'name' must not be null");
+        if (!StringUtils.hasLength(name.getPrefix()) &&
+                soapVersion.getEnvelopeNamespaceUri().equals(name.getNamespaceURI())) {
+            name = new QName(name.getNamespaceURI(), name.getLocalPart(), DEFAULT_PREFIX);
+        }
+        XMLEventFactory eventFactory = messageFactory.getEventFactory();
+        List<Namespace> namespaces = new LinkedList<Namespace>();
+        if (StringUtils.hasLength(name.getNamespaceURI())) {
+            namespaces.add(eventFactory.createNamespace(name.getPrefix(), name.getNamespaceURI()));
+        }
+        return eventFactory.createStartElement(name, null, namespaces.iterator());
+    }
+
+    /**
+     * Reads the events of the element that starts with the next event of the given reader, up to and including its
+     * end element.
+     */
+    static List<XMLEvent> readElement(XMLEventReader eventReader) throws XMLStreamException {
+        List<XMLEvent> events = new LinkedList<XMLEvent>();
+        int elementDepth = 0;
+        do {
+            XMLEvent event = eventReader.nextEvent();
+            if (event.isStartElement()) {
+                elementDepth++;
+            }
+            else if (event.isEndElement()) {
+                elementDepth--;
+            }
+            events.add(event);
+        }
+        while (elementDepth > 0);
+        return events;
+    }
+
+    /**
+     * Skips the remaining events of the current element, up to and including its end element.
+     */
+    static void skipElement(XMLEventReader eventReader) throws XMLStreamException {
+        int elementDepth = 1;
+        while (elementDepth > 0) {
+            XMLEvent event = eventReader.nextEvent();
+            if (event.isStartElement()) {
+                elementDepth++;
+            }
+            else if (event.isEndElement()) {
+                elementDepth--;
+            }
+        }
+    }
+
+    public final Source getSource() {
+        return StaxUtils.createCustomStaxSource(getEventReader(true));
+    }
+
+    protected XMLEventReader getEventReader(boolean documentEvents) {
+        return new StroapElementEventReader(documentEvents);
+    }
+
+    public void writeTo(XMLEventWriter eventWriter) throws XMLStreamException {
+        eventWriter.add(getEventReader(false));
+    }
+
+    protected StroapMessageFactory getMessageFactory() {
+        return messageFactory;
+    }
+
+    protected final XMLEventFactory getEventFactory() {
+        return getMessageFactory().getEventFactory();
+    }
+
+    protected final SoapVersion getSoapVersion() {
+        return soapVersion;
+    }
+
+    public final QName getName() {
+        return getStartElement().getName();
+    }
+
+    protected abstract XMLEventReader getChildEventReader();
+
+    public final Iterator<QName> getAllAttributes() {
+        List<QName> result = new LinkedList<QName>();
+        for (Iterator<?> iterator = getStartElement().getAttributes(); iterator.hasNext();) {
+            Attribute attribute = (Attribute) iterator.next();
+            result.add(attribute.getName());
+        }
+        return result.iterator();
+    }
+
+    public final String getAttributeValue(QName name) {
+        Attribute attribute = getStartElement().getAttributeByName(name);
+        return attribute != null ? attribute.getValue() : null;
+    }
+
+    public final void removeAttribute(QName name) {
+        StartElement oldStartElement = getStartElement();
+        this.startElement = getEventFactory().createStartElement(oldStartElement.getName(),
+                getAttributesExcept(name).iterator(), oldStartElement.getNamespaces());
+    }
+
+    public final void addAttribute(QName name, String value) {
+        Assert.notNull(name, "'name' must not be null");
+        List<Attribute> newAttributes = getAttributesExcept(name);
+        List<Namespace> newNamespaces = getNamespaces();
+        if (StringUtils.hasLength(name.getNamespaceURI()) &&
+                !XMLConstants.XML_NS_URI.equals(name.getNamespaceURI())) {
+            if (!StringUtils.hasLength(name.getPrefix())) {
+                String prefix = getSoapVersion().getEnvelopeNamespaceUri().equals(name.getNamespaceURI()) ?
+                        DEFAULT_PREFIX : "ns" + newNamespaces.size();
+                name = new QName(name.getNamespaceURI(), name.getLocalPart(), prefix);
+            }
+            if (!isDeclared(name, newNamespaces)) {
+                newNamespaces.add(getEventFactory().createNamespace(name.getPrefix(), name.getNamespaceURI()));
+            }
+        }
+        newAttributes.add(getEventFactory().createAttribute(name, value));
+        this.startElement = getEventFactory().createStartElement(getStartElement().getName(),
+                newAttributes.iterator(), newNamespaces.iterator());
+    }
+
+    public final void addNamespaceDeclaration(String prefix, String namespaceUri) {
+        List<Namespace> newNamespaces = getNamespaces();
+        String newPrefix = prefix != null ? prefix : "";
+        for (Iterator<Namespace> iterator = newNamespaces.iterator(); iterator.hasNext();) {
+            if (newPrefix.equals(iterator.next().getPrefix())) {
+                iterator.remove();
+            }
+        }
+        Namespace newNamespace;
+        if (StringUtils.hasLength(prefix)) {
+            newNamespace = getEventFactory().createNamespace(prefix, namespaceUri);
+        }
+        else {
+            newNamespace = getEventFactory().createNamespace(namespaceUri);
+        }
+        newNamespaces.add(newNamespace);
+        StartElement oldStartElement = getStartElement();
+        this.startElement = getEventFactory()
+                .createStartElement(oldStartElement.getName(), oldStartElement.getAttributes(),
+                        newNamespaces.iterator());
+    }
+
+    private boolean isDeclared(QName name, List<Namespace> namespaces) {
+        QName elementName = getStartElement().getName();
+        if (name.getPrefix().equals(elementName.getPrefix()) &&
+                name.getNamespaceURI().equals(elementName.getNamespaceURI())) {
+            return true;
+        }
+        return isDeclared(name.getPrefix(), namespaces);
+    }
+
+    private List<Attribute> getAttributesExcept(QName name) {
+        List<Attribute> result = new LinkedList<Attribute>();
+        for (Iterator<?> iterator = getStartElement().getAttributes(); iterator.hasNext();) {
+            Attribute attribute = (Attribute) iterator.next();
+            if (!attribute.getName().equals(name)) {
+                result.add(attribute);
+            }
+        }
+        return result;
+    }
+
+    private List<Namespace> getNamespaces() {
+        List<Namespace> result = new LinkedList<Namespace>();
+        for (Iterator<?> iterator = getStartElement().getNamespaces(); iterator.hasNext();) {
+            result.add((Namespace) iterator.next());
+        }
+        return result;
+    }
+
+    protected final StartElement getStartElement() {
+        return startElement;
+    }
+
+    /**
+     * Returns the start element of this element, with declarations for all namespaces used by its name and
+     * attributes. Parsed elements may rely on declarations of their ancestors, which are not available when the element
+     * is read on its own.
+     */
+    private StartElement getStandaloneStartElement() {
+        List<Namespace> namespaces = getNamespaces();
+        List<QName> names = new LinkedList<QName>();
+        names.add(startElement.getName());
+        for (Iterator<?> iterator = startElement.getAttributes(); iterator.hasNext();) {
+            names.add(((Attribute) iterator.next()).getName());
+        }
+        boolean added = false;
+        for (QName name : names) {
+            if (StringUtils.hasLength(name.getNamespaceURI()) &&
+                    !XMLConstants.XML_NS_URI.equals(name.getNamespaceURI()) &&
+                    !isDeclared(name.getPrefix(), namespaces)) {
+                namespaces.add(getEventFactory().createNamespace(name.getPrefix(), name.getNamespaceURI()));
+                added = true;
+            }
+        }
+        if (!added) {
+            return startElement;
+        }
+        return getEventFactory()
+                .createStartElement(startElement.getName(), startElement.getAttributes(), namespaces.iterator());
+    }
+
+    private static boolean isDeclared(String prefix, List<Namespace> namespaces) {
+        for (Namespace namespace : namespaces) {
+            if (prefix.equals(namespace.getPrefix())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected final EndElement getEndElement() {
+        return getEventFactory().createEndElement(startElement.getName(), startElement.getNamespaces());
+    }
+
+    private enum EventReaderState {
+
+        START_DOCUMENT,
+        START_ELEMENT,
+        CHILDREN,
+        END_ELEMENT,
+        END_DOCUMENT,
+        DONE
+    }
+
+    private class StroapElementEventReader extends AbstractXMLEventReader {
+
+        private EventReaderState state;
+
+        private final boolean documentEvents;
+
+        private final XMLEventReader childEventReader;
+
+        private StroapElementEventReader(boolean documentEvents) {
+            this.documentEvents = documentEvents;
+            state = documentEvents ? EventReaderState.START_DOCUMENT : EventReaderState.START_ELEMENT;
+            this.childEventReader = getChildEventReader();
+        }
+
+        public boolean hasNext() {
+            if (documentEvents) {
+                return state != EventReaderState.DONE;
+            }
+            else {
+                return state != EventReaderState.END_DOCUMENT;
+            }
+        }
+
+        public XMLEvent nextEvent() throws XMLStreamException {
+            switch (state) {
+                case START_DOCUMENT:
+                    state = EventReaderState.START_ELEMENT;
+                    return getEventFactory().createStartDocument();
+                case START_ELEMENT:
+                    state = EventReaderState.CHILDREN;
+                    return documentEvents ? getStandaloneStartElement() : getStartElement();
+                case CHILDREN:
+                    if (!childEventReader.hasNext()) {
+                        state = EventReaderState.END_ELEMENT;
+                        return nextEvent();
+                    }
+                    return childEventReader.nextEvent();
+                case END_ELEMENT:
+                    state = EventReaderState.END_DOCUMENT;
+                    return getEndElement();
+                case END_DOCUMENT:
+                    if (!documentEvents) {
+                        throw new NoSuchElementException();
+                    }
+                    state = EventReaderState.DONE;
+                    return getEventFactory().createEndDocument();
+                default:
+                    throw new NoSuchElementException();
+            }
+        }
+
+        public XMLEvent peek() throws XMLStreamException {
+            switch (state) {
+                case START_DOCUMENT:
+                    return getEventFactory().createStartDocument();
+                case START_ELEMENT:
+                    return documentEvents ? getStandaloneStartElement() : getStartElement();
+                case CHILDREN:
+                    if (childEventReader.hasNext()) {
+                        return childEventReader.peek();
+                    }
+                    state = EventReaderState.END_ELEMENT;
+                    return getEndElement();
+                case END_ELEMENT:
+                    return getEndElement();
+                case END_DOCUMENT:
+                    return documentEvents ? getEventFactory().createEndDocument() : null;
+                default:
+                    return null;
+            }
+        }
+    }
+}
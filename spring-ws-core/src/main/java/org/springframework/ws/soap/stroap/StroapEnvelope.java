@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.ws.soap.stroap;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
@@ -28,45 +29,54 @@ import org.springframework.ws.soap.SoapEnvelope;
 import org.springframework.ws.soap.SoapHeader;
 import org.springframework.ws.soap.SoapHeaderException;
 import org.springframework.ws.soap.SoapVersion;
-import org.springframework.xml.stream.CompositeXMLEventReader;
 
 /**
+ * Stroap implementation of the {@link SoapEnvelope} interface.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 class StroapEnvelope extends StroapElement implements SoapEnvelope {
 
-    private static final String LOCAL_NAME = "Envelope";
-
     private StroapHeader header;
 
     private StroapBody body;
 
-    StroapEnvelope(StroapMessageFactory messageFactory) {
-        super(messageFactory.getSoapVersion().getEnvelopeName(), messageFactory);
-        this.header = null;
-        this.body = new Stroap11Body(messageFactory);
+    StroapEnvelope(SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        super(soapVersion.getEnvelopeName(), soapVersion, messageFactory);
     }
 
     private StroapEnvelope(StartElement startElement,
+                           SoapVersion soapVersion,
                            StroapHeader header,
                            StroapBody body,
                            StroapMessageFactory messageFactory) {
-        super(startElement, messageFactory);
+        super(startElement, soapVersion, messageFactory);
         this.header = header;
         this.body = body;
     }
 
+    /**
+     * Builds an envelope from the given event reader. The SOAP version is determined by the namespace of the envelope
+     * element.
+     */
     static StroapEnvelope build(XMLEventReader eventReader, StroapMessageFactory messageFactory)
             throws XMLStreamException {
         XMLEvent event = eventReader.nextTag();
-        if (!event.isStartElement()) {
+        if (event == null || !event.isStartElement()) {
             throw new StroapMessageCreationException("Unexpected event: " + event + ", expected StartElement");
         }
         StartElement startElement = event.asStartElement();
-        SoapVersion soapVersion = messageFactory.getSoapVersion();
-        if (!soapVersion.getEnvelopeName().equals(startElement.getName())) {
+        SoapVersion soapVersion;
+        if (SoapVersion.SOAP_11.getEnvelopeName().equals(startElement.getName())) {
+            soapVersion = SoapVersion.SOAP_11;
+        }
+        else if (SoapVersion.SOAP_12.getEnvelopeName().equals(startElement.getName())) {
+            soapVersion = SoapVersion.SOAP_12;
+        }
+        else {
             throw new StroapMessageCreationException(
-                    "Unexpected name: " + startElement.getName() + ", expected " + soapVersion.getEnvelopeName());
+                    "Unexpected name: " + startElement.getName() + ", expected a SOAP 1.1 or SOAP 1.2 Envelope");
         }
         StroapHeader header = null;
         StroapBody body = null;
@@ -74,11 +84,11 @@ class StroapEnvelope extends StroapElement implements SoapEnvelope {
         while (peekedEvent != null) {
             if (peekedEvent.isStartElement()) {
                 QName headerOrBodyName = peekedEvent.asStartElement().getName();
-                if (soapVersion.getHeaderName().equals(headerOrBodyName)) {
-                    header = StroapHeader.build(eventReader, messageFactory);
+                if (header == null && soapVersion.getHeaderName().equals(headerOrBodyName)) {
+                    header = StroapHeader.build(eventReader, soapVersion, messageFactory);
                 }
                 else if (soapVersion.getBodyName().equals(headerOrBodyName)) {
-                    body = StroapBody.build(eventReader, messageFactory);
+                    body = StroapBody.build(eventReader, soapVersion, messageFactory);
                     break;
                 }
                 else {
@@ -94,26 +104,36 @@ class StroapEnvelope extends StroapElement implements SoapEnvelope {
         if (body == null) {
             throw new StroapMessageCreationException("No SOAP body found");
         }
-
-        return new StroapEnvelope(startElement, header, body, messageFactory);
+        return new StroapEnvelope(startElement, soapVersion, header, body, messageFactory);
     }
 
     public SoapHeader getHeader() throws SoapHeaderException {
         if (header == null) {
-            header = new Stroap11Header(getMessageFactory());
+            header = StroapHeader.create(getName().getPrefix(), getSoapVersion(), getMessageFactory());
         }
         return header;
     }
 
     public SoapBody getBody() throws SoapBodyException {
         if (body == null) {
-            body = new Stroap11Body(getMessageFactory());
+            body = StroapBody.create(getName().getPrefix(), getSoapVersion(), getMessageFactory());
         }
         return body;
     }
 
+    @Override
+    public void writeTo(XMLEventWriter eventWriter) throws XMLStreamException {
+        eventWriter.add(getStartElement());
+        if (header != null) {
+            header.writeTo(eventWriter);
+        }
+        ((StroapBody) getBody()).writeTo(eventWriter);
+        eventWriter.add(getEndElement());
+    }
+
     @Override
     protected XMLEventReader getChildEventReader() {
+        StroapBody body = (StroapBody) getBody();
         if (header != null) {
             return new CompositeXMLEventReader(header.getEventReader(false), body.getEventReader(false));
         }
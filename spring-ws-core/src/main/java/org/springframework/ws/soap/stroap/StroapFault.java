@@ -0,0 +1,217 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.StringUtils;
+import org.springframework.ws.soap.SoapFault;
+import org.springframework.ws.soap.SoapFaultDetail;
+import org.springframework.ws.soap.SoapVersion;
+
+/**
+ * Abstract base class for the Stroap implementations of the {@link SoapFault} interface. The simple, text-only
+ * children of a fault are kept as plain values, and turned into events when the fault is written; the fault detail is
+ * a {@link StroapFaultDetail}.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+abstract class StroapFault extends StroapElement implements SoapFault {
+
+    protected static final QName XML_LANG_NAME =
+            new QName(XMLConstants.XML_NS_URI, "lang", XMLConstants.XML_NS_PREFIX);
+
+    private StroapFaultDetail faultDetail;
+
+    protected StroapFault(String prefix, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        super(new QName(soapVersion.getEnvelopeNamespaceUri(), soapVersion.getFaultName().getLocalPart(), prefix),
+                soapVersion, messageFactory);
+    }
+
+    protected StroapFault(StartElement startElement, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        super(startElement, soapVersion, messageFactory);
+    }
+
+    public SoapFaultDetail getFaultDetail() {
+        return faultDetail;
+    }
+
+    public SoapFaultDetail addFaultDetail() {
+        if (faultDetail == null) {
+            faultDetail = new StroapFaultDetail(getDetailName(), getSoapVersion(), getMessageFactory());
+        }
+        return faultDetail;
+    }
+
+    /** Returns the name of the detail element of this fault. */
+    protected abstract QName getDetailName();
+
+    /** Sets the detail of this fault to the element given as events. */
+    protected void setFaultDetail(List<XMLEvent> events) {
+        this.faultDetail = StroapFaultDetail.build(events, getSoapVersion(), getMessageFactory());
+    }
+
+    /** Returns the name of the fault child element with the given local name, in the SOAP namespace if required. */
+    protected QName getSoapChildName(String localName) {
+        return new QName(getSoapVersion().getEnvelopeNamespaceUri(), localName, getName().getPrefix());
+    }
+
+    /**
+     * Returns a copy of the given qualified name that has a prefix, so that it can be used as text content.
+     */
+    protected QName getPrefixedName(QName name) {
+        if (StringUtils.hasLength(name.getPrefix())) {
+            return name;
+        }
+        String prefix;
+        if (getSoapVersion().getEnvelopeNamespaceUri().equals(name.getNamespaceURI()) &&
+                StringUtils.hasLength(getName().getPrefix())) {
+            prefix = getName().getPrefix();
+        }
+        else {
+            prefix = "ns0";
+        }
+        return new QName(name.getNamespaceURI(), name.getLocalPart(), prefix);
+    }
+
+    /**
+     * Resolves the given text content, which is a qualified name, using the namespace context of the given element.
+     */
+    protected static QName resolveQName(String text, StartElement startElement) {
+        text = text.trim();
+        int idx = text.indexOf(':');
+        String prefix = idx != -1 ? text.substring(0, idx) : XMLConstants.DEFAULT_NS_PREFIX;
+        String localPart = text.substring(idx + 1);
+        String namespaceUri = startElement.getNamespaceURI(prefix);
+        if (namespaceUri == null) {
+            namespaceUri = XMLConstants.NULL_NS_URI;
+        }
+        return new QName(namespaceUri, localPart, prefix);
+    }
+
+    /** Returns the given qualified name as text content, i.e. as {@code prefix:localPart}. */
+    protected static String toText(QName name) {
+        if (StringUtils.hasLength(name.getPrefix())) {
+            return name.getPrefix() + ":" + name.getLocalPart();
+        }
+        else {
+            return name.getLocalPart();
+        }
+    }
+
+    /** Returns the locale represented by the {@code xml:lang} attribute of the given element, if any. */
+    protected static Locale getLocale(StartElement startElement) {
+        Attribute attribute = startElement.getAttributeByName(XML_LANG_NAME);
+        if (attribute != null && StringUtils.hasLength(attribute.getValue())) {
+            return StringUtils.parseLocaleString(attribute.getValue().replace('-', '_'));
+        }
+        return null;
+    }
+
+    /**
+     * Adds the events of a text-only element to the given list.
+     *
+     * @param events  the list to add the events to
+     * @param name    the name of the element
+     * @param text    the text content of the element
+     * @param locale  the locale to add as {@code xml:lang} attribute; may be {@code null}
+     * @param qname   the qualified name contained in the text, whose namespace is declared on the element; may be
+     *                {@code null}
+     */
+    protected void addTextElement(List<XMLEvent> events, QName name, String text, Locale locale, QName qname) {
+        XMLEventFactory eventFactory = getEventFactory();
+        List<Attribute> attributes = new LinkedList<Attribute>();
+        if (locale != null) {
+            attributes.add(eventFactory.createAttribute(XML_LANG_NAME, locale.toString().replace('_', '-')));
+        }
+        List<Namespace> namespaces = new LinkedList<Namespace>();
+        if (qname != null && StringUtils.hasLength(qname.getPrefix()) &&
+                !(qname.getPrefix().equals(getName().getPrefix()) &&
+                qname.getNamespaceURI().equals(getName().getNamespaceURI()))) {
+            namespaces.add(eventFactory.createNamespace(qname.getPrefix(), qname.getNamespaceURI()));
+        }
+        events.add(eventFactory.createStartElement(name, attributes.iterator(), namespaces.iterator()));
+        events.add(eventFactory.createCharacters(text));
+        events.add(eventFactory.createEndElement(name, null));
+    }
+
+    /** Returns the events of all children of this fault, except for the detail. */
+    protected abstract List<XMLEvent> getChildEvents();
+
+    @Override
+    protected final XMLEventReader getChildEventReader() {
+        XMLEventReader childEventReader = new ListBasedXMLEventReader(getChildEvents());
+        if (faultDetail != null) {
+            return new CompositeXMLEventReader(childEventReader, faultDetail.getEventReader(false));
+        }
+        else {
+            return childEventReader;
+        }
+    }
+
+    /**
+     * Reads the text of the current element up to and including its end element, skipping any child elements.
+     */
+    protected static String readText(XMLEventReader eventReader) throws XMLStreamException {
+        StringBuilder builder = new StringBuilder();
+        int elementDepth = 1;
+        while (elementDepth > 0) {
+            XMLEvent event = eventReader.nextEvent();
+            if (event.isStartElement()) {
+                elementDepth++;
+            }
+            else if (event.isEndElement()) {
+                elementDepth--;
+            }
+            else if (event.isCharacters() && elementDepth == 1) {
+                builder.append(event.asCharacters().getData());
+            }
+        }
+        return builder.toString();
+    }
+
+    /** Returns the next start element among the children of the current element, or {@code null} at its end. */
+    protected static StartElement nextChildElement(XMLEventReader eventReader) throws XMLStreamException {
+        while (true) {
+            XMLEvent event = eventReader.peek();
+            if (event == null) {
+                throw new StroapMessageCreationException("Unexpected end of document in SOAP Fault");
+            }
+            else if (event.isStartElement()) {
+                return event.asStartElement();
+            }
+            else if (event.isEndElement()) {
+                eventReader.nextEvent();
+                return null;
+            }
+            eventReader.nextEvent();
+        }
+    }
+
+}
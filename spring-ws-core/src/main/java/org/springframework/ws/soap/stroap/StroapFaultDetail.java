@@ -0,0 +1,107 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Result;
+
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.soap.SoapFaultDetail;
+import org.springframework.ws.soap.SoapFaultDetailElement;
+import org.springframework.ws.soap.SoapVersion;
+
+/**
+ * Stroap implementation of the {@link SoapFaultDetail} interface. Detail entries are kept as a list of {@link
+ * StroapFaultDetailElement} objects.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class StroapFaultDetail extends StroapElement implements SoapFaultDetail {
+
+    private final List<StroapFaultDetailElement> detailElements = new ArrayList<StroapFaultDetailElement>();
+
+    StroapFaultDetail(QName name, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        super(name, soapVersion, messageFactory);
+    }
+
+    private StroapFaultDetail(StartElement startElement,
+                              SoapVersion soapVersion,
+                              StroapMessageFactory messageFactory) {
+        super(startElement, soapVersion, messageFactory);
+    }
+
+    /**
+     * Builds a fault detail from the given events, which start with the start element of the detail, and end with its
+     * end element.
+     */
+    static StroapFaultDetail build(List<XMLEvent> events, SoapVersion soapVersion,
+                                   StroapMessageFactory messageFactory) {
+        StartElement startElement = StroapContainerElement.getStartElement(events);
+        StroapFaultDetail detail = new StroapFaultDetail(startElement, soapVersion, messageFactory);
+        DetailElementXMLEventWriter eventWriter = detail.new DetailElementXMLEventWriter();
+        try {
+            for (XMLEvent event : StroapContainerElement.getChildEvents(events)) {
+                eventWriter.add(event);
+            }
+        }
+        catch (XMLStreamException ex) {
+            throw new StroapMessageCreationException("Could not read SOAP Fault detail: " + ex.getMessage(), ex);
+        }
+        return detail;
+    }
+
+    public SoapFaultDetailElement addFaultDetailElement(QName name) {
+        StroapFaultDetailElement detailElement =
+                new StroapFaultDetailElement(name, getSoapVersion(), getMessageFactory());
+        detailElements.add(detailElement);
+        return detailElement;
+    }
+
+    public Result getResult() {
+        return StaxUtils.createCustomStaxResult(new DetailElementXMLEventWriter());
+    }
+
+    public Iterator<SoapFaultDetailElement> getDetailEntries() {
+        return new ArrayList<SoapFaultDetailElement>(detailElements).iterator();
+    }
+
+    @Override
+    protected XMLEventReader getChildEventReader() {
+        XMLEventReader[] eventReaders = new XMLEventReader[detailElements.size()];
+        for (int i = 0; i < detailElements.size(); i++) {
+            eventReaders[i] = detailElements.get(i).getEventReader(false);
+        }
+        return new CompositeXMLEventReader(eventReaders);
+    }
+
+    private class DetailElementXMLEventWriter extends ChildElementXMLEventWriter {
+
+        @Override
+        protected void addChildElement(List<XMLEvent> events) throws XMLStreamException {
+            detailElements.add(StroapFaultDetailElement.build(events, getSoapVersion(), getMessageFactory()));
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Result;
+
+import org.springframework.ws.soap.SoapFaultDetailElement;
+import org.springframework.ws.soap.SoapVersion;
+
+/**
+ * Stroap implementation of the {@link SoapFaultDetailElement} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class StroapFaultDetailElement extends StroapContainerElement implements SoapFaultDetailElement {
+
+    StroapFaultDetailElement(QName name, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        super(name, soapVersion, messageFactory);
+    }
+
+    private StroapFaultDetailElement(StartElement startElement,
+                                     List<XMLEvent> childEvents,
+                                     SoapVersion soapVersion,
+                                     StroapMessageFactory messageFactory) {
+        super(startElement, childEvents, soapVersion, messageFactory);
+    }
+
+    /**
+     * Builds a detail element from the given events, which start with the start element of the detail element, and
+     * end with its end element.
+     */
+    static StroapFaultDetailElement build(List<XMLEvent> events,
+                                          SoapVersion soapVersion,
+                                          StroapMessageFactory messageFactory) {
+        StartElement startElement = getStartElement(events);
+        return new StroapFaultDetailElement(startElement, getChildEvents(events), soapVersion, messageFactory);
+    }
+
+    public Result getResult() {
+        return getContentsResult();
+    }
+
+    public void addText(String text) {
+        addCharacterData(text);
+    }
+
+}
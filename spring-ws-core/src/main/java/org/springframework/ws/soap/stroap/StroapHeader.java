@@ -0,0 +1,182 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Result;
+
+import org.springframework.util.Assert;
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.soap.SoapHeader;
+import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapHeaderException;
+import org.springframework.ws.soap.SoapVersion;
+
+/**
+ * Abstract base class for the Stroap implementations of the {@link SoapHeader} interface. Header elements are kept as
+ * a list of {@link StroapHeaderElement} objects.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+abstract class StroapHeader extends StroapElement implements SoapHeader {
+
+    private final List<StroapHeaderElement> headerElements = new ArrayList<StroapHeaderElement>();
+
+    protected StroapHeader(QName name, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        super(name, soapVersion, messageFactory);
+    }
+
+    protected StroapHeader(StartElement startElement, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        super(startElement, soapVersion, messageFactory);
+    }
+
+    /** Creates a new, empty header with the given prefix. */
+    static StroapHeader create(String prefix, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        QName headerName = soapVersion.getHeaderName();
+        QName name = new QName(headerName.getNamespaceURI(), headerName.getLocalPart(), prefix);
+        if (SoapVersion.SOAP_11 == soapVersion) {
+            return new Stroap11Header(name, messageFactory);
+        }
+        else {
+            return new Stroap12Header(name, messageFactory);
+        }
+    }
+
+    /** Builds a header, including all of its header elements, from the given event reader. */
+    static StroapHeader build(XMLEventReader eventReader, SoapVersion soapVersion, StroapMessageFactory messageFactory)
+            throws XMLStreamException {
+        XMLEvent event = eventReader.nextTag();
+        if (event == null || !event.isStartElement()) {
+            throw new StroapMessageCreationException("Unexpected event: " + event + ", expected StartElement");
+        }
+        StartElement startElement = event.asStartElement();
+        if (!soapVersion.getHeaderName().equals(startElement.getName())) {
+            throw new StroapMessageCreationException(
+                    "Unexpected name: " + startElement.getName() + ", expected " + soapVersion.getHeaderName());
+        }
+        StroapHeader header;
+        if (SoapVersion.SOAP_11 == soapVersion) {
+            header = new Stroap11Header(startElement, messageFactory);
+        }
+        else {
+            header = new Stroap12Header(startElement, messageFactory);
+        }
+        while (true) {
+            XMLEvent peekedEvent = eventReader.peek();
+            if (peekedEvent == null) {
+                throw new StroapMessageCreationException("Unexpected end of document in SOAP Header");
+            }
+            else if (peekedEvent.isStartElement()) {
+                List<XMLEvent> events = readElement(eventReader);
+                header.headerElements.add(StroapHeaderElement.build(events, soapVersion, messageFactory));
+            }
+            else if (peekedEvent.isEndElement()) {
+                eventReader.nextEvent();
+                break;
+            }
+            else {
+                eventReader.nextEvent();
+            }
+        }
+        return header;
+    }
+
+    public SoapHeaderElement addHeaderElement(QName name) throws SoapHeaderException {
+        StroapHeaderElement headerElement = new StroapHeaderElement(name, getSoapVersion(), getMessageFactory());
+        headerElements.add(headerElement);
+        return headerElement;
+    }
+
+    /** Adds the given, prebuilt header element to this header. */
+    protected void addHeaderElement(StroapHeaderElement headerElement) {
+        headerElements.add(headerElement);
+    }
+
+    public Iterator<SoapHeaderElement> examineAllHeaderElements() throws SoapHeaderException {
+        List<SoapHeaderElement> result = new ArrayList<SoapHeaderElement>(headerElements);
+        return Collections.unmodifiableList(result).iterator();
+    }
+
+    public Iterator<SoapHeaderElement> examineHeaderElements(QName name) throws SoapHeaderException {
+        List<SoapHeaderElement> result = new LinkedList<SoapHeaderElement>();
+        for (StroapHeaderElement headerElement : headerElements) {
+            if (headerElement.getName().equals(name)) {
+                result.add(headerElement);
+            }
+        }
+        return result.iterator();
+    }
+
+    public Iterator<SoapHeaderElement> examineMustUnderstandHeaderElements(String actorOrRole)
+            throws SoapHeaderException {
+        List<SoapHeaderElement> result = new LinkedList<SoapHeaderElement>();
+        for (StroapHeaderElement headerElement : headerElements) {
+            if (headerElement.getMustUnderstand() && isActorOrRole(headerElement.getActorOrRole(), actorOrRole)) {
+                result.add(headerElement);
+            }
+        }
+        return result.iterator();
+    }
+
+    private boolean isActorOrRole(String headerActorOrRole, String actorOrRole) {
+        if (headerActorOrRole == null || headerActorOrRole.length() == 0) {
+            return actorOrRole == null || actorOrRole.length() == 0;
+        }
+        return headerActorOrRole.equals(actorOrRole);
+    }
+
+    public void removeHeaderElement(QName name) throws SoapHeaderException {
+        Assert.notNull(name, "'name' must not be null");
+        for (Iterator<StroapHeaderElement> iterator = headerElements.iterator(); iterator.hasNext();) {
+            StroapHeaderElement headerElement = iterator.next();
+            if (name.equals(headerElement.getName())) {
+                iterator.remove();
+                break;
+            }
+        }
+    }
+
+    public Result getResult() {
+        return StaxUtils.createCustomStaxResult(new ChildElementXMLEventWriter() {
+
+            @Override
+            protected void addChildElement(List<XMLEvent> events) throws XMLStreamException {
+                headerElements.add(StroapHeaderElement.build(events, getSoapVersion(), getMessageFactory()));
+            }
+        });
+    }
+
+    @Override
+    protected XMLEventReader getChildEventReader() {
+        XMLEventReader[] eventReaders = new XMLEventReader[headerElements.size()];
+        for (int i = 0; i < headerElements.size(); i++) {
+            eventReaders[i] = headerElements.get(i).getEventReader(false);
+        }
+        return new CompositeXMLEventReader(eventReaders);
+    }
+
+}
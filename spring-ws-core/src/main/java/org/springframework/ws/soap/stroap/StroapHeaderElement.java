@@ -0,0 +1,95 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Result;
+
+import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapHeaderException;
+import org.springframework.ws.soap.SoapVersion;
+
+/**
+ * Stroap implementation of the {@link SoapHeaderElement} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class StroapHeaderElement extends StroapContainerElement implements SoapHeaderElement {
+
+    StroapHeaderElement(QName name, SoapVersion soapVersion, StroapMessageFactory messageFactory) {
+        super(name, soapVersion, messageFactory);
+    }
+
+    private StroapHeaderElement(StartElement startElement,
+                                List<XMLEvent> childEvents,
+                                SoapVersion soapVersion,
+                                StroapMessageFactory messageFactory) {
+        super(startElement, childEvents, soapVersion, messageFactory);
+    }
+
+    /**
+     * Builds a header element from the given events, which start with the start element of the header element, and
+     * end with its end element.
+     */
+    static StroapHeaderElement build(List<XMLEvent> events,
+                                     SoapVersion soapVersion,
+                                     StroapMessageFactory messageFactory) {
+        StartElement startElement = getStartElement(events);
+        return new StroapHeaderElement(startElement, getChildEvents(events), soapVersion, messageFactory);
+    }
+
+    public final String getActorOrRole() throws SoapHeaderException {
+        return getAttributeValue(getSoapVersion().getActorOrRoleName());
+    }
+
+    public final void setActorOrRole(String actorOrRole) throws SoapHeaderException {
+        addAttribute(getSoapVersion().getActorOrRoleName(), actorOrRole);
+    }
+
+    public final boolean getMustUnderstand() throws SoapHeaderException {
+        String mustUnderstand = getAttributeValue(getSoapVersion().getMustUnderstandAttributeName());
+        return "1".equals(mustUnderstand) || "true".equals(mustUnderstand);
+    }
+
+    public void setMustUnderstand(boolean mustUnderstand) throws SoapHeaderException {
+        String mustUnderstandAttribute;
+        if (SoapVersion.SOAP_11 == getSoapVersion()) {
+            mustUnderstandAttribute = mustUnderstand ? "1" : "0";
+        }
+        else {
+            mustUnderstandAttribute = mustUnderstand ? "true" : "false";
+        }
+        addAttribute(getSoapVersion().getMustUnderstandAttributeName(), mustUnderstandAttribute);
+    }
+
+    public Result getResult() throws SoapHeaderException {
+        return getContentsResult();
+    }
+
+    public String getText() {
+        return getCharacterData();
+    }
+
+    public void setText(String content) {
+        setCharacterData(content);
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,8 +19,10 @@ package org.springframework.ws.soap.stroap;
 import org.springframework.ws.soap.SoapHeaderException;
 
 /**
+ * Exception thrown when the Stroap SOAP header cannot be accessed.
+ *
  * @author Arjen Poutsma
- * @since 1.0.0
+ * @since 2.2
  */
 public class StroapHeaderException extends SoapHeaderException {
 
@@ -35,4 +37,5 @@ public class StroapHeaderException extends SoapHeaderException {
     public StroapHeaderException(Throwable ex) {
         super(ex);
     }
+
 }
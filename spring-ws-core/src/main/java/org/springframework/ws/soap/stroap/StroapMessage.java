@@ -0,0 +1,561 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.activation.DataHandler;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.ws.mime.Attachment;
+import org.springframework.ws.mime.AttachmentException;
+import org.springframework.ws.soap.AbstractSoapMessage;
+import org.springframework.ws.soap.SoapEnvelope;
+import org.springframework.ws.soap.SoapEnvelopeException;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.soap.support.SoapUtils;
+import org.springframework.ws.stream.StreamingPayload;
+import org.springframework.ws.stream.StreamingWebServiceMessage;
+import org.springframework.ws.transport.TransportConstants;
+import org.springframework.ws.transport.TransportInputStream;
+import org.springframework.ws.transport.TransportOutputStream;
+
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSOutput;
+import org.w3c.dom.ls.LSSerializer;
+import org.xml.sax.SAXException;
+
+/**
+ * Stroap implementation of the {@link org.springframework.ws.soap.SoapMessage} interface. Created via the {@link
+ * StroapMessageFactory}, this message is backed by StAX events instead of a DOM or Axiom object model.
+ * <p/>
+ * Attachments are supported in the form of SOAP with Attachments (SwA). MIME parts of incoming messages are read into
+ * memory, and only the {@code binary}, {@code 8bit}, and {@code 7bit} transfer encodings are supported. MTOM messages
+ * are read as well, but {@code xop:Include} elements are not resolved: the XOP parts are available as attachments.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ * @see StroapMessageFactory
+ */
+public class StroapMessage extends AbstractSoapMessage implements StreamingWebServiceMessage {
+
+    private static final String CHARSET = "UTF-8";
+
+    private static final String CRLF = "\r\n";
+
+    private static final String MULTIPART_RELATED = "multipart/related";
+
+    private static final String XOP_CONTENT_TYPE = "application/xop+xml";
+
+    private static final String ROOT_CONTENT_ID = "<root.message@springframework.org>";
+
+    private final StroapMessageFactory messageFactory;
+
+    private StroapEnvelope envelope;
+
+    private String soapAction;
+
+    private final Map<String, Attachment> attachments = new LinkedHashMap<String, Attachment>();
+
+    private final boolean xopPackage;
+
+    /**
+     * Creates a new, empty {@code StroapMessage} with the SOAP version of the given message factory.
+     *
+     * @param messageFactory the message factory
+     */
+    public StroapMessage(StroapMessageFactory messageFactory) {
+        this(new StroapEnvelope(messageFactory.getSoapVersion(), messageFactory), null, false, messageFactory);
+    }
+
+    private StroapMessage(StroapEnvelope envelope,
+                          String soapAction,
+                          boolean xopPackage,
+                          StroapMessageFactory messageFactory) {
+        Assert.notNull(envelope, "'envelope' must not be null");
+        Assert.notNull(messageFactory, "'messageFactory' must not be null");
+        this.envelope = envelope;
+        this.soapAction = StringUtils.hasLength(soapAction) ? soapAction : TransportConstants.EMPTY_SOAP_ACTION;
+        this.xopPackage = xopPackage;
+        this.messageFactory = messageFactory;
+    }
+
+    /**
+     * Builds a message from the given input stream. If the stream is a {@link TransportInputStream}, its headers are
+     * used to determine the SOAP action, and whether the message is a MIME multipart message.
+     */
+    static StroapMessage build(InputStream inputStream, StroapMessageFactory messageFactory)
+            throws XMLStreamException, IOException {
+        String contentType = null;
+        String soapAction = null;
+        if (inputStream instanceof TransportInputStream) {
+            TransportInputStream transportInputStream = (TransportInputStream) inputStream;
+            contentType = getHeader(transportInputStream, TransportConstants.HEADER_CONTENT_TYPE);
+            soapAction = getHeader(transportInputStream, TransportConstants.HEADER_SOAP_ACTION);
+            if (!StringUtils.hasLength(soapAction)) {
+                soapAction = SoapUtils.extractActionFromContentType(contentType);
+            }
+        }
+        if (contentType != null && contentType.toLowerCase(Locale.ENGLISH).startsWith(MULTIPART_RELATED)) {
+            return buildMultipart(inputStream, contentType, soapAction, messageFactory);
+        }
+        else {
+            XMLEventReader eventReader = messageFactory.getInputFactory().createXMLEventReader(inputStream);
+            StroapEnvelope envelope = StroapEnvelope.build(eventReader, messageFactory);
+            return new StroapMessage(envelope, soapAction, false, messageFactory);
+        }
+    }
+
+    private static String getHeader(TransportInputStream inputStream, String name) throws IOException {
+        for (Iterator<String> headerNames = inputStream.getHeaderNames(); headerNames.hasNext();) {
+            String headerName = headerNames.next();
+            if (name.equalsIgnoreCase(headerName)) {
+                Iterator<String> headerValues = inputStream.getHeaders(headerName);
+                return headerValues.hasNext() ? headerValues.next() : null;
+            }
+        }
+        return null;
+    }
+
+    private static StroapMessage buildMultipart(InputStream inputStream,
+                                                String contentType,
+                                                String soapAction,
+                                                StroapMessageFactory messageFactory)
+            throws XMLStreamException, IOException {
+        String boundary = getParameter(contentType, "boundary");
+        if (!StringUtils.hasLength(boundary)) {
+            throw new StroapMessageCreationException("No boundary found in Content-Type [" + contentType + "]");
+        }
+        List<MimePart> parts = MimePart.parse(StreamUtils.copyToByteArray(inputStream), boundary);
+        String start = getParameter(contentType, "start");
+        MimePart rootPart = parts.get(0);
+        if (StringUtils.hasLength(start)) {
+            for (MimePart part : parts) {
+                if (stripAngleBrackets(start).equals(stripAngleBrackets(part.getContentId()))) {
+                    rootPart = part;
+                    break;
+                }
+            }
+        }
+        String type = getParameter(contentType, "type");
+        boolean xopPackage = XOP_CONTENT_TYPE.equalsIgnoreCase(type);
+        XMLEventReader eventReader =
+                messageFactory.getInputFactory().createXMLEventReader(new ByteArrayInputStream(rootPart.content));
+        StroapEnvelope envelope = StroapEnvelope.build(eventReader, messageFactory);
+        StroapMessage message = new StroapMessage(envelope, soapAction, xopPackage, messageFactory);
+        for (MimePart part : parts) {
+            if (part != rootPart && part.getContentId() != null) {
+                message.attachments.put(part.getContentId(),
+                        new StroapAttachment(part.getContentId(), part.getContentType(), part.content));
+            }
+        }
+        return message;
+    }
+
+    private static String getParameter(String contentType, String name) {
+        Pattern pattern = Pattern.compile(";\\s*" + name + "\\s*=\\s*(\"([^\"]*)\"|([^;\\s]*))",
+                Pattern.CASE_INSENSITIVE);
+        Matcher matcher = pattern.matcher(contentType);
+        if (matcher.find()) {
+            return matcher.group(2) != null ? matcher.group(2) : matcher.group(3);
+        }
+        return null;
+    }
+
+    private static String stripAngleBrackets(String contentId) {
+        if (contentId != null && contentId.startsWith("<") && contentId.endsWith(">")) {
+            return contentId.substring(1, contentId.length() - 1);
+        }
+        return contentId;
+    }
+
+    public SoapEnvelope getEnvelope() throws SoapEnvelopeException {
+        return envelope;
+    }
+
+    public void setStreamingPayload(StreamingPayload payload) {
+        StroapBody soapBody = (StroapBody) getSoapBody();
+        soapBody.setStreamingPayload(payload);
+    }
+
+    public String getSoapAction() {
+        return soapAction;
+    }
+
+    public void setSoapAction(String soapAction) {
+        this.soapAction = SoapUtils.escapeAction(soapAction);
+    }
+
+    @Override
+    public SoapVersion getVersion() {
+        return envelope.getSoapVersion();
+    }
+
+    public Document getDocument() {
+        try {
+            DocumentBuilder documentBuilder = messageFactory.getDocumentBuilderFactory().newDocumentBuilder();
+            try {
+                Document result = documentBuilder.newDocument();
+                DOMResult domResult = new DOMResult(result);
+                XMLEventWriter eventWriter = messageFactory.getOutputFactory().createXMLEventWriter(domResult);
+                writeEnvelope(eventWriter);
+                return result;
+            }
+            catch (XMLStreamException ignored) {
+                // ignored
+            }
+            catch (UnsupportedOperationException ignored) {
+                // ignored
+            }
+
+            // XMLOutputFactory does not support DOMResults, so let's do it the hard way
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            writeEnvelope(bos);
+
+            ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
+            return documentBuilder.parse(bis);
+        }
+        catch (ParserConfigurationException ex) {
+            throw new StroapMessageException("Could not create DocumentBuilderFactory", ex);
+        }
+        catch (SAXException ex) {
+            throw new StroapMessageException("Could not save message as Document", ex);
+        }
+        catch (IOException ex) {
+            throw new StroapMessageException("Could not save message as Document", ex);
+        }
+    }
+
+    public void setDocument(Document document) {
+        try {
+            try {
+                DOMSource domSource = new DOMSource(document);
+                XMLEventReader eventReader = messageFactory.getInputFactory().createXMLEventReader(domSource);
+                this.envelope = StroapEnvelope.build(eventReader, messageFactory);
+                return;
+            }
+            catch (XMLStreamException ignored) {
+                // ignored
+            }
+            catch (UnsupportedOperationException ignored) {
+                // ignored
+            }
+            // XMLInputFactory does not support DOMSources, so let's do it the hard way
+            DOMImplementation implementation = document.getImplementation();
+            Assert.isInstanceOf(DOMImplementationLS.class, implementation);
+
+            DOMImplementationLS loadSaveImplementation = (DOMImplementationLS) implementation;
+            LSOutput output = loadSaveImplementation.createLSOutput();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            output.setByteStream(bos);
+
+            LSSerializer serializer = loadSaveImplementation.createLSSerializer();
+            serializer.write(document, output);
+
+            ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
+            XMLEventReader eventReader = messageFactory.getInputFactory().createXMLEventReader(bis);
+            this.envelope = StroapEnvelope.build(eventReader, messageFactory);
+        }
+        catch (XMLStreamException ex) {
+            throw new StroapMessageException("Could not read Document", ex);
+        }
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        String soapContentType = getVersion().getContentType();
+        String boundary = attachments.isEmpty() ? null : "MIMEBoundary_" + UUID.randomUUID();
+        String rootContentType;
+        if (xopPackage) {
+            rootContentType = XOP_CONTENT_TYPE + "; charset=" + CHARSET + "; type=\"" + soapContentType + "\"";
+        }
+        else {
+            rootContentType = soapContentType + "; charset=" + CHARSET;
+        }
+        if (outputStream instanceof TransportOutputStream) {
+            TransportOutputStream transportOutputStream = (TransportOutputStream) outputStream;
+            String contentType;
+            if (boundary == null) {
+                contentType = rootContentType;
+            }
+            else {
+                String type = xopPackage ? XOP_CONTENT_TYPE : soapContentType;
+                contentType = MULTIPART_RELATED + "; type=\"" + type + "\"; boundary=\"" + boundary +
+                        "\"; start=\"" + ROOT_CONTENT_ID + "\"";
+                if (xopPackage) {
+                    contentType += "; start-info=\"" + soapContentType + "\"";
+                }
+            }
+            SoapVersion version = getVersion();
+            if (SoapVersion.SOAP_11 == version) {
+                transportOutputStream.addHeader(TransportConstants.HEADER_SOAP_ACTION, soapAction);
+                transportOutputStream.addHeader(TransportConstants.HEADER_ACCEPT, version.getContentType());
+            }
+            else if (SoapVersion.SOAP_12 == version) {
+                contentType += "; action=" + soapAction;
+                transportOutputStream.addHeader(TransportConstants.HEADER_ACCEPT, version.getContentType());
+            }
+            transportOutputStream.addHeader(TransportConstants.HEADER_CONTENT_TYPE, contentType);
+        }
+        if (boundary == null) {
+            writeEnvelope(outputStream);
+        }
+        else {
+            writeAscii(outputStream, "--" + boundary + CRLF);
+            writePartHeaders(outputStream, rootContentType, ROOT_CONTENT_ID);
+            writeEnvelope(outputStream);
+            for (Attachment attachment : attachments.values()) {
+                writeAscii(outputStream, CRLF + "--" + boundary + CRLF);
+                String contentId = attachment.getContentId();
+                if (!contentId.startsWith("<")) {
+                    contentId = "<" + contentId + ">";
+                }
+                writePartHeaders(outputStream, attachment.getContentType(), contentId);
+                attachment.getDataHandler().writeTo(outputStream);
+            }
+            writeAscii(outputStream, CRLF + "--" + boundary + "--" + CRLF);
+        }
+        outputStream.flush();
+    }
+
+    private void writePartHeaders(OutputStream outputStream, String contentType, String contentId)
+            throws IOException {
+        writeAscii(outputStream, TransportConstants.HEADER_CONTENT_TYPE + ": " + contentType + CRLF);
+        writeAscii(outputStream, TransportConstants.HEADER_CONTENT_TRANSFER_ENCODING + ": binary" + CRLF);
+        writeAscii(outputStream, TransportConstants.HEADER_CONTENT_ID + ": " + contentId + CRLF + CRLF);
+    }
+
+    private void writeAscii(OutputStream outputStream, String s) throws IOException {
+        outputStream.write(s.getBytes("US-ASCII"));
+    }
+
+    private void writeEnvelope(OutputStream outputStream) throws IOException {
+        try {
+            writeEnvelope(messageFactory.getOutputFactory().createXMLEventWriter(outputStream, CHARSET));
+        }
+        catch (XMLStreamException ex) {
+            throw new StroapMessageException("Could not write message to OutputStream: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void writeEnvelope(XMLEventWriter eventWriter) throws XMLStreamException {
+        eventWriter.add(messageFactory.getEventFactory().createStartDocument(CHARSET));
+        envelope.writeTo(new EnvelopeXMLEventWriter(eventWriter));
+        eventWriter.add(messageFactory.getEventFactory().createEndDocument());
+        eventWriter.flush();
+    }
+
+    public boolean isXopPackage() {
+        return xopPackage;
+    }
+
+    /**
+     * Not supported by this message; always returns {@code false}.
+     */
+    public boolean convertToXopPackage() {
+        return false;
+    }
+
+    public Attachment getAttachment(String contentId) throws AttachmentException {
+        Assert.hasLength(contentId, "contentId must not be empty");
+        String strippedContentId = stripAngleBrackets(contentId);
+        for (Map.Entry<String, Attachment> entry : attachments.entrySet()) {
+            if (strippedContentId.equals(stripAngleBrackets(entry.getKey()))) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public Iterator<Attachment> getAttachments() throws AttachmentException {
+        return new ArrayList<Attachment>(attachments.values()).iterator();
+    }
+
+    public Attachment addAttachment(String contentId, DataHandler dataHandler) {
+        Assert.hasLength(contentId, "contentId must not be empty");
+        Assert.notNull(dataHandler, "dataHandler must not be null");
+        Attachment attachment = new StroapAttachment(contentId, dataHandler);
+        attachments.put(contentId, attachment);
+        return attachment;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("StroapMessage");
+        StroapBody body = (StroapBody) envelope.getBody();
+        if (body != null) {
+            builder.append(' ');
+            builder.append(body.getPayloadName());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * {@code XMLEventWriter} that drops document events, as well as namespace declarations that are already in scope.
+     * The latter occur because every Stroap element declares its own namespaces, so that it can be serialized on its
+     * own.
+     */
+    private class EnvelopeXMLEventWriter extends AbstractXMLEventWriter {
+
+        private final XMLEventWriter delegate;
+
+        private final LinkedList<Map<String, String>> scopes = new LinkedList<Map<String, String>>();
+
+        private EnvelopeXMLEventWriter(XMLEventWriter delegate) {
+            this.delegate = delegate;
+            scopes.add(new HashMap<String, String>());
+        }
+
+        public void add(XMLEvent event) throws XMLStreamException {
+            if (event.isStartElement()) {
+                StartElement startElement = event.asStartElement();
+                Map<String, String> scope = new HashMap<String, String>(scopes.getLast());
+                List<Namespace> namespaces = new ArrayList<Namespace>();
+                boolean redundant = false;
+                for (Iterator<?> iterator = startElement.getNamespaces(); iterator.hasNext();) {
+                    Namespace namespace = (Namespace) iterator.next();
+                    String prefix = namespace.getPrefix();
+                    if (namespace.getNamespaceURI().equals(scope.get(prefix))) {
+                        redundant = true;
+                    }
+                    else {
+                        scope.put(prefix, namespace.getNamespaceURI());
+                        namespaces.add(namespace);
+                    }
+                }
+                scopes.add(scope);
+                if (redundant) {
+                    event = messageFactory.getEventFactory()
+                            .createStartElement(startElement.getName(), startElement.getAttributes(),
+                                    namespaces.iterator());
+                }
+            }
+            else if (event.isEndElement()) {
+                scopes.removeLast();
+            }
+            else if (event.isStartDocument() || event.isEndDocument()) {
+                return;
+            }
+            delegate.add(event);
+        }
+    }
+
+    /** A part of a MIME multipart message, read into memory. */
+    private static class MimePart {
+
+        private final Map<String, String> headers;
+
+        private final byte[] content;
+
+        private MimePart(Map<String, String> headers, byte[] content) {
+            this.headers = headers;
+            this.content = content;
+        }
+
+        /** Splits the given multipart content into parts, using the given boundary. */
+        static List<MimePart> parse(byte[] content, String boundary) throws UnsupportedEncodingException {
+            // ISO-8859-1 maps every byte to a single char, so that string indices equal byte offsets
+            String data = new String(content, "ISO-8859-1");
+            String delimiter = "--" + boundary;
+            List<MimePart> parts = new ArrayList<MimePart>();
+            int idx = data.indexOf(delimiter);
+            if (idx == -1) {
+                throw new StroapMessageCreationException("MIME boundary [" + boundary + "] not found");
+            }
+            while (!data.startsWith("--", idx + delimiter.length())) {
+                int pos = data.indexOf('\n', idx) + 1;
+                Map<String, String> headers = new HashMap<String, String>();
+                while (true) {
+                    int lineEnd = data.indexOf('\n', pos);
+                    if (pos == 0 || lineEnd == -1) {
+                        throw new StroapMessageCreationException("Unexpected end of MIME part headers");
+                    }
+                    String line = data.substring(pos, lineEnd).trim();
+                    pos = lineEnd + 1;
+                    if (line.length() == 0) {
+                        break;
+                    }
+                    int colon = line.indexOf(':');
+                    if (colon != -1) {
+                        headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ENGLISH),
+                                line.substring(colon + 1).trim());
+                    }
+                }
+                String transferEncoding = headers.get("content-transfer-encoding");
+                if (transferEncoding != null && !"binary".equalsIgnoreCase(transferEncoding) &&
+                        !"8bit".equalsIgnoreCase(transferEncoding) && !"7bit".equalsIgnoreCase(transferEncoding)) {
+                    throw new StroapMessageCreationException(
+                            "Unsupported Content-Transfer-Encoding [" + transferEncoding + "]");
+                }
+                int next = data.indexOf("\n" + delimiter, pos - 1);
+                if (next == -1) {
+                    throw new StroapMessageCreationException("Unterminated MIME part");
+                }
+                int end = next;
+                if (end > pos && data.charAt(end - 1) == '\r') {
+                    end--;
+                }
+                end = Math.max(end, pos);
+                byte[] partContent = new byte[end - pos];
+                System.arraycopy(content, pos, partContent, 0, partContent.length);
+                parts.add(new MimePart(headers, partContent));
+                idx = next + 1;
+            }
+            if (parts.isEmpty()) {
+                throw new StroapMessageCreationException("No MIME parts found");
+            }
+            return parts;
+        }
+
+        String getContentId() {
+            return headers.get("content-id");
+        }
+
+        String getContentType() {
+            return headers.get("content-type");
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,7 +19,10 @@ package org.springframework.ws.soap.stroap;
 import org.springframework.ws.soap.SoapMessageCreationException;
 
 /**
+ * Exception thrown by the {@link StroapMessageFactory} when a message cannot be created.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 public class StroapMessageCreationException extends SoapMessageCreationException {
 
@@ -30,4 +33,5 @@ public class StroapMessageCreationException extends SoapMessageCreationException
     public StroapMessageCreationException(String msg, Throwable ex) {
         super(msg, ex);
     }
+
 }
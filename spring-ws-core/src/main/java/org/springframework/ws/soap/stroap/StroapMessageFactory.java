@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,11 +24,26 @@ import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 
+import org.springframework.util.Assert;
+import org.springframework.ws.InvalidXmlException;
 import org.springframework.ws.soap.SoapMessageFactory;
 import org.springframework.ws.soap.SoapVersion;
 
 /**
+ * StAX-based implementation of the {@link SoapMessageFactory} interface. Creates {@link StroapMessage} objects, which
+ * are kept as StAX events rather than as a DOM or Axiom object model.
+ * <p/>
+ * Both SOAP 1.1 and SOAP 1.2 are supported: incoming messages are read according to the namespace of their envelope,
+ * while new messages use the {@linkplain #setSoapVersion(SoapVersion) configured version}. By default, the payload of
+ * incoming messages is cached, so that it can be read multiple times. Setting {@linkplain #setPayloadCaching(boolean)
+ * payload caching} to {@code false} makes the payload be read directly from the underlying stream, so that it can
+ * only be read once.
+ * <p/>
+ * SOAP with Attachments messages are read completely into memory. MTOM messages are read as such, but {@code
+ * xop:Include} elements are not resolved; see {@link StroapMessage} for details.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 public class StroapMessageFactory implements SoapMessageFactory {
 
@@ -40,24 +55,33 @@ public class StroapMessageFactory implements SoapMessageFactory {
 
     private final DocumentBuilderFactory documentBuilderFactory = createDocumentBuilderFactory();
 
+    private SoapVersion soapVersion = SoapVersion.SOAP_11;
+
     private boolean payloadCaching = true;
 
+    /** Indicates whether the payload of incoming messages is cached. */
     public boolean isPayloadCaching() {
         return payloadCaching;
     }
 
+    /**
+     * Indicates whether the payload of incoming messages should be cached. Default is {@code true}.
+     * <p/>
+     * Setting this to {@code false} increases performance, but also means that the payload of incoming messages can
+     * only be read once.
+     */
     public void setPayloadCaching(boolean payloadCaching) {
         this.payloadCaching = payloadCaching;
     }
 
+    /** Returns the SOAP version of the messages created by {@link #createWebServiceMessage()}. */
     public SoapVersion getSoapVersion() {
-        return SoapVersion.SOAP_11;
+        return soapVersion;
     }
 
     public void setSoapVersion(SoapVersion version) {
-        if (version != SoapVersion.SOAP_11) {
-            throw new UnsupportedOperationException();
-        }
+        Assert.notNull(version, "'version' must not be null");
+        this.soapVersion = version;
     }
 
     public StroapMessage createWebServiceMessage() {
@@ -69,8 +93,7 @@ public class StroapMessageFactory implements SoapMessageFactory {
             return StroapMessage.build(inputStream, this);
         }
         catch (XMLStreamException ex) {
-            throw new StroapMessageCreationException("Could not create message from InputStream: " + ex.getMessage(),
-                    ex);
+            throw new InvalidXmlException("Could not parse XML", ex);
         }
     }
 
@@ -105,7 +128,8 @@ public class StroapMessageFactory implements SoapMessageFactory {
 
     /**
      * Create a {@code XMLOutputFactory} that this message factory will use to create {@link
-     * javax.xml.stream.XMLEventWriter} objects.
+     * javax.xml.stream.XMLEventWriter} objects. Namespace repairing is not required, since all elements of a message
+     * carry their own namespace declarations.
      * <p/>
      * Can be overridden in subclasses, adding further initialization of the factory. The resulting factory is cached,
      * so this method will only be called once.
@@ -113,9 +137,7 @@ public class StroapMessageFactory implements SoapMessageFactory {
      * @return the created factory
      */
     protected XMLOutputFactory createXmlOutputFactory() {
-        XMLOutputFactory outputFactory = XMLOutputFactory.newFactory();
-        outputFactory.setProperty("javax.xml.stream.isRepairingNamespaces", true);
-        return outputFactory;
+        return XMLOutputFactory.newInstance();
     }
 
     /**
@@ -128,11 +150,12 @@ public class StroapMessageFactory implements SoapMessageFactory {
      * @return the created factory
      */
     protected XMLEventFactory createXmlEventFactory() {
-        return XMLEventFactory.newFactory();
+        return XMLEventFactory.newInstance();
     }
 
     /**
-     * Create a {@code DocumentBuilderFactory} that this message factory will use to create {@link org.w3c.dom.Document} objects.
+     * Create a {@code DocumentBuilderFactory} that this message factory will use to create {@link
+     * org.w3c.dom.Document} objects.
      * <p/>
      * Can be overridden in subclasses, adding further initialization of the factory. The resulting factory is cached,
      * so this method will only be called once.
@@ -145,6 +168,7 @@ public class StroapMessageFactory implements SoapMessageFactory {
         return documentBuilderFactory;
     }
 
+    @Override
     public String toString() {
         StringBuilder builder = new StringBuilder("StroapMessageFactory[");
         if (getSoapVersion() == SoapVersion.SOAP_11) {
@@ -164,5 +188,4 @@ public class StroapMessageFactory implements SoapMessageFactory {
         return builder.toString();
     }
 
-
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,14 +22,20 @@ import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
 
 /**
+ * Abstract base class for the contents of a {@link StroapBody}.
+ *
  * @author Arjen Poutsma
+ * @since 2.2
  */
 abstract class StroapPayload {
 
+    /** Returns the name of the payload root element, or {@code null} if there is no payload. */
     public abstract QName getName();
 
+    /** Returns a reader for the events of the payload, excluding any document events. */
     public abstract XMLEventReader getEventReader();
 
+    /** Writes the payload to the given event writer. */
     public void writeTo(XMLEventWriter eventWriter) throws XMLStreamException {
         eventWriter.add(getEventReader());
     }
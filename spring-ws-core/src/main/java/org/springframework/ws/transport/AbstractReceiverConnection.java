@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -42,7 +42,7 @@ public abstract class AbstractReceiverConnection extends AbstractWebServiceConne
     }
 
     @Override
-    protected final TransportOutputStream createTransportOutputStream() throws IOException {
+    protected TransportOutputStream createTransportOutputStream() throws IOException {
         if (responseOutputStream == null) {
             responseOutputStream = new ResponseTransportOutputStream();
         }
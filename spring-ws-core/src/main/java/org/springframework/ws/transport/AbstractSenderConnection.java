@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,7 +34,7 @@ public abstract class AbstractSenderConnection extends AbstractWebServiceConnect
     private TransportInputStream responseInputStream;
 
     @Override
-    protected final TransportOutputStream createTransportOutputStream() throws IOException {
+    protected TransportOutputStream createTransportOutputStream() throws IOException {
         if (requestOutputStream == null) {
             requestOutputStream = new RequestTransportOutputStream();
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2007 the original author or authors.
+ * Copyright 2007-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -43,7 +43,7 @@ public abstract class AbstractWebServiceConnection implements WebServiceConnecti
             return;
         }
         message.writeTo(tos);
-        tos.flush();
+        tos.finish();
         onSendAfterWrite(message);
     }
 
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport;
+
+/**
+ * Sub-interface of {@link WebServiceConnection} that sends requests without blocking the calling thread. {@link
+ * #send(org.springframework.ws.WebServiceMessage) Sending} starts the exchange, and returns before the response has
+ * been received. Callers can register a callback that is invoked when the response is available, after which the
+ * receiving methods of this connection do not block.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public interface AsyncWebServiceConnection extends WebServiceConnection {
+
+    /**
+     * Registers a callback that is invoked once the response to the sent request has been received, or the exchange
+     * has failed. In the latter case, the receiving methods of this connection throw the corresponding exception. If
+     * the exchange has already completed, the callback is invoked immediately.
+     * <p/>
+     * The callback is typically invoked on an I/O thread of the underlying transport, and should therefore not block.
+     *
+     * @param callback the callback to invoke on completion
+     */
+    void addCompletionCallback(Runnable callback);
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -78,6 +78,16 @@ public abstract class TransportOutputStream extends OutputStream {
      */
     public abstract void addHeader(String name, String value) throws IOException;
 
+    /**
+     * Finishes writing a message to this stream, without closing it. Called after a message has been written, before
+     * it is sent. Default implementation flushes this stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void finish() throws IOException {
+        flush();
+    }
+
     /** Returns the output stream to write to. */
     protected abstract OutputStream createOutputStream() throws IOException;
 }
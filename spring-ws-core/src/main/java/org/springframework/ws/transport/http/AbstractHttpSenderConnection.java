@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,16 @@
 
 package org.springframework.ws.transport.http;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.util.Iterator;
 import java.util.zip.GZIPInputStream;
 
-import org.springframework.util.FileCopyUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.transport.AbstractSenderConnection;
 import org.springframework.ws.transport.FaultAwareWebServiceConnection;
+import org.springframework.ws.transport.TransportOutputStream;
 import org.springframework.ws.transport.WebServiceConnection;
 
 /**
@@ -37,8 +37,39 @@ import org.springframework.ws.transport.WebServiceConnection;
 public abstract class AbstractHttpSenderConnection extends AbstractSenderConnection
         implements FaultAwareWebServiceConnection {
 
-    /** Buffer used for reading the response, when the content length is invalid. */
-    private byte[] responseBuffer;
+    /**
+     * Stream used for reading the response, when the content length is invalid. Allows for checking whether there is
+     * a response at all, without buffering it.
+     */
+    private PushbackInputStream responseInputStream;
+
+    private int requestCompressionThreshold = -1;
+
+    private GzipTransportOutputStream gzipRequestOutputStream;
+
+    /**
+     * Sets the request size in bytes above which the request is compressed with GZIP. Default is <code>-1</code>,
+     * meaning that the request is never compressed.
+     */
+    public void setRequestCompressionThreshold(int requestCompressionThreshold) {
+        this.requestCompressionThreshold = requestCompressionThreshold;
+    }
+
+    /*
+     * Sending request
+     */
+
+    @Override
+    protected TransportOutputStream createTransportOutputStream() throws IOException {
+        TransportOutputStream requestOutputStream = super.createTransportOutputStream();
+        if (requestCompressionThreshold < 0) {
+            return requestOutputStream;
+        }
+        if (gzipRequestOutputStream == null) {
+            gzipRequestOutputStream = new GzipTransportOutputStream(requestOutputStream, requestCompressionThreshold);
+        }
+        return gzipRequestOutputStream;
+    }
 
     public final boolean hasError() throws IOException {
         return getResponseCode() / 100 != 2;
@@ -68,19 +99,37 @@ public abstract class AbstractHttpSenderConnection extends AbstractSenderConnect
         }
         long contentLength = getResponseContentLength();
         if (contentLength < 0) {
-            if (responseBuffer == null) {
-                responseBuffer = FileCopyUtils.copyToByteArray(getRawResponseInputStream());
-            }
-            contentLength = responseBuffer.length;
+            return peekResponse();
         }
         return contentLength > 0;
     }
 
+    /**
+     * Determines whether the response stream has any content, by reading its first byte and pushing it back. Used for
+     * responses without a content length, such as chunked responses, so that they do not have to be read fully into
+     * memory.
+     */
+    private boolean peekResponse() throws IOException {
+        if (responseInputStream == null) {
+            InputStream rawInputStream = getRawResponseInputStream();
+            if (rawInputStream == null) {
+                return false;
+            }
+            responseInputStream = new PushbackInputStream(rawInputStream, 1);
+        }
+        int b = responseInputStream.read();
+        if (b == -1) {
+            return false;
+        }
+        responseInputStream.unread(b);
+        return true;
+    }
+
     @Override
     protected final InputStream getResponseInputStream() throws IOException {
         InputStream inputStream;
-        if (responseBuffer != null) {
-            inputStream = new ByteArrayInputStream(responseBuffer);
+        if (responseInputStream != null) {
+            inputStream = responseInputStream;
         }
         else {
             inputStream = getRawResponseInputStream();
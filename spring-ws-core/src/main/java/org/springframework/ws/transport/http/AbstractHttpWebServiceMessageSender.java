@@ -1,5 +1,5 @@
 /*
- * Copyright 2007 the original author or authors.
+ * Copyright 2007-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,9 @@ import org.springframework.ws.transport.WebServiceMessageSender;
  */
 public abstract class AbstractHttpWebServiceMessageSender implements WebServiceMessageSender {
 
+    /** The default request size in bytes above which requests are compressed. */
+    public static final int DEFAULT_REQUEST_COMPRESSION_THRESHOLD = 1024;
+
     /**
      * Logger available to subclasses.
      */
@@ -39,6 +42,10 @@ public abstract class AbstractHttpWebServiceMessageSender implements WebServiceM
 
     private boolean acceptGzipEncoding = true;
 
+    private boolean compressRequests = false;
+
+    private int requestCompressionThreshold = DEFAULT_REQUEST_COMPRESSION_THRESHOLD;
+
     /**
      * Return whether to accept GZIP encoding, that is, whether to send the HTTP <code>Accept-Encoding</code> header
      * with <code>gzip</code> as value.
@@ -58,6 +65,57 @@ public abstract class AbstractHttpWebServiceMessageSender implements WebServiceM
         this.acceptGzipEncoding = acceptGzipEncoding;
     }
 
+    /**
+     * Return whether to compress requests with GZIP, when they exceed the {@linkplain
+     * #getRequestCompressionThreshold() compression threshold}.
+     */
+    public boolean isCompressRequests() {
+        return compressRequests;
+    }
+
+    /**
+     * Set whether to compress requests with GZIP, that is, whether to send large requests with the HTTP
+     * <code>Content-Encoding</code> header set to <code>gzip</code>. Requests are compressed while they are written,
+     * and only when they exceed the {@linkplain #setRequestCompressionThreshold(int) compression threshold}.
+     * <p/>
+     * Default is <code>false</code>. Only turn this flag on if the HTTP server accepts GZIP compressed requests.
+     */
+    public void setCompressRequests(boolean compressRequests) {
+        this.compressRequests = compressRequests;
+    }
+
+    /** Return the request size in bytes above which requests are compressed. */
+    public int getRequestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+
+    /**
+     * Set the request size in bytes above which requests are compressed, if {@linkplain #setCompressRequests(boolean)
+     * enabled}. Smaller requests are sent uncompressed, as compressing them costs more than it saves.
+     * <p/>
+     * Default is {@value #DEFAULT_REQUEST_COMPRESSION_THRESHOLD}.
+     */
+    public void setRequestCompressionThreshold(int requestCompressionThreshold) {
+        if (requestCompressionThreshold < 0) {
+            throw new IllegalArgumentException("requestCompressionThreshold must not be negative");
+        }
+        this.requestCompressionThreshold = requestCompressionThreshold;
+    }
+
+    /**
+     * Applies the request compression settings of this sender to the given connection. Called by subclasses when
+     * creating a connection.
+     *
+     * @param connection the connection to configure
+     * @return the given connection
+     */
+    protected <T extends AbstractHttpSenderConnection> T configureRequestCompression(T connection) {
+        if (compressRequests) {
+            connection.setRequestCompressionThreshold(requestCompressionThreshold);
+        }
+        return connection;
+    }
+
     public boolean supports(URI uri) {
         return uri.getScheme().equals(HttpTransportConstants.HTTP_URI_SCHEME) ||
                 uri.getScheme().equals(HttpTransportConstants.HTTPS_URI_SCHEME);
@@ -61,6 +61,6 @@ public class ClientHttpRequestMessageSender extends AbstractHttpWebServiceMessag
 			request.getHeaders().add(HttpTransportConstants.HEADER_ACCEPT_ENCODING,
 					HttpTransportConstants.CONTENT_ENCODING_GZIP);
 		}
-		return new ClientHttpRequestConnection(request);
+		return configureRequestCompression(new ClientHttpRequestConnection(request));
 	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -230,7 +230,7 @@ public class CommonsHttpMessageSender extends AbstractHttpWebServiceMessageSende
             postMethod.addRequestHeader(HttpTransportConstants.HEADER_ACCEPT_ENCODING,
                     HttpTransportConstants.CONTENT_ENCODING_GZIP);
         }
-        return new CommonsHttpConnection(getHttpClient(), postMethod);
+        return configureRequestCompression(new CommonsHttpConnection(getHttpClient(), postMethod));
     }
 
 }
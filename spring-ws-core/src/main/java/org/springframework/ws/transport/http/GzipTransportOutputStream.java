@@ -0,0 +1,142 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.transport.TransportOutputStream;
+
+/**
+ * {@link TransportOutputStream} that compresses the written content with GZIP, once it exceeds a given threshold.
+ * Content is buffered until the threshold is exceeded; at that point, the <code>Content-Encoding</code> header is
+ * added, and the buffered and all following content is compressed while it is written to the target stream. Content
+ * that does not exceed the threshold is written to the target stream uncompressed, when the stream is {@linkplain
+ * #finish() finished}.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+class GzipTransportOutputStream extends TransportOutputStream {
+
+    private final TransportOutputStream targetStream;
+
+    private final int threshold;
+
+    private final CompressingOutputStream compressingStream = new CompressingOutputStream();
+
+    /**
+     * Creates a new instance of the <code>GzipTransportOutputStream</code>.
+     *
+     * @param targetStream the stream to write the (possibly compressed) content and headers to
+     * @param threshold    the content size in bytes above which content is compressed
+     */
+    GzipTransportOutputStream(TransportOutputStream targetStream, int threshold) {
+        Assert.notNull(targetStream, "targetStream must not be null");
+        Assert.isTrue(threshold >= 0, "threshold must not be negative");
+        this.targetStream = targetStream;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void addHeader(String name, String value) throws IOException {
+        targetStream.addHeader(name, value);
+    }
+
+    @Override
+    protected OutputStream createOutputStream() throws IOException {
+        return compressingStream;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        compressingStream.finish();
+    }
+
+    /** Returns whether the content written so far is compressed. */
+    boolean isCompressed() {
+        return compressingStream.gzipStream != null;
+    }
+
+    private class CompressingOutputStream extends OutputStream {
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private GZIPOutputStream gzipStream;
+
+        private boolean finished;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (gzipStream != null) {
+                gzipStream.write(b, off, len);
+            }
+            else {
+                buffer.write(b, off, len);
+                if (buffer.size() > threshold) {
+                    startCompression();
+                }
+            }
+        }
+
+        private void startCompression() throws IOException {
+            targetStream.addHeader(HttpTransportConstants.HEADER_CONTENT_ENCODING,
+                    HttpTransportConstants.CONTENT_ENCODING_GZIP);
+            gzipStream = new GZIPOutputStream(targetStream);
+            buffer.writeTo(gzipStream);
+            buffer = null;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // buffered content is not flushed, as the decision to compress has not been made yet
+            if (gzipStream != null) {
+                gzipStream.flush();
+            }
+        }
+
+        private void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+            else {
+                buffer.writeTo(targetStream);
+                buffer = null;
+            }
+            targetStream.finish();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            targetStream.close();
+        }
+    }
+
+}
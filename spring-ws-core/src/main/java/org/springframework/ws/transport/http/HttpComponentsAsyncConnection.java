@@ -0,0 +1,263 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.transport.AsyncWebServiceConnection;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Implementation of {@link AsyncWebServiceConnection} that is based on Apache HttpAsyncClient. Exposes a {@link
+ * HttpPost} and {@link HttpResponse}.
+ * <p/>
+ * Sending a message executes the request on the I/O reactor of the client, and returns immediately. The receiving
+ * methods block until the response has been received; registered {@linkplain #addCompletionCallback(Runnable)
+ * completion callbacks} are invoked as soon as that is the case.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public class HttpComponentsAsyncConnection extends AbstractHttpSenderConnection implements AsyncWebServiceConnection {
+
+    private final HttpAsyncClient httpClient;
+
+    private final HttpPost httpPost;
+
+    private final HttpContext httpContext;
+
+    private final List<Runnable> completionCallbacks = new ArrayList<Runnable>();
+
+    private ByteArrayOutputStream requestBuffer;
+
+    private Future<HttpResponse> responseFuture;
+
+    private boolean completed;
+
+    private HttpResponse httpResponse;
+
+    private Exception failure;
+
+    protected HttpComponentsAsyncConnection(HttpAsyncClient httpClient, HttpPost httpPost, HttpContext httpContext) {
+        Assert.notNull(httpClient, "httpClient must not be null");
+        Assert.notNull(httpPost, "httpPost must not be null");
+        this.httpClient = httpClient;
+        this.httpPost = httpPost;
+        this.httpContext = httpContext;
+    }
+
+    public HttpPost getHttpPost() {
+        return httpPost;
+    }
+
+    /**
+     * Returns the response, waiting for it to be received if necessary.
+     *
+     * @throws IOException when the exchange failed, or was cancelled
+     */
+    public HttpResponse getHttpResponse() throws IOException {
+        synchronized (completionCallbacks) {
+            while (!completed) {
+                try {
+                    completionCallbacks.wait();
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for response");
+                }
+            }
+            if (failure != null) {
+                IOException ioException = new IOException("HTTP exchange failed: " + failure.getMessage());
+                ioException.initCause(failure);
+                throw ioException;
+            }
+            if (httpResponse == null) {
+                throw new InterruptedIOException("HTTP exchange was cancelled");
+            }
+            return httpResponse;
+        }
+    }
+
+    public void addCompletionCallback(Runnable callback) {
+        Assert.notNull(callback, "'callback' must not be null");
+        synchronized (completionCallbacks) {
+            if (!completed) {
+                completionCallbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    /** Marks the exchange as completed, and invokes the registered completion callbacks. */
+    private void complete(HttpResponse httpResponse, Exception failure) {
+        List<Runnable> callbacks;
+        synchronized (completionCallbacks) {
+            this.httpResponse = httpResponse;
+            this.failure = failure;
+            this.completed = true;
+            completionCallbacks.notifyAll();
+            callbacks = new ArrayList<Runnable>(completionCallbacks);
+            completionCallbacks.clear();
+        }
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    @Override
+    public void onClose() throws IOException {
+        boolean done;
+        synchronized (completionCallbacks) {
+            done = completed;
+        }
+        if (!done) {
+            if (responseFuture != null) {
+                responseFuture.cancel(true);
+            }
+        }
+        else if (httpResponse != null && httpResponse.getEntity() != null) {
+            EntityUtils.consume(httpResponse.getEntity());
+        }
+    }
+
+    /*
+     * URI
+     */
+    public URI getUri() throws URISyntaxException {
+        return new URI(httpPost.getURI().toString());
+    }
+
+    /*
+     * Sending request
+     */
+
+    @Override
+    protected void onSendBeforeWrite(WebServiceMessage message) throws IOException {
+        requestBuffer = new ByteArrayOutputStream();
+    }
+
+    @Override
+    protected void addRequestHeader(String name, String value) throws IOException {
+        httpPost.addHeader(name, value);
+    }
+
+    @Override
+    protected OutputStream getRequestOutputStream() throws IOException {
+        return requestBuffer;
+    }
+
+    @Override
+    protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
+        httpPost.setEntity(new ByteArrayEntity(requestBuffer.toByteArray()));
+        requestBuffer = null;
+        FutureCallback<HttpResponse> callback = new FutureCallback<HttpResponse>() {
+
+            public void completed(HttpResponse result) {
+                complete(result, null);
+            }
+
+            public void failed(Exception ex) {
+                complete(null, ex);
+            }
+
+            public void cancelled() {
+                complete(null, null);
+            }
+        };
+        if (httpContext != null) {
+            responseFuture = httpClient.execute(httpPost, httpContext, callback);
+        }
+        else {
+            responseFuture = httpClient.execute(httpPost, callback);
+        }
+    }
+
+    /*
+     * Receiving response
+     */
+
+    @Override
+    protected int getResponseCode() throws IOException {
+        return getHttpResponse().getStatusLine().getStatusCode();
+    }
+
+    @Override
+    protected String getResponseMessage() throws IOException {
+        return getHttpResponse().getStatusLine().getReasonPhrase();
+    }
+
+    @Override
+    protected long getResponseContentLength() throws IOException {
+        HttpEntity entity = getHttpResponse().getEntity();
+        if (entity != null) {
+            return entity.getContentLength();
+        }
+        return 0;
+    }
+
+    @Override
+    protected InputStream getRawResponseInputStream() throws IOException {
+        HttpEntity entity = getHttpResponse().getEntity();
+        if (entity != null) {
+            return entity.getContent();
+        }
+        throw new IllegalStateException("Response has no enclosing response entity, cannot create input stream");
+    }
+
+    @Override
+    protected Iterator<String> getResponseHeaderNames() throws IOException {
+        Header[] headers = getHttpResponse().getAllHeaders();
+        String[] names = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            names[i] = headers[i].getName();
+        }
+        return Arrays.asList(names).iterator();
+    }
+
+    @Override
+    protected Iterator<String> getResponseHeaders(String name) throws IOException {
+        Header[] headers = getHttpResponse().getHeaders(name);
+        String[] values = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            values[i] = headers[i].getValue();
+        }
+        return Arrays.asList(values).iterator();
+    }
+}
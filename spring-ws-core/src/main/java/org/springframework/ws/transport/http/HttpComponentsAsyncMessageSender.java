@@ -0,0 +1,291 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.client.AbstractHttpAsyncClient;
+import org.apache.http.impl.nio.client.DefaultHttpAsyncClient;
+import org.apache.http.impl.nio.conn.PoolingClientAsyncConnectionManager;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.nio.conn.ClientAsyncConnectionManager;
+import org.apache.http.nio.reactor.IOReactorStatus;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.ws.transport.WebServiceConnection;
+
+/**
+ * {@code WebServiceMessageSender} implementation that uses <a
+ * href="http://hc.apache.org/httpcomponents-asyncclient-dev/">Apache HttpAsyncClient</a> to execute POST requests
+ * without blocking the calling thread.
+ * <p/>
+ * The connections created by this sender are {@link org.springframework.ws.transport.AsyncWebServiceConnection}s,
+ * which are best used together with the {@link org.springframework.ws.client.core.AsyncWebServiceTemplate}. When used
+ * with a plain {@link org.springframework.ws.client.core.WebServiceTemplate}, the calling thread waits for the
+ * response, just like it does with the {@link HttpComponentsMessageSender}.
+ * <p/>
+ * The connection pool of the underlying client can be limited with the {@linkplain #setMaxTotalConnections(int)
+ * maximum number of connections} and the {@linkplain #setMaxConnectionsPerHost(Map) maximum number of connections
+ * per host}. Each connection carries one exchange at a time: exchanges that exceed the limit wait until a pooled
+ * connection is released, without blocking the calling thread. The current use of the pool is exposed through
+ * {@link #getConnectionPoolStats()}.
+ * <p/>
+ * Allows to use a pre-configured HttpAsyncClient instance, potentially with authentication, HTTP connection pooling,
+ * etc. Authentication can also be set by injecting a {@link Credentials} instance (such as the {@link
+ * UsernamePasswordCredentials}).
+ *
+ * @author Arjen Poutsma
+ * @see HttpAsyncClient
+ * @since 2.2
+ */
+public class HttpComponentsAsyncMessageSender extends AbstractHttpWebServiceMessageSender
+        implements InitializingBean, DisposableBean {
+
+    private static final int DEFAULT_CONNECTION_TIMEOUT_MILLISECONDS = (60 * 1000);
+
+    private static final int DEFAULT_READ_TIMEOUT_MILLISECONDS = (60 * 1000);
+
+    private HttpAsyncClient httpClient;
+
+    private Credentials credentials;
+
+    private AuthScope authScope = AuthScope.ANY;
+
+    /**
+     * Create a new instance of the {@code HttpComponentsAsyncMessageSender} with a default {@link
+     * DefaultHttpAsyncClient}.
+     *
+     * @throws IOException if the I/O reactor of the client could not be created
+     */
+    public HttpComponentsAsyncMessageSender() throws IOException {
+        DefaultHttpAsyncClient defaultClient = new DefaultHttpAsyncClient();
+        defaultClient.addRequestInterceptor(new HttpComponentsMessageSender.RemoveSoapHeadersInterceptor(), 0);
+
+        this.httpClient = defaultClient;
+        setConnectionTimeout(DEFAULT_CONNECTION_TIMEOUT_MILLISECONDS);
+        setReadTimeout(DEFAULT_READ_TIMEOUT_MILLISECONDS);
+    }
+
+    /**
+     * Create a new instance of the {@code HttpComponentsAsyncMessageSender} with the given {@link HttpAsyncClient}
+     * instance.
+     * <p/>
+     * This constructor does not change the given {@code HttpAsyncClient} in any way. As such, it does not set timeouts,
+     * nor does it add the {@link HttpComponentsMessageSender.RemoveSoapHeadersInterceptor}. The client is started when
+     * this sender is initialized, unless it is running already.
+     *
+     * @param httpClient the HttpAsyncClient instance to use for this sender
+     */
+    public HttpComponentsAsyncMessageSender(HttpAsyncClient httpClient) {
+        Assert.notNull(httpClient, "httpClient must not be null");
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Sets the credentials to be used. If not set, no authentication is done.
+     *
+     * @see UsernamePasswordCredentials
+     * @see org.apache.http.auth.NTCredentials
+     */
+    public void setCredentials(Credentials credentials) {
+        this.credentials = credentials;
+    }
+
+    /** Returns the <code>HttpAsyncClient</code> used by this message sender. */
+    public HttpAsyncClient getHttpClient() {
+        return httpClient;
+    }
+
+    /** Set the {@code HttpAsyncClient} used by this message sender. */
+    public void setHttpClient(HttpAsyncClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Sets the timeout until a connection is established. A value of 0 means <em>never</em> timeout.
+     *
+     * @param timeout the timeout value in milliseconds
+     * @see org.apache.http.params.HttpConnectionParams#setConnectionTimeout(org.apache.http.params.HttpParams, int)
+     */
+    public void setConnectionTimeout(int timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must be a non-negative value");
+        }
+        HttpConnectionParams.setConnectionTimeout(getHttpClient().getParams(), timeout);
+    }
+
+    /**
+     * Set the socket read timeout for the underlying HttpAsyncClient. A value of 0 means <em>never</em> timeout.
+     *
+     * @param timeout the timeout value in milliseconds
+     * @see org.apache.http.params.HttpConnectionParams#setSoTimeout(org.apache.http.params.HttpParams, int)
+     */
+    public void setReadTimeout(int timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must be a non-negative value");
+        }
+        HttpConnectionParams.setSoTimeout(getHttpClient().getParams(), timeout);
+    }
+
+    /**
+     * Sets the maximum number of connections allowed for the underlying HttpAsyncClient.
+     *
+     * @param maxTotalConnections the maximum number of connections allowed
+     * @see PoolingClientAsyncConnectionManager#setMaxTotal(int)
+     */
+    public void setMaxTotalConnections(int maxTotalConnections) {
+        if (maxTotalConnections <= 0) {
+            throw new IllegalArgumentException("maxTotalConnections must be a positive value");
+        }
+        getPoolingConnectionManager("maxTotalConnections").setMaxTotal(maxTotalConnections);
+    }
+
+    /**
+     * Returns the maximum number of connections allowed for the underlying HttpAsyncClient.
+     *
+     * @see #setMaxTotalConnections(int)
+     */
+    public int getMaxTotalConnections() {
+        return getPoolingConnectionManager("maxTotalConnections").getMaxTotal();
+    }
+
+    /**
+     * Sets the maximum number of connections per host for the underlying HttpAsyncClient. The maximum number of
+     * connections per host can be set in a form accepted by the {@code java.util.Properties} class, like as follows:
+     * <p/>
+     * <pre>
+     * https://www.example.com=1
+     * http://www.example.com:8080=7
+     * http://www.springframework.org=10
+     * </pre>
+     * <p/>
+     * The host can be specified as a URI (with scheme and port).
+     *
+     * @param maxConnectionsPerHost a properties object specifying the maximum number of connection
+     * @see PoolingClientAsyncConnectionManager#setMaxPerRoute(HttpRoute, int)
+     */
+    public void setMaxConnectionsPerHost(Map<String, String> maxConnectionsPerHost) throws URISyntaxException {
+        PoolingClientAsyncConnectionManager poolingConnectionManager =
+                getPoolingConnectionManager("maxConnectionsPerHost");
+
+        for (Map.Entry<String, String> entry : maxConnectionsPerHost.entrySet()) {
+            URI uri = new URI(entry.getKey());
+            HttpHost host = new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme());
+            HttpRoute route = new HttpRoute(host);
+
+            int max = Integer.parseInt(entry.getValue());
+
+            poolingConnectionManager.setMaxPerRoute(route, max);
+        }
+    }
+
+    /**
+     * Returns the statistics of the connection pool, totalled over all hosts.
+     *
+     * @see PoolingClientAsyncConnectionManager#getTotalStats()
+     */
+    public PoolStats getConnectionPoolStats() {
+        return getPoolingConnectionManager("connectionPoolStats").getTotalStats();
+    }
+
+    /**
+     * Returns the statistics of the connection pool for the given host, including the maximum number of connections
+     * for that host. The host is specified as a URI (with scheme and port), as in {@link
+     * #setMaxConnectionsPerHost(Map)}.
+     *
+     * @param uri the URI of the host
+     * @see PoolingClientAsyncConnectionManager#getStats(HttpRoute)
+     */
+    public PoolStats getConnectionPoolStats(String uri) throws URISyntaxException {
+        PoolingClientAsyncConnectionManager poolingConnectionManager =
+                getPoolingConnectionManager("connectionPoolStats");
+        URI hostUri = new URI(uri);
+        HttpHost host = new HttpHost(hostUri.getHost(), hostUri.getPort(), hostUri.getScheme());
+        return poolingConnectionManager.getStats(new HttpRoute(host));
+    }
+
+    private PoolingClientAsyncConnectionManager getPoolingConnectionManager(String propertyName) {
+        ClientAsyncConnectionManager connectionManager = getHttpClient().getConnectionManager();
+        if (!(connectionManager instanceof PoolingClientAsyncConnectionManager)) {
+            throw new IllegalArgumentException(propertyName + " is not supported on " +
+                    connectionManager.getClass().getName() + ". Use " +
+                    PoolingClientAsyncConnectionManager.class.getName() + " instead");
+        }
+        return (PoolingClientAsyncConnectionManager) connectionManager;
+    }
+
+    /**
+     * Sets the authentication scope to be used. Only used when the <code>credentials</code> property has been set.
+     * <p/>
+     * By default, the {@link AuthScope#ANY} is used.
+     *
+     * @see #setCredentials(Credentials)
+     */
+    public void setAuthScope(AuthScope authScope) {
+        this.authScope = authScope;
+    }
+
+    public void afterPropertiesSet() throws Exception {
+        if (credentials != null && getHttpClient() instanceof AbstractHttpAsyncClient) {
+            ((AbstractHttpAsyncClient) getHttpClient()).getCredentialsProvider().setCredentials(authScope, credentials);
+        }
+        if (getHttpClient().getStatus() == IOReactorStatus.INACTIVE) {
+            getHttpClient().start();
+        }
+    }
+
+    public WebServiceConnection createConnection(URI uri) throws IOException {
+        HttpPost httpPost = new HttpPost(uri);
+        if (isAcceptGzipEncoding()) {
+            httpPost.addHeader(HttpTransportConstants.HEADER_ACCEPT_ENCODING,
+                    HttpTransportConstants.CONTENT_ENCODING_GZIP);
+        }
+        HttpContext httpContext = createContext(uri);
+        return configureRequestCompression(
+                new HttpComponentsAsyncConnection(getHttpClient(), httpPost, httpContext));
+    }
+
+    /**
+     * Template method that allows for creation of a {@link HttpContext} for the given uri. Default implementation
+     * returns {@code null}.
+     *
+     * @param uri the URI to create the context for
+     * @return the context, or {@code null}
+     */
+    protected HttpContext createContext(URI uri) {
+        return null;
+    }
+
+    public void destroy() throws Exception {
+        getHttpClient().shutdown();
+    }
+
+}
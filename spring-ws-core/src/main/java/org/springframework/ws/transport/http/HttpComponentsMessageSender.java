@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,9 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpException;
@@ -35,12 +38,15 @@ import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
 import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HTTP;
 import org.apache.http.protocol.HttpContext;
 
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 import org.springframework.ws.transport.WebServiceConnection;
 
@@ -51,6 +57,12 @@ import org.springframework.ws.transport.WebServiceConnection;
  * Allows to use a pre-configured HttpClient instance, potentially with authentication, HTTP connection pooling, etc.
  * Authentication can also be set by injecting a {@link Credentials} instance (such as the {@link
  * UsernamePasswordCredentials}).
+ * <p/>
+ * When a {@linkplain #setConnectionEvictionInterval(long) connection eviction interval} is set, a background thread
+ * periodically closes expired connections, and connections that have been idle for longer than the {@linkplain
+ * #setMaxIdleTime(long) maximum idle time}. The statistics of the connection pool are exposed as bean properties, such
+ * as {@link #getLeasedConnectionCount()} and {@link #getPendingConnectionCount()}, so that they can be monitored over
+ * JMX by exporting this sender with a Spring {@link org.springframework.jmx.export.MBeanExporter}.
  *
  * @author Alan Stewart
  * @author Barry Pitman
@@ -71,12 +83,35 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
 
     private AuthScope authScope = AuthScope.ANY;
 
+    private long connectionEvictionInterval = 0;
+
+    private long maxIdleTime = -1;
+
+    private ScheduledExecutorService connectionEvictor;
+
     /**
      * Create a new instance of the {@code HttpClientMessageSender} with a default {@link HttpClient} that uses a
-     * default {@link PoolingClientConnectionManager}.
+     * default {@link PoolingClientConnectionManager}. Pooled connections live indefinitely; use {@link
+     * #HttpComponentsMessageSender(long)} to limit their time to live.
      */
     public HttpComponentsMessageSender() {
-        DefaultHttpClient defaultClient = new DefaultHttpClient(new PoolingClientConnectionManager());
+        this(-1);
+    }
+
+    /**
+     * Create a new instance of the {@code HttpClientMessageSender} with a default {@link HttpClient} that uses a
+     * {@link PoolingClientConnectionManager} with the given connection time to live. Connections that have outlived
+     * their time to live are not reused, so that changes in DNS or load balancer configuration are picked up.
+     *
+     * @param connectionTimeToLive the maximum time to live of pooled connections in milliseconds; a value of
+     *                             <code>0</code> or less means that connections live indefinitely
+     * @see PoolingClientConnectionManager#PoolingClientConnectionManager(org.apache.http.conn.scheme.SchemeRegistry,
+     *      long, TimeUnit)
+     */
+    public HttpComponentsMessageSender(long connectionTimeToLive) {
+        PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager(
+                SchemeRegistryFactory.createDefault(), connectionTimeToLive, TimeUnit.MILLISECONDS);
+        DefaultHttpClient defaultClient = new DefaultHttpClient(connectionManager);
         defaultClient.addRequestInterceptor(new RemoveSoapHeadersInterceptor(), 0);
 
         this.httpClient = defaultClient;
@@ -160,13 +195,7 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
         if (maxTotalConnections <= 0) {
             throw new IllegalArgumentException("maxTotalConnections must be a positive value");
         }
-        ClientConnectionManager connectionManager = getHttpClient().getConnectionManager();
-        if (!(connectionManager instanceof PoolingClientConnectionManager)) {
-            throw new IllegalArgumentException("maxTotalConnections is not supported on " +
-                    connectionManager.getClass().getName() + ". Use " + PoolingClientConnectionManager.class.getName() +
-                    " instead");
-        }
-        ((PoolingClientConnectionManager) connectionManager).setMaxTotal(maxTotalConnections);
+        getPoolingConnectionManager("maxTotalConnections").setMaxTotal(maxTotalConnections);
     }
 
     /**
@@ -185,14 +214,8 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
      * @see PoolingClientConnectionManager#setMaxPerRoute(HttpRoute, int)
      */
     public void setMaxConnectionsPerHost(Map<String, String> maxConnectionsPerHost) throws URISyntaxException {
-        ClientConnectionManager connectionManager = getHttpClient().getConnectionManager();
-        if (!(connectionManager instanceof PoolingClientConnectionManager)) {
-            throw new IllegalArgumentException("maxConnectionsPerHost is not supported on " +
-                    connectionManager.getClass().getName() + ". Use " + PoolingClientConnectionManager.class.getName() +
-                    " instead");
-        }
 	    PoolingClientConnectionManager poolingConnectionManager =
-			    (PoolingClientConnectionManager) connectionManager;
+			    getPoolingConnectionManager("maxConnectionsPerHost");
 
 	    for (Map.Entry<String, String> entry : maxConnectionsPerHost.entrySet()) {
             URI uri = new URI(entry.getKey());
@@ -205,6 +228,116 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
         }
     }
 
+    /**
+     * Sets the interval between two runs of the background thread that evicts expired and idle connections from the
+     * connection pool. Expired connections are those that have outlived their {@linkplain
+     * #HttpComponentsMessageSender(long) time to live}, or the keep-alive period indicated by the server. Default is
+     * <code>0</code>, meaning that no connections are evicted in the background.
+     *
+     * @param connectionEvictionInterval the eviction interval in milliseconds
+     * @see ClientConnectionManager#closeExpiredConnections()
+     * @see #setMaxIdleTime(long)
+     */
+    public void setConnectionEvictionInterval(long connectionEvictionInterval) {
+        if (connectionEvictionInterval < 0) {
+            throw new IllegalArgumentException("connectionEvictionInterval must be a non-negative value");
+        }
+        this.connectionEvictionInterval = connectionEvictionInterval;
+    }
+
+    /**
+     * Sets the time after which idle connections are evicted from the connection pool. Only used when the
+     * <code>connectionEvictionInterval</code> property has been set. Default is <code>-1</code>, meaning that only
+     * expired connections are evicted.
+     *
+     * @param maxIdleTime the maximum idle time in milliseconds
+     * @see ClientConnectionManager#closeIdleConnections(long, TimeUnit)
+     * @see #setConnectionEvictionInterval(long)
+     */
+    public void setMaxIdleTime(long maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    /**
+     * Returns the number of connections that are currently leased from the connection pool, i.e. in use by a request.
+     *
+     * @see PoolingClientConnectionManager#getTotalStats()
+     */
+    public int getLeasedConnectionCount() {
+        return getConnectionPoolStats().getLeased();
+    }
+
+    /**
+     * Returns the number of idle connections that are currently available in the connection pool.
+     *
+     * @see PoolingClientConnectionManager#getTotalStats()
+     */
+    public int getAvailableConnectionCount() {
+        return getConnectionPoolStats().getAvailable();
+    }
+
+    /**
+     * Returns the number of requests that are currently waiting for a connection from the connection pool. A number
+     * that stays above zero indicates that the pool is too small.
+     *
+     * @see PoolingClientConnectionManager#getTotalStats()
+     */
+    public int getPendingConnectionCount() {
+        return getConnectionPoolStats().getPending();
+    }
+
+    /**
+     * Returns the maximum number of connections allowed for the underlying HttpClient.
+     *
+     * @see #setMaxTotalConnections(int)
+     */
+    public int getMaxTotalConnections() {
+        return getPoolingConnectionManager("maxTotalConnections").getMaxTotal();
+    }
+
+    /**
+     * Returns the maximum number of connections allowed per host, for hosts that have not been configured explicitly.
+     *
+     * @see PoolingClientConnectionManager#getDefaultMaxPerRoute()
+     */
+    public int getDefaultMaxConnectionsPerHost() {
+        return getPoolingConnectionManager("defaultMaxConnectionsPerHost").getDefaultMaxPerRoute();
+    }
+
+    /**
+     * Returns the statistics of the connection pool, totalled over all hosts.
+     *
+     * @see PoolingClientConnectionManager#getTotalStats()
+     */
+    public PoolStats getConnectionPoolStats() {
+        return getPoolingConnectionManager("connectionPoolStats").getTotalStats();
+    }
+
+    /**
+     * Returns the statistics of the connection pool for the given host, including the maximum number of connections
+     * for that host. The host is specified as a URI (with scheme and port), as in {@link
+     * #setMaxConnectionsPerHost(Map)}.
+     *
+     * @param uri the URI of the host
+     * @see PoolingClientConnectionManager#getStats(HttpRoute)
+     */
+    public PoolStats getConnectionPoolStats(String uri) throws URISyntaxException {
+        PoolingClientConnectionManager poolingConnectionManager = getPoolingConnectionManager("connectionPoolStats");
+        URI hostUri = new URI(uri);
+        HttpHost host = new HttpHost(hostUri.getHost(), hostUri.getPort(), hostUri.getScheme());
+        return poolingConnectionManager.getStats(new HttpRoute(host));
+    }
+
+    private PoolingClientConnectionManager getPoolingConnectionManager(String propertyName) {
+        ClientConnectionManager connectionManager = getHttpClient().getConnectionManager();
+        if (!(connectionManager instanceof PoolingClientConnectionManager)) {
+            throw new IllegalArgumentException(propertyName + " is not supported on " +
+                    connectionManager.getClass().getName() + ". Use " + PoolingClientConnectionManager.class.getName() +
+                    " instead");
+        }
+        return (PoolingClientConnectionManager) connectionManager;
+    }
+
     /**
      * Sets the authentication scope to be used. Only used when the <code>credentials</code> property has been set.
      * <p/>
@@ -220,6 +353,18 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
         if (credentials != null && getHttpClient() instanceof DefaultHttpClient) {
             ((DefaultHttpClient) getHttpClient()).getCredentialsProvider().setCredentials(authScope, credentials);
         }
+        if (connectionEvictor != null) {
+            connectionEvictor.shutdownNow();
+            connectionEvictor = null;
+        }
+        if (connectionEvictionInterval > 0) {
+            CustomizableThreadFactory threadFactory =
+                    new CustomizableThreadFactory(getClass().getSimpleName() + "-evictor-");
+            threadFactory.setDaemon(true);
+            connectionEvictor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            connectionEvictor.scheduleWithFixedDelay(new ConnectionEvictor(), connectionEvictionInterval,
+                    connectionEvictionInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     public WebServiceConnection createConnection(URI uri) throws IOException {
@@ -229,7 +374,7 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
                     HttpTransportConstants.CONTENT_ENCODING_GZIP);
         }
         HttpContext httpContext = createContext(uri);
-        return new HttpComponentsConnection(getHttpClient(), httpPost, httpContext);
+        return configureRequestCompression(new HttpComponentsConnection(getHttpClient(), httpPost, httpContext));
     }
 
     /**
@@ -244,9 +389,34 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
     }
 
     public void destroy() throws Exception {
+        if (connectionEvictor != null) {
+            connectionEvictor.shutdownNow();
+        }
         getHttpClient().getConnectionManager().shutdown();
     }
 
+    /** Closes expired and idle connections. Run periodically when a connection eviction interval has been set. */
+    private class ConnectionEvictor implements Runnable {
+
+        public void run() {
+            try {
+                ClientConnectionManager connectionManager = getHttpClient().getConnectionManager();
+                connectionManager.closeExpiredConnections();
+                if (maxIdleTime >= 0) {
+                    connectionManager.closeIdleConnections(maxIdleTime, TimeUnit.MILLISECONDS);
+                }
+                if (logger.isDebugEnabled() && connectionManager instanceof PoolingClientConnectionManager) {
+                    logger.debug("Evicted connections; pool is now " +
+                            ((PoolingClientConnectionManager) connectionManager).getTotalStats());
+                }
+            }
+            catch (RuntimeException ex) {
+                // do not let the exception cancel further runs
+                logger.warn("Could not evict connections", ex);
+            }
+        }
+    }
+
     /**
      * HttpClient {@link org.apache.http.HttpRequestInterceptor} implementation that removes {@code Content-Length} and
      * {@code Transfer-Encoding} headers from the request. Necessary, because some SAAJ and other SOAP implementations set these
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,14 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Iterator;
+import java.util.zip.GZIPInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -29,6 +31,7 @@ import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.transport.AbstractReceiverConnection;
 import org.springframework.ws.transport.EndpointAwareWebServiceConnection;
 import org.springframework.ws.transport.FaultAwareWebServiceConnection;
+import org.springframework.ws.transport.TransportOutputStream;
 import org.springframework.ws.transport.WebServiceConnection;
 import org.springframework.ws.transport.support.EnumerationIterator;
 
@@ -47,6 +50,12 @@ public class HttpServletConnection extends AbstractReceiverConnection
 
     private boolean statusCodeSet = false;
 
+    private int responseCompressionThreshold = -1;
+
+    private long maxDecompressedRequestSize = -1;
+
+    private GzipTransportOutputStream gzipResponseOutputStream;
+
     /**
      * Constructs a new servlet connection with the given <code>HttpServletRequest</code> and
      * <code>HttpServletResponse</code>.
@@ -66,6 +75,23 @@ public class HttpServletConnection extends AbstractReceiverConnection
         return httpServletResponse;
     }
 
+    /**
+     * Sets the response size in bytes above which the response is compressed with GZIP, provided that the client
+     * accepts GZIP encoding. Default is <code>-1</code>, meaning that the response is never compressed.
+     */
+    public void setResponseCompressionThreshold(int responseCompressionThreshold) {
+        this.responseCompressionThreshold = responseCompressionThreshold;
+    }
+
+    /**
+     * Sets the maximum size in bytes of GZIP requests after decompression. Requests that inflate to a larger size are
+     * rejected with an {@link IOException}. Default is <code>-1</code>, meaning that GZIP requests are not
+     * decompressed.
+     */
+    public void setMaxDecompressedRequestSize(long maxDecompressedRequestSize) {
+        this.maxDecompressedRequestSize = maxDecompressedRequestSize;
+    }
+
     public void endpointNotFound() {
         getHttpServletResponse().setStatus(HttpTransportConstants.STATUS_NOT_FOUND);
         statusCodeSet = true;
@@ -111,13 +137,50 @@ public class HttpServletConnection extends AbstractReceiverConnection
 
     @Override
     protected InputStream getRequestInputStream() throws IOException {
-        return getHttpServletRequest().getInputStream();
+        InputStream inputStream = getHttpServletRequest().getInputStream();
+        if (maxDecompressedRequestSize >= 0 && isGzipRequest()) {
+            return new SizeLimitingInputStream(new GZIPInputStream(inputStream), maxDecompressedRequestSize);
+        }
+        return inputStream;
+    }
+
+    /** Determine whether the request is a GZIP request. */
+    private boolean isGzipRequest() {
+        String encodingHeader = getHttpServletRequest().getHeader(HttpTransportConstants.HEADER_CONTENT_ENCODING);
+        return encodingHeader != null &&
+                encodingHeader.toLowerCase().contains(HttpTransportConstants.CONTENT_ENCODING_GZIP);
     }
 
     /*
     * Sending response
     */
 
+    @Override
+    protected TransportOutputStream createTransportOutputStream() throws IOException {
+        TransportOutputStream responseOutputStream = super.createTransportOutputStream();
+        if (responseCompressionThreshold < 0 || !isGzipAccepted()) {
+            return responseOutputStream;
+        }
+        if (gzipResponseOutputStream == null) {
+            gzipResponseOutputStream =
+                    new GzipTransportOutputStream(responseOutputStream, responseCompressionThreshold);
+        }
+        return gzipResponseOutputStream;
+    }
+
+    /** Determine whether the client accepts GZIP encoded responses. */
+    @SuppressWarnings("unchecked")
+    private boolean isGzipAccepted() {
+        Iterator<String> iterator = new EnumerationIterator(
+                getHttpServletRequest().getHeaders(HttpTransportConstants.HEADER_ACCEPT_ENCODING));
+        while (iterator.hasNext()) {
+            if (iterator.next().toLowerCase().contains(HttpTransportConstants.CONTENT_ENCODING_GZIP)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected void addResponseHeader(String name, String value) throws IOException {
         getHttpServletResponse().addHeader(name, value);
@@ -157,4 +220,50 @@ public class HttpServletConnection extends AbstractReceiverConnection
         }
         statusCodeSet = true;
     }
+
+    /** Input stream that fails when more than a maximum number of bytes is read, to guard against GZIP bombs. */
+    private static class SizeLimitingInputStream extends FilterInputStream {
+
+        private final long maxSize;
+
+        private long size;
+
+        private SizeLimitingInputStream(InputStream in, long maxSize) {
+            super(in);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int result = super.read(b, off, len);
+            if (result > 0) {
+                count(result);
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long result = super.skip(n);
+            count(result);
+            return result;
+        }
+
+        private void count(long bytes) throws IOException {
+            size += bytes;
+            if (size > maxSize) {
+                throw new IOException("Decompressed request exceeds maximum size of " + maxSize + " bytes");
+            }
+        }
+    }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006 the original author or authors.
+ * Copyright 2006-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,7 +47,7 @@ public class HttpUrlConnectionMessageSender extends AbstractHttpWebServiceMessag
         else {
             HttpURLConnection httpURLConnection = (HttpURLConnection) connection;
             prepareConnection(httpURLConnection);
-            return new HttpUrlConnection(httpURLConnection);
+            return configureRequestCompression(new HttpUrlConnection(httpURLConnection));
         }
     }
 
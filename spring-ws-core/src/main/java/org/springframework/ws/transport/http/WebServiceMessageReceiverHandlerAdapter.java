@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,7 +22,6 @@ import javax.servlet.http.HttpServletResponse;
 import org.springframework.web.servlet.HandlerAdapter;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.ws.InvalidXmlException;
-import org.springframework.ws.transport.WebServiceConnection;
 import org.springframework.ws.transport.WebServiceMessageReceiver;
 import org.springframework.ws.transport.support.WebServiceMessageReceiverObjectSupport;
 
@@ -46,6 +45,66 @@ import org.springframework.ws.transport.support.WebServiceMessageReceiverObjectS
 public class WebServiceMessageReceiverHandlerAdapter extends WebServiceMessageReceiverObjectSupport
         implements HandlerAdapter {
 
+    /** The default response size in bytes above which responses are compressed. */
+    public static final int DEFAULT_RESPONSE_COMPRESSION_THRESHOLD = 1024;
+
+    /** The default maximum size in bytes of GZIP requests after decompression. */
+    public static final long DEFAULT_MAX_DECOMPRESSED_REQUEST_SIZE = 10 * 1024 * 1024;
+
+    private boolean compressResponses = false;
+
+    private int responseCompressionThreshold = DEFAULT_RESPONSE_COMPRESSION_THRESHOLD;
+
+    private boolean decompressRequests = false;
+
+    private long maxDecompressedRequestSize = DEFAULT_MAX_DECOMPRESSED_REQUEST_SIZE;
+
+    /**
+     * Set whether to compress responses with GZIP, for clients that send the HTTP <code>Accept-Encoding</code> header
+     * with <code>gzip</code> as value. Responses are compressed while they are written, and only when they exceed the
+     * {@linkplain #setResponseCompressionThreshold(int) compression threshold}.
+     * <p/>
+     * Default is <code>false</code>. Compressed requests are accepted independently of this setting, see {@link
+     * #setDecompressRequests(boolean)}.
+     */
+    public void setCompressResponses(boolean compressResponses) {
+        this.compressResponses = compressResponses;
+    }
+
+    /**
+     * Set the response size in bytes above which responses are compressed, if {@linkplain
+     * #setCompressResponses(boolean) enabled}. Default is {@value #DEFAULT_RESPONSE_COMPRESSION_THRESHOLD}.
+     */
+    public void setResponseCompressionThreshold(int responseCompressionThreshold) {
+        if (responseCompressionThreshold < 0) {
+            throw new IllegalArgumentException("responseCompressionThreshold must not be negative");
+        }
+        this.responseCompressionThreshold = responseCompressionThreshold;
+    }
+
+    /**
+     * Set whether to decompress requests that are sent with the HTTP <code>Content-Encoding</code> header set to
+     * <code>gzip</code>. Decompressed requests may not exceed the {@linkplain #setMaxDecompressedRequestSize(long)
+     * maximum size}.
+     * <p/>
+     * Default is <code>false</code>, as a small compressed request can inflate to a very large one.
+     */
+    public void setDecompressRequests(boolean decompressRequests) {
+        this.decompressRequests = decompressRequests;
+    }
+
+    /**
+     * Set the maximum size in bytes of GZIP requests after decompression, if {@linkplain
+     * #setDecompressRequests(boolean) enabled}. Larger requests are rejected. Default is {@value
+     * #DEFAULT_MAX_DECOMPRESSED_REQUEST_SIZE}.
+     */
+    public void setMaxDecompressedRequestSize(long maxDecompressedRequestSize) {
+        if (maxDecompressedRequestSize < 0) {
+            throw new IllegalArgumentException("maxDecompressedRequestSize must not be negative");
+        }
+        this.maxDecompressedRequestSize = maxDecompressedRequestSize;
+    }
+
     public long getLastModified(HttpServletRequest request, Object handler) {
         return -1L;
     }
@@ -54,7 +113,13 @@ public class WebServiceMessageReceiverHandlerAdapter extends WebServiceMessageRe
                                HttpServletResponse httpServletResponse,
                                Object handler) throws Exception {
         if (HttpTransportConstants.METHOD_POST.equals(httpServletRequest.getMethod())) {
-            WebServiceConnection connection = new HttpServletConnection(httpServletRequest, httpServletResponse);
+            HttpServletConnection connection = new HttpServletConnection(httpServletRequest, httpServletResponse);
+            if (compressResponses) {
+                connection.setResponseCompressionThreshold(responseCompressionThreshold);
+            }
+            if (decompressRequests) {
+                connection.setMaxDecompressedRequestSize(maxDecompressedRequestSize);
+            }
             try {
                 handleConnection(connection, (WebServiceMessageReceiver) handler);
             }
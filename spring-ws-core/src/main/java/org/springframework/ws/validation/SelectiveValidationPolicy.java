@@ -0,0 +1,284 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.validation;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import javax.xml.namespace.QName;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.support.PayloadRootUtils;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.HttpServletConnection;
+import org.springframework.xml.transform.TransformerHelper;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * {@link ValidationPolicy} that relaxes validation for messages from trusted sources, and always validates the rest.
+ * <p/>
+ * A source is trusted if its {@linkplain #setTrustedAddresses(String[]) remote address} or its {@linkplain
+ * #setTrustedPrincipals(String[]) authenticated principal} is configured as such. Both are taken from the current
+ * {@link TransportContext}, never from the message itself. If no trusted sources are configured, all messages are
+ * validated.
+ * <p/>
+ * Messages from trusted sources can be further narrowed down by {@linkplain #setSoapActions(String[]) SOAP action}
+ * or by {@linkplain #setPayloadRoots(QName[]) payload root element}; if neither is set, all messages from trusted
+ * sources are selected. Selected messages are validated for the {@linkplain #setSampleRate(double) sampled}
+ * fraction only. When a {@linkplain #setMaxContentLength(long) maximum content length} is set, selected messages
+ * that exceed it, or whose content length is unknown, are always validated.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public class SelectiveValidationPolicy implements ValidationPolicy {
+
+    private static final boolean servletPresent = ClassUtils.isPresent("javax.servlet.http.HttpServletRequest",
+            SelectiveValidationPolicy.class.getClassLoader());
+
+    /** Logger available to subclasses. */
+    protected final Log logger = LogFactory.getLog(getClass());
+
+    private final Random random = new Random();
+
+    private final TransformerHelper transformerHelper = new TransformerHelper();
+
+    private Set<String> trustedAddresses = Collections.emptySet();
+
+    private Set<String> trustedPrincipals = Collections.emptySet();
+
+    private Set<String> soapActions = Collections.emptySet();
+
+    private Set<QName> payloadRoots = Collections.emptySet();
+
+    private double sampleRate = 1.0D;
+
+    private long maxContentLength = -1;
+
+    /**
+     * Sets the remote addresses of the trusted sources. For requests received over the servlet transport, these are
+     * matched against the {@linkplain javax.servlet.http.HttpServletRequest#getRemoteAddr() client address}; for
+     * other connections, against the host of the {@linkplain WebServiceConnection#getUri() connection URI}.
+     *
+     * @param trustedAddresses the trusted remote addresses
+     */
+    public void setTrustedAddresses(String[] trustedAddresses) {
+        Assert.notNull(trustedAddresses, "'trustedAddresses' must not be null");
+        this.trustedAddresses = new HashSet<String>(Arrays.asList(trustedAddresses));
+    }
+
+    /**
+     * Sets the names of the trusted principals. These are matched against the {@linkplain
+     * javax.servlet.http.HttpServletRequest#getUserPrincipal() authenticated user} of requests received over the
+     * servlet transport.
+     *
+     * @param trustedPrincipals the trusted principal names
+     */
+    public void setTrustedPrincipals(String[] trustedPrincipals) {
+        Assert.notNull(trustedPrincipals, "'trustedPrincipals' must not be null");
+        this.trustedPrincipals = new HashSet<String>(Arrays.asList(trustedPrincipals));
+    }
+
+    /**
+     * Sets the SOAP actions of the messages for which validation is relaxed. Surrounding quotes are ignored.
+     *
+     * @param soapActions the SOAP actions
+     */
+    public void setSoapActions(String[] soapActions) {
+        Assert.notNull(soapActions, "'soapActions' must not be null");
+        this.soapActions = new HashSet<String>(Arrays.asList(soapActions));
+    }
+
+    /**
+     * Sets the qualified names of the payload root elements of the messages for which validation is relaxed.
+     *
+     * @param payloadRoots the payload root names
+     */
+    public void setPayloadRoots(QName[] payloadRoots) {
+        Assert.notNull(payloadRoots, "'payloadRoots' must not be null");
+        this.payloadRoots = new HashSet<QName>(Arrays.asList(payloadRoots));
+    }
+
+    /**
+     * Sets the fraction of the selected messages that is validated, between {@code 0.0} (none) and {@code 1.0} (all).
+     * Defaults to {@code 1.0}.
+     *
+     * @param sampleRate the sample rate
+     */
+    public void setSampleRate(double sampleRate) {
+        Assert.isTrue(sampleRate >= 0.0D && sampleRate <= 1.0D, "'sampleRate' must be between 0.0 and 1.0");
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Sets the maximum content length, in bytes, of selected messages for which validation is relaxed. Larger
+     * messages, and messages of unknown length, are always validated. Defaults to {@code -1}, meaning that the content
+     * length is not taken into account.
+     *
+     * @param maxContentLength the maximum content length
+     */
+    public void setMaxContentLength(long maxContentLength) {
+        this.maxContentLength = maxContentLength;
+    }
+
+    public boolean shouldValidate(MessageContext messageContext, WebServiceMessage message) {
+        if (!isTrusted(messageContext) || !isSelected(message)) {
+            return true;
+        }
+        if (maxContentLength >= 0) {
+            long contentLength = getContentLength(messageContext, message);
+            if (contentLength < 0 || contentLength > maxContentLength) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Content length [" + contentLength + "] unknown or exceeds maximum [" +
+                            maxContentLength + "]");
+                }
+                return true;
+            }
+        }
+        if (sampleRate >= 1.0D) {
+            return true;
+        }
+        return sampleRate > 0.0D && random.nextDouble() < sampleRate;
+    }
+
+    /**
+     * Indicates whether the message is received from, or sent to, a trusted source. Default implementation checks the
+     * remote address and principal of the connection in the current {@link TransportContext}.
+     *
+     * @param messageContext the message context
+     * @return {@code true} if the source is trusted; {@code false} if its messages should always be validated
+     */
+    protected boolean isTrusted(MessageContext messageContext) {
+        if (trustedAddresses.isEmpty() && trustedPrincipals.isEmpty()) {
+            return false;
+        }
+        TransportContext transportContext = TransportContextHolder.getTransportContext();
+        if (transportContext == null) {
+            return false;
+        }
+        WebServiceConnection connection = transportContext.getConnection();
+        if (servletPresent && ServletConnectionHelper.isServletConnection(connection)) {
+            if (trustedAddresses.contains(ServletConnectionHelper.getRemoteAddress(connection))) {
+                return true;
+            }
+            Principal principal = ServletConnectionHelper.getUserPrincipal(connection);
+            return principal != null && trustedPrincipals.contains(principal.getName());
+        }
+        else if (connection != null) {
+            try {
+                URI uri = connection.getUri();
+                return uri != null && trustedAddresses.contains(uri.getHost());
+            }
+            catch (URISyntaxException ex) {
+                logger.warn("Could not determine connection URI: " + ex.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indicates whether validation is relaxed for the given message, based on its SOAP action and payload root.
+     *
+     * @param message the message
+     * @return {@code true} if the message is selected; {@code false} if it should always be validated
+     */
+    protected boolean isSelected(WebServiceMessage message) {
+        if (soapActions.isEmpty() && payloadRoots.isEmpty()) {
+            return true;
+        }
+        if (!soapActions.isEmpty() && message instanceof SoapMessage) {
+            String soapAction = ((SoapMessage) message).getSoapAction();
+            if (StringUtils.hasLength(soapAction) && soapAction.charAt(0) == '"' &&
+                    soapAction.charAt(soapAction.length() - 1) == '"') {
+                soapAction = soapAction.substring(1, soapAction.length() - 1);
+            }
+            if (soapActions.contains(soapAction)) {
+                return true;
+            }
+        }
+        if (!payloadRoots.isEmpty()) {
+            Source payloadSource = message.getPayloadSource();
+            if (payloadSource != null) {
+                try {
+                    QName payloadRoot = PayloadRootUtils.getPayloadRootQName(payloadSource, transformerHelper);
+                    return payloadRoots.contains(payloadRoot);
+                }
+                catch (TransformerException ex) {
+                    logger.warn("Could not determine payload root: " + ex.getMessage());
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the content length of the given message, in bytes. Default implementation returns the content length of
+     * requests received over a {@link org.springframework.ws.transport.http.HttpServletConnection}, and {@code -1}
+     * for all other messages.
+     *
+     * @param messageContext the message context
+     * @param message        the message
+     * @return the content length, or {@code -1} if not known
+     */
+    protected long getContentLength(MessageContext messageContext, WebServiceMessage message) {
+        TransportContext transportContext = TransportContextHolder.getTransportContext();
+        if (transportContext != null && message == messageContext.getRequest()) {
+            WebServiceConnection connection = transportContext.getConnection();
+            if (servletPresent && ServletConnectionHelper.isServletConnection(connection)) {
+                return ServletConnectionHelper.getContentLength(connection);
+            }
+        }
+        return -1;
+    }
+
+    /** Inner class to avoid a hard dependency on the Servlet API. */
+    private static class ServletConnectionHelper {
+
+        private static boolean isServletConnection(WebServiceConnection connection) {
+            return connection instanceof HttpServletConnection;
+        }
+
+        private static String getRemoteAddress(WebServiceConnection connection) {
+            return ((HttpServletConnection) connection).getHttpServletRequest().getRemoteAddr();
+        }
+
+        private static Principal getUserPrincipal(WebServiceConnection connection) {
+            return ((HttpServletConnection) connection).getHttpServletRequest().getUserPrincipal();
+        }
+
+        private static long getContentLength(WebServiceConnection connection) {
+            return ((HttpServletConnection) connection).getHttpServletRequest().getContentLength();
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.validation;
+
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.MessageContext;
+
+/**
+ * Strategy interface that decides whether a message should be validated by a validating interceptor.
+ * <p/>
+ * Used by both the {@linkplain org.springframework.ws.server.endpoint.interceptor.AbstractValidatingInterceptor
+ * server-side} and the {@linkplain org.springframework.ws.client.support.interceptor.AbstractValidatingInterceptor
+ * client-side} validating interceptors. Implementations should be thread-safe.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public interface ValidationPolicy {
+
+    /**
+     * Indicates whether the given message should be validated.
+     *
+     * @param messageContext the message context
+     * @param message        the message to be validated, either the request or the response of the context
+     * @return {@code true} if the message should be validated; {@code false} if validation should be skipped
+     */
+    boolean shouldValidate(MessageContext messageContext, WebServiceMessage message);
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.ws.MockWebServiceMessage;
+import org.springframework.ws.MockWebServiceMessageFactory;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.client.WebServiceIOException;
+import org.springframework.ws.transport.AsyncWebServiceConnection;
+import org.springframework.ws.transport.FaultAwareWebServiceConnection;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.WebServiceMessageSender;
+
+import org.easymock.Capture;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+public class AsyncWebServiceTemplateTest {
+
+    private AsyncWebServiceTemplate template;
+
+    private WebServiceConnection connectionMock;
+
+    private MockWebServiceMessageFactory messageFactory;
+
+    private URI expectedUri;
+
+    @Before
+    public void setUp() throws Exception {
+        messageFactory = new MockWebServiceMessageFactory();
+        template = new AsyncWebServiceTemplate(messageFactory);
+        template.setTaskExecutor(new SyncTaskExecutor());
+        expectedUri = new URI("http://www.springframework.org/spring-ws");
+        template.setMessageSender(new WebServiceMessageSender() {
+
+            public WebServiceConnection createConnection(URI uri) throws IOException {
+                return connectionMock;
+            }
+
+            public boolean supports(URI uri) {
+                assertEquals("Invalid uri", expectedUri, uri);
+                return true;
+            }
+        });
+        template.setDefaultUri(expectedUri.toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSendAndReceiveAsync() throws Exception {
+        FaultAwareWebServiceConnection connection = createMock(FaultAwareWebServiceConnection.class);
+        connectionMock = connection;
+        WebServiceMessageExtractor<Object> extractorMock = createMock(WebServiceMessageExtractor.class);
+        Object extracted = new Object();
+        expect(extractorMock.extractData(isA(WebServiceMessage.class))).andReturn(extracted);
+        WebServiceResultCallback<Object> resultCallbackMock = createMock(WebServiceResultCallback.class);
+        resultCallbackMock.onSuccess(extracted);
+
+        expect(connection.getUri()).andReturn(expectedUri).anyTimes();
+        connection.send(isA(WebServiceMessage.class));
+        expect(connection.hasError()).andReturn(false);
+        expect(connection.receive(messageFactory)).andReturn(new MockWebServiceMessage("<response/>"));
+        expect(connection.hasFault()).andReturn(false);
+        connection.close();
+
+        replay(connection, extractorMock, resultCallbackMock);
+
+        Future<Object> future =
+                template.sendAndReceiveAsync(expectedUri.toString(), null, extractorMock, resultCallbackMock);
+        assertTrue("Future not done", future.isDone());
+        assertEquals("Invalid response", extracted, future.get());
+
+        verify(connection, extractorMock, resultCallbackMock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSendAndReceiveAsyncConnection() throws Exception {
+        AsyncWebServiceConnection connection = createMock(AsyncWebServiceConnection.class);
+        connectionMock = connection;
+        WebServiceMessageExtractor<Object> extractorMock = createMock(WebServiceMessageExtractor.class);
+        Object extracted = new Object();
+        expect(extractorMock.extractData(isA(WebServiceMessage.class))).andReturn(extracted);
+
+        Capture<Runnable> completionCallback = new Capture<Runnable>();
+        expect(connection.getUri()).andReturn(expectedUri).anyTimes();
+        connection.send(isA(WebServiceMessage.class));
+        connection.addCompletionCallback(capture(completionCallback));
+        expect(connection.hasError()).andReturn(false);
+        expect(connection.receive(messageFactory)).andReturn(new MockWebServiceMessage("<response/>"));
+        connection.close();
+
+        replay(connection, extractorMock);
+
+        Future<Object> future = template.sendAndReceiveAsync(null, extractorMock);
+        assertFalse("Future done before completion", future.isDone());
+
+        completionCallback.getValue().run();
+        assertTrue("Future not done after completion", future.isDone());
+        assertEquals("Invalid response", extracted, future.get());
+
+        verify(connection, extractorMock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSendAndReceiveAsyncError() throws Exception {
+        AsyncWebServiceConnection connection = createMock(AsyncWebServiceConnection.class);
+        connectionMock = connection;
+        WebServiceMessageExtractor<Object> extractorMock = createMock(WebServiceMessageExtractor.class);
+        WebServiceResultCallback<Object> resultCallbackMock = createMock(WebServiceResultCallback.class);
+        resultCallbackMock.onFailure(isA(WebServiceIOException.class));
+
+        Capture<Runnable> completionCallback = new Capture<Runnable>();
+        expect(connection.getUri()).andReturn(expectedUri).anyTimes();
+        connection.send(isA(WebServiceMessage.class));
+        connection.addCompletionCallback(capture(completionCallback));
+        expect(connection.hasError()).andThrow(new IOException("Connection reset"));
+        connection.close();
+
+        replay(connection, extractorMock, resultCallbackMock);
+
+        Future<Object> future =
+                template.sendAndReceiveAsync(expectedUri.toString(), null, extractorMock, resultCallbackMock);
+        completionCallback.getValue().run();
+        try {
+            future.get();
+            fail("ExecutionException expected");
+        }
+        catch (ExecutionException ex) {
+            assertTrue("Invalid cause", ex.getCause() instanceof WebServiceIOException);
+        }
+
+        verify(connection, extractorMock, resultCallbackMock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCancel() throws Exception {
+        AsyncWebServiceConnection connection = createMock(AsyncWebServiceConnection.class);
+        connectionMock = connection;
+        WebServiceMessageExtractor<Object> extractorMock = createMock(WebServiceMessageExtractor.class);
+
+        Capture<Runnable> completionCallback = new Capture<Runnable>();
+        expect(connection.getUri()).andReturn(expectedUri).anyTimes();
+        connection.send(isA(WebServiceMessage.class));
+        connection.addCompletionCallback(capture(completionCallback));
+        connection.close();
+
+        replay(connection, extractorMock);
+
+        Future<Object> future = template.sendAndReceiveAsync(null, extractorMock);
+        assertTrue("Future not cancelled", future.cancel(true));
+        completionCallback.getValue().run();
+        assertTrue("Future not cancelled", future.isCancelled());
+
+        verify(connection, extractorMock);
+    }
+
+    @Test
+    public void testDefaultTaskExecutor() throws Exception {
+        AsyncWebServiceTemplate defaultTemplate = new AsyncWebServiceTemplate(messageFactory);
+        TaskExecutor taskExecutor = defaultTemplate.getTaskExecutor();
+        assertTrue("Default task executor is no thread pool", taskExecutor instanceof ThreadPoolTaskExecutor);
+        ThreadPoolTaskExecutor threadPool = (ThreadPoolTaskExecutor) taskExecutor;
+        assertEquals("Invalid max pool size", AsyncWebServiceTemplate.DEFAULT_MAX_POOL_SIZE,
+                threadPool.getMaxPoolSize());
+        assertEquals("Invalid queue capacity", AsyncWebServiceTemplate.DEFAULT_QUEUE_CAPACITY,
+                threadPool.getThreadPoolExecutor().getQueue().remainingCapacity());
+        assertTrue("Threads are no daemon threads", threadPool.isDaemon());
+
+        defaultTemplate.destroy();
+        assertTrue("Default task executor not shut down", threadPool.getThreadPoolExecutor().isShutdown());
+    }
+
+    @Test
+    public void testSetTaskExecutorShutsDownDefault() throws Exception {
+        AsyncWebServiceTemplate defaultTemplate = new AsyncWebServiceTemplate(messageFactory);
+        ThreadPoolTaskExecutor threadPool = (ThreadPoolTaskExecutor) defaultTemplate.getTaskExecutor();
+        SyncTaskExecutor taskExecutor = new SyncTaskExecutor();
+        defaultTemplate.setTaskExecutor(taskExecutor);
+
+        assertTrue("Default task executor not shut down", threadPool.getThreadPoolExecutor().isShutdown());
+        assertSame("Task executor not set", taskExecutor, defaultTemplate.getTaskExecutor());
+    }
+
+    @Test
+    public void testSendFailure() throws Exception {
+        AsyncWebServiceConnection connection = createMock(AsyncWebServiceConnection.class);
+        connectionMock = connection;
+
+        expect(connection.getUri()).andReturn(expectedUri).anyTimes();
+        connection.send(isA(WebServiceMessage.class));
+        expectLastCall().andThrow(new IOException("Connection refused"));
+        connection.close();
+
+        replay(connection);
+
+        try {
+            template.sendAndReceiveAsync(null, new WebServiceMessageExtractor<Object>() {
+
+                public Object extractData(WebServiceMessage message) throws IOException {
+                    return null;
+                }
+            });
+            fail("WebServiceIOException expected");
+        }
+        catch (WebServiceIOException ex) {
+            // expected behavior
+        }
+
+        verify(connection);
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.ws.client.support.interceptor;
 
 import java.io.InputStream;
+import java.net.URI;
 import javax.xml.XMLConstants;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.SOAPConstants;
@@ -36,12 +37,18 @@ import org.springframework.ws.soap.SoapMessage;
 import org.springframework.ws.soap.saaj.SaajSoapMessage;
 import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
 import org.springframework.ws.soap.saaj.support.SaajUtils;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.validation.SelectiveValidationPolicy;
 import org.springframework.xml.xsd.SimpleXsdSchema;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.easymock.EasyMock.*;
+
 public class PayloadValidatingInterceptorTest {
 
     private PayloadValidatingInterceptor interceptor;
@@ -260,4 +267,28 @@ public class PayloadValidatingInterceptorTest {
         Assert.assertTrue("Invalid response from interceptor", result);
         Assert.assertFalse("Response set", context.hasResponse());
     }
+
+    @Test
+    public void testValidationPolicy() throws Exception {
+        SelectiveValidationPolicy validationPolicy = new SelectiveValidationPolicy();
+        validationPolicy.setSampleRate(0.0D);
+        validationPolicy.setTrustedAddresses(new String[]{"localhost"});
+        interceptor.setValidationPolicy(validationPolicy);
+        WebServiceConnection connection = createMock(WebServiceConnection.class);
+        expect(connection.getUri()).andReturn(new URI("http://localhost/services")).anyTimes();
+        replay(connection);
+        TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+        try {
+            MockWebServiceMessage request = new MockWebServiceMessage();
+            request.setPayload(new ClassPathResource(INVALID_MESSAGE, getClass()));
+            context = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+            boolean result = interceptor.handleRequest(context);
+            Assert.assertTrue("Invalid response from interceptor", result);
+            Assert.assertEquals("Invalid skipped count", 1, interceptor.getSkippedMessageCount());
+            Assert.assertEquals("Invalid validated count", 0, interceptor.getValidatedMessageCount());
+        }
+        finally {
+            TransportContextHolder.setTransportContext(null);
+        }
+    }
 }
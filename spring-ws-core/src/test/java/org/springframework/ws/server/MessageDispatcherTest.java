@@ -418,4 +418,68 @@ public class MessageDispatcherTest {
         dispatcher.setApplicationContext(applicationContext);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testDispatchCaching() throws Exception {
+        EndpointMapping mappingMock = createMock(EndpointMapping.class);
+        dispatcher.setEndpointMappings(Collections.singletonList(mappingMock));
+        EndpointAdapter adapterMock = createMock(EndpointAdapter.class);
+        dispatcher.setEndpointAdapters(Collections.singletonList(adapterMock));
+        dispatcher.setDispatchCaching(true);
+
+        Object endpoint = new Object();
+        MessageContext messageContext1 = new DefaultMessageContext(
+                new MockWebServiceMessage("<root xmlns='http://springframework.org'/>"), factoryMock);
+        MessageContext messageContext2 = new DefaultMessageContext(
+                new MockWebServiceMessage("<root xmlns='http://springframework.org'/>"), factoryMock);
+        MessageContext messageContext3 = new DefaultMessageContext(
+                new MockWebServiceMessage("<other xmlns='http://springframework.org'/>"), factoryMock);
+
+        expect(mappingMock.getEndpoint(messageContext1)).andReturn(new EndpointInvocationChain(endpoint));
+        expect(mappingMock.getEndpoint(messageContext3)).andReturn(new EndpointInvocationChain(endpoint));
+        expect(adapterMock.supports(endpoint)).andReturn(true).times(2);
+        adapterMock.invoke(isA(MessageContext.class), eq(endpoint));
+        expectLastCall().times(3);
+
+        replay(mappingMock, adapterMock, factoryMock);
+
+        dispatcher.dispatch(messageContext1);
+        dispatcher.dispatch(messageContext2);
+        dispatcher.dispatch(messageContext3);
+
+        verify(mappingMock, adapterMock, factoryMock);
+    }
+
+    @Test
+    public void testDispatchCacheEviction() throws Exception {
+        EndpointMapping mappingMock = createMock(EndpointMapping.class);
+        dispatcher.setEndpointMappings(Collections.singletonList(mappingMock));
+        EndpointAdapter adapterMock = createMock(EndpointAdapter.class);
+        dispatcher.setEndpointAdapters(Collections.singletonList(adapterMock));
+        dispatcher.setDispatchCaching(true);
+        dispatcher.setDispatchCacheLimit(1);
+
+        Object endpoint = new Object();
+        MessageContext messageContext1 = new DefaultMessageContext(
+                new MockWebServiceMessage("<other xmlns='http://springframework.org'/>"), factoryMock);
+        MessageContext messageContext2 = new DefaultMessageContext(
+                new MockWebServiceMessage("<root xmlns='http://springframework.org'/>"), factoryMock);
+        MessageContext messageContext3 = new DefaultMessageContext(
+                new MockWebServiceMessage("<root xmlns='http://springframework.org'/>"), factoryMock);
+
+        expect(mappingMock.getEndpoint(messageContext1)).andReturn(new EndpointInvocationChain(endpoint));
+        expect(mappingMock.getEndpoint(messageContext2)).andReturn(new EndpointInvocationChain(endpoint));
+        expect(adapterMock.supports(endpoint)).andReturn(true).times(2);
+        adapterMock.invoke(isA(MessageContext.class), eq(endpoint));
+        expectLastCall().times(3);
+
+        replay(mappingMock, adapterMock, factoryMock);
+
+        dispatcher.dispatch(messageContext1);
+        // clears the cache when it is full, so that the entry of this request is cached
+        dispatcher.dispatch(messageContext2);
+        dispatcher.dispatch(messageContext3);
+
+        verify(mappingMock, adapterMock, factoryMock);
+    }
+
+}
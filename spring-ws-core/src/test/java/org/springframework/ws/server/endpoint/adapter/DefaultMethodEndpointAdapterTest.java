@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.ws.server.endpoint.adapter;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -28,6 +29,7 @@ import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.MethodEndpoint;
 import org.springframework.ws.server.endpoint.adapter.method.MethodArgumentResolver;
 import org.springframework.ws.server.endpoint.adapter.method.MethodReturnValueHandler;
+import org.springframework.ws.server.endpoint.support.PayloadValidationCallback;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -77,6 +79,22 @@ public class DefaultMethodEndpointAdapterTest {
         assertFalse("No default MethodReturnValueHandlers loaded", adapter.getMethodReturnValueHandlers().isEmpty());
     }
 
+    @Test
+    public void supportsAfterArgumentResolverAdded() throws Exception {
+        adapter.setMethodArgumentResolvers(new ArrayList<MethodArgumentResolver>(Arrays.asList(argumentResolver1)));
+        expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(false).times(2);
+        expect(argumentResolver2.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+        expect(returnValueHandler.supportsReturnType(isA(MethodParameter.class))).andReturn(true);
+
+        replay(argumentResolver1, argumentResolver2, returnValueHandler);
+
+        assertFalse("adapter supports method", adapter.supports(unsupportedEndpoint));
+        adapter.getMethodArgumentResolvers().add(argumentResolver2);
+        assertTrue("adapter does not support method after resolver added", adapter.supports(unsupportedEndpoint));
+
+        verify(argumentResolver1, argumentResolver2, returnValueHandler);
+    }
+
     @Test
     public void supportsSupported() throws Exception {
         expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true);
@@ -155,7 +173,7 @@ public class DefaultMethodEndpointAdapterTest {
 
         expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true);
         expect(argumentResolver1.resolveArgument(eq(messageContext), isA(MethodParameter.class))).andReturn(value);
-
+        expect(returnValueHandler.supportsReturnType(isA(MethodParameter.class))).andReturn(true);
 
         replay(argumentResolver1, argumentResolver2, returnValueHandler);
 
@@ -171,6 +189,61 @@ public class DefaultMethodEndpointAdapterTest {
         verify(argumentResolver1, argumentResolver2, returnValueHandler);
     }
 
+    @Test
+    public void invokeUnconsumedValidationCallback() throws Exception {
+        MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'/>");
+        MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+        PayloadValidationCallback validationCallback = createMock(PayloadValidationCallback.class);
+        messageContext.setProperty(PayloadValidationCallback.PROPERTY_NAME, validationCallback);
+
+        expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+        expect(argumentResolver1.resolveArgument(eq(messageContext), isA(MethodParameter.class))).andReturn("Foo");
+        expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(false);
+        expect(argumentResolver2.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+        expect(argumentResolver2.resolveArgument(eq(messageContext), isA(MethodParameter.class)))
+                .andReturn(new Integer(42));
+        expect(returnValueHandler.supportsReturnType(isA(MethodParameter.class))).andReturn(true);
+        expect(validationCallback.validate(messageContext)).andReturn(false);
+
+        replay(argumentResolver1, argumentResolver2, returnValueHandler, validationCallback);
+
+        adapter.invoke(messageContext, supportedEndpoint);
+        assertNull("Endpoint invoked with invalid payload", supportedArgument);
+        assertFalse("Callback not removed", messageContext.containsProperty(PayloadValidationCallback.PROPERTY_NAME));
+
+        verify(argumentResolver1, argumentResolver2, returnValueHandler, validationCallback);
+    }
+
+    @Test
+    public void invokeSupportedTwice() throws Exception {
+        MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'/>");
+        MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+        String value = "Foo";
+
+        // resolvers and handler are only looked up once
+        expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+        expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(false);
+        expect(argumentResolver2.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+        expect(returnValueHandler.supportsReturnType(isA(MethodParameter.class))).andReturn(true);
+
+        expect(argumentResolver1.resolveArgument(eq(messageContext), isA(MethodParameter.class))).andReturn(value)
+                .times(2);
+        expect(argumentResolver2.resolveArgument(eq(messageContext), isA(MethodParameter.class)))
+                .andReturn(new Integer(42)).times(2);
+        returnValueHandler.handleReturnValue(eq(messageContext), isA(MethodParameter.class), eq(value));
+        expectLastCall().times(2);
+
+        replay(argumentResolver1, argumentResolver2, returnValueHandler);
+
+        assertTrue("adapter does not support method", adapter.supports(supportedEndpoint));
+        adapter.invoke(messageContext, supportedEndpoint);
+        assertTrue("adapter does not support method", adapter.supports(supportedEndpoint));
+        adapter.invoke(messageContext, supportedEndpoint);
+
+        verify(argumentResolver1, argumentResolver2, returnValueHandler);
+    }
+
     public String supported(String s, Integer i) {
         supportedArgument = s;
         return s;
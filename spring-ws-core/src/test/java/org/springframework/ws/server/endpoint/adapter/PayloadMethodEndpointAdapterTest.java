@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,11 +26,14 @@ import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.DefaultMessageContext;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.MethodEndpoint;
+import org.springframework.ws.server.endpoint.support.PayloadValidationCallback;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.easymock.EasyMock.*;
+
 public class PayloadMethodEndpointAdapterTest {
 
     private PayloadMethodEndpointAdapter adapter;
@@ -95,6 +98,25 @@ public class PayloadMethodEndpointAdapterTest {
         Assert.assertTrue("Method not invoked", responseInvoked);
     }
 
+    @Test
+    public void testInvalidDeferredPayload() throws Exception {
+        WebServiceMessage request = new MockWebServiceMessage("<request/>");
+        messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+        PayloadValidationCallback validationCallback = createMock(PayloadValidationCallback.class);
+        messageContext.setProperty(PayloadValidationCallback.PROPERTY_NAME, validationCallback);
+        expect(validationCallback.validate(messageContext)).andReturn(false);
+
+        replay(validationCallback);
+
+        MethodEndpoint methodEndpoint = new MethodEndpoint(this, "response", new Class[]{StreamSource.class});
+        adapter.invoke(messageContext, methodEndpoint);
+        Assert.assertFalse("Method invoked with invalid payload", responseInvoked);
+        Assert.assertFalse("Callback not removed",
+                messageContext.containsProperty(PayloadValidationCallback.PROPERTY_NAME));
+
+        verify(validationCallback);
+    }
+
     public void noResponse(DOMSource request) {
         noResponseInvoked = true;
     }
@@ -17,6 +17,9 @@
 package org.springframework.ws.server.endpoint.adapter.method;
 
 import java.lang.reflect.Method;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathVariableResolver;
 
 import org.springframework.core.MethodParameter;
 import org.springframework.ws.MockWebServiceMessage;
@@ -184,6 +187,51 @@ public class XPathParamMethodArgumentResolverTest {
         assertEquals("Invalid string value", "text", s);
     }
 
+    @Test
+    public void resolveSharesPayload() throws Exception {
+        MockWebServiceMessage request = new MockWebServiceMessage(CONTENTS);
+        MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+        Node node = (Node) resolver.resolveArgument(messageContext, nodeParameter);
+        NodeList nodeList = (NodeList) resolver.resolveArgument(messageContext, nodeListParameter);
+
+        assertSame("Payload transformed more than once", node, nodeList.item(0));
+    }
+
+    @Test
+    public void resolveCompiledExpressionTwice() throws Exception {
+        MockWebServiceMessage request = new MockWebServiceMessage(CONTENTS);
+        MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+        assertEquals("Invalid string value", "text", resolver.resolveArgument(messageContext, stringParameter));
+
+        request = new MockWebServiceMessage("<root><child><text>other</text></child></root>");
+        messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+        assertEquals("Invalid string value", "other", resolver.resolveArgument(messageContext, stringParameter));
+    }
+
+    @Test
+    public void resolveCustomXPathFactory() throws Exception {
+        resolver = new XPathParamMethodArgumentResolver() {
+            @Override
+            protected XPathFactory createXPathFactory() {
+                XPathFactory factory = XPathFactory.newInstance();
+                factory.setXPathVariableResolver(new XPathVariableResolver() {
+                    public Object resolveVariable(QName variableName) {
+                        return "number".equals(variableName.getLocalPart()) ? 42 : null;
+                    }
+                });
+                return factory;
+            }
+        };
+        MethodParameter variableParameter = new MethodParameter(getClass().getMethod("variable", Boolean.TYPE), 0);
+        MockWebServiceMessage request = new MockWebServiceMessage(CONTENTS);
+        MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+        Object result = resolver.resolveArgument(messageContext, variableParameter);
+
+        assertEquals("Custom XPathFactory not used", Boolean.TRUE, result);
+    }
+
     public void unsupported(String s) {
     }
 
@@ -204,4 +252,7 @@ public class XPathParamMethodArgumentResolverTest {
     public void namespacesClass(@XPathParam("/tns:root")String s) {
     }
 
+    public void variable(@XPathParam("/root/child/number = $number")boolean b) {
+    }
+
 }
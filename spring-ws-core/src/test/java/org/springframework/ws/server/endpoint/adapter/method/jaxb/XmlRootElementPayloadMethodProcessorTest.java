@@ -18,12 +18,20 @@ package org.springframework.ws.server.endpoint.adapter.method.jaxb;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
 
 import org.springframework.core.MethodParameter;
 import org.springframework.ws.MockWebServiceMessage;
@@ -33,6 +41,8 @@ import org.springframework.ws.context.DefaultMessageContext;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+import org.springframework.ws.server.endpoint.support.PayloadValidationAbortedException;
+import org.springframework.ws.server.endpoint.support.PayloadValidationCallback;
 import org.springframework.ws.soap.axiom.AxiomSoapMessage;
 import org.springframework.ws.soap.axiom.AxiomSoapMessageFactory;
 import org.springframework.xml.transform.StringResult;
@@ -40,10 +50,13 @@ import org.springframework.xml.transform.StringResult;
 import org.junit.Before;
 import org.junit.Test;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
 import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class XmlRootElementPayloadMethodProcessorTest {
 
@@ -162,6 +175,87 @@ public class XmlRootElementPayloadMethodProcessorTest {
 
     }
 
+    @Test
+    public void marshallersAreReused() throws Exception {
+        final int[] created = new int[2];
+        processor = new XmlRootElementPayloadMethodProcessor() {
+            @Override
+            protected Marshaller createMarshaller(JAXBContext jaxbContext) throws JAXBException {
+                created[0]++;
+                return super.createMarshaller(jaxbContext);
+            }
+
+            @Override
+            protected Unmarshaller createUnmarshaller(JAXBContext jaxbContext) throws JAXBException {
+                created[1]++;
+                return super.createUnmarshaller(jaxbContext);
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            WebServiceMessage request =
+                    new MockWebServiceMessage("<root xmlns='http://springframework.org'><string>Foo</string></root>");
+            MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+            Object result = processor.resolveArgument(messageContext, rootElementParameter);
+            processor.handleReturnValue(messageContext, rootElementReturnType, result);
+            MockWebServiceMessage response = (MockWebServiceMessage) messageContext.getResponse();
+            assertXMLEqual("<root xmlns='http://springframework.org'><string>Foo</string></root>",
+                    response.getPayloadAsString());
+        }
+        assertEquals("Marshaller not reused", 1, created[0]);
+        assertEquals("Unmarshaller not reused", 1, created[1]);
+    }
+
+    @Test
+    public void resolveArgumentValidatingWhileUnmarshalling() throws Exception {
+        SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        final Schema schema = schemaFactory.newSchema(new StreamSource(new StringReader(
+                "<schema xmlns='http://www.w3.org/2001/XMLSchema' targetNamespace='http://springframework.org' " +
+                        "elementFormDefault='qualified'><element name='root'><complexType><sequence>" +
+                        "<element name='string'><simpleType><restriction base='string'><maxLength value='3'/>" +
+                        "</restriction></simpleType></element></sequence></complexType></element></schema>")));
+        final int[] errorCount = new int[1];
+        PayloadValidationCallback validationCallback = new PayloadValidationCallback() {
+            public Schema getSchema() {
+                return schema;
+            }
+
+            public boolean handleValidationErrors(MessageContext messageContext, SAXParseException[] errors) {
+                errorCount[0] += errors.length;
+                return false;
+            }
+
+            public boolean validate(MessageContext messageContext) {
+                throw new AssertionError("Payload validated in a separate pass");
+            }
+        };
+
+        WebServiceMessage request =
+                new MockWebServiceMessage("<root xmlns='http://springframework.org'><string>Foo</string></root>");
+        MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+        messageContext.setProperty(PayloadValidationCallback.PROPERTY_NAME, validationCallback);
+        MyRootElement result = (MyRootElement) processor.resolveArgument(messageContext, rootElementParameter);
+        assertEquals("invalid result", "Foo", result.getString());
+        assertEquals("Valid payload reported as invalid", 0, errorCount[0]);
+        assertFalse("Callback not removed", messageContext.containsProperty(PayloadValidationCallback.PROPERTY_NAME));
+
+        request = new MockWebServiceMessage("<root xmlns='http://springframework.org'><string>Foobar</string></root>");
+        messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+        messageContext.setProperty(PayloadValidationCallback.PROPERTY_NAME, validationCallback);
+        try {
+            processor.resolveArgument(messageContext, rootElementParameter);
+            fail("PayloadValidationAbortedException expected");
+        }
+        catch (PayloadValidationAbortedException ex) {
+            // expected
+        }
+        assertTrue("Invalid payload not reported", errorCount[0] > 0);
+
+        request = new MockWebServiceMessage("<root xmlns='http://springframework.org'><string>Foobar</string></root>");
+        messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+        result = (MyRootElement) processor.resolveArgument(messageContext, rootElementParameter);
+        assertEquals("Payload validated without callback", "Foobar", result.getString());
+    }
+
     @ResponsePayload
     public MyRootElement rootElement(@RequestPayload MyRootElement rootElement) {
         return rootElement;
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.server.endpoint.mapping;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.dom.DOMSource;
+
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.xml.transform.StringSource;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+public class StreamingXPathExpressionTest {
+
+    private static final String PAYLOAD = "<tns:root xmlns:tns='http://example.com' version='1.0'>" +
+            "<tns:child type='a' id='1'>first</tns:child>" +
+            "<tns:child type='b' id='2'>second<tns:grandchild>!</tns:grandchild>tail</tns:child>" +
+            "<tns:child type='b' id='3'><![CDATA[third]]></tns:child>" +
+            "</tns:root>";
+
+    private final Map<String, String> namespaces = Collections.singletonMap("tns", "http://example.com");
+
+    @Test
+    public void testElement() throws Exception {
+        assertResult("/tns:root/tns:child", "first");
+        assertResult("/tns:root/tns:child[@type='b']", "second!tail");
+        assertResult("/tns:root/*[@id=\"3\"]", "third");
+    }
+
+    @Test
+    public void testText() throws Exception {
+        assertResult("/tns:root/tns:child[@type='b']/text()", "second");
+        assertResult("/tns:root/tns:child/tns:grandchild/text()", "!");
+    }
+
+    @Test
+    public void testTextPredicate() throws Exception {
+        assertResult("/tns:root/tns:child[text()='tail']", "second!tail");
+        assertResult("/tns:root/tns:child[text() = 'third']", "third");
+    }
+
+    @Test
+    public void testAttribute() throws Exception {
+        assertResult("/tns:root/@version", "1.0");
+        assertResult("/tns:root/tns:child[@type='b'][@id]/@id", "2");
+    }
+
+    @Test
+    public void testNoMatch() throws Exception {
+        assertResult("/tns:root/tns:other", "");
+        assertResult("/tns:other/tns:child", "");
+        assertResult("/tns:root/tns:child/@other", "");
+        assertResult("/root/child", "");
+    }
+
+    @Test
+    public void testUnsupported() throws Exception {
+        Assert.assertNull(StreamingXPathExpression.compile("//tns:child", namespaces));
+        Assert.assertNull(StreamingXPathExpression.compile("/tns:root/tns:child[1]", namespaces));
+        Assert.assertNull(StreamingXPathExpression.compile("/tns:root/tns:child[text()='a']/@id", namespaces));
+        Assert.assertNull(StreamingXPathExpression.compile("/tns:root/../tns:child", namespaces));
+        Assert.assertNull(StreamingXPathExpression.compile("count(/tns:root/tns:child)", namespaces));
+        Assert.assertNull(StreamingXPathExpression.compile("/other:root", namespaces));
+    }
+
+    @Test
+    public void testStopsReading() throws Exception {
+        StreamingXPathExpression expression = StreamingXPathExpression.compile("/tns:root/tns:child/@id", namespaces);
+        XMLStreamReader streamReader =
+                XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(PAYLOAD));
+        Assert.assertEquals("Invalid result", "1", expression.evaluate(StaxUtils.createStaxSource(streamReader)));
+        Assert.assertEquals("Reader read too far", "child", streamReader.getLocalName());
+    }
+
+    @Test
+    public void testEntitiesNotExpanded() throws Exception {
+        String payload = "<!DOCTYPE root [<!ENTITY entity 'expanded'>]>" +
+                "<tns:root xmlns:tns='http://example.com'><tns:child>&entity;</tns:child></tns:root>";
+        StreamingXPathExpression expression = StreamingXPathExpression.compile("/tns:root/tns:child", namespaces);
+        try {
+            String result = expression.evaluate(new StringSource(payload));
+            Assert.assertFalse("Entity expanded", "expanded".equals(result));
+        }
+        catch (XMLStreamException ex) {
+            // expected behavior for parsers that reject undeclared entities
+        }
+    }
+
+    private void assertResult(String xpath, String expected) throws Exception {
+        StreamingXPathExpression expression = StreamingXPathExpression.compile(xpath, namespaces);
+        Assert.assertNotNull("Expression [" + xpath + "] not supported", expression);
+
+        Assert.assertEquals("Invalid stream result for [" + xpath + "]", expected,
+                expression.evaluate(new StringSource(PAYLOAD)));
+
+        XMLStreamReader streamReader =
+                XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(PAYLOAD));
+        Assert.assertEquals("Invalid StAX result for [" + xpath + "]", expected,
+                expression.evaluate(StaxUtils.createStaxSource(streamReader)));
+
+        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+        Document document = documentBuilder.parse(new InputSource(new StringReader(PAYLOAD)));
+        Assert.assertEquals("Invalid DOM result for [" + xpath + "]", expected,
+                expression.evaluate(new DOMSource(document)));
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.springframework.ws.server.endpoint.mapping;
 
+import java.util.Collections;
+
 import org.springframework.ws.MockWebServiceMessage;
 import org.springframework.ws.MockWebServiceMessageFactory;
 import org.springframework.ws.context.DefaultMessageContext;
@@ -46,4 +48,32 @@ public class XPathPayloadEndpointMappingTest {
         Assert.assertNotNull("mapping returns null", result);
         Assert.assertEquals("mapping returns invalid result", "value", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetLookupKeyForMessageStreaming() throws Exception {
+        mapping.setExpression("/tns:root/tns:child[@type='b']/@id");
+        mapping.setNamespaces(Collections.singletonMap("tns", "http://example.com"));
+        mapping.setStreaming(true);
+        mapping.afterPropertiesSet();
+
+        MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://example.com'>" +
+                "<child type='a' id='1'/><child type='b' id='2'/><child type='b' id='3'/></root>");
+        MessageContext context = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+        String result = mapping.getLookupKeyForMessage(context);
+        Assert.assertEquals("mapping returns invalid result", "2", result);
+    }
+
+    @Test
+    public void testGetLookupKeyForMessageStreamingUnsupportedExpression() throws Exception {
+        mapping.setExpression("count(/root/child)");
+        mapping.setStreaming(true);
+        mapping.afterPropertiesSet();
+
+        MockWebServiceMessage request = new MockWebServiceMessage("<root><child/><child/></root>");
+        MessageContext context = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+        String result = mapping.getLookupKeyForMessage(context);
+        Assert.assertEquals("mapping returns invalid result", "2", result);
+    }
+}
@@ -16,10 +16,12 @@
 
 package org.springframework.ws.server.endpoint.support;
 
+import java.io.ByteArrayInputStream;
 import java.io.StringReader;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParserFactory;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamReader;
@@ -36,6 +38,7 @@ import org.junit.Test;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 public class PayloadRootUtilsTest {
 
@@ -102,6 +105,42 @@ public class PayloadRootUtilsTest {
         Assert.assertEquals("Qname has invalid prefix", "prefix", qName.getPrefix());
     }
 
+    @Test
+    public void testGetQNameForStreamSourceDoesNotConsumeStream() throws Exception {
+        String contents = "<prefix:localname xmlns:prefix='namespace'><child/></prefix:localname>";
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(contents.getBytes("UTF-8"));
+        Source source = new StreamSource(inputStream);
+        QName qName = PayloadRootUtils.getPayloadRootQName(source, TransformerFactory.newInstance());
+        Assert.assertEquals("Invalid QName", new QName("namespace", "localname"), qName);
+        Assert.assertEquals("Stream consumed", contents.length(), inputStream.available());
+    }
+
+    @Test
+    public void testGetQNameForStreamSourceLargeProlog() throws Exception {
+        StringBuilder builder = new StringBuilder("<!--");
+        for (int i = 0; i < 10000; i++) {
+            builder.append(' ');
+        }
+        builder.append("--><prefix:localname xmlns:prefix='namespace'/>");
+        Source source = new StreamSource(new StringReader(builder.toString()));
+        QName qName = PayloadRootUtils.getPayloadRootQName(source, TransformerFactory.newInstance());
+        Assert.assertEquals("Invalid QName", new QName("namespace", "localname"), qName);
+    }
+
+    @Test
+    public void testGetQNameForSaxSourceWithReader() throws Exception {
+        String contents = "<prefix:localname xmlns:prefix='namespace'/>";
+        SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+        parserFactory.setNamespaceAware(true);
+        XMLReader reader = parserFactory.newSAXParser().getXMLReader();
+        Source source = new SAXSource(reader, new InputSource(new StringReader(contents)));
+        QName qName = PayloadRootUtils.getPayloadRootQName(source, TransformerFactory.newInstance());
+        Assert.assertNotNull("getQNameForNode returns null", qName);
+        Assert.assertEquals("QName has invalid localname", "localname", qName.getLocalPart());
+        Assert.assertEquals("Qname has invalid namespace", "namespace", qName.getNamespaceURI());
+        Assert.assertEquals("Qname has invalid prefix", "prefix", qName.getPrefix());
+    }
+
     @Test
     public void testGetQNameForNullSource() throws Exception {
         QName qName = PayloadRootUtils.getPayloadRootQName(null, TransformerFactory.newInstance());
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,7 +17,10 @@
 package org.springframework.ws.soap.axiom;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.Iterator;
+import javax.xml.namespace.QName;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -25,6 +28,8 @@ import javax.xml.transform.TransformerFactory;
 import org.springframework.ws.InvalidXmlException;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapMessage;
 import org.springframework.ws.soap.soap11.AbstractSoap11MessageFactoryTestCase;
 import org.springframework.ws.transport.MockTransportInputStream;
 import org.springframework.ws.transport.TransportInputStream;
@@ -33,8 +38,14 @@ import org.springframework.xml.transform.StringResult;
 import org.custommonkey.xmlunit.XMLAssert;
 import org.custommonkey.xmlunit.XMLUnit;
 import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class AxiomSoap11MessageFactoryTest extends AbstractSoap11MessageFactoryTestCase {
@@ -105,6 +116,124 @@ public class AxiomSoap11MessageFactoryTest extends AbstractSoap11MessageFactoryT
         }
     }
 
+    @Test
+    public void testLazyBodyParsing() throws Exception {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setLazyBodyParsing(true);
+        messageFactory.afterPropertiesSet();
+
+        String xml = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/' " +
+                "xmlns:ns='http://springframework.org/spring-ws'>" +
+                "<soapenv:Header><ns:header>value</ns:header></soapenv:Header>" +
+                "<soapenv:Body><ns:root><ns:child /></ns:root></soapenv:Body></soapenv:Envelope>";
+        TransportInputStream tis = new MockTransportInputStream(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+        SoapMessage message = (SoapMessage) messageFactory.createWebServiceMessage(tis);
+
+        Iterator<SoapHeaderElement> iterator = message.getSoapHeader().examineAllHeaderElements();
+        assertTrue("No header element", iterator.hasNext());
+        assertEquals("Invalid header element name", new QName("http://springframework.org/spring-ws", "header"),
+                iterator.next().getName());
+        assertFalse("Unexpected fault", message.getSoapBody().hasFault());
+
+        StringResult result = new StringResult();
+        transformer.transform(message.getPayloadSource(), result);
+        XMLAssert.assertXMLEqual("<ns:root xmlns:ns='http://springframework.org/spring-ws'><ns:child /></ns:root>",
+                result.toString());
+    }
+
+    @Test
+    public void testLazyBodyParsingWriteTo() throws Exception {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setLazyBodyParsing(true);
+        messageFactory.afterPropertiesSet();
+
+        String xml = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+                "<soapenv:Body><root xmlns='http://springframework.org/spring-ws'><child /></root></soapenv:Body>" +
+                "</soapenv:Envelope>";
+        TransportInputStream tis = new MockTransportInputStream(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+        WebServiceMessage message = messageFactory.createWebServiceMessage(tis);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        message.writeTo(bos);
+        XMLAssert.assertXMLEqual(xml, bos.toString("UTF-8"));
+    }
+
+    @Test
+    public void testLazyBodyParsingMultipleBodyElements() throws Exception {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setLazyBodyParsing(true);
+        messageFactory.afterPropertiesSet();
+
+        String xml = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/' " +
+                "xmlns:ns='http://springframework.org/spring-ws'>" +
+                "<soapenv:Body><ns:first><ns:child /></ns:first> <ns:second /></soapenv:Body></soapenv:Envelope>";
+        TransportInputStream tis = new MockTransportInputStream(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+        WebServiceMessage message = messageFactory.createWebServiceMessage(tis);
+
+        StringResult result = new StringResult();
+        transformer.transform(message.getPayloadSource(), result);
+        XMLAssert.assertXMLEqual("<ns:first xmlns:ns='http://springframework.org/spring-ws'><ns:child /></ns:first>",
+                result.toString());
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        message.writeTo(bos);
+        XMLAssert.assertXMLEqual(xml, bos.toString("UTF-8"));
+    }
+
+    @Test
+    public void testLazyBodyParsingForeignBody() throws Exception {
+        String xml = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/' " +
+                "xmlns:ns='http://springframework.org/spring-ws'><ns:Body><ns:root /></ns:Body>" +
+                "<soapenv:Body><ns:payload /></soapenv:Body></soapenv:Envelope>";
+        assertNull("Foreign Body element used", RawEnvelope.parse(xml.getBytes("UTF-8"), "UTF-8"));
+    }
+
+    @Test
+    public void testLazyBodyParsingFault() throws Exception {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setLazyBodyParsing(true);
+        messageFactory.afterPropertiesSet();
+
+        String xml = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+                "<soapenv:Body><soapenv:Fault><faultcode>soapenv:Server</faultcode>" +
+                "<faultstring>Error</faultstring></soapenv:Fault></soapenv:Body></soapenv:Envelope>";
+        TransportInputStream tis = new MockTransportInputStream(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+        SoapMessage message = (SoapMessage) messageFactory.createWebServiceMessage(tis);
+
+        assertTrue("No fault", message.getSoapBody().hasFault());
+        assertEquals("Invalid fault string", "Error", message.getSoapBody().getFault().getFaultStringOrReason());
+    }
+
+    @Test
+    public void testDomCompatible() throws Exception {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setDomCompatible(true);
+        messageFactory.afterPropertiesSet();
+
+        String xml = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+                "<soapenv:Body><root xmlns='http://www.springframework.org/spring-ws'/></soapenv:Body>" +
+                "</soapenv:Envelope>";
+        TransportInputStream tis = new MockTransportInputStream(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+        AxiomSoapMessage message = messageFactory.createWebServiceMessage(tis);
+
+        Document document = message.getDocument();
+        assertSame("Document is not the live message tree", document,
+                ((Element) message.getAxiomMessage().getSOAPEnvelope()).getOwnerDocument());
+        message.setDocument(document);
+        assertSame("Document not kept", document, message.getDocument());
+
+        StringResult result = new StringResult();
+        transformer.transform(message.getPayloadSource(), result);
+        XMLAssert.assertXMLEqual("<root xmlns='http://www.springframework.org/spring-ws'/>", result.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDomCompatibleNoPayloadCaching() throws Exception {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setDomCompatible(true);
+        messageFactory.setPayloadCaching(false);
+        messageFactory.afterPropertiesSet();
+    }
+
     /**
      * See http://jira.springframework.org/browse/SWS-502
      */
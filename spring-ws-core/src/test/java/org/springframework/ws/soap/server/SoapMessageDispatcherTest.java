@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -254,4 +254,31 @@ public class SoapMessageDispatcherTest {
         verify(interceptorMock);
     }
 
+    @Test
+    public void testDispatchCacheKeyAddressingTo() throws Exception {
+        MessageFactory messageFactory = MessageFactory.newInstance(SOAPConstants.SOAP_1_1_PROTOCOL);
+        SoapMessageFactory factory = new SaajSoapMessageFactory(messageFactory);
+        MessageContext context1 = new DefaultMessageContext(
+                new SaajSoapMessage(createAddressingRequest(messageFactory, "urn:to1")), factory);
+        MessageContext context2 = new DefaultMessageContext(
+                new SaajSoapMessage(createAddressingRequest(messageFactory, "urn:to2")), factory);
+        MessageContext context3 = new DefaultMessageContext(
+                new SaajSoapMessage(createAddressingRequest(messageFactory, "urn:to1")), factory);
+
+        Object key1 = dispatcher.getDispatchCacheKey(context1);
+        Assert.assertFalse("Keys for different destinations are equal",
+                key1.equals(dispatcher.getDispatchCacheKey(context2)));
+        Assert.assertEquals("Keys for the same destination are not equal", key1,
+                dispatcher.getDispatchCacheKey(context3));
+    }
+
+    private SOAPMessage createAddressingRequest(MessageFactory messageFactory, String to) throws Exception {
+        SOAPMessage request = messageFactory.createMessage();
+        String namespace = "http://www.w3.org/2005/08/addressing";
+        request.getSOAPHeader().addHeaderElement(new QName(namespace, "Action", "wsa")).setTextContent("urn:action");
+        request.getSOAPHeader().addHeaderElement(new QName(namespace, "To", "wsa")).setTextContent(to);
+        request.getSOAPBody().addBodyElement(new QName("http://www.springframework.org", "Request"));
+        return request;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.ws.soap.server.endpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.client.core.WebServiceMessageCallback;
+import org.springframework.ws.client.core.WebServiceOperations;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.axiom.AxiomSoapMessage;
+import org.springframework.ws.soap.axiom.AxiomSoapMessageFactory;
+import org.springframework.ws.soap.client.SoapFaultClientException;
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.MockTransportInputStream;
+import org.springframework.xml.transform.StringResult;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMSourcedElement;
+import org.custommonkey.xmlunit.XMLUnit;
+import org.easymock.IAnswer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PassThroughEndpointTest {
+
+    private static final String URI = "http://example.com/service";
+
+    private PassThroughEndpoint endpoint;
+
+    private WebServiceOperations operationsMock;
+
+    private AxiomSoapMessageFactory messageFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setLazyBodyParsing(true);
+        messageFactory.afterPropertiesSet();
+        operationsMock = createMock(WebServiceOperations.class);
+        endpoint = new PassThroughEndpoint();
+        endpoint.setWebServiceOperations(operationsMock);
+        endpoint.setUri(URI);
+        endpoint.afterPropertiesSet();
+        XMLUnit.setIgnoreWhitespace(true);
+    }
+
+    @Test
+    public void testInvoke() throws Exception {
+        assertForwarded(messageFactory);
+    }
+
+    @Test
+    public void testInvokeSaaj() throws Exception {
+        SaajSoapMessageFactory saajMessageFactory = new SaajSoapMessageFactory();
+        saajMessageFactory.afterPropertiesSet();
+        assertForwarded(saajMessageFactory);
+    }
+
+    private void assertForwarded(final WebServiceMessageFactory forwardingMessageFactory) throws Exception {
+        final String requestPayload = "<request xmlns='http://springframework.org/spring-ws'/>";
+        final String request = createEnvelope(requestPayload);
+        final String responsePayload = "<response xmlns='http://springframework.org/spring-ws'/>";
+
+        expect(operationsMock.sendAndReceive(eq(URI), isA(WebServiceMessageCallback.class),
+                isA(WebServiceMessageCallback.class))).andAnswer(new IAnswer<Boolean>() {
+            public Boolean answer() throws Throwable {
+                WebServiceMessageCallback requestCallback = (WebServiceMessageCallback) getCurrentArguments()[1];
+                WebServiceMessageCallback responseCallback = (WebServiceMessageCallback) getCurrentArguments()[2];
+
+                WebServiceMessage forwardedRequest = forwardingMessageFactory.createWebServiceMessage();
+                requestCallback.doWithMessage(forwardedRequest);
+                if (forwardedRequest instanceof AxiomSoapMessage) {
+                    assertUnexpandedPayload((AxiomSoapMessage) forwardedRequest);
+                }
+                else {
+                    assertTrue("Invalid forwarded request", forwardedRequest instanceof SaajSoapMessage);
+                }
+                if (forwardedRequest instanceof AxiomSoapMessage) {
+                    ByteArrayOutputStream os = new ByteArrayOutputStream();
+                    forwardedRequest.writeTo(os);
+                    assertXMLEqual("Invalid forwarded request", request, os.toString("UTF-8"));
+                    assertUnexpandedPayload((AxiomSoapMessage) forwardedRequest);
+                }
+                else {
+                    assertXMLEqual("Invalid forwarded request", requestPayload,
+                            getPayload(forwardedRequest));
+                }
+
+                responseCallback.doWithMessage(createMessage(createEnvelope(responsePayload)));
+                return true;
+            }
+        });
+
+        replay(operationsMock);
+
+        MessageContext messageContext = new DefaultMessageContext(createMessage(request), messageFactory);
+        endpoint.invoke(messageContext);
+
+        verify(operationsMock);
+
+        assertXMLEqual("Invalid response payload", responsePayload, getPayload(messageContext.getResponse()));
+    }
+
+    @Test
+    public void testInvokeFault() throws Exception {
+        final String faultPayload = "<soapenv:Fault xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+                "<faultcode>soapenv:Server</faultcode><faultstring>Back-end failure</faultstring>" +
+                "<detail><error xmlns='http://springframework.org/spring-ws'/></detail></soapenv:Fault>";
+
+        expect(operationsMock.sendAndReceive(eq(URI), isA(WebServiceMessageCallback.class),
+                isA(WebServiceMessageCallback.class))).andAnswer(new IAnswer<Boolean>() {
+            public Boolean answer() throws Throwable {
+                throw new SoapFaultClientException((SoapMessage) createMessage(createEnvelope(faultPayload)));
+            }
+        });
+
+        replay(operationsMock);
+
+        MessageContext messageContext = new DefaultMessageContext(
+                createMessage(createEnvelope("<request xmlns='http://springframework.org/spring-ws'/>")),
+                messageFactory);
+        endpoint.invoke(messageContext);
+
+        verify(operationsMock);
+
+        SoapMessage response = (SoapMessage) messageContext.getResponse();
+        assertTrue("Response has no fault", response.getSoapBody().hasFault());
+        assertEquals("Invalid fault string", "Back-end failure",
+                response.getSoapBody().getFault().getFaultStringOrReason());
+        assertXMLEqual("Invalid fault", faultPayload, getPayload(response));
+    }
+
+    private String getPayload(WebServiceMessage message) throws Exception {
+        StringResult result = new StringResult();
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.transform(message.getPayloadSource(), result);
+        return result.toString();
+    }
+
+    private void assertUnexpandedPayload(AxiomSoapMessage message) {
+        OMElement payload = message.getAxiomMessage().getSOAPEnvelope().getBody().getFirstElement();
+        assertTrue("Payload not passed through", payload instanceof OMSourcedElement);
+        assertFalse("Payload expanded", ((OMSourcedElement) payload).isExpanded());
+    }
+
+    private String createEnvelope(String payload) {
+        return "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'><soapenv:Body>" +
+                payload + "</soapenv:Body></soapenv:Envelope>";
+    }
+
+    private WebServiceMessage createMessage(String envelope) throws Exception {
+        return messageFactory.createWebServiceMessage(
+                new MockTransportInputStream(new ByteArrayInputStream(envelope.getBytes("UTF-8"))));
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2011 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.util.Locale;
 import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.SOAPConstants;
 import javax.xml.soap.SOAPMessage;
@@ -29,6 +30,8 @@ import javax.xml.transform.stream.StreamSource;
 
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.ws.MockWebServiceMessage;
 import org.springframework.ws.MockWebServiceMessageFactory;
 import org.springframework.ws.WebServiceMessage;
@@ -44,6 +47,10 @@ import org.springframework.ws.soap.soap11.Soap11Fault;
 import org.springframework.ws.soap.soap12.Soap12Fault;
 import org.springframework.ws.transport.MockTransportInputStream;
 import org.springframework.ws.transport.TransportInputStream;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.HttpServletConnection;
+import org.springframework.ws.validation.SelectiveValidationPolicy;
 import org.springframework.xml.validation.ValidationErrorHandler;
 import org.springframework.xml.xsd.SimpleXsdSchema;
 
@@ -394,4 +401,36 @@ public class PayloadValidatingInterceptorTest {
         Assert.assertFalse("Context has response", context.hasResponse());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testValidationPolicy() throws Exception {
+        SelectiveValidationPolicy validationPolicy = new SelectiveValidationPolicy();
+        validationPolicy.setSampleRate(0.0D);
+        validationPolicy.setTrustedAddresses(new String[]{"127.0.0.1"});
+        interceptor.setValidationPolicy(validationPolicy);
+        HttpServletConnection connection =
+                new HttpServletConnection(new MockHttpServletRequest(), new MockHttpServletResponse()) {
+                };
+        TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+        try {
+            SoapMessage invalidMessage = soap11Factory.createWebServiceMessage();
+            transformer.transform(new StreamSource(getClass().getResourceAsStream(INVALID_MESSAGE)),
+                    invalidMessage.getPayloadResult());
+            context = new DefaultMessageContext(invalidMessage, soap11Factory);
+            Assert.assertTrue("Invalid response from interceptor", interceptor.handleRequest(context, null));
+            Assert.assertFalse("Context has response", context.hasResponse());
+            Assert.assertEquals("Invalid skipped count", 1, interceptor.getSkippedMessageCount());
+            Assert.assertEquals("Invalid validated count", 0, interceptor.getValidatedMessageCount());
+
+            validationPolicy.setPayloadRoots(new QName[]{new QName("http://example.com", "trusted")});
+            context = new DefaultMessageContext(invalidMessage, soap11Factory);
+            Assert.assertFalse("Invalid response from interceptor", interceptor.handleRequest(context, null));
+            Assert.assertTrue("Context has no response", context.hasResponse());
+            Assert.assertEquals("Invalid skipped count", 1, interceptor.getSkippedMessageCount());
+            Assert.assertEquals("Invalid validated count", 1, interceptor.getValidatedMessageCount());
+        }
+        finally {
+            TransportContextHolder.setTransportContext(null);
+        }
+    }
+
+}
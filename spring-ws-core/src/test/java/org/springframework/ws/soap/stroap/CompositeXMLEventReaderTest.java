@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,7 +14,7 @@
  * limitations under the License.
  */
 
-package org.springframework.xml.stream;
+package org.springframework.ws.soap.stroap;
 
 import java.io.StringReader;
 import java.util.ArrayList;
@@ -44,7 +44,7 @@ public class CompositeXMLEventReaderTest {
 
     @Before
     public void createChainUp() throws Exception {
-        inputFactory = XMLInputFactory.newFactory();
+        inputFactory = XMLInputFactory.newInstance();
         List<XMLEvent> events = getEvents("<event1-1><event1-2>text1</event1-2></event1-1>");
         expectedEvents.addAll(events);
         XMLEventReader reader1 = new ListBasedXMLEventReader(events);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.ws.soap.stroap;
 
 import org.springframework.ws.soap.SoapEnvelope;
+import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.soap.soap11.AbstractSoap11EnvelopeTestCase;
 
 public class Stroap11EnvelopeTest extends AbstractSoap11EnvelopeTestCase {
@@ -24,7 +25,7 @@ public class Stroap11EnvelopeTest extends AbstractSoap11EnvelopeTestCase {
     @Override
     protected SoapEnvelope createSoapEnvelope() throws Exception {
         StroapMessageFactory messageFactory = new StroapMessageFactory();
-        StroapEnvelope envelope = new StroapEnvelope(messageFactory);
+        StroapEnvelope envelope = new StroapEnvelope(SoapVersion.SOAP_11, messageFactory);
         envelope.getHeader();
         return envelope;
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,16 +25,4 @@ public class Stroap11MessageFactoryTest extends AbstractSoap11MessageFactoryTest
     protected WebServiceMessageFactory createMessageFactory() throws Exception {
         return new StroapMessageFactory();
     }
-
-    @Override
-    public void testCreateSoapMessageMtom() throws Exception {
-    }
-
-    @Override
-    public void testCreateSoapMessageSwA() throws Exception {
-    }
-
-    @Override
-    public void testCreateSoapMessageMtomWeirdStartInfo() throws Exception {
-    }
-}
\ No newline at end of file
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,21 +26,4 @@ public class Stroap11MessageTest extends AbstractSoap11MessageTestCase {
         StroapMessageFactory messageFactory = new StroapMessageFactory();
         return new StroapMessage(messageFactory);
     }
-
-    @Override
-    public void testWriteToTransportResponseAttachment() throws Exception {
-    }
-
-    @Override
-    public void testAddAttachment() throws Exception {
-    }
-
-    @Override
-    public void testGetAttachment() throws Exception {
-    }
-
-    @Override
-    public void testGetAttachments() throws Exception {
-    }
-
 }
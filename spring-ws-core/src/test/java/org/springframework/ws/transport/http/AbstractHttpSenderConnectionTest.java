@@ -0,0 +1,135 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.springframework.util.FileCopyUtils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AbstractHttpSenderConnectionTest {
+
+    @Test
+    public void testChunkedResponse() throws Exception {
+        CountingInputStream rawInputStream = new CountingInputStream("<response/>".getBytes("UTF-8"));
+        MockHttpSenderConnection connection = new MockHttpSenderConnection(rawInputStream);
+
+        assertTrue("No response", connection.hasResponse());
+        assertTrue("No response", connection.hasResponse());
+        assertEquals("Response buffered", 1, rawInputStream.count);
+
+        String response = new String(FileCopyUtils.copyToByteArray(connection.getResponseInputStream()), "UTF-8");
+        assertEquals("Invalid response", "<response/>", response);
+    }
+
+    @Test
+    public void testEmptyChunkedResponse() throws Exception {
+        MockHttpSenderConnection connection = new MockHttpSenderConnection(new CountingInputStream(new byte[0]));
+        assertFalse("Response", connection.hasResponse());
+    }
+
+    private static class CountingInputStream extends ByteArrayInputStream {
+
+        private int count;
+
+        private CountingInputStream(byte[] buf) {
+            super(buf);
+        }
+
+        @Override
+        public synchronized int read() {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            int result = super.read(b, off, len);
+            if (result > 0) {
+                count += result;
+            }
+            return result;
+        }
+    }
+
+    private static class MockHttpSenderConnection extends AbstractHttpSenderConnection {
+
+        private final InputStream rawInputStream;
+
+        private MockHttpSenderConnection(InputStream rawInputStream) {
+            this.rawInputStream = rawInputStream;
+        }
+
+        @Override
+        protected int getResponseCode() throws IOException {
+            return HttpTransportConstants.STATUS_OK;
+        }
+
+        @Override
+        protected String getResponseMessage() throws IOException {
+            return "OK";
+        }
+
+        @Override
+        protected long getResponseContentLength() throws IOException {
+            return -1;
+        }
+
+        @Override
+        protected InputStream getRawResponseInputStream() throws IOException {
+            return rawInputStream;
+        }
+
+        @Override
+        protected Iterator<String> getResponseHeaderNames() throws IOException {
+            return Collections.<String>emptyList().iterator();
+        }
+
+        @Override
+        protected Iterator<String> getResponseHeaders(String name) throws IOException {
+            return Collections.<String>emptyList().iterator();
+        }
+
+        @Override
+        protected void addRequestHeader(String name, String value) throws IOException {
+        }
+
+        @Override
+        protected OutputStream getRequestOutputStream() throws IOException {
+            return new ByteArrayOutputStream();
+        }
+
+        public URI getUri() {
+            return URI.create("http://localhost");
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,11 @@
 package org.springframework.ws.transport.http;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import javax.servlet.Servlet;
 import javax.servlet.ServletException;
@@ -59,6 +61,7 @@ import org.mortbay.jetty.servlet.ServletHolder;
 
 import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
 
@@ -153,6 +156,26 @@ public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
         validateResponse(servlet);
     }
 
+    @Test
+    public void testSendCompressedRequest() throws Exception {
+        messageSender.setCompressRequests(true);
+        messageSender.setRequestCompressionThreshold(0);
+        MyServlet servlet = new MyServlet();
+        servlet.setResponse(true);
+        servlet.setGzipRequest(true);
+        validateResponse(servlet);
+    }
+
+    @Test
+    public void testSendRequestBelowCompressionThreshold() throws Exception {
+        messageSender.setCompressRequests(true);
+        messageSender.setRequestCompressionThreshold(SOAP_REQUEST.length() * 2);
+        MyServlet servlet = new MyServlet();
+        servlet.setResponse(true);
+        servlet.setGzipRequest(false);
+        validateResponse(servlet);
+    }
+
     @Test
     public void testSendAndReceiveInvalidContentSize() throws Exception {
         MyServlet servlet = new MyServlet();
@@ -251,6 +274,8 @@ public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
 
         private boolean gzip;
 
+        private boolean gzipRequest;
+
         public void setResponseStatus(int responseStatus) {
             this.responseStatus = responseStatus;
         }
@@ -267,14 +292,27 @@ public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
             this.gzip = gzip;
         }
 
+        public void setGzipRequest(boolean gzipRequest) {
+            this.gzipRequest = gzipRequest;
+        }
+
         @Override
         protected void doPost(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse)
                 throws ServletException, IOException {
             try {
                 assertEquals("Invalid header value received on server side", REQUEST_HEADER_VALUE,
                         httpServletRequest.getHeader(REQUEST_HEADER_NAME));
-                String receivedRequest =
-                        new String(FileCopyUtils.copyToByteArray(httpServletRequest.getInputStream()), "UTF-8");
+                InputStream requestInputStream = httpServletRequest.getInputStream();
+                if (gzipRequest) {
+                    assertEquals("Invalid Content-Encoding header value received on server side", "gzip",
+                            httpServletRequest.getHeader("Content-Encoding"));
+                    requestInputStream = new GZIPInputStream(requestInputStream);
+                }
+                else {
+                    assertNull("Content-Encoding header received on server side",
+                            httpServletRequest.getHeader("Content-Encoding"));
+                }
+                String receivedRequest = new String(FileCopyUtils.copyToByteArray(requestInputStream), "UTF-8");
                 assertXMLEqual("Invalid request received", SOAP_REQUEST, receivedRequest);
                 if (gzip) {
                     assertEquals("Invalid Accept-Encoding header value received on server side", "gzip",
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.ws.transport.TransportOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GzipTransportOutputStreamTest {
+
+    private static final String CONTENT = "<content>Hello World</content>";
+
+    private MockTransportOutputStream targetStream;
+
+    @Before
+    public void setUp() throws Exception {
+        targetStream = new MockTransportOutputStream();
+    }
+
+    @Test
+    public void testBelowThreshold() throws Exception {
+        byte[] content = CONTENT.getBytes("UTF-8");
+        GzipTransportOutputStream gzipStream = new GzipTransportOutputStream(targetStream, content.length);
+        gzipStream.write(content);
+        gzipStream.flush();
+
+        assertEquals("Content written before finish", 0, targetStream.content.size());
+
+        gzipStream.finish();
+
+        assertFalse("Content compressed", gzipStream.isCompressed());
+        assertNull("Content-Encoding header added", targetStream.headers.get("Content-Encoding"));
+        assertEquals("Invalid content", CONTENT, targetStream.content.toString("UTF-8"));
+        assertTrue("Target stream not finished", targetStream.finished);
+    }
+
+    @Test
+    public void testAboveThreshold() throws Exception {
+        byte[] content = CONTENT.getBytes("UTF-8");
+        GzipTransportOutputStream gzipStream = new GzipTransportOutputStream(targetStream, content.length - 1);
+        gzipStream.write(content);
+
+        assertTrue("Content not compressed", gzipStream.isCompressed());
+        assertEquals("Invalid Content-Encoding header", "gzip", targetStream.headers.get("Content-Encoding"));
+
+        gzipStream.finish();
+
+        assertEquals("Invalid content", CONTENT, gunzip(targetStream.content.toByteArray()));
+        assertTrue("Target stream not finished", targetStream.finished);
+    }
+
+    @Test
+    public void testThresholdExceededBySeparateWrites() throws Exception {
+        byte[] content = CONTENT.getBytes("UTF-8");
+        GzipTransportOutputStream gzipStream = new GzipTransportOutputStream(targetStream, 10);
+        gzipStream.write(content, 0, 10);
+
+        assertFalse("Content compressed", gzipStream.isCompressed());
+
+        gzipStream.write(content, 10, content.length - 10);
+        gzipStream.finish();
+
+        assertTrue("Content not compressed", gzipStream.isCompressed());
+        assertEquals("Invalid content", CONTENT, gunzip(targetStream.content.toByteArray()));
+    }
+
+    @Test
+    public void testFinishTwice() throws Exception {
+        GzipTransportOutputStream gzipStream = new GzipTransportOutputStream(targetStream, 0);
+        gzipStream.write(CONTENT.getBytes("UTF-8"));
+        gzipStream.finish();
+        int size = targetStream.content.size();
+        gzipStream.finish();
+
+        assertEquals("Content written twice", size, targetStream.content.size());
+        assertEquals("Invalid content", CONTENT, gunzip(targetStream.content.toByteArray()));
+    }
+
+    @Test
+    public void testAddHeader() throws Exception {
+        GzipTransportOutputStream gzipStream = new GzipTransportOutputStream(targetStream, 0);
+        gzipStream.addHeader("Name", "Value");
+
+        assertEquals("Header not added to target stream", "Value", targetStream.headers.get("Name"));
+    }
+
+    private String gunzip(byte[] compressed) throws IOException {
+        GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(compressed));
+        return new String(FileCopyUtils.copyToByteArray(gzipInputStream), "UTF-8");
+    }
+
+    private static class MockTransportOutputStream extends TransportOutputStream {
+
+        private final Map<String, String> headers = new LinkedHashMap<String, String>();
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        private boolean finished;
+
+        @Override
+        public void addHeader(String name, String value) throws IOException {
+            headers.put(name, value);
+        }
+
+        @Override
+        protected OutputStream createOutputStream() throws IOException {
+            return content;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            super.finish();
+            finished = true;
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.xml.soap.MessageFactory;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.support.FreePortScanner;
+
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Test;
+import org.mortbay.jetty.Server;
+import org.mortbay.jetty.servlet.Context;
+import org.mortbay.jetty.servlet.ServletHolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class HttpComponentsAsyncMessageSenderIntegrationTest
+        extends AbstractHttpWebServiceMessageSenderIntegrationTestCase {
+
+    private HttpComponentsAsyncMessageSender asyncMessageSender;
+
+    @Override
+    protected AbstractHttpWebServiceMessageSender createMessageSender() {
+        try {
+            asyncMessageSender = new HttpComponentsAsyncMessageSender();
+            return asyncMessageSender;
+        }
+        catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @After
+    public void destroyMessageSender() throws Exception {
+        if (asyncMessageSender != null) {
+            asyncMessageSender.destroy();
+        }
+    }
+
+    @Test
+    public void testMaxConnections() throws Exception {
+        HttpComponentsAsyncMessageSender messageSender = new HttpComponentsAsyncMessageSender();
+        try {
+            messageSender.setMaxTotalConnections(2);
+            Map<String, String> maxConnectionsPerHost = new HashMap<String, String>();
+            maxConnectionsPerHost.put("https://www.example.com", "1");
+            maxConnectionsPerHost.put("http://www.example.com:8080", "7");
+            maxConnectionsPerHost.put("http://www.springframework.org", "10");
+            messageSender.setMaxConnectionsPerHost(maxConnectionsPerHost);
+
+            assertEquals("Invalid max total connections", 2, messageSender.getMaxTotalConnections());
+            assertEquals("Invalid max connections per host", 1,
+                    messageSender.getConnectionPoolStats("https://www.example.com").getMax());
+            assertEquals("Invalid max connections per host", 7,
+                    messageSender.getConnectionPoolStats("http://www.example.com:8080").getMax());
+            assertEquals("Invalid max connections per host", 10,
+                    messageSender.getConnectionPoolStats("http://www.springframework.org").getMax());
+        }
+        finally {
+            messageSender.destroy();
+        }
+    }
+
+    @Test
+    public void testConcurrentExchangesWithConnectionLimit() throws Exception {
+        MessageFactory messageFactory = MessageFactory.newInstance();
+        int port = FreePortScanner.getFreePort();
+        Server jettyServer = new Server(port);
+        Context jettyContext = new Context(jettyServer, "/");
+        EchoServlet servlet = new EchoServlet();
+        jettyContext.addServlet(new ServletHolder(servlet), "/");
+        jettyServer.start();
+        HttpComponentsAsyncMessageSender messageSender = new HttpComponentsAsyncMessageSender();
+        List<WebServiceConnection> connections = new ArrayList<WebServiceConnection>();
+        try {
+            URI uri = new URI("http://localhost:" + port);
+            Map<String, String> maxConnectionsPerHost = new HashMap<String, String>();
+            maxConnectionsPerHost.put(uri.toString(), "1");
+            messageSender.setMaxConnectionsPerHost(maxConnectionsPerHost);
+            messageSender.afterPropertiesSet();
+
+            for (int i = 0; i < 5; i++) {
+                WebServiceConnection connection = messageSender.createConnection(uri);
+                connections.add(connection);
+                connection.send(new SaajSoapMessage(messageFactory.createMessage()));
+            }
+
+            // the first exchange is held by the servlet; the others must wait for its connection
+            for (int i = 0; i < 100 && messageSender.getConnectionPoolStats().getLeased() == 0; i++) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            PoolStats stats = messageSender.getConnectionPoolStats(uri.toString());
+            assertEquals("Invalid max connections per host", 1, stats.getMax());
+            assertEquals("Invalid leased connections", 1, stats.getLeased());
+            assertEquals("Connection opened beyond limit", 0, stats.getPending());
+            assertEquals("Invalid available connections", 0, stats.getAvailable());
+            assertEquals("Exchanges not queued", 1, servlet.getRequestCount());
+
+            servlet.release();
+            for (WebServiceConnection connection : connections) {
+                WebServiceMessage response = connection.receive(new SaajSoapMessageFactory(messageFactory));
+                assertNotNull("No response received", response);
+            }
+            assertEquals("Invalid request count", 5, servlet.getRequestCount());
+            stats = messageSender.getConnectionPoolStats(uri.toString());
+            assertEquals("Invalid leased connections", 0, stats.getLeased());
+            assertTrue("Connection limit exceeded", stats.getAvailable() <= 1);
+        }
+        finally {
+            servlet.release();
+            for (WebServiceConnection connection : connections) {
+                try {
+                    connection.close();
+                }
+                catch (IOException ex) {
+                    // ignore
+                }
+            }
+            messageSender.destroy();
+            if (jettyServer.isRunning()) {
+                jettyServer.stop();
+            }
+        }
+    }
+
+    /** Echoes requests, but holds them until {@linkplain #release() released}. */
+    private class EchoServlet extends HttpServlet {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private final AtomicInteger requestCount = new AtomicInteger();
+
+        public void release() {
+            latch.countDown();
+        }
+
+        public int getRequestCount() {
+            return requestCount.get();
+        }
+
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response)
+                throws ServletException, IOException {
+            requestCount.incrementAndGet();
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            response.setContentType("text/xml");
+            FileCopyUtils.copy(request.getInputStream(), response.getOutputStream());
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -40,6 +40,9 @@ import org.mortbay.jetty.Server;
 import org.mortbay.jetty.servlet.Context;
 import org.mortbay.jetty.servlet.ServletHolder;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 public class HttpComponentsMessageSenderIntegrationTest extends AbstractHttpWebServiceMessageSenderIntegrationTestCase {
 
     @Override
@@ -97,6 +100,101 @@ public class HttpComponentsMessageSenderIntegrationTest extends AbstractHttpWebS
 
     }
 
+    @Test
+    public void testConnectionPoolStats() throws Exception {
+        HttpComponentsMessageSender messageSender = new HttpComponentsMessageSender();
+        messageSender.setMaxTotalConnections(5);
+        Map<String, String> maxConnectionsPerHost = new HashMap<String, String>();
+        maxConnectionsPerHost.put("http://www.example.com:8080", "3");
+        messageSender.setMaxConnectionsPerHost(maxConnectionsPerHost);
+
+        assertEquals("Invalid max total connections", 5, messageSender.getMaxTotalConnections());
+        assertEquals("Invalid leased connections", 0, messageSender.getLeasedConnectionCount());
+        assertEquals("Invalid available connections", 0, messageSender.getAvailableConnectionCount());
+        assertEquals("Invalid pending connections", 0, messageSender.getPendingConnectionCount());
+        assertEquals("Invalid max connections per host", 3,
+                messageSender.getConnectionPoolStats("http://www.example.com:8080").getMax());
+    }
+
+    @Test
+    public void testConnectionEviction() throws Exception {
+        MessageFactory messageFactory = MessageFactory.newInstance();
+        int port = FreePortScanner.getFreePort();
+        Server jettyServer = new Server(port);
+        Context jettyContext = new Context(jettyServer, "/");
+        jettyContext.addServlet(new ServletHolder(new EchoServlet()), "/");
+        jettyServer.start();
+        HttpComponentsMessageSender messageSender = new HttpComponentsMessageSender();
+        try {
+            messageSender.setConnectionEvictionInterval(10);
+            messageSender.setMaxIdleTime(0);
+            messageSender.afterPropertiesSet();
+            messageSender.afterPropertiesSet();
+            assertEvictorThreadsAreDaemons();
+
+            WebServiceConnection connection = messageSender.createConnection(new URI("http://localhost:" + port));
+            try {
+                connection.send(new SaajSoapMessage(messageFactory.createMessage()));
+                connection.receive(new SaajSoapMessageFactory(messageFactory));
+            }
+            finally {
+                connection.close();
+            }
+            assertEquals("Invalid leased connections", 0, messageSender.getLeasedConnectionCount());
+
+            for (int i = 0; i < 100 && messageSender.getAvailableConnectionCount() > 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals("Idle connection not evicted", 0, messageSender.getAvailableConnectionCount());
+        }
+        finally {
+            messageSender.destroy();
+            if (jettyServer.isRunning()) {
+                jettyServer.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testConnectionTimeToLive() throws Exception {
+        MessageFactory messageFactory = MessageFactory.newInstance();
+        int port = FreePortScanner.getFreePort();
+        Server jettyServer = new Server(port);
+        Context jettyContext = new Context(jettyServer, "/");
+        jettyContext.addServlet(new ServletHolder(new EchoServlet()), "/");
+        jettyServer.start();
+        HttpComponentsMessageSender messageSender = new HttpComponentsMessageSender(1);
+        try {
+            WebServiceConnection connection = messageSender.createConnection(new URI("http://localhost:" + port));
+            try {
+                connection.send(new SaajSoapMessage(messageFactory.createMessage()));
+                connection.receive(new SaajSoapMessageFactory(messageFactory));
+            }
+            finally {
+                connection.close();
+            }
+            Thread.sleep(10);
+            messageSender.getHttpClient().getConnectionManager().closeExpiredConnections();
+            assertEquals("Expired connection not closed", 0, messageSender.getAvailableConnectionCount());
+        }
+        finally {
+            messageSender.destroy();
+            if (jettyServer.isRunning()) {
+                jettyServer.stop();
+            }
+        }
+    }
+
+    private void assertEvictorThreadsAreDaemons() {
+        Thread[] threads = new Thread[Thread.activeCount() * 2];
+        int count = Thread.enumerate(threads);
+        for (int i = 0; i < count; i++) {
+            if (threads[i].getName().startsWith("HttpComponentsMessageSender-evictor-")) {
+                assertTrue("Evictor thread is no daemon thread", threads[i].isDaemon());
+            }
+        }
+    }
+
     private class EchoServlet extends HttpServlet {
 
         @Override
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,12 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.MimeHeaders;
 import javax.xml.soap.SOAPConstants;
@@ -25,6 +31,7 @@ import javax.xml.transform.TransformerFactory;
 
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.soap.saaj.SaajSoapMessage;
 import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
 import org.springframework.xml.transform.StringResult;
@@ -103,4 +110,72 @@ public class HttpServletConnectionTest {
         assertXMLEqual("Invalid content", SOAP_CONTENT, httpServletResponse.getContentAsString());
     }
 
+    @Test
+    public void testReceiveGzip() throws Exception {
+        httpServletRequest.addHeader("Content-Type", "text/xml");
+        httpServletRequest.addHeader("Content-Encoding", "gzip");
+        httpServletRequest.setContent(gzip(SOAP_CONTENT));
+        connection.setMaxDecompressedRequestSize(SOAP_CONTENT.length());
+        SaajSoapMessage message = (SaajSoapMessage) connection.receive(messageFactory);
+        Assert.assertNotNull("No message received", message);
+        StringResult result = new StringResult();
+        transformerFactory.newTransformer().transform(message.getPayloadSource(), result);
+        assertXMLEqual("Invalid message", CONTENT, result.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReceiveGzipTooLarge() throws Exception {
+        httpServletRequest.addHeader("Content-Type", "text/xml");
+        httpServletRequest.addHeader("Content-Encoding", "gzip");
+        httpServletRequest.setContent(gzip(SOAP_CONTENT));
+        connection.setMaxDecompressedRequestSize(SOAP_CONTENT.length() - 1);
+        connection.receive(messageFactory);
+    }
+
+    @Test
+    public void testReceiveGzipNotEnabled() throws Exception {
+        httpServletRequest.addHeader("Content-Type", "text/xml");
+        httpServletRequest.addHeader("Content-Encoding", "gzip");
+        byte[] content = gzip(SOAP_CONTENT);
+        httpServletRequest.setContent(content);
+        InputStream inputStream = connection.getRequestInputStream();
+        Assert.assertArrayEquals("Request decompressed", content, FileCopyUtils.copyToByteArray(inputStream));
+    }
+
+    @Test
+    public void testSendGzip() throws Exception {
+        httpServletRequest.addHeader("Accept-Encoding", "gzip, deflate");
+        connection.setResponseCompressionThreshold(0);
+        SaajSoapMessage message = (SaajSoapMessage) messageFactory.createWebServiceMessage();
+        transformerFactory.newTransformer().transform(new StringSource(CONTENT), message.getPayloadResult());
+
+        connection.send(message);
+
+        Assert.assertEquals("Invalid Content-Encoding", "gzip", httpServletResponse.getHeader("Content-Encoding"));
+        InputStream inputStream =
+                new GZIPInputStream(new ByteArrayInputStream(httpServletResponse.getContentAsByteArray()));
+        String content = new String(FileCopyUtils.copyToByteArray(inputStream), "UTF-8");
+        assertXMLEqual("Invalid content", SOAP_CONTENT, content);
+    }
+
+    @Test
+    public void testSendGzipNotAccepted() throws Exception {
+        connection.setResponseCompressionThreshold(0);
+        SaajSoapMessage message = (SaajSoapMessage) messageFactory.createWebServiceMessage();
+        transformerFactory.newTransformer().transform(new StringSource(CONTENT), message.getPayloadResult());
+
+        connection.send(message);
+
+        Assert.assertNull("Content-Encoding set", httpServletResponse.getHeader("Content-Encoding"));
+        assertXMLEqual("Invalid content", SOAP_CONTENT, httpServletResponse.getContentAsString());
+    }
+
+    private byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GZIPOutputStream gzipStream = new GZIPOutputStream(bos);
+        gzipStream.write(content.getBytes("UTF-8"));
+        gzipStream.close();
+        return bos.toByteArray();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.validation;
+
+import java.net.URI;
+import java.security.Principal;
+import javax.xml.namespace.QName;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.ws.MockWebServiceMessage;
+import org.springframework.ws.MockWebServiceMessageFactory;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.HttpServletConnection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SelectiveValidationPolicyTest {
+
+    private static final String PAYLOAD = "<root xmlns='http://springframework.org'/>";
+
+    private SelectiveValidationPolicy policy;
+
+    private MockHttpServletRequest httpRequest;
+
+    @Before
+    public void setUp() throws Exception {
+        policy = new SelectiveValidationPolicy();
+        policy.setSampleRate(0.0D);
+        policy.setTrustedAddresses(new String[]{"10.0.0.1"});
+        httpRequest = new MockHttpServletRequest();
+        httpRequest.setRemoteAddr("10.0.0.1");
+        httpRequest.setContent(PAYLOAD.getBytes("UTF-8"));
+        HttpServletConnection connection = new HttpServletConnection(httpRequest, new MockHttpServletResponse()) {
+        };
+        TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TransportContextHolder.setTransportContext(null);
+    }
+
+    @Test
+    public void sampleRate() throws Exception {
+        MessageContext messageContext =
+                new DefaultMessageContext(new MockWebServiceMessage(PAYLOAD), new MockWebServiceMessageFactory());
+        assertFalse("Message validated", policy.shouldValidate(messageContext, messageContext.getRequest()));
+
+        policy.setSampleRate(1.0D);
+        assertTrue("Message not validated", policy.shouldValidate(messageContext, messageContext.getRequest()));
+    }
+
+    @Test
+    public void noTrustedSources() throws Exception {
+        policy = new SelectiveValidationPolicy();
+        policy.setSampleRate(0.0D);
+        MessageContext messageContext =
+                new DefaultMessageContext(new MockWebServiceMessage(PAYLOAD), new MockWebServiceMessageFactory());
+        assertTrue("Message not validated", policy.shouldValidate(messageContext, messageContext.getRequest()));
+    }
+
+    @Test
+    public void untrustedAddress() throws Exception {
+        httpRequest.setRemoteAddr("10.0.0.2");
+        MessageContext messageContext =
+                new DefaultMessageContext(new MockWebServiceMessage(PAYLOAD), new MockWebServiceMessageFactory());
+        assertTrue("Untrusted message not validated",
+                policy.shouldValidate(messageContext, messageContext.getRequest()));
+
+        TransportContextHolder.setTransportContext(null);
+        assertTrue("Message without transport not validated",
+                policy.shouldValidate(messageContext, messageContext.getRequest()));
+    }
+
+    @Test
+    public void trustedPrincipal() throws Exception {
+        httpRequest.setRemoteAddr("10.0.0.2");
+        httpRequest.setUserPrincipal(new Principal() {
+            public String getName() {
+                return "trusted";
+            }
+        });
+        policy.setTrustedPrincipals(new String[]{"trusted"});
+        MessageContext messageContext =
+                new DefaultMessageContext(new MockWebServiceMessage(PAYLOAD), new MockWebServiceMessageFactory());
+        assertFalse("Trusted message validated", policy.shouldValidate(messageContext, messageContext.getRequest()));
+
+        policy.setTrustedPrincipals(new String[]{"other"});
+        assertTrue("Untrusted message not validated",
+                policy.shouldValidate(messageContext, messageContext.getRequest()));
+    }
+
+    @Test
+    public void trustedUri() throws Exception {
+        WebServiceConnection connection = createMock(WebServiceConnection.class);
+        expect(connection.getUri()).andReturn(new URI("http://10.0.0.1/services")).anyTimes();
+        replay(connection);
+        TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+        MessageContext messageContext =
+                new DefaultMessageContext(new MockWebServiceMessage(PAYLOAD), new MockWebServiceMessageFactory());
+        assertFalse("Trusted message validated", policy.shouldValidate(messageContext, messageContext.getRequest()));
+
+        policy.setTrustedAddresses(new String[]{"10.0.0.2"});
+        assertTrue("Untrusted message not validated",
+                policy.shouldValidate(messageContext, messageContext.getRequest()));
+        verify(connection);
+    }
+
+    @Test
+    public void payloadRoots() throws Exception {
+        MessageContext messageContext =
+                new DefaultMessageContext(new MockWebServiceMessage(PAYLOAD), new MockWebServiceMessageFactory());
+
+        policy.setPayloadRoots(new QName[]{new QName("http://springframework.org", "root")});
+        assertFalse("Selected message validated", policy.shouldValidate(messageContext, messageContext.getRequest()));
+
+        policy.setPayloadRoots(new QName[]{new QName("http://springframework.org", "other")});
+        assertTrue("Unselected message not validated",
+                policy.shouldValidate(messageContext, messageContext.getRequest()));
+    }
+
+    @Test
+    public void soapActions() throws Exception {
+        SaajSoapMessageFactory messageFactory = new SaajSoapMessageFactory();
+        messageFactory.afterPropertiesSet();
+        SoapMessage request = messageFactory.createWebServiceMessage();
+        request.setSoapAction("http://springframework.org/action");
+        MessageContext messageContext = new DefaultMessageContext(request, messageFactory);
+
+        policy.setSoapActions(new String[]{"http://springframework.org/action"});
+        assertFalse("Selected message validated", policy.shouldValidate(messageContext, request));
+
+        policy.setSoapActions(new String[]{"http://springframework.org/other"});
+        assertTrue("Unselected message not validated", policy.shouldValidate(messageContext, request));
+    }
+
+    @Test
+    public void maxContentLength() throws Exception {
+        MessageContext messageContext =
+                new DefaultMessageContext(new MockWebServiceMessage(PAYLOAD), new MockWebServiceMessageFactory());
+
+        policy.setMaxContentLength(PAYLOAD.length());
+        assertFalse("Small message validated", policy.shouldValidate(messageContext, messageContext.getRequest()));
+
+        policy.setMaxContentLength(PAYLOAD.length() - 1);
+        assertTrue("Large message not validated", policy.shouldValidate(messageContext, messageContext.getRequest()));
+
+        httpRequest.setContent(null);
+        policy.setMaxContentLength(PAYLOAD.length());
+        assertTrue("Message of unknown length not validated",
+                policy.shouldValidate(messageContext, messageContext.getRequest()));
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -54,11 +54,17 @@ import org.springframework.ws.soap.security.WsSecurityValidationException;
 import org.springframework.ws.soap.security.callback.CallbackHandlerChain;
 import org.springframework.ws.soap.security.callback.CleanupCallback;
 import org.springframework.ws.soap.security.wss4j.callback.UsernameTokenPrincipalCallback;
+import org.springframework.ws.soap.security.wss4j.support.CertificateTrustCache;
 
 /**
  * A WS-Security endpoint interceptor based on Apache's WSS4J. This interceptor supports messages created by the {@link
  * org.springframework.ws.soap.axiom.AxiomSoapMessageFactory} and the {@link org.springframework.ws.soap.saaj.SaajSoapMessageFactory}.
  * <p/>
+ * WSS4J operates on a DOM {@link Document}. When using Axiom, the message is converted to a DOM document and back for
+ * every secured or validated message, unless the {@link org.springframework.ws.soap.axiom.AxiomSoapMessageFactory} is
+ * configured to create {@linkplain org.springframework.ws.soap.axiom.AxiomSoapMessageFactory#setDomCompatible(boolean)
+ * DOM-compatible} messages. WSS4J then works on the message tree directly.
+ * <p/>
  * The validation and securement actions executed by this interceptor are configured via <code>validationActions</code>
  * and <code>securementActions</code> properties, respectively. Actions should be passed as a space-separated strings.
  * <p/>
@@ -132,6 +138,28 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 
     private boolean securementUseDerivedKey;
 
+    private final TimestampValidator timestampValidator = new TimestampValidator();
+
+    private final SignatureTrustValidator signatureTrustValidator = new SignatureTrustValidator();
+
+    /**
+     * Request data used to verify timestamps, created in {@link #afterPropertiesSet()} and shared by all messages.
+     * Recreated when one of the timestamp properties is changed afterwards.
+     */
+    private volatile RequestData timestampRequestData;
+
+    /**
+     * Request data used to verify certificate trust, created in {@link #afterPropertiesSet()} and shared by all
+     * messages. Recreated when the crypto or revocation property is changed afterwards.
+     */
+    private volatile RequestData certificateTrustRequestData;
+
+    private int certificateTrustCacheTimeToLive = 0;
+
+    private int certificateTrustCacheSize = CertificateTrustCache.DEFAULT_MAX_SIZE;
+
+    private CertificateTrustCache certificateTrustCache;
+
     public void setSecurementActions(String securementActions) {
         this.securementActions = securementActions;
         securementActionsVector = new ArrayList<Integer>();
@@ -361,6 +389,9 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
             throw new IllegalArgumentException("timeToLive must be positive");
         }
         this.validationTimeToLive = validationTimeToLive;
+        if (timestampRequestData != null) {
+            timestampRequestData = createTimestampRequestData();
+        }
     }
 
     /** Sets the validation actions to be executed by the interceptor. */
@@ -405,6 +436,10 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
     /** Sets the Crypto to use to verify the signature of incoming messages */
     public void setValidationSignatureCrypto(Crypto signatureCrypto) {
         this.validationSignatureCrypto = signatureCrypto;
+        if (certificateTrustRequestData != null) {
+            certificateTrustRequestData = createCertificateTrustRequestData();
+        }
+        clearCertificateTrustCache();
     }
 
     /** Whether to enable signatureConfirmation or not. By default signatureConfirmation is enabled */
@@ -421,6 +456,9 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
     /** Sets whether or not timestamp verification is done with the server-side time to live */
     public void setTimestampStrict(boolean timestampStrict) {
         this.timestampStrict = timestampStrict;
+        if (timestampRequestData != null) {
+            timestampRequestData = createTimestampRequestData();
+        }
     }
 
     /**
@@ -462,6 +500,58 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
      */
     public void setEnableRevocation(boolean enableRevocation) {
         this.enableRevocation = enableRevocation;
+        if (certificateTrustRequestData != null) {
+            certificateTrustRequestData = createCertificateTrustRequestData();
+        }
+        clearCertificateTrustCache();
+    }
+
+    /**
+     * Sets the time in seconds for which a positive trust decision about a signing certificate is cached. Within this
+     * time, messages signed with the same certificate are not subjected to certificate path validation (including
+     * revocation checking) again. Default is <code>0</code>, meaning that trust decisions are not cached.
+     * <p/>
+     * Cached decisions are discarded when the {@linkplain #setValidationSignatureCrypto(Crypto) validation signature
+     * crypto} or the {@linkplain #setEnableRevocation(boolean) revocation} setting is changed. Changes made to the
+     * trusted certificates of the crypto itself are not detected; {@link #clearCertificateTrustCache()} should be
+     * called after modifying them.
+     */
+    public void setCertificateTrustCacheTimeToLive(int certificateTrustCacheTimeToLive) {
+        Assert.isTrue(certificateTrustCacheTimeToLive >= 0, "certificateTrustCacheTimeToLive must not be negative");
+        this.certificateTrustCacheTimeToLive = certificateTrustCacheTimeToLive;
+    }
+
+    /**
+     * Sets the maximum number of certificates for which a trust decision is cached. Default is {@value
+     * CertificateTrustCache#DEFAULT_MAX_SIZE}.
+     *
+     * @see #setCertificateTrustCacheTimeToLive(int)
+     */
+    public void setCertificateTrustCacheSize(int certificateTrustCacheSize) {
+        Assert.isTrue(certificateTrustCacheSize > 0, "certificateTrustCacheSize must be positive");
+        this.certificateTrustCacheSize = certificateTrustCacheSize;
+    }
+
+    /** Discards all cached certificate trust decisions. */
+    public void clearCertificateTrustCache() {
+        if (certificateTrustCache != null) {
+            certificateTrustCache.clear();
+        }
+    }
+
+    /** Returns the number of signing certificates whose trust was found in the cache. */
+    public long getCertificateTrustCacheHitCount() {
+        return certificateTrustCache != null ? certificateTrustCache.getHitCount() : 0;
+    }
+
+    /** Returns the number of signing certificates whose trust was not found in the cache, and had to be verified. */
+    public long getCertificateTrustCacheMissCount() {
+        return certificateTrustCache != null ? certificateTrustCache.getMissCount() : 0;
+    }
+
+    /** Returns the fraction of signing certificates whose trust was found in the cache. */
+    public double getCertificateTrustCacheHitRatio() {
+        return certificateTrustCache != null ? certificateTrustCache.getHitRatio() : 0;
     }
 
     /**
@@ -488,6 +578,9 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 			throw new IllegalArgumentException("futureTimeToLive must be positive");
 		}
 		this.futureTimeToLive = futureTimeToLive;
+		if (timestampRequestData != null) {
+			timestampRequestData = createTimestampRequestData();
+		}
 	}
 
 	public void afterPropertiesSet() throws Exception {
@@ -508,6 +601,35 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
         // allow for qualified password types for .Net interoperability
         securityEngine.getWssConfig().setAllowNamespaceQualifiedPasswordTypes(true);
         securityEngine.getWssConfig().setWsiBSPCompliant(bspCompliant);
+
+        // the validation configuration does not change per message, so it is created once, rather than per message
+        timestampRequestData = createTimestampRequestData();
+        certificateTrustRequestData = createCertificateTrustRequestData();
+
+        if (certificateTrustCacheTimeToLive > 0) {
+            certificateTrustCache =
+                    new CertificateTrustCache(certificateTrustCacheTimeToLive * 1000L, certificateTrustCacheSize);
+        }
+        else {
+            certificateTrustCache = null;
+        }
+    }
+
+    private RequestData createTimestampRequestData() {
+        WSSConfig timestampConfig = new WSSConfig();
+        timestampConfig.setTimeStampTTL(validationTimeToLive);
+        timestampConfig.setTimeStampStrict(timestampStrict);
+        timestampConfig.setTimeStampFutureTTL(futureTimeToLive);
+        RequestData requestData = new RequestData();
+        requestData.setWssConfig(timestampConfig);
+        return requestData;
+    }
+
+    private RequestData createCertificateTrustRequestData() {
+        RequestData requestData = new RequestData();
+        requestData.setSigCrypto(validationSignatureCrypto);
+        requestData.setEnableRevocation(enableRevocation);
+        return requestData;
     }
 
     @Override
@@ -656,12 +778,16 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
             Credential credential = new Credential();
             credential.setCertificates(new X509Certificate[] { returnCert});
 
-            RequestData requestData = new RequestData();
-            requestData.setSigCrypto(validationSignatureCrypto);
-            requestData.setEnableRevocation(enableRevocation);
-
-            SignatureTrustValidator validator = new SignatureTrustValidator();
-            validator.validate(credential, requestData);
+            CertificateTrustCache cache = certificateTrustCache;
+            if (cache != null && returnCert != null) {
+                if (!cache.isTrusted(returnCert)) {
+                    signatureTrustValidator.validate(credential, certificateTrustRequestData);
+                    cache.setTrusted(returnCert);
+                }
+            }
+            else {
+                signatureTrustValidator.validate(credential, certificateTrustRequestData);
+            }
         }
     }
 
@@ -675,15 +801,7 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
                 Credential credential = new Credential();
                 credential.setTimestamp(timestamp);
 
-                RequestData requestData = new RequestData();
-                WSSConfig config = new WSSConfig();
-                config.setTimeStampTTL(validationTimeToLive);
-                config.setTimeStampStrict(timestampStrict);
-	            config.setTimeStampFutureTTL(futureTimeToLive);
-                requestData.setWssConfig(config);
-
-                TimestampValidator validator = new TimestampValidator();
-                validator.validate(credential, requestData);
+                timestampValidator.validate(credential, timestampRequestData);
             }
         }
     }
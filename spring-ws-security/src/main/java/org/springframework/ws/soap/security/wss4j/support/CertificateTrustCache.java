@@ -0,0 +1,186 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.wss4j.support;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * Bounded cache of positive certificate trust decisions, keyed by the SHA-256 fingerprint of the certificate. A
+ * decision remains valid for a fixed time to live. When the cache is full, expired decisions are removed; if that does
+ * not free up any space, all decisions are discarded. Negative decisions are never cached.
+ * <p/>
+ * The cache does not know about the trust configuration, such as the {@link
+ * org.apache.ws.security.components.crypto.Crypto Crypto} and its key stores. It should be {@linkplain #clear()
+ * cleared} whenever that configuration changes.
+ * <p/>
+ * The number of cache hits and misses is recorded, and can be used for monitoring.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public class CertificateTrustCache {
+
+    /** The default maximum number of cached decisions. */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final long timeToLive;
+
+    private final int maxSize;
+
+    private final ConcurrentMap<String, Long> expirationTimes = new ConcurrentHashMap<String, Long>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Creates a new cache with the given time to live, and the {@linkplain #DEFAULT_MAX_SIZE default maximum size}.
+     *
+     * @param timeToLive the time in milliseconds a trust decision is cached
+     */
+    public CertificateTrustCache(long timeToLive) {
+        this(timeToLive, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new cache with the given time to live and maximum size.
+     *
+     * @param timeToLive the time in milliseconds a trust decision is cached
+     * @param maxSize    the maximum number of cached decisions
+     */
+    public CertificateTrustCache(long timeToLive, int maxSize) {
+        Assert.isTrue(timeToLive > 0, "'timeToLive' must be positive");
+        Assert.isTrue(maxSize > 0, "'maxSize' must be positive");
+        this.timeToLive = timeToLive;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Indicates whether the given certificate has been trusted within the time to live.
+     *
+     * @param certificate the certificate
+     * @return {@code true} if a positive decision is cached; {@code false} otherwise
+     */
+    public boolean isTrusted(X509Certificate certificate) {
+        String fingerprint = getFingerprint(certificate);
+        boolean trusted = false;
+        if (fingerprint != null) {
+            Long expirationTime = expirationTimes.get(fingerprint);
+            if (expirationTime != null) {
+                if (expirationTime > System.currentTimeMillis()) {
+                    trusted = true;
+                }
+                else {
+                    expirationTimes.remove(fingerprint, expirationTime);
+                }
+            }
+        }
+        if (trusted) {
+            hitCount.incrementAndGet();
+        }
+        else {
+            missCount.incrementAndGet();
+        }
+        return trusted;
+    }
+
+    /**
+     * Records that the given certificate is trusted.
+     *
+     * @param certificate the trusted certificate
+     */
+    public void setTrusted(X509Certificate certificate) {
+        String fingerprint = getFingerprint(certificate);
+        if (fingerprint != null) {
+            if (expirationTimes.size() >= maxSize && !expirationTimes.containsKey(fingerprint)) {
+                removeExpired();
+                if (expirationTimes.size() >= maxSize) {
+                    expirationTimes.clear();
+                }
+            }
+            expirationTimes.put(fingerprint, System.currentTimeMillis() + timeToLive);
+        }
+    }
+
+    /** Discards all cached trust decisions. */
+    public void clear() {
+        expirationTimes.clear();
+    }
+
+    /** Removes all expired trust decisions. */
+    public void removeExpired() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Long> iterator = expirationTimes.values().iterator(); iterator.hasNext();) {
+            if (iterator.next() <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /** Returns the number of cached trust decisions, including expired ones that have not been removed yet. */
+    public int size() {
+        return expirationTimes.size();
+    }
+
+    /** Returns the number of lookups that found a valid trust decision. */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /** Returns the number of lookups that did not find a valid trust decision. */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /** Returns the fraction of lookups that found a valid trust decision, or {@code 0} if there were no lookups. */
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total > 0 ? (double) hits / total : 0;
+    }
+
+    /** Returns the hex-encoded SHA-256 fingerprint of the given certificate, or {@code null} if not encodable. */
+    private static String getFingerprint(X509Certificate certificate) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(certificate.getEncoded());
+            char[] result = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                result[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+                result[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+            }
+            return new String(result);
+        }
+        catch (CertificateEncodingException ex) {
+            return null;
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not supported", ex);
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -67,6 +67,17 @@ public abstract class Wss4jMessageInterceptorTimestampTestCase extends Wss4jTest
         interceptor.validateMessage(message, context);
     }
 
+    @Test(expected = WsSecurityValidationException.class)
+    public void testValidateTimestampWithTtlChangedAfterInitialization() throws Exception {
+        Wss4jSecurityInterceptor interceptor = new Wss4jSecurityInterceptor();
+        interceptor.setValidationActions("Timestamp");
+        interceptor.afterPropertiesSet();
+        interceptor.setValidationTimeToLive(1);
+        SoapMessage message = getMessageWithTimestamp();
+        Thread.sleep(2000);
+        MessageContext context = new DefaultMessageContext(message, getSoap11MessageFactory());
+        interceptor.validateMessage(message, context);
+    }
 
     @Test
     public void testSecureTimestampWithCustomTtl() throws Exception {
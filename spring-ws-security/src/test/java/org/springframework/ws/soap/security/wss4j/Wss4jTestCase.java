@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -43,7 +43,11 @@ import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
 import org.springframework.xml.transform.StringSource;
 import org.springframework.xml.xpath.Jaxp13XPathTemplate;
 
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.soap.SOAP11Constants;
 import org.apache.axiom.soap.SOAP12Constants;
+import org.apache.axiom.soap.SOAPFactory;
 import org.apache.axiom.soap.impl.builder.StAXSOAPModelBuilder;
 import org.junit.Assert;
 import org.junit.Before;
@@ -62,6 +66,9 @@ public abstract class Wss4jTestCase {
 
     protected final boolean saajTest = this.getClass().getSimpleName().startsWith("Saaj");
 
+    protected final boolean axiomDomCompatibleTest =
+            this.getClass().getSimpleName().startsWith("AxiomDomCompatible");
+
     protected Jaxp13XPathTemplate xpathTemplate = new Jaxp13XPathTemplate();
 
     @Before
@@ -155,8 +162,10 @@ public abstract class Wss4jTestCase {
             is = resource.getInputStream();
 
             XMLStreamReader parser = XMLInputFactory.newInstance().createXMLStreamReader(is);
-            StAXSOAPModelBuilder builder = new StAXSOAPModelBuilder(parser, null);
+            StAXSOAPModelBuilder builder = new StAXSOAPModelBuilder(parser, getAxiomMetaFactory().getSOAP11Factory(),
+                    SOAP11Constants.SOAP_ENVELOPE_NAMESPACE_URI);
             org.apache.axiom.soap.SOAPMessage soapMessage = builder.getSoapMessage();
+            soapMessage.build();
             return new AxiomSoapMessage(soapMessage, "", true, true);
         }
         finally {
@@ -173,8 +182,11 @@ public abstract class Wss4jTestCase {
             is = resource.getInputStream();
 
             XMLStreamReader parser = XMLInputFactory.newInstance().createXMLStreamReader(is);
-            StAXSOAPModelBuilder builder = new StAXSOAPModelBuilder(parser, SOAP12Constants.SOAP_ENVELOPE_NAMESPACE_URI);
+            SOAPFactory soapFactory = getAxiomMetaFactory().getSOAP12Factory();
+            StAXSOAPModelBuilder builder =
+                    new StAXSOAPModelBuilder(parser, soapFactory, SOAP12Constants.SOAP_ENVELOPE_NAMESPACE_URI);
             org.apache.axiom.soap.SOAPMessage soapMessage = builder.getSoapMessage();
+            soapMessage.build();
             return new AxiomSoapMessage(soapMessage, "", true, true);
         }
         finally {
@@ -182,6 +194,13 @@ public abstract class Wss4jTestCase {
         }
     }
 
+    private OMMetaFactory getAxiomMetaFactory() {
+        if (axiomDomCompatibleTest) {
+            return OMAbstractFactory.getMetaFactory(OMAbstractFactory.FEATURE_DOM);
+        }
+        return OMAbstractFactory.getMetaFactory();
+    }
+
     protected Object getMessage(SoapMessage soapMessage) {
         if (soapMessage instanceof SaajSoapMessage) {
             return ((SaajSoapMessage) soapMessage).getSaajMessage();
@@ -230,7 +249,9 @@ public abstract class Wss4jTestCase {
 
     protected SoapMessageFactory getSoap11MessageFactory() throws Exception {
         if (axiomTest) {
-            return new AxiomSoapMessageFactory();
+            AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+            messageFactory.setDomCompatible(axiomDomCompatibleTest);
+            return messageFactory;
         }
         if (saajTest) {
             return new SaajSoapMessageFactory(saajSoap11MessageFactory);
@@ -241,7 +262,9 @@ public abstract class Wss4jTestCase {
     protected SoapMessageFactory getSoap12MessageFactory() throws Exception {
         SoapMessageFactory messageFactory;
         if (axiomTest) {
-            messageFactory = new AxiomSoapMessageFactory();
+            AxiomSoapMessageFactory axiomMessageFactory = new AxiomSoapMessageFactory();
+            axiomMessageFactory.setDomCompatible(axiomDomCompatibleTest);
+            messageFactory = axiomMessageFactory;
         } else if (saajTest) {
             messageFactory = new SaajSoapMessageFactory(saajSoap12MessageFactory);
         } else
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.wss4j.support;
+
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+
+import org.springframework.core.io.ClassPathResource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CertificateTrustCacheTest {
+
+    private KeyStore keyStore;
+
+    private X509Certificate certificate;
+
+    @Before
+    public void setUp() throws Exception {
+        keyStore = KeyStore.getInstance("jceks");
+        keyStore.load(new ClassPathResource("private.jks").getInputStream(), "123456".toCharArray());
+        certificate = (X509Certificate) keyStore.getCertificate("rsaKey");
+    }
+
+    @Test
+    public void testTrusted() throws Exception {
+        CertificateTrustCache cache = new CertificateTrustCache(60000);
+        assertFalse("Certificate trusted", cache.isTrusted(certificate));
+        cache.setTrusted(certificate);
+        assertTrue("Certificate not trusted", cache.isTrusted(certificate));
+        assertEquals("Invalid hit count", 1, cache.getHitCount());
+        assertEquals("Invalid miss count", 1, cache.getMissCount());
+        assertEquals("Invalid hit ratio", 0.5, cache.getHitRatio(), 0.001);
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        KeyStore otherKeyStore = KeyStore.getInstance("jks");
+        otherKeyStore.load(new ClassPathResource("org/springframework/ws/soap/security/xwss/test-keystore.jks")
+                .getInputStream(), "password".toCharArray());
+        X509Certificate otherCertificate = (X509Certificate) otherKeyStore.getCertificate("alias");
+
+        CertificateTrustCache cache = new CertificateTrustCache(60000, 1);
+        cache.setTrusted(certificate);
+        cache.setTrusted(otherCertificate);
+        assertEquals("Invalid size", 1, cache.size());
+        assertFalse("Certificate trusted", cache.isTrusted(certificate));
+        assertTrue("Certificate not trusted", cache.isTrusted(otherCertificate));
+    }
+
+    @Test
+    public void testExpired() throws Exception {
+        CertificateTrustCache cache = new CertificateTrustCache(1);
+        cache.setTrusted(certificate);
+        Thread.sleep(10);
+        assertFalse("Certificate trusted", cache.isTrusted(certificate));
+        assertEquals("Expired decision not removed", 0, cache.size());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        CertificateTrustCache cache = new CertificateTrustCache(60000);
+        cache.setTrusted(certificate);
+        assertEquals("Invalid size", 1, cache.size());
+        cache.clear();
+        assertEquals("Cache not cleared", 0, cache.size());
+    }
+}
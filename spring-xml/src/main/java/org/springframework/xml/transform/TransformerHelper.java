@@ -16,6 +16,7 @@
 
 package org.springframework.xml.transform;
 
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
@@ -29,6 +30,11 @@ import org.springframework.util.Assert;
 /**
  * Helper class for {@link Transformer} usage. Provides {@link #createTransformer()} and {@link #transform(Source,
  * Result)}.
+ * <p/>
+ * By default, {@link #transform(Source, Result)} creates a new identity transformer for every call. When {@linkplain
+ * #setCacheTransformers(boolean) transformer caching} is enabled, each thread reuses its own identity transformer
+ * instead, which is {@linkplain Transformer#reset() reset} after every transformation. The number of cache hits and
+ * misses is available through {@link #getCacheHits()} and {@link #getCacheMisses()}.
  *
  * @author Arjen Poutsma
  * @since 3.0
@@ -39,6 +45,14 @@ public class TransformerHelper {
 
     private Class<? extends TransformerFactory> transformerFactoryClass;
 
+    private boolean cacheTransformers = false;
+
+    private final ThreadLocal<Transformer> cachedTransformers = new ThreadLocal<Transformer>();
+
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    private final AtomicLong cacheMisses = new AtomicLong();
+
     /**
      * Initializes a new instance of the {@code TransformerHelper}.
      */
@@ -67,6 +81,35 @@ public class TransformerHelper {
         this.transformerFactoryClass = transformerFactoryClass;
     }
 
+    /**
+     * Indicates whether {@link #transform(Source, Result)} should reuse a cached identity transformer per thread,
+     * rather than creating a new one for every call. Default is {@code false}.
+     * <p/>
+     * Transformers returned by {@link #createTransformer()} are never cached, since callers are free to change their
+     * configuration.
+     */
+    public void setCacheTransformers(boolean cacheTransformers) {
+        this.cacheTransformers = cacheTransformers;
+    }
+
+    /**
+     * Returns the number of transformations that reused a cached transformer.
+     *
+     * @see #setCacheTransformers(boolean)
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns the number of transformations that had to create a new transformer while caching was enabled.
+     *
+     * @see #setCacheTransformers(boolean)
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
     /**
      * Instantiate a new TransformerFactory.
      * <p/>
@@ -127,15 +170,48 @@ public class TransformerHelper {
 
     /**
      * Transforms the given {@link Source} to the given {@link Result}. Creates a new {@link Transformer} for every
-     * call, as transformers are not thread-safe.
+     * call, as transformers are not thread-safe, unless {@linkplain #setCacheTransformers(boolean) caching} is
+     * enabled.
      *
      * @param source the source to transform from
      * @param result the result to transform to
      * @throws TransformerException if thrown by JAXP methods
      */
     public void transform(Source source, Result result) throws TransformerException {
-        Transformer transformer = createTransformer();
+        if (!cacheTransformers) {
+            Transformer transformer = createTransformer();
+            transformer.transform(source, result);
+            return;
+        }
+        Transformer transformer = borrowTransformer();
         transformer.transform(source, result);
+        returnTransformer(transformer);
+    }
+
+    /**
+     * Takes the cached transformer of the current thread, or creates a new one if there is none. The cached transformer
+     * is removed while in use, so that nested transformations on the same thread do not share it.
+     */
+    private Transformer borrowTransformer() throws TransformerConfigurationException {
+        Transformer transformer = cachedTransformers.get();
+        if (transformer != null) {
+            cachedTransformers.remove();
+            cacheHits.incrementAndGet();
+            return transformer;
+        }
+        else {
+            cacheMisses.incrementAndGet();
+            return createTransformer();
+        }
+    }
+
+    /**
+     * Resets the given transformer, and caches it for the current thread. Transformers that threw an exception are
+     * never returned, and simply discarded.
+     */
+    private void returnTransformer(Transformer transformer) {
+        transformer.reset();
+        cachedTransformers.set(transformer);
     }
 
 }
@@ -51,6 +51,16 @@ public abstract class TransformerObjectSupport {
         transformerHelper.setTransformerFactoryClass(transformerFactoryClass);
     }
 
+    /**
+     * Indicates whether {@link #transform(Source, Result)} should reuse a cached transformer per thread. Default is
+     * {@code false}.
+     *
+     * @see TransformerHelper#setCacheTransformers(boolean)
+     */
+    public void setCacheTransformers(boolean cacheTransformers) {
+        transformerHelper.setCacheTransformers(cacheTransformers);
+    }
+
     /**
      * Instantiate a new TransformerFactory. <p>The default implementation simply calls {@link
      * TransformerFactory#newInstance()}. If a {@link #setTransformerFactoryClass "transformerFactoryClass"} has been
@@ -86,7 +96,7 @@ public abstract class TransformerObjectSupport {
 
     /**
      * Transforms the given {@link Source} to the given {@link Result}. Creates a new {@link Transformer} for every
-     * call, as transformers are not thread-safe.
+     * call, as transformers are not thread-safe, unless {@linkplain #setCacheTransformers(boolean) caching} is enabled.
      *
      * @param source the source to transform from
      * @param result the result to transform to
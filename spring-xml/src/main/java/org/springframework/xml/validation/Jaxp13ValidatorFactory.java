@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2011 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,39 +19,67 @@ package org.springframework.xml.validation;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
+import javax.xml.transform.sax.SAXSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
 
 import org.springframework.core.io.Resource;
+import org.springframework.util.xml.StaxUtils;
 
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
 
 /**
  * Internal class that uses JAXP 1.0 features to create <code>XmlValidator</code> instances.
+ * <p/>
+ * The created validators keep a bounded pool of JAXP {@link Validator} objects, which are reset after use, rather
+ * than creating a new one for every validation. Compiled schemas can be shared through a {@link SchemaRegistry}; when
+ * the registry reloads a schema, the pool is discarded. StAX sources are validated in a single streaming pass, by
+ * reading them through a SAX {@link XMLReader}.
  *
  * @author Arjen Poutsma
  * @since 1.0.0
  */
 abstract class Jaxp13ValidatorFactory {
 
-    static XmlValidator createValidator(Resource[] resources, String schemaLanguage) throws IOException {
+    static XmlValidator createValidator(Resource[] resources, String schemaLanguage, SchemaRegistry schemaRegistry)
+            throws IOException {
         try {
-            Schema schema = SchemaLoaderUtils.loadSchema(resources, schemaLanguage);
-            return new Jaxp13Validator(schema);
+            SchemaRegistry.Entry schemaEntry = schemaRegistry != null ?
+                    schemaRegistry.getEntry(resources, schemaLanguage) :
+                    SchemaRegistry.createEntry(resources, schemaLanguage);
+            return new Jaxp13Validator(schemaEntry);
         }
         catch (SAXException ex) {
             throw new XmlValidationException("Could not create Schema: " + ex.getMessage(), ex);
         }
     }
 
+    static Schema getSchema(XmlValidator validator) {
+        return validator instanceof Jaxp13Validator ? ((Jaxp13Validator) validator).getSchema() : null;
+    }
+
+    /** The maximum number of idle JAXP validators kept per schema. */
+    private static final int MAX_POOLED_VALIDATORS = 32;
+
     private static class Jaxp13Validator implements XmlValidator {
 
-        private Schema schema;
+        private final SchemaRegistry.Entry schemaEntry;
+
+        private final BlockingQueue<Validator> validators = new ArrayBlockingQueue<Validator>(MAX_POOLED_VALIDATORS);
+
+        private volatile Schema pooledSchema;
 
-        public Jaxp13Validator(Schema schema) {
-            this.schema = schema;
+        public Jaxp13Validator(SchemaRegistry.Entry schemaEntry) {
+            this.schemaEntry = schemaEntry;
+            this.pooledSchema = schemaEntry.getSchema();
         }
 
         public SAXParseException[] validate(Source source) throws IOException {
@@ -62,15 +90,68 @@ abstract class Jaxp13ValidatorFactory {
             if (errorHandler == null) {
                 errorHandler = new DefaultValidationErrorHandler();
             }
-            Validator validator = schema.newValidator();
+            Schema schema = getSchema();
+            Validator validator = borrowValidator(schema);
             validator.setErrorHandler(errorHandler);
             try {
-                validator.validate(source);
-                return errorHandler.getErrors();
+                validator.validate(getStreamingSource(source));
             }
             catch (SAXException ex) {
                 throw new XmlValidationException("Could not validate source: " + ex.getMessage(), ex);
             }
+            returnValidator(schema, validator);
+            return errorHandler.getErrors();
+        }
+
+        /** Returns the current schema of the registry entry, discarding pooled validators of a previous version. */
+        private Schema getSchema() {
+            Schema schema = schemaEntry.getSchema();
+            if (schema != pooledSchema) {
+                pooledSchema = schema;
+                validators.clear();
+            }
+            return schema;
+        }
+
+        private Validator borrowValidator(Schema schema) {
+            Validator validator = validators.poll();
+            return validator != null ? validator : schema.newValidator();
+        }
+
+        /**
+         * Resets the given validator, and returns it to the pool. Validators that threw an exception are not returned,
+         * and simply discarded, as are validators of a schema that has since been reloaded.
+         */
+        private void returnValidator(Schema schema, Validator validator) {
+            if (schema != pooledSchema) {
+                return;
+            }
+            validator.reset();
+            validator.setErrorHandler(null);
+            validator.setResourceResolver(null);
+            validators.offer(validator);
+        }
+
+        /**
+         * Returns a {@link SAXSource} for StAX sources, so that they are validated in a single pass over the
+         * underlying reader. Other sources are returned as is.
+         */
+        private Source getStreamingSource(Source source) {
+            if (source instanceof SAXSource || !StaxUtils.isStaxSource(source)) {
+                return source;
+            }
+            XMLReader xmlReader = null;
+            XMLStreamReader streamReader = StaxUtils.getXMLStreamReader(source);
+            if (streamReader != null) {
+                xmlReader = StaxUtils.createXMLReader(streamReader);
+            }
+            else {
+                XMLEventReader eventReader = StaxUtils.getXMLEventReader(source);
+                if (eventReader != null) {
+                    xmlReader = StaxUtils.createXMLReader(eventReader);
+                }
+            }
+            return xmlReader != null ? new SAXSource(xmlReader, new InputSource()) : source;
         }
     }
 
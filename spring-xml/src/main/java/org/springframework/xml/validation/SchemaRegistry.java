@@ -0,0 +1,264 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.validation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import javax.xml.validation.Schema;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * Registry of compiled {@link Schema} objects, keyed by the schema resources and schema language. Compiling a schema is
+ * expensive, and the resulting {@code Schema} is thread-safe, so all validators that use the same set of resources can
+ * share a single compiled grammar.
+ * <p/>
+ * Sharing is opt-in: define a registry as a bean, and inject it into the validating interceptors and XSD schemas, or
+ * pass it to {@link XmlValidatorFactory#createValidator(Resource[], String, SchemaRegistry)}. Only resources that
+ * resolve to a URL are shared; schemas from other resources, such as byte arrays or input streams, are compiled for
+ * each validator. Compiled schemas are held until the registry is {@linkplain #destroy() destroyed} or {@linkplain
+ * #clear() cleared}.
+ * <p/>
+ * Optionally, the registry checks the schema resources for modifications at a fixed {@linkplain
+ * #setReloadInterval(long) interval}, and recompiles modified schemas in a background thread. Until recompilation
+ * has finished, the previously compiled schema remains in use; if it fails, the previous schema is kept. The
+ * background thread is started in {@link #afterPropertiesSet()}, and stopped in {@link #destroy()}.
+ *
+ * @author Arjen Poutsma
+ * @since 2.2
+ */
+public class SchemaRegistry implements InitializingBean, DisposableBean {
+
+    private static final Log logger = LogFactory.getLog(SchemaRegistry.class);
+
+    private final ConcurrentMap<List<String>, Entry> entries = new ConcurrentHashMap<List<String>, Entry>();
+
+    private long reloadInterval = 0;
+
+    private ScheduledExecutorService reloadExecutor;
+
+    /**
+     * Returns the compiled schema for the given resources and schema language. The schema is compiled on first
+     * request, and shared afterwards if all resources resolve to a URL.
+     *
+     * @param resources      the schema resources
+     * @param schemaLanguage the schema language
+     * @return the compiled schema
+     * @throws IOException  if a schema resource cannot be read
+     * @throws SAXException if a schema cannot be compiled
+     */
+    public Schema getSchema(Resource[] resources, String schemaLanguage) throws IOException, SAXException {
+        return getEntry(resources, schemaLanguage).getSchema();
+    }
+
+    /**
+     * Returns the registry entry for the given resources and schema language, compiling the schema if necessary. The
+     * returned entry always holds the latest compiled schema.
+     */
+    Entry getEntry(Resource[] resources, String schemaLanguage) throws IOException, SAXException {
+        Assert.notEmpty(resources, "No resources given");
+        Assert.hasLength(schemaLanguage, "No schema language provided");
+        List<String> key = createKey(resources, schemaLanguage);
+        if (key == null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Not sharing schema for resources without URL: " +
+                        StringUtils.arrayToCommaDelimitedString(resources));
+            }
+            return createEntry(resources, schemaLanguage);
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            Entry newEntry = new Entry(resources, schemaLanguage);
+            entry = entries.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+            else if (logger.isDebugEnabled()) {
+                logger.debug("Using shared schema for " + key);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Creates an entry for the given resources and schema language that is not shared through any registry.
+     */
+    static Entry createEntry(Resource[] resources, String schemaLanguage) throws IOException, SAXException {
+        return new Entry(resources, schemaLanguage);
+    }
+
+    /**
+     * Returns the key for the given resources, consisting of the schema language and the URL of each resource. Returns
+     * {@code null} if any of the resources does not resolve to a URL, since descriptions are not unique.
+     */
+    private List<String> createKey(Resource[] resources, String schemaLanguage) {
+        List<String> key = new ArrayList<String>(resources.length + 1);
+        key.add(schemaLanguage);
+        for (Resource resource : resources) {
+            Assert.notNull(resource, "Resource is null");
+            String systemId = SchemaLoaderUtils.getSystemId(resource);
+            if (systemId == null) {
+                return null;
+            }
+            key.add(systemId);
+        }
+        return key;
+    }
+
+    /** Removes all compiled schemas from this registry. */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Sets the interval, in milliseconds, at which schema resources are checked for modifications. Modified schemas
+     * are recompiled in a background thread. Defaults to {@code 0}, meaning that schemas are never reloaded.
+     *
+     * @param reloadInterval the reload interval in milliseconds
+     */
+    public void setReloadInterval(long reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+
+    public synchronized void afterPropertiesSet() {
+        if (reloadExecutor != null) {
+            reloadExecutor.shutdownNow();
+            reloadExecutor = null;
+        }
+        if (reloadInterval > 0) {
+            reloadExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "SchemaRegistry-reload");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            reloadExecutor.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    reloadModifiedSchemas();
+                }
+            }, reloadInterval, reloadInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Stops reloading schemas, and removes all compiled schemas from this registry. */
+    public synchronized void destroy() {
+        if (reloadExecutor != null) {
+            reloadExecutor.shutdownNow();
+            reloadExecutor = null;
+        }
+        clear();
+    }
+
+    /**
+     * Recompiles all schemas whose resources have been modified since they were last compiled. Called periodically
+     * when a {@linkplain #setReloadInterval(long) reload interval} is set, but can also be invoked directly.
+     */
+    public void reloadModifiedSchemas() {
+        for (Entry entry : entries.values()) {
+            if (entry.isModified()) {
+                try {
+                    entry.compile();
+                    if (logger.isInfoEnabled()) {
+                        logger.info("Reloaded modified schema " + entry);
+                    }
+                }
+                catch (Exception ex) {
+                    logger.warn("Could not reload schema " + entry + ", keeping previous version: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /** Registry entry, holding the latest compiled schema for a set of resources. */
+    static final class Entry {
+
+        private final Resource[] resources;
+
+        private final String schemaLanguage;
+
+        private volatile Schema schema;
+
+        private volatile long lastModified;
+
+        private Entry(Resource[] resources, String schemaLanguage) throws IOException, SAXException {
+            this.resources = resources;
+            this.schemaLanguage = schemaLanguage;
+            compile();
+        }
+
+        Schema getSchema() {
+            return schema;
+        }
+
+        /**
+         * Compiles the schema. The modification time is recorded before compiling, so that a resource that fails to
+         * compile is not retried until it is modified again.
+         */
+        private void compile() throws IOException, SAXException {
+            lastModified = getLastModified();
+            schema = SchemaLoaderUtils.loadSchema(resources, schemaLanguage);
+        }
+
+        private boolean isModified() {
+            long modified = getLastModified();
+            return modified > 0 && modified != lastModified;
+        }
+
+        /** Returns the most recent modification time of the resources, or {@code 0} if it cannot be determined. */
+        private long getLastModified() {
+            long result = 0;
+            for (Resource resource : resources) {
+                try {
+                    result = Math.max(result, resource.lastModified());
+                }
+                catch (IOException ex) {
+                    // resource is not backed by a file or URL connection that offers a timestamp
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("[");
+            for (int i = 0; i < resources.length; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(resources[i].getDescription());
+            }
+            return builder.append(']').toString();
+        }
+    }
+
+}
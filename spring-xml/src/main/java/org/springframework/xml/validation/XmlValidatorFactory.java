@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2011 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.xml.validation;
 
 import java.io.IOException;
+import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
 
 import org.springframework.core.io.Resource;
@@ -80,6 +81,29 @@ public abstract class XmlValidatorFactory {
      * @see #SCHEMA_W3C_XML
      */
     public static XmlValidator createValidator(Resource[] schemaResources, String schemaLanguage) throws IOException {
+        return createValidator(schemaResources, schemaLanguage, null);
+    }
+
+    /**
+     * Create a {@link XmlValidator} with the given schema resources and schema language type, sharing the compiled
+     * schema through the given registry. The schema language must be one of the <code>SCHEMA_XXX</code> constants.
+     *
+     * @param schemaResources an array of resource that locate the schemas to validate against
+     * @param schemaLanguage  the language of the schemas
+     * @param schemaRegistry  the registry that holds the compiled schemas, may be <code>null</code> to compile the
+     *                        schemas for this validator only
+     * @return a validator
+     * @throws IOException              if the schema resource cannot be read
+     * @throws IllegalArgumentException if the schema language is not supported
+     * @throws IllegalStateException    if JAXP 1.0 cannot be located
+     * @throws XmlValidationException   if a <code>XmlValidator</code> cannot be created
+     * @see #SCHEMA_RELAX_NG
+     * @see #SCHEMA_W3C_XML
+     * @since 2.2
+     */
+    public static XmlValidator createValidator(Resource[] schemaResources,
+                                               String schemaLanguage,
+                                               SchemaRegistry schemaRegistry) throws IOException {
         Assert.notEmpty(schemaResources, "No resources given");
         Assert.hasLength(schemaLanguage, "No schema language provided");
         Assert.isTrue(SCHEMA_W3C_XML.equals(schemaLanguage) || SCHEMA_RELAX_NG.equals(schemaLanguage),
@@ -89,11 +113,24 @@ public abstract class XmlValidatorFactory {
         }
         if (JaxpVersion.getJaxpVersion() >= JaxpVersion.JAXP_13) {
             logger.trace("Creating JAXP 1.3 XmlValidator");
-            return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage);
+            return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage, schemaRegistry);
         }
         else {
             throw new IllegalStateException("Could not locate JAXP 1.3.");
         }
     }
 
+    /**
+     * Returns the compiled schema that the given validator validates against, so that it can be used elsewhere, for
+     * instance by a JAXB2 unmarshaller. Only validators created by this factory expose their schema.
+     *
+     * @param validator the validator
+     * @return the compiled schema, or <code>null</code> if the validator was not created by this factory
+     * @since 2.2
+     */
+    public static Schema getSchema(XmlValidator validator) {
+        Assert.notNull(validator, "validator must not be null");
+        return Jaxp13ValidatorFactory.getSchema(validator);
+    }
+
 }
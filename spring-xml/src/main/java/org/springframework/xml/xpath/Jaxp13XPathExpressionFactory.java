@@ -17,6 +17,7 @@
 package org.springframework.xml.xpath;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.xml.namespace.QName;
@@ -50,33 +51,23 @@ abstract class Jaxp13XPathExpressionFactory {
      * @throws XPathParseException when the given expression cannot be parsed
      */
     static XPathExpression createXPathExpression(String expression) {
-        try {
-            XPath xpath = createXPath();
-            javax.xml.xpath.XPathExpression xpathExpression = xpath.compile(expression);
-            return new Jaxp13XPathExpression(xpathExpression);
-        }
-        catch (XPathExpressionException ex) {
-            throw new org.springframework.xml.xpath.XPathParseException(
-                    "Could not compile [" + expression + "] to a XPathExpression: " + ex.getMessage(), ex);
-        }
+        return createXPathExpression(expression, null);
     }
 
     /**
      * Creates a JAXP 1.3 <code>XPathExpression</code> from the given string expression and namespaces.
      *
      * @param expression the XPath expression
-     * @param namespaces the namespaces
+     * @param namespaces the namespaces, may be <code>null</code>
      * @return the compiled <code>XPathExpression</code>
      * @throws XPathParseException when the given expression cannot be parsed
      */
     public static XPathExpression createXPathExpression(String expression, Map<String, String> namespaces) {
+        if (namespaces != null) {
+            namespaces = new HashMap<String, String>(namespaces);
+        }
         try {
-            XPath xpath = createXPath();
-            SimpleNamespaceContext namespaceContext = new SimpleNamespaceContext();
-            namespaceContext.setBindings(namespaces);
-            xpath.setNamespaceContext(namespaceContext);
-            javax.xml.xpath.XPathExpression xpathExpression = xpath.compile(expression);
-            return new Jaxp13XPathExpression(xpathExpression);
+            return new Jaxp13XPathExpression(expression, namespaces, compile(expression, namespaces));
         }
         catch (XPathExpressionException ex) {
             throw new org.springframework.xml.xpath.XPathParseException(
@@ -84,18 +75,52 @@ abstract class Jaxp13XPathExpressionFactory {
         }
     }
 
+    private static javax.xml.xpath.XPathExpression compile(String expression, Map<String, String> namespaces)
+            throws XPathExpressionException {
+        XPath xpath = createXPath();
+        if (namespaces != null) {
+            SimpleNamespaceContext namespaceContext = new SimpleNamespaceContext();
+            namespaceContext.setBindings(namespaces);
+            xpath.setNamespaceContext(namespaceContext);
+        }
+        return xpath.compile(expression);
+    }
+
     private static synchronized XPath createXPath() {
         return xpathFactory.newXPath();
     }
-    
 
-    /** JAXP 1.3 implementation of the <code>XPathExpression</code> interface. */
+    /**
+     * JAXP 1.3 implementation of the <code>XPathExpression</code> interface.
+     * <p/>
+     * As JAXP <code>XPathExpression</code>s are not thread-safe, each thread evaluates its own compiled copy of the
+     * expression, so that concurrent evaluations do not contend for a shared lock. The copy is compiled the first time a
+     * thread evaluates the expression.
+     */
     private static class Jaxp13XPathExpression implements XPathExpression {
 
-        private final javax.xml.xpath.XPathExpression xpathExpression;
-
-        private Jaxp13XPathExpression(javax.xml.xpath.XPathExpression xpathExpression) {
-            this.xpathExpression = xpathExpression;
+        private final String expression;
+
+        private final ThreadLocal<javax.xml.xpath.XPathExpression> xpathExpressions;
+
+        private Jaxp13XPathExpression(final String expression,
+                                      final Map<String, String> namespaces,
+                                      javax.xml.xpath.XPathExpression xpathExpression) {
+            this.expression = expression;
+            this.xpathExpressions = new ThreadLocal<javax.xml.xpath.XPathExpression>() {
+                @Override
+                protected javax.xml.xpath.XPathExpression initialValue() {
+                    try {
+                        return compile(expression, namespaces);
+                    }
+                    catch (XPathExpressionException ex) {
+                        throw new org.springframework.xml.xpath.XPathParseException(
+                                "Could not compile [" + expression + "] to a XPathExpression: " + ex.getMessage(), ex);
+                    }
+                }
+            };
+            // the creating thread can use the expression compiled to validate the string
+            this.xpathExpressions.set(xpathExpression);
         }
 
         public String evaluateAsString(Node node) {
@@ -109,10 +134,7 @@ abstract class Jaxp13XPathExpressionFactory {
 
         private Object evaluate(Node node, QName returnType) {
             try {
-                // XPathExpression is not thread-safe
-                synchronized (xpathExpression) {
-                    return xpathExpression.evaluate(node, returnType);
-                }
+                return xpathExpressions.get().evaluate(node, returnType);
             }
             catch (XPathExpressionException ex) {
                 throw new XPathException("Could not evaluate XPath expression:" + ex.getMessage(), ex);
@@ -167,6 +189,11 @@ abstract class Jaxp13XPathExpressionFactory {
             }
             return results;
         }
+
+        @Override
+        public String toString() {
+            return expression;
+        }
     }
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2011 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
 import org.springframework.xml.namespace.QNameUtils;
 import org.springframework.xml.sax.SaxUtils;
+import org.springframework.xml.validation.SchemaRegistry;
 import org.springframework.xml.validation.XmlValidator;
 import org.springframework.xml.validation.XmlValidatorFactory;
 
@@ -58,6 +59,8 @@ public class SimpleXsdSchema implements XsdSchema, InitializingBean {
 
     private Element schemaElement;
 
+    private SchemaRegistry schemaRegistry;
+
     static {
         documentBuilderFactory.setNamespaceAware(true);
     }
@@ -90,6 +93,17 @@ public class SimpleXsdSchema implements XsdSchema, InitializingBean {
         this.xsdResource = xsdResource;
     }
 
+    /**
+     * Sets the registry through which the compiled schema is shared with other validators. By default, the schema is
+     * compiled for each {@linkplain #createValidator() validator}.
+     *
+     * @param schemaRegistry the schema registry
+     * @since 2.2
+     */
+    public void setSchemaRegistry(SchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
     public String getTargetNamespace() {
         return schemaElement.getAttribute("targetNamespace");
     }
@@ -99,7 +113,8 @@ public class SimpleXsdSchema implements XsdSchema, InitializingBean {
     }
 
     public XmlValidator createValidator() throws IOException {
-        return XmlValidatorFactory.createValidator(xsdResource, XmlValidatorFactory.SCHEMA_W3C_XML);
+        return XmlValidatorFactory.createValidator(new Resource[]{xsdResource}, XmlValidatorFactory.SCHEMA_W3C_XML,
+                schemaRegistry);
     }
 
     public void afterPropertiesSet() throws ParserConfigurationException, IOException, SAXException {
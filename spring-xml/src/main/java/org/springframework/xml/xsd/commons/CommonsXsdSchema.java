@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,9 +29,12 @@ import javax.xml.transform.stream.StreamSource;
 
 import org.springframework.beans.BeanInstantiationException;
 import org.springframework.beans.BeanUtils;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.xml.validation.SchemaRegistry;
 import org.springframework.xml.validation.XmlValidator;
 import org.springframework.xml.validation.XmlValidatorFactory;
 import org.springframework.xml.xsd.XsdSchema;
@@ -54,6 +57,8 @@ public class CommonsXsdSchema implements XsdSchema {
 
     private final XmlSchemaCollection collection;
 
+    private SchemaRegistry schemaRegistry;
+
     /**
      * Create a new instance of the  {@code CommonsXsdSchema} class with the specified {@link XmlSchema} reference.
      *
@@ -78,6 +83,17 @@ public class CommonsXsdSchema implements XsdSchema {
         this.collection = collection;
     }
 
+    /**
+     * Sets the registry through which the compiled schema is shared with other validators. By default, the schema is
+     * compiled for each {@linkplain #createValidator() validator}.
+     *
+     * @param schemaRegistry the schema registry
+     * @since 2.2
+     */
+    public void setSchemaRegistry(SchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
     public String getTargetNamespace() {
         return schema.getTargetNamespace();
     }
@@ -115,8 +131,27 @@ public class CommonsXsdSchema implements XsdSchema {
     }
 
     public XmlValidator createValidator() throws IOException {
-        Resource resource = new UrlResource(schema.getSourceURI());
-        return XmlValidatorFactory.createValidator(resource, XmlValidatorFactory.SCHEMA_W3C_XML);
+        return XmlValidatorFactory.createValidator(new Resource[]{getSchemaResource()},
+                XmlValidatorFactory.SCHEMA_W3C_XML, schemaRegistry);
+    }
+
+    /**
+     * Returns the resource the wrapped schema was read from. Schemas without a source URI, such as those read from a
+     * WSDL or an input stream, are serialized into a resource that is not shared through a schema registry.
+     */
+    Resource getSchemaResource() throws IOException {
+        String sourceUri = schema.getSourceURI();
+        if (StringUtils.hasLength(sourceUri)) {
+            return new UrlResource(sourceUri);
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try {
+            schema.write(bos);
+        }
+        catch (UnsupportedEncodingException ex) {
+            throw new CommonsXsdSchemaException(ex.getMessage(), ex);
+        }
+        return new ByteArrayResource(bos.toByteArray(), "schema {" + getTargetNamespace() + "}");
     }
 
     /** Returns the wrapped Commons <code>XmlSchema</code> object. */
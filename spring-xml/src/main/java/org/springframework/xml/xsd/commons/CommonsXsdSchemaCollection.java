@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,7 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.xml.sax.SaxUtils;
+import org.springframework.xml.validation.SchemaRegistry;
 import org.springframework.xml.validation.XmlValidator;
 import org.springframework.xml.validation.XmlValidatorFactory;
 import org.springframework.xml.xsd.XsdSchema;
@@ -74,6 +75,8 @@ public class CommonsXsdSchemaCollection implements XsdSchemaCollection, Initiali
 
     private ResourceLoader resourceLoader;
 
+    private SchemaRegistry schemaRegistry;
+
     /**
      * Constructs a new, empty instance of the <code>CommonsXsdSchemaCollection</code>.
      * <p/>
@@ -119,6 +122,17 @@ public class CommonsXsdSchemaCollection implements XsdSchemaCollection, Initiali
         this.uriResolver = uriResolver;
     }
 
+    /**
+     * Sets the registry through which the compiled schemas are shared with other validators. By default, the schemas
+     * are compiled for each {@linkplain #createValidator() validator}.
+     *
+     * @param schemaRegistry the schema registry
+     * @since 2.2
+     */
+    public void setSchemaRegistry(SchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
     public void setResourceLoader(ResourceLoader resourceLoader) {
         this.resourceLoader = resourceLoader;
     }
@@ -157,21 +171,19 @@ public class CommonsXsdSchemaCollection implements XsdSchemaCollection, Initiali
         XsdSchema[] result = new XsdSchema[xmlSchemas.size()];
         for (int i = 0; i < xmlSchemas.size(); i++) {
             XmlSchema xmlSchema = xmlSchemas.get(i);
-            result[i] = new CommonsXsdSchema(xmlSchema, schemaCollection);
+            CommonsXsdSchema xsdSchema = new CommonsXsdSchema(xmlSchema, schemaCollection);
+            xsdSchema.setSchemaRegistry(schemaRegistry);
+            result[i] = xsdSchema;
         }
         return result;
     }
 
     public XmlValidator createValidator() throws IOException {
         Resource[] resources = new Resource[xmlSchemas.size()];
-        for (int i = xmlSchemas.size() - 1; i >= 0; i--) {
-            XmlSchema xmlSchema = xmlSchemas.get(i);
-            String sourceUri = xmlSchema.getSourceURI();
-            if (StringUtils.hasLength(sourceUri)) {
-                resources[i] = new UrlResource(sourceUri);
-            }
+        for (int i = 0; i < xmlSchemas.size(); i++) {
+            resources[i] = new CommonsXsdSchema(xmlSchemas.get(i), schemaCollection).getSchemaResource();
         }
-        return XmlValidatorFactory.createValidator(resources, XmlValidatorFactory.SCHEMA_W3C_XML);
+        return XmlValidatorFactory.createValidator(resources, XmlValidatorFactory.SCHEMA_W3C_XML, schemaRegistry);
     }
 
     private void inlineIncludes(XmlSchema schema, Set<XmlSchema> processedIncludes, Set<XmlSchema> processedImports) {
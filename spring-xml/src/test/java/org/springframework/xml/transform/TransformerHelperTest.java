@@ -27,6 +27,7 @@ import org.junit.Test;
 import org.xml.sax.SAXException;
 
 import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
+import static org.junit.Assert.assertEquals;
 
 public class TransformerHelperTest {
 
@@ -48,6 +49,23 @@ public class TransformerHelperTest {
         doTest();
     }
 
+    @Test
+    public void cacheTransformers() throws TransformerException, IOException, SAXException {
+        helper.setCacheTransformers(true);
+        doTest();
+        doTest();
+        assertEquals("Invalid cache misses", 1, helper.getCacheMisses());
+        assertEquals("Invalid cache hits", 1, helper.getCacheHits());
+    }
+
+    @Test
+    public void noCacheTransformers() throws TransformerException, IOException, SAXException {
+        doTest();
+        doTest();
+        assertEquals("Invalid cache misses", 0, helper.getCacheMisses());
+        assertEquals("Invalid cache hits", 0, helper.getCacheHits());
+    }
+
     private void doTest() throws TransformerException, SAXException, IOException {
         String xml = "<root xmlns='http://springframework.org/spring-ws'><child>text</child></root>";
         Source source = new StringSource(xml);
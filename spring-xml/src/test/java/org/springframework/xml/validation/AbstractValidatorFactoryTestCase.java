@@ -18,6 +18,7 @@ package org.springframework.xml.validation;
 
 import java.io.InputStream;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.transform.Source;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.sax.SAXSource;
@@ -25,6 +26,7 @@ import javax.xml.transform.stream.StreamSource;
 
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.util.xml.StaxUtils;
 import org.springframework.xml.transform.ResourceSource;
 
 import org.junit.After;
@@ -75,6 +77,32 @@ public abstract class AbstractValidatorFactoryTestCase {
         validator.validate(new StreamSource(validInputStream));
     }
 
+    @Test
+    public void testValidateInvalidThenValid() throws Exception {
+        SAXParseException[] errors = validator.validate(new StreamSource(invalidInputStream));
+        Assert.assertEquals("ValidationErrors returned", 3, errors.length);
+        errors = validator.validate(new StreamSource(validInputStream));
+        Assert.assertEquals("ValidationErrors returned", 0, errors.length);
+    }
+
+    @Test
+    public void testHandleValidMessageStax() throws Exception {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        Source source = StaxUtils.createStaxSource(inputFactory.createXMLStreamReader(validInputStream));
+        SAXParseException[] errors = validator.validate(source);
+        Assert.assertNotNull("Null returned for errors", errors);
+        Assert.assertEquals("ValidationErrors returned", 0, errors.length);
+    }
+
+    @Test
+    public void testHandleInvalidMessageStax() throws Exception {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        Source source = StaxUtils.createStaxSource(inputFactory.createXMLEventReader(invalidInputStream));
+        SAXParseException[] errors = validator.validate(source);
+        Assert.assertNotNull("Null returned for errors", errors);
+        Assert.assertTrue("No ValidationErrors returned", errors.length > 0);
+    }
+
     @Test
     public void testHandleInvalidMessageStream() throws Exception {
         SAXParseException[] errors = validator.validate(new StreamSource(invalidInputStream));
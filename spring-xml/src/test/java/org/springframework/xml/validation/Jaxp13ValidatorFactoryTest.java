@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,6 @@ public class Jaxp13ValidatorFactoryTest extends AbstractValidatorFactoryTestCase
 
     @Override
     protected XmlValidator createValidator(Resource[] schemaResources, String schemaLanguage) throws IOException {
-        return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage);
+        return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage, null);
     }
 }
\ No newline at end of file
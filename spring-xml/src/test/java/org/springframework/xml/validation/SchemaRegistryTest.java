@@ -0,0 +1,123 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.validation;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SchemaRegistryTest {
+
+    private SchemaRegistry registry;
+
+    private File schemaFile;
+
+    @Before
+    public void setUp() throws Exception {
+        registry = new SchemaRegistry();
+        schemaFile = File.createTempFile("schema", ".xsd");
+        writeSchema("first");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        registry.destroy();
+        schemaFile.delete();
+    }
+
+    @Test
+    public void testSharedSchema() throws Exception {
+        Schema schema1 = registry.getSchema(new Resource[]{new ClassPathResource("schema.xsd", getClass())},
+                XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        Schema schema2 = registry.getSchema(
+                new Resource[]{new ClassPathResource("org/springframework/xml/validation/schema.xsd")},
+                XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        Assert.assertSame("Schema compiled twice", schema1, schema2);
+    }
+
+    @Test
+    public void testResourcesWithoutUrlNotShared() throws Exception {
+        Schema schema1 = registry.getSchema(new Resource[]{new ByteArrayResource(createSchema("first"))},
+                XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        Schema schema2 = registry.getSchema(new Resource[]{new ByteArrayResource(createSchema("second"))},
+                XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        Assert.assertNotSame("Schema shared by description", schema1, schema2);
+        Assert.assertNotNull("Schema not compiled", schema2.newValidator());
+    }
+
+    @Test
+    public void testReloadModifiedSchemas() throws Exception {
+        Resource[] resources = new Resource[]{new FileSystemResource(schemaFile)};
+        Schema schema = registry.getSchema(resources, XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        registry.reloadModifiedSchemas();
+        Assert.assertSame("Unmodified schema reloaded", schema,
+                registry.getSchema(resources, XMLConstants.W3C_XML_SCHEMA_NS_URI));
+
+        writeSchema("second");
+        registry.reloadModifiedSchemas();
+        Schema reloaded = registry.getSchema(resources, XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        Assert.assertNotSame("Modified schema not reloaded", schema, reloaded);
+
+        FileWriter writer = new FileWriter(schemaFile);
+        writer.write("<invalid");
+        writer.close();
+        schemaFile.setLastModified(schemaFile.lastModified() + 10000);
+        registry.reloadModifiedSchemas();
+        Assert.assertSame("Previous schema not kept", reloaded,
+                registry.getSchema(resources, XMLConstants.W3C_XML_SCHEMA_NS_URI));
+    }
+
+    @Test
+    public void testBackgroundReload() throws Exception {
+        Resource[] resources = new Resource[]{new FileSystemResource(schemaFile)};
+        Schema schema = registry.getSchema(resources, XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        registry.setReloadInterval(10);
+        registry.afterPropertiesSet();
+        writeSchema("second");
+        for (int i = 0; i < 500 && schema == registry.getSchema(resources, XMLConstants.W3C_XML_SCHEMA_NS_URI); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertNotSame("Modified schema not reloaded", schema,
+                registry.getSchema(resources, XMLConstants.W3C_XML_SCHEMA_NS_URI));
+    }
+
+    private void writeSchema(String elementName) throws IOException {
+        long lastModified = schemaFile.lastModified();
+        FileWriter writer = new FileWriter(schemaFile);
+        writer.write(new String(createSchema(elementName), "UTF-8"));
+        writer.close();
+        // make sure the modification is noticed on file systems with a coarse timestamp resolution
+        schemaFile.setLastModified(lastModified + 5000);
+    }
+
+    private byte[] createSchema(String elementName) throws IOException {
+        return ("<schema xmlns='http://www.w3.org/2001/XMLSchema' targetNamespace='http://springframework.org'>" +
+                "<element name='" + elementName + "' type='string'/></schema>").getBytes("UTF-8");
+    }
+}
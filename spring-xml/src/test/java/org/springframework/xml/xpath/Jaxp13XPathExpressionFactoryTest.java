@@ -16,10 +16,54 @@
 
 package org.springframework.xml.xpath;
 
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 
 public class Jaxp13XPathExpressionFactoryTest extends AbstractXPathExpressionFactoryTestCase {
 
+    @Test
+    public void testEvaluateConcurrently() throws Exception {
+        final XPathExpression expression = createXPathExpression("/root/child/text/text()");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 32; i++) {
+                final String text = "text" + i;
+                results.add(executor.submit(new Callable<String>() {
+                    public String call() throws Exception {
+                        String xml = "<root><child><text>" + text + "</text></child></root>";
+                        DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+                        Document document = documentBuilder.parse(new InputSource(new StringReader(xml)));
+                        String result = null;
+                        for (int j = 0; j < 100; j++) {
+                            result = expression.evaluateAsString(document);
+                        }
+                        return result;
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals("Invalid result", "text" + i, results.get(i).get());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Override
     protected XPathExpression createXPathExpression(String expression) {
         return Jaxp13XPathExpressionFactory.createXPathExpression(expression);
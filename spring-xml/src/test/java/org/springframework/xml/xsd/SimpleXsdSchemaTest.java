@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,13 @@
 
 package org.springframework.xml.xsd;
 
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.xml.validation.SchemaRegistry;
+import org.springframework.xml.validation.XmlValidatorFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
 
 public class SimpleXsdSchemaTest extends AbstractXsdSchemaTestCase {
 
@@ -27,4 +33,19 @@ public class SimpleXsdSchemaTest extends AbstractXsdSchemaTestCase {
         return schema;
     }
 
+    @Test
+    public void testCreateValidatorSchemaRegistry() throws Exception {
+        Resource resource = new ClassPathResource("single.xsd", AbstractXsdSchemaTestCase.class);
+        SchemaRegistry schemaRegistry = new SchemaRegistry();
+        SimpleXsdSchema schema1 = new SimpleXsdSchema(resource);
+        schema1.setSchemaRegistry(schemaRegistry);
+        schema1.afterPropertiesSet();
+        SimpleXsdSchema schema2 = new SimpleXsdSchema(resource);
+        schema2.setSchemaRegistry(schemaRegistry);
+        schema2.afterPropertiesSet();
+
+        Assert.assertSame("Schema not shared", XmlValidatorFactory.getSchema(schema1.createValidator()),
+                XmlValidatorFactory.getSchema(schema2.createValidator()));
+    }
+
 }
\ No newline at end of file
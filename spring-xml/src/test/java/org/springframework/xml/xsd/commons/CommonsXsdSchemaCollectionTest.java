@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,7 +25,9 @@ import javax.xml.transform.dom.DOMResult;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.xml.sax.SaxUtils;
+import org.springframework.xml.validation.SchemaRegistry;
 import org.springframework.xml.validation.XmlValidator;
+import org.springframework.xml.validation.XmlValidatorFactory;
 import org.springframework.xml.xsd.AbstractXsdSchemaTestCase;
 import org.springframework.xml.xsd.XsdSchema;
 
@@ -119,6 +121,21 @@ public class CommonsXsdSchemaCollectionTest {
         Assert.assertNotNull("No XmlValidator returned", validator);
     }
 
+    @Test
+    public void testCreateValidatorSchemaRegistry() throws Exception {
+        Resource a = new ClassPathResource("A.xsd", AbstractXsdSchemaTestCase.class);
+        SchemaRegistry schemaRegistry = new SchemaRegistry();
+        collection.setXsds(new Resource[]{a});
+        collection.setSchemaRegistry(schemaRegistry);
+        collection.afterPropertiesSet();
+        CommonsXsdSchemaCollection otherCollection = new CommonsXsdSchemaCollection(new Resource[]{a});
+        otherCollection.setSchemaRegistry(schemaRegistry);
+        otherCollection.afterPropertiesSet();
+
+        Assert.assertSame("Schema not shared", XmlValidatorFactory.getSchema(collection.createValidator()),
+                XmlValidatorFactory.getSchema(otherCollection.createValidator()));
+    }
+
     @Test
     public void testInvalidSchema() throws Exception {
         Resource invalid = new ClassPathResource("invalid.xsd", AbstractXsdSchemaTestCase.class);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,13 @@
 
 package org.springframework.xml.xsd.commons;
 
+import java.io.InputStreamReader;
 import javax.xml.transform.dom.DOMSource;
 
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.xml.sax.SaxUtils;
+import org.springframework.xml.validation.XmlValidator;
 import org.springframework.xml.xsd.AbstractXsdSchemaTestCase;
 import org.springframework.xml.xsd.XsdSchema;
 
@@ -32,6 +34,7 @@ import org.w3c.dom.Element;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class CommonsXsdSchemaTest extends AbstractXsdSchemaTestCase {
 
@@ -55,5 +58,14 @@ public class CommonsXsdSchemaTest extends AbstractXsdSchemaTestCase {
                 elementElement.getAttributeNS("http://www.w3.org/2005/05/xmlmime", "expectedContentTypes"));
     }
 
+    @Test
+    public void testCreateValidatorNoSourceUri() throws Exception {
+        Resource resource = new ClassPathResource("single.xsd", AbstractXsdSchemaTestCase.class);
+        XmlSchemaCollection schemaCollection = new XmlSchemaCollection();
+        XmlSchema schema = schemaCollection.read(new InputStreamReader(resource.getInputStream(), "UTF-8"));
+        assertNull("Source URI set", schema.getSourceURI());
+        XmlValidator validator = new CommonsXsdSchema(schema).createValidator();
+        assertNotNull("No XmlValidator returned", validator);
+    }
 
 }
\ No newline at end of file